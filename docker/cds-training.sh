@@ -0,0 +1,50 @@
+#!/bin/sh
+# Entrenamiento AppCDS: arranca la aplicación, ejercita los endpoints de
+# ProductController y, al detenerla, la JVM vuelca el archivo de clases compartidas.
+#
+# Uso: cds-training.sh <jar> <archivo.jsa> [puerto]
+set -e
+
+JAR="$1"
+ARCHIVE="$2"
+PORT="${3:-8080}"
+BASE="http://localhost:${PORT}/api/v1/products"
+
+java -XX:ArchiveClassesAtExit="$ARCHIVE" -Dserver.port="$PORT" \
+     -Dlogging.level.com.eafit.tutorial=INFO -jar "$JAR" > cds-training.log 2>&1 &
+APP_PID=$!
+
+# Esperar a que la API responda
+for i in $(seq 1 120); do
+    if curl -sf "$BASE" > /dev/null 2>&1; then
+        break
+    fi
+    sleep 1
+done
+
+json='Content-Type: application/json'
+curl -sf -X POST "$BASE" -H "$json" \
+     -d '{"name":"Laptop Entrenamiento","description":"CDS","price":1500.00,"category":"Electronicos","stock":10}' > /dev/null
+curl -sf -X POST "$BASE" -H "$json" \
+     -d '{"name":"Libro Entrenamiento","price":40.00,"category":"Libros","stock":3}' > /dev/null
+curl -sf "$BASE?unpaged=true" > /dev/null
+curl -sf "$BASE?page=0&size=5&sort=price&direction=desc" > /dev/null
+curl -sf "$BASE/1" > /dev/null
+curl -s  "$BASE/999" > /dev/null
+curl -sf "$BASE?ids=1,2,999" > /dev/null
+curl -sf -X POST "$BASE/batch" -H "$json" -d '{"ids":[2,1]}' > /dev/null
+curl -sf "$BASE/category/Libros" > /dev/null
+curl -sf "$BASE/price-range?minPrice=10&maxPrice=2000" > /dev/null
+curl -sf "$BASE/search?name=laptop" > /dev/null
+curl -sf "$BASE/low-stock?minStock=5" > /dev/null
+curl -sf -X PATCH "$BASE/1/stock?stock=7" > /dev/null
+curl -sf -X PUT "$BASE/2" -H "$json" \
+     -d '{"name":"Libro Entrenamiento","price":45.00,"category":"Libros","stock":4}' > /dev/null
+curl -s  -X POST "$BASE" -H "$json" -d '{"name":""}' > /dev/null
+curl -sf -X DELETE "$BASE/2" > /dev/null
+
+# Parada ordenada: el archivo se escribe al salir la JVM
+kill -TERM "$APP_PID"
+wait "$APP_PID" || true
+
+test -s "$ARCHIVE"
@@ -2,8 +2,12 @@ package com.eafit.tutorial.Artifact.products_api;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
-@SpringBootApplication
+@SpringBootApplication(scanBasePackages = "com.eafit.tutorial")
+@EnableJpaRepositories(basePackages = "com.eafit.tutorial.repository")
+@EntityScan(basePackages = "com.eafit.tutorial.model")
 public class ArtifactProductsApiApplication {
 
 	public static void main(String[] args) {
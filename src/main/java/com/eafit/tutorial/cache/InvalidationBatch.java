@@ -0,0 +1,15 @@
+package com.eafit.tutorial.cache;
+
+import java.util.List;
+
+/**
+ * Lote de invalidaciones que un nodo envía al resto
+ *
+ * sequence crece con cada lote del nodo; sirve para detectar lotes perdidos.
+ */
+public record InvalidationBatch(String node, long sequence, List<ProductInvalidation> invalidations) {
+
+    public InvalidationBatch {
+        invalidations = List.copyOf(invalidations);
+    }
+}
@@ -0,0 +1,151 @@
+package com.eafit.tutorial.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Bus de invalidaciones de productos entre nodos
+ *
+ * Cada invalidación se aplica en el acto a los receptores locales (cachés del
+ * propio nodo) y se encola para el resto; un hilo la envía agrupada en lotes
+ * de hasta max-batch cada flush-interval. Los lotes recibidos de otros nodos
+ * se aplican a los mismos receptores; los del propio nodo se ignoran.
+ */
+public class InvalidationBus implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvalidationBus.class);
+
+    private final InvalidationTransport transport;
+    private final String nodeId;
+    private final int maxBatch;
+    private final List<Consumer<ProductInvalidation>> listeners = new CopyOnWriteArrayList<>();
+    private final Queue<ProductInvalidation> outbox = new ConcurrentLinkedQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "invalidation-bus");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public InvalidationBus(InvalidationTransport transport, String nodeId, Duration flushInterval, int maxBatch) {
+        this.transport = transport;
+        this.nodeId = nodeId;
+        this.maxBatch = maxBatch;
+        transport.subscribe(this::receive);
+        long interval = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Registra un receptor de invalidaciones locales y remotas
+     */
+    public void addListener(Consumer<ProductInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Publica la invalidación cuando la transacción en curso confirma (o ya, si no hay)
+     *
+     * Se construye después del commit para que lleve el updated_at definitivo.
+     */
+    public void publishAfterCommit(Supplier<ProductInvalidation> invalidation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(invalidation.get());
+                }
+            });
+        } else {
+            publish(invalidation.get());
+        }
+    }
+
+    /**
+     * Aplica la invalidación en este nodo y la encola para los demás
+     */
+    public void publish(ProductInvalidation invalidation) {
+        apply(invalidation);
+        outbox.add(invalidation);
+    }
+
+    /**
+     * Envía lo pendiente en lotes de hasta max-batch invalidaciones
+     */
+    void flush() {
+        while (!outbox.isEmpty()) {
+            List<ProductInvalidation> batch = new ArrayList<>(Math.min(maxBatch, outbox.size()));
+            ProductInvalidation next;
+            while (batch.size() < maxBatch && (next = outbox.poll()) != null) {
+                batch.add(next);
+            }
+            if (!batch.isEmpty()) {
+                transport.publish(new InvalidationBatch(nodeId, sequence.incrementAndGet(), batch));
+            }
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Lo no enviado caduca por TTL en las cachés remotas
+            logger.warn("No se pudo enviar un lote de invalidaciones: {}", e.getMessage());
+        }
+    }
+
+    private void receive(InvalidationBatch batch) {
+        if (nodeId.equals(batch.node())) {
+            return;
+        }
+        received.addAndGet(batch.invalidations().size());
+        batch.invalidations().forEach(this::apply);
+    }
+
+    private void apply(ProductInvalidation invalidation) {
+        for (Consumer<ProductInvalidation> listener : listeners) {
+            listener.accept(invalidation);
+        }
+    }
+
+    /**
+     * Invalidaciones recibidas de otros nodos
+     */
+    public long receivedCount() {
+        return received.get();
+    }
+
+    /**
+     * Lotes enviados por este nodo
+     */
+    public long sentBatches() {
+        return sequence.get();
+    }
+
+    @Override
+    public void destroy() {
+        flusher.shutdownNow();
+        flushSafely();
+    }
+}
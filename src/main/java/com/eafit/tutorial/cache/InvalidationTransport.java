@@ -0,0 +1,23 @@
+package com.eafit.tutorial.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Transporte de lotes de invalidación entre nodos
+ *
+ * Una implementación real (Redis pub/sub, un topic de mensajería...) se
+ * registra como bean y sustituye a LoopbackInvalidationTransport. Puede
+ * entregar también los lotes del propio nodo; InvalidationBus los ignora.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Envía un lote a todos los nodos; no debe bloquear mucho tiempo
+     */
+    void publish(InvalidationBatch batch);
+
+    /**
+     * Registra el receptor de los lotes de todos los nodos
+     */
+    void subscribe(Consumer<InvalidationBatch> listener);
+}
@@ -0,0 +1,37 @@
+package com.eafit.tutorial.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transporte dentro de la JVM: entrega cada lote a todos los suscriptores
+ *
+ * Con un solo nodo no sale de la aplicación; en pruebas, varios buses que
+ * comparten una instancia se comportan como nodos distintos.
+ */
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoopbackInvalidationTransport.class);
+
+    private final List<Consumer<InvalidationBatch>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(InvalidationBatch batch) {
+        for (Consumer<InvalidationBatch> listener : listeners) {
+            try {
+                listener.accept(batch);
+            } catch (RuntimeException e) {
+                logger.warn("Error entregando el lote {} del nodo {}", batch.sequence(), batch.node(), e);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationBatch> listener) {
+        listeners.add(listener);
+    }
+}
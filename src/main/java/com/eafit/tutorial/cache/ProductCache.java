@@ -0,0 +1,207 @@
+package com.eafit.tutorial.cache;
+
+import com.eafit.tutorial.model.Product;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Caché local de productos activos por ID y de listados por categoría
+ *
+ * Coherente entre nodos a través de InvalidationBus:
+ * - Una invalidación descarta las entradas con versión menor que la suya; las
+ *   de versión igual o mayor ya incluyen ese cambio.
+ * - Una carga que empezó antes de una invalidación no se guarda (contador de
+ *   generación), ni un producto más viejo que la última invalidación vista de
+ *   su ID, ni un listado de una categoría invalidada hace menos de
+ *   mark-retention (p. ej. leído de una réplica retrasada).
+ * - ttl acota lo que puede durar una entrada si se pierde un mensaje.
+ *
+ * Por encima de max-entries se descartan las entradas más antiguas, empezando
+ * por las caducadas. Como el ttl es fijo, el orden de guardado es también el
+ * de caducidad y basta una cola FIFO para ambas cosas (como en IdempotencyStore).
+ *
+ * Las instancias cacheadas se comparten entre peticiones: son de solo lectura.
+ */
+public class ProductCache implements Consumer<ProductInvalidation> {
+
+    private record Entry<V>(V value, long version, String category, long expiresAt) {}
+
+    /**
+     * Orden de guardado de un mapa de entradas, para caducarlas y acotarlas
+     *
+     * Las entradas ya invalidadas o sustituidas siguen en la cola hasta llegar
+     * a la cabeza y cuentan para el límite; remove(key, entry) no toca la
+     * entrada que las sustituyó.
+     */
+    private static final class Fifo<K, V> {
+
+        private record Slot<K, V>(K key, Entry<V> entry) {}
+
+        private final Map<K, Entry<V>> entries;
+        private final int maxEntries;
+        private final Queue<Slot<K, V>> order = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger count = new AtomicInteger();
+
+        Fifo(Map<K, Entry<V>> entries, int maxEntries) {
+            this.entries = entries;
+            this.maxEntries = maxEntries;
+        }
+
+        void put(K key, Entry<V> entry, long now) {
+            Slot<K, V> head;
+            while ((head = order.peek()) != null && head.entry().expiresAt() - now < 0) {
+                if (order.remove(head)) {
+                    count.decrementAndGet();
+                    entries.remove(head.key(), head.entry());
+                }
+            }
+
+            entries.put(key, entry);
+            order.add(new Slot<>(key, entry));
+            count.incrementAndGet();
+
+            while (count.get() > maxEntries) {
+                Slot<K, V> oldest = order.poll();
+                if (oldest == null) {
+                    break;
+                }
+                count.decrementAndGet();
+                entries.remove(oldest.key(), oldest.entry());
+            }
+        }
+    }
+
+    private record Mark(long version, long at) {
+        Mark max(Mark other) {
+            return new Mark(Math.max(version, other.version), Math.max(at, other.at));
+        }
+    }
+
+    private static final int PURGE_EVERY = 256;
+
+    private final long ttlNanos;
+    private final long markRetentionNanos;
+
+    private final Map<Long, Entry<Product>> products = new ConcurrentHashMap<>();
+    private final Map<String, Entry<List<Product>>> categories = new ConcurrentHashMap<>();
+    private final Fifo<Long, Product> productOrder;
+    private final Fifo<String, List<Product>> categoryOrder;
+    private final Map<Long, Mark> productMarks = new ConcurrentHashMap<>();
+    private final Map<String, Mark> categoryMarks = new ConcurrentHashMap<>();
+    private volatile Mark allCategoriesMark;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProductCache(Duration ttl, Duration markRetention, int maxEntries) {
+        this.ttlNanos = ttl.toNanos();
+        this.markRetentionNanos = markRetention.toNanos();
+        this.productOrder = new Fifo<>(products, maxEntries);
+        this.categoryOrder = new Fifo<>(categories, maxEntries);
+    }
+
+    /**
+     * Generación actual; se toma antes de cargar y se pasa al guardar
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public Product getProduct(Long id) {
+        Entry<Product> entry = products.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() - System.nanoTime() < 0) {
+            products.remove(id, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    public void putProduct(Product product, long loadedAtGeneration) {
+        long version = ProductInvalidation.versionOf(product.getUpdatedAt());
+        Mark mark = productMarks.get(product.getId());
+        if (generation.get() != loadedAtGeneration || (mark != null && version < mark.version())) {
+            return;
+        }
+        long now = System.nanoTime();
+        productOrder.put(product.getId(), new Entry<>(product, version,
+            ProductInvalidation.normalize(product.getCategory()), now + ttlNanos), now);
+    }
+
+    public List<Product> getCategory(String category) {
+        String key = ProductInvalidation.normalize(category);
+        Entry<List<Product>> entry = categories.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() - System.nanoTime() < 0) {
+            categories.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    public void putCategory(String category, List<Product> list, long loadedAtGeneration) {
+        String key = ProductInvalidation.normalize(category);
+        long now = System.nanoTime();
+        if (generation.get() != loadedAtGeneration || recentlyInvalidated(categoryMarks.get(key), now)
+                || recentlyInvalidated(allCategoriesMark, now)) {
+            return;
+        }
+        long version = 0;
+        for (Product product : list) {
+            version = Math.max(version, ProductInvalidation.versionOf(product.getUpdatedAt()));
+        }
+        categoryOrder.put(key, new Entry<>(List.copyOf(list), version, key, now + ttlNanos), now);
+    }
+
+    private boolean recentlyInvalidated(Mark mark, long now) {
+        return mark != null && now - mark.at() < markRetentionNanos;
+    }
+
+    @Override
+    public void accept(ProductInvalidation invalidation) {
+        long version = invalidation.version();
+        long now = System.nanoTime();
+        Mark mark = new Mark(version, now);
+        long current = generation.incrementAndGet();
+
+        for (Long id : invalidation.productIds()) {
+            productMarks.merge(id, mark, Mark::max);
+            products.computeIfPresent(id, (key, entry) -> entry.version() < version ? null : entry);
+        }
+        Set<String> invalidatedCategories = invalidation.categories();
+        for (String category : invalidatedCategories) {
+            categoryMarks.merge(category, mark, Mark::max);
+            categories.computeIfPresent(category, (key, entry) -> entry.version() < version ? null : entry);
+        }
+        if (!invalidatedCategories.isEmpty()) {
+            // Cambios por categoría completa: también los productos sueltos de esas categorías
+            products.values().removeIf(entry ->
+                invalidatedCategories.contains(entry.category()) && entry.version() < version);
+        }
+        if (invalidation.allCategories()) {
+            Mark previous = allCategoriesMark;
+            allCategoriesMark = previous == null ? mark : previous.max(mark);
+            categories.values().removeIf(entry -> entry.version() < version);
+        }
+
+        if (current % PURGE_EVERY == 0) {
+            productMarks.values().removeIf(m -> now - m.at() >= ttlNanos);
+            categoryMarks.values().removeIf(m -> now - m.at() >= ttlNanos);
+        }
+    }
+
+    public int size() {
+        return products.size() + categories.size();
+    }
+}
@@ -0,0 +1,46 @@
+package com.eafit.tutorial.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Bus de invalidaciones (siempre activo) y caché local de productos (products.cache.enabled=true)
+ *
+ * Sin otro InvalidationTransport registrado se usa el de bucle local, válido
+ * para un único nodo y para pruebas; con varios nodos hay que aportar uno real.
+ */
+@Configuration
+public class ProductCacheConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public InvalidationTransport invalidationTransport() {
+        return new LoopbackInvalidationTransport();
+    }
+
+    @Bean
+    public InvalidationBus invalidationBus(InvalidationTransport transport,
+                                           @Value("${products.cache.node-id:}") String nodeId,
+                                           @Value("${products.cache.flush-interval:PT0.05S}") Duration flushInterval,
+                                           @Value("${products.cache.max-batch:500}") int maxBatch) {
+        String node = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        return new InvalidationBus(transport, node, flushInterval, maxBatch);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "products.cache.enabled", havingValue = "true")
+    public ProductCache productCache(InvalidationBus invalidationBus,
+                                     @Value("${products.cache.ttl:PT1M}") Duration ttl,
+                                     @Value("${products.cache.mark-retention:PT5S}") Duration markRetention,
+                                     @Value("${products.cache.max-entries:10000}") int maxEntries) {
+        ProductCache cache = new ProductCache(ttl, markRetention, maxEntries);
+        invalidationBus.addListener(cache);
+        return cache;
+    }
+}
@@ -0,0 +1,68 @@
+package com.eafit.tutorial.cache;
+
+import com.eafit.tutorial.model.Product;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Invalidación de productos y categorías tras una escritura
+ *
+ * version es el updated_at que dejó la escritura (en microsegundos): una copia
+ * cacheada con una versión igual o mayor ya refleja el cambio y no se descarta,
+ * así que un mensaje que llega tarde no expulsa datos más nuevos. Las
+ * categorías van normalizadas (minúsculas) porque se consultan sin distinguir
+ * mayúsculas; allCategories cubre escrituras cuyas categorías no se conocen.
+ */
+public record ProductInvalidation(Set<Long> productIds, Set<String> categories,
+                                  boolean allCategories, long version) {
+
+    public ProductInvalidation {
+        productIds = Set.copyOf(productIds);
+        categories = Set.copyOf(categories);
+    }
+
+    /**
+     * Un producto escrito, su categoría actual y las que tuviera antes
+     */
+    public static ProductInvalidation forProduct(Product product, String... previousCategories) {
+        Set<String> categories = new LinkedHashSet<>();
+        categories.add(normalize(product.getCategory()));
+        for (String previous : previousCategories) {
+            categories.add(normalize(previous));
+        }
+        categories.remove(null);
+        return new ProductInvalidation(Set.of(product.getId()), categories, false, versionOf(product.getUpdatedAt()));
+    }
+
+    /**
+     * Varios productos de categorías desconocidas (cambios en bloque por ID)
+     */
+    public static ProductInvalidation forProducts(Collection<Long> ids, LocalDateTime updatedAt) {
+        return new ProductInvalidation(Set.copyOf(ids), Set.of(), true, versionOf(updatedAt));
+    }
+
+    /**
+     * Una categoría completa (incluye los productos cacheados de esa categoría)
+     */
+    public static ProductInvalidation forCategory(String category, LocalDateTime updatedAt) {
+        return new ProductInvalidation(Set.of(), Set.of(Objects.requireNonNull(normalize(category))), false,
+            versionOf(updatedAt));
+    }
+
+    public static long versionOf(LocalDateTime updatedAt) {
+        if (updatedAt == null) {
+            return Long.MAX_VALUE;
+        }
+        return updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + updatedAt.getNano() / 1_000;
+    }
+
+    public static String normalize(String category) {
+        return category == null ? null : category.trim().toLowerCase(Locale.ROOT);
+    }
+}
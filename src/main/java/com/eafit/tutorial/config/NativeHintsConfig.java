@@ -0,0 +1,109 @@
+package com.eafit.tutorial.config;
+
+import com.eafit.tutorial.dto.ApiResponse;
+import com.eafit.tutorial.dto.ArchiveRunResult;
+import com.eafit.tutorial.dto.ArchivedProductDTO;
+import com.eafit.tutorial.dto.BatchProductResponse;
+import com.eafit.tutorial.dto.BulkActivationRequest;
+import com.eafit.tutorial.dto.BulkActivationResponse;
+import com.eafit.tutorial.dto.CreateProductDTO;
+import com.eafit.tutorial.dto.CreateReservationDTO;
+import com.eafit.tutorial.dto.ErrorResponse;
+import com.eafit.tutorial.dto.FacetedSearchDTO;
+import com.eafit.tutorial.dto.ImportJobDTO;
+import com.eafit.tutorial.dto.ImportRowError;
+import com.eafit.tutorial.dto.PagedResponse;
+import com.eafit.tutorial.dto.PriceHistoryDTO;
+import com.eafit.tutorial.dto.ProductDTO;
+import com.eafit.tutorial.dto.ProductIdsRequest;
+import com.eafit.tutorial.dto.ReservationDTO;
+import com.eafit.tutorial.dto.StockAvailabilityDTO;
+import com.eafit.tutorial.dto.StockDecrementRequest;
+import com.eafit.tutorial.dto.UpdateProductDTO;
+import com.eafit.tutorial.model.Product;
+import com.eafit.tutorial.util.ProductRuleDefinition;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Pistas de reflexión y recursos para la imagen nativa de GraalVM
+ *
+ * Registra las clases que Jackson, Hibernate y springdoc inspeccionan por
+ * reflexión y los recursos estáticos que deben incluirse en el binario.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.ProductsApiRuntimeHints.class)
+public class NativeHintsConfig {
+
+    static class ProductsApiRuntimeHints implements RuntimeHintsRegistrar {
+
+        private static final Class<?>[] JSON_TYPES = {
+            ApiResponse.class,
+            ArchiveRunResult.class,
+            ArchivedProductDTO.class,
+            BatchProductResponse.class,
+            BulkActivationRequest.class,
+            BulkActivationResponse.class,
+            CreateProductDTO.class,
+            CreateReservationDTO.class,
+            ErrorResponse.class,
+            FacetedSearchDTO.class,
+            FacetedSearchDTO.CategoryFacet.class,
+            FacetedSearchDTO.PriceBucketFacet.class,
+            ImportJobDTO.class,
+            ImportRowError.class,
+            PagedResponse.class,
+            PagedResponse.PageMetadata.class,
+            PriceHistoryDTO.class,
+            PriceHistoryDTO.PricePoint.class,
+            ProductDTO.class,
+            ProductIdsRequest.class,
+            ReservationDTO.class,
+            StockAvailabilityDTO.class,
+            StockDecrementRequest.class,
+            StockDecrementRequest.Line.class,
+            UpdateProductDTO.class,
+            Product.class,
+            ProductRuleDefinition.class,
+            ProductRuleDefinition.CategoryRule.class
+        };
+
+        // Modelos de OpenAPI construidos en OpenApiConfig y serializados por Jackson
+        private static final String[] OPENAPI_MODEL_TYPES = {
+            "io.swagger.v3.oas.models.OpenAPI",
+            "io.swagger.v3.oas.models.Components",
+            "io.swagger.v3.oas.models.examples.Example",
+            "io.swagger.v3.oas.models.media.Content",
+            "io.swagger.v3.oas.models.media.MediaType",
+            "io.swagger.v3.oas.models.media.Schema",
+            "io.swagger.v3.oas.models.responses.ApiResponse"
+        };
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (Class<?> type : JSON_TYPES) {
+                hints.reflection().registerType(type,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS,
+                    MemberCategory.DECLARED_FIELDS);
+            }
+
+            for (String typeName : OPENAPI_MODEL_TYPES) {
+                hints.reflection().registerTypeIfPresent(classLoader, typeName,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+
+            hints.resources()
+                .registerPattern("application.yml")
+                .registerPattern("application-*.yml")
+                .registerPattern("product-rules.yml")
+                // Incluye static/openapi/, donde el build deja el documento precomprimido
+                .registerPattern("static/**")
+                .registerPattern("META-INF/resources/webjars/swagger-ui/**");
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.eafit.tutorial.config;
 
 import io.swagger.v3.oas.models.examples.Example;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -10,6 +11,7 @@ import java.util.Map;
  * Configuración de ejemplos reutilizables para OpenAPI
  */
 @Configuration
+@ConditionalOnProperty(name = "springdoc.api-docs.enabled", havingValue = "true", matchIfMissing = true)
 public class OpenApiExamples {
 
     @Bean
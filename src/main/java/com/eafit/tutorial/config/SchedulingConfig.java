@@ -0,0 +1,12 @@
+package com.eafit.tutorial.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (recarga de reglas, trabajos en segundo plano)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,113 @@
+package com.eafit.tutorial.controller;
+
+import com.eafit.tutorial.dto.ApiResponse;
+import com.eafit.tutorial.dto.ArchiveRunResult;
+import com.eafit.tutorial.dto.ArchivedProductDTO;
+import com.eafit.tutorial.dto.PagedResponse;
+import com.eafit.tutorial.exception.ProductNotFoundException;
+import com.eafit.tutorial.model.ArchivedProduct;
+import com.eafit.tutorial.service.ProductArchiveService;
+import com.eafit.tutorial.util.ProductMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST para consultar el archivo de productos dados de baja
+ *
+ * Los productos archivados no aparecen en /api/v1/products; solo se leen aquí.
+ * No existe con shards, igual que el archivado.
+ */
+@RestController
+@RequestMapping("/api/v1/products/archive")
+@ConditionalOnProperty(name = "products.sharding.enabled", havingValue = "false", matchIfMissing = true)
+@Validated
+@Tag(name = "Products - Archive", description = "Consulta de productos archivados")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ProductArchiveController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductArchiveController.class);
+
+    @Autowired
+    private ProductArchiveService productArchiveService;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    /**
+     * Lista productos archivados, los más recientes primero
+     */
+    @Operation(summary = "Listar productos archivados", description = "Paginado por fecha de archivado descendente, con filtro opcional por categoría")
+    @GetMapping
+    public ResponseEntity<ApiResponse<PagedResponse<ArchivedProductDTO>>> getArchivedProducts(
+            @Parameter(description = "Categoría", example = "Libros")
+            @RequestParam(value = "category", required = false) String category,
+
+            @Parameter(description = "Número de página (base 0)", example = "0")
+            @RequestParam(value = "page", defaultValue = "0") @Min(0) int page,
+
+            @Parameter(description = "Tamaño de página", example = "20")
+            @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(200) int size) {
+
+        logger.debug("GET /api/v1/products/archive - category: {}, page: {}, size: {}", category, page, size);
+
+        PageRequest pageable = PageRequest.of(page, size,
+            Sort.by(Sort.Direction.DESC, "archivedAt").and(Sort.by("id")));
+        Page<ArchivedProductDTO> archived = productArchiveService.getArchivedProducts(category, pageable)
+            .map(productMapper::toArchivedDTO);
+
+        return ResponseEntity.ok(ApiResponse.success(PagedResponse.of(archived),
+            "Productos archivados obtenidos exitosamente"));
+    }
+
+    /**
+     * Obtiene un producto archivado por su ID original
+     */
+    @Operation(summary = "Obtener producto archivado", description = "Recupera un producto archivado por el ID que tenía en el catálogo")
+    @ApiResponses({
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Producto archivado encontrado"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "No hay producto archivado con ese ID")
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<ArchivedProductDTO>> getArchivedProduct(
+            @Parameter(description = "ID del producto", example = "1", required = true)
+            @PathVariable @Min(1) Long id) {
+
+        logger.debug("GET /api/v1/products/archive/{}", id);
+
+        ArchivedProduct product = productArchiveService.getArchivedProduct(id)
+            .orElseThrow(() -> new ProductNotFoundException("Producto archivado no encontrado con ID: " + id));
+
+        return ResponseEntity.ok(ApiResponse.success(productMapper.toArchivedDTO(product),
+            "Producto archivado encontrado exitosamente"));
+    }
+
+    /**
+     * Lanza una pasada de archivado sin esperar a la programada
+     */
+    @Operation(summary = "Ejecutar archivado", description = "Archiva ahora los productos inactivos más antiguos que el periodo de retención")
+    @ApiResponses({
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Pasada completada"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Ya hay una pasada en curso")
+    })
+    @PostMapping("/run")
+    public ResponseEntity<ApiResponse<ArchiveRunResult>> runArchive() {
+        logger.debug("POST /api/v1/products/archive/run");
+
+        ArchiveRunResult result = productArchiveService.archiveExpired();
+        return ResponseEntity.ok(ApiResponse.success(result, "Pasada de archivado completada"));
+    }
+}
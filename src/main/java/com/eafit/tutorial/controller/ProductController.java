@@ -1,9 +1,12 @@
 package com.eafit.tutorial.controller;
 
 import com.eafit.tutorial.dto.*;
+import com.eafit.tutorial.exception.ProductNotFoundException;
 import com.eafit.tutorial.model.Product;
+import com.eafit.tutorial.service.FacetedSearchService;
 import com.eafit.tutorial.service.ProductService;
 import com.eafit.tutorial.util.ProductMapper;
+import com.eafit.tutorial.util.ProductValidator;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,6 +17,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.models.examples.Example;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,8 +32,13 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Controlador REST para productos
@@ -66,6 +75,12 @@ public class ProductController {
     @Autowired
     private ProductMapper productMapper;
 
+    @Autowired
+    private ProductValidator productValidator;
+
+    @Autowired
+    private FacetedSearchService facetedSearchService;
+
 
 
 
@@ -188,37 +203,31 @@ description = """
         logger.debug("GET /api/v1/products - page: {}, size: {}, sort: {}, direction: {}, unpaged: {}",
                     page, size, sortField, sortDirection, unpaged);
 
-        try {
-            if (unpaged) {
-                // Respuesta simple sin paginación
-                List<Product> products = productService.getAllProducts();
-                List<ProductDTO> productDTOs = productMapper.toDTOList(products);
-
-                return ResponseEntity.ok(
-                    com.eafit.tutorial.dto.ApiResponse.success(productDTOs,
-                        "Productos obtenidos exitosamente")
-                );
-            } else {
-                // Respuesta paginada
-                Sort.Direction direction = sortDirection.equalsIgnoreCase("desc")
-                    ? Sort.Direction.DESC : Sort.Direction.ASC;
-                Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortField));
-
-                Page<Product> productPage = productService.getAllProducts(pageable);
-                Page<ProductDTO> productDTOPage = productPage.map(productMapper::toDTO);
-
-                PagedResponse<ProductDTO> pagedResponse = PagedResponse.of(productDTOPage);
-
-                return ResponseEntity.ok(
-                    com.eafit.tutorial.dto.ApiResponse.success(pagedResponse,
-                        "Productos paginados obtenidos exitosamente")
-                );
-            }
-        } catch (Exception e) {
-            logger.error("Error al obtener productos", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(com.eafit.tutorial.dto.ApiResponse.error("Error interno del servidor"));
+        if (unpaged) {
+            // Respuesta simple sin paginación
+            List<Product> products = productService.getAllProducts();
+            List<ProductDTO> productDTOs = productMapper.toDTOList(products);
+
+            return ResponseEntity.ok(
+                com.eafit.tutorial.dto.ApiResponse.success(productDTOs,
+                    "Productos obtenidos exitosamente")
+            );
         }
+
+        // Respuesta paginada
+        Sort.Direction direction = sortDirection.equalsIgnoreCase("desc")
+            ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortField));
+
+        Page<Product> productPage = productService.getAllProducts(pageable);
+        Page<ProductDTO> productDTOPage = productPage.map(productMapper::toDTO);
+
+        PagedResponse<ProductDTO> pagedResponse = PagedResponse.of(productDTOPage);
+
+        return ResponseEntity.ok(
+            com.eafit.tutorial.dto.ApiResponse.success(pagedResponse,
+                "Productos paginados obtenidos exitosamente")
+        );
     }
 
 
@@ -245,25 +254,85 @@ description = """
 
         logger.debug("GET /api/v1/products/{}", id);
 
-        try {
-            Optional<Product> product = productService.getProductById(id);
-
-            if (product.isPresent()) {
-                ProductDTO productDTO = productMapper.toDTO(product.get());
-                return ResponseEntity.ok(
-                    com.eafit.tutorial.dto.ApiResponse.success(productDTO,
-                        "Producto encontrado exitosamente")
-                );
-            } else {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(com.eafit.tutorial.dto.ApiResponse.error(
-                        "Producto no encontrado con ID: " + id, 404));
+        Product product = productService.getProductById(id)
+            .orElseThrow(() -> new ProductNotFoundException(id));
+
+        ProductDTO productDTO = productMapper.toDTO(product);
+        return ResponseEntity.ok(
+            com.eafit.tutorial.dto.ApiResponse.success(productDTO,
+                "Producto encontrado exitosamente")
+        );
+    }
+
+    /**
+     * Obtiene varios productos por ID en una sola petición
+     */
+    @Operation(
+        summary = "Obtener productos por lista de IDs",
+        description = """
+            Resuelve hasta 500 productos con una única consulta, conservando el orden de la petición.
+            Los IDs inexistentes o inactivos se reportan en `missingIds` sin hacer fallar la llamada.
+
+            ```
+            GET /api/v1/products?ids=1,2,3
+            ```
+            """
+    )
+    @Tag(name = "Products - CRUD Operations", description = "Operaciones básicas CRUD")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Consulta múltiple resuelta"),
+        @ApiResponse(responseCode = "400", description = "Lista de IDs inválida o demasiado larga"),
+        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    @GetMapping(params = "ids")
+    public ResponseEntity<com.eafit.tutorial.dto.ApiResponse<BatchProductResponse>> getProductsByIds(
+            @Parameter(description = "IDs separados por coma", example = "1,2,3", required = true)
+            @RequestParam("ids") List<Long> ids) {
+
+        logger.debug("GET /api/v1/products?ids - {} IDs", ids.size());
+        return resolveProductsByIds(ids);
+    }
+
+    /**
+     * Obtiene varios productos por ID enviando la lista en el cuerpo
+     */
+    @Operation(
+        summary = "Obtener productos por lista de IDs (cuerpo)",
+        description = "Variante POST de la consulta múltiple para listas de IDs demasiado largas para la URL"
+    )
+    @Tag(name = "Products - CRUD Operations", description = "Operaciones básicas CRUD")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Consulta múltiple resuelta"),
+        @ApiResponse(responseCode = "400", description = "Lista de IDs inválida o demasiado larga"),
+        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<com.eafit.tutorial.dto.ApiResponse<BatchProductResponse>> getProductsByIdsBody(
+            @Parameter(description = "Lista de IDs a consultar", required = true)
+            @Valid @RequestBody ProductIdsRequest request) {
+
+        logger.debug("POST /api/v1/products/batch - {} IDs", request.getIds().size());
+        return resolveProductsByIds(request.getIds());
+    }
+
+    private ResponseEntity<com.eafit.tutorial.dto.ApiResponse<BatchProductResponse>> resolveProductsByIds(List<Long> ids) {
+        List<Product> products = productService.getProductsByIds(ids);
+
+        Set<Long> foundIds = new HashSet<>();
+        for (Product product : products) {
+            foundIds.add(product.getId());
+        }
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            if (id != null && !foundIds.contains(id)) {
+                missingIds.add(id);
             }
-        } catch (Exception e) {
-            logger.error("Error al obtener producto con ID: {}", id, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(com.eafit.tutorial.dto.ApiResponse.error("Error interno del servidor"));
         }
+
+        BatchProductResponse response = new BatchProductResponse(productMapper.toDTOList(products), missingIds);
+        return ResponseEntity.ok(
+            com.eafit.tutorial.dto.ApiResponse.success(response,
+                String.format("%d de %d productos encontrados", products.size(), foundIds.size() + missingIds.size())));
     }
 
     /**
@@ -337,26 +406,15 @@ description = """
 
         logger.debug("POST /api/v1/products - name: {}", createProductDTO.getName());
 
-        try {
-            Product product = productMapper.toEntity(createProductDTO);
-            Product savedProduct = productService.createProduct(product);
-            ProductDTO productDTO = productMapper.toDTO(savedProduct);
-
-            return ResponseEntity.status(HttpStatus.CREATED)
-                .body(com.eafit.tutorial.dto.ApiResponse.success(productDTO,
-                    "Producto creado exitosamente"));
+        productValidator.validateForCreation(createProductDTO);
 
-        } catch (Exception e) {
-            logger.error("Error al crear producto", e);
+        Product product = productMapper.toEntity(createProductDTO);
+        Product savedProduct = productService.createProduct(product);
+        ProductDTO productDTO = productMapper.toDTO(savedProduct);
 
-            if (e.getMessage().contains("Ya existe")) {
-                return ResponseEntity.status(HttpStatus.CONFLICT)
-                    .body(com.eafit.tutorial.dto.ApiResponse.error(e.getMessage(), 409));
-            }
-
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(com.eafit.tutorial.dto.ApiResponse.error("Error interno del servidor"));
-        }
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .body(com.eafit.tutorial.dto.ApiResponse.success(productDTO,
+                "Producto creado exitosamente"));
     }
     
 
@@ -385,29 +443,15 @@ description = """
 
         logger.debug("PUT /api/v1/products/{} - name: {}", id, updateProductDTO.getName());
 
-        try {
-            Product product = productMapper.toEntity(updateProductDTO);
-            Product updatedProduct = productService.updateProduct(id, product);
-            ProductDTO productDTO = productMapper.toDTO(updatedProduct);
+        productValidator.validateForUpdate(updateProductDTO);
 
-            return ResponseEntity.ok(
-                com.eafit.tutorial.dto.ApiResponse.success(productDTO,
-                    "Producto actualizado exitosamente"));
-
-        } catch (Exception e) {
-            logger.error("Error al actualizar producto con ID: {}", id, e);
-
-            if (e.getMessage().contains("no encontrado")) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(com.eafit.tutorial.dto.ApiResponse.error(e.getMessage(), 404));
-            } else if (e.getMessage().contains("Ya existe")) {
-                return ResponseEntity.status(HttpStatus.CONFLICT)
-                    .body(com.eafit.tutorial.dto.ApiResponse.error(e.getMessage(), 409));
-            }
+        Product product = productMapper.toEntity(updateProductDTO);
+        Product updatedProduct = productService.updateProduct(id, product);
+        ProductDTO productDTO = productMapper.toDTO(updatedProduct);
 
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(com.eafit.tutorial.dto.ApiResponse.error("Error interno del servidor"));
-        }
+        return ResponseEntity.ok(
+            com.eafit.tutorial.dto.ApiResponse.success(productDTO,
+                "Producto actualizado exitosamente"));
     }
 
     /**
@@ -430,24 +474,73 @@ description = """
 
         logger.debug("DELETE /api/v1/products/{}", id);
 
-        try {
-            productService.deleteProduct(id);
+        productService.deleteProduct(id);
 
-            return ResponseEntity.ok(
-                com.eafit.tutorial.dto.ApiResponse.success(null,
-                    "Producto eliminado exitosamente"));
+        return ResponseEntity.ok(
+            com.eafit.tutorial.dto.ApiResponse.success(null,
+                "Producto eliminado exitosamente"));
+    }
 
-        } catch (Exception e) {
-            logger.error("Error al eliminar producto con ID: {}", id, e);
+    /**
+     * Desactiva productos en bloque (soft delete)
+     */
+    @Operation(
+        summary = "Eliminar productos en bloque",
+        description = """
+            Marca como inactivos, con una sola sentencia UPDATE, los productos de una
+            lista de IDs o de una categoría completa. Devuelve cuántos cambiaron de estado.
+
+            ```json
+            { "ids": [1, 2, 3] }
+            { "category": "Libros" }
+            ```
+            """
+    )
+    @Tag(name = "Products - CRUD Operations", description = "Operaciones básicas CRUD")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Productos desactivados"),
+        @ApiResponse(responseCode = "400", description = "Debe indicar IDs o categoría, no ambos"),
+        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    @PostMapping("/bulk/deactivate")
+    public ResponseEntity<com.eafit.tutorial.dto.ApiResponse<BulkActivationResponse>> deactivateProducts(
+            @Parameter(description = "IDs o categoría a desactivar", required = true)
+            @Valid @RequestBody BulkActivationRequest request) {
 
-            if (e.getMessage().contains("no encontrado")) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(com.eafit.tutorial.dto.ApiResponse.error(e.getMessage(), 404));
-            }
+        logger.debug("POST /api/v1/products/bulk/deactivate");
+        return changeActivation(request, false, "Productos desactivados");
+    }
 
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(com.eafit.tutorial.dto.ApiResponse.error("Error interno del servidor"));
-        }
+    /**
+     * Reactiva productos en bloque
+     */
+    @Operation(
+        summary = "Reactivar productos en bloque",
+        description = "Vuelve a activar, con una sola sentencia UPDATE, los productos de una lista de IDs o de una categoría"
+    )
+    @Tag(name = "Products - CRUD Operations", description = "Operaciones básicas CRUD")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Productos reactivados"),
+        @ApiResponse(responseCode = "400", description = "Debe indicar IDs o categoría, no ambos"),
+        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    @PostMapping("/bulk/reactivate")
+    public ResponseEntity<com.eafit.tutorial.dto.ApiResponse<BulkActivationResponse>> reactivateProducts(
+            @Parameter(description = "IDs o categoría a reactivar", required = true)
+            @Valid @RequestBody BulkActivationRequest request) {
+
+        logger.debug("POST /api/v1/products/bulk/reactivate");
+        return changeActivation(request, true, "Productos reactivados");
+    }
+
+    private ResponseEntity<com.eafit.tutorial.dto.ApiResponse<BulkActivationResponse>> changeActivation(
+            BulkActivationRequest request, boolean active, String message) {
+        int affected = request.getIds() != null && !request.getIds().isEmpty()
+            ? productService.setProductsActive(request.getIds(), active)
+            : productService.setCategoryActive(request.getCategory().strip(), active);
+
+        return ResponseEntity.ok(com.eafit.tutorial.dto.ApiResponse.success(
+            new BulkActivationResponse(affected, active), message + ": " + affected));
     }
 
     /**
@@ -465,19 +558,12 @@ description = """
 
         logger.debug("GET /api/v1/products/category/{}", category);
 
-        try {
-            List<Product> products = productService.getProductsByCategory(category);
-            List<ProductDTO> productDTOs = productMapper.toDTOList(products);
-
-            return ResponseEntity.ok(
-                com.eafit.tutorial.dto.ApiResponse.success(productDTOs,
-                    "Productos encontrados para la categoría: " + category));
+        List<Product> products = productService.getProductsByCategory(category);
+        List<ProductDTO> productDTOs = productMapper.toDTOList(products);
 
-        } catch (Exception e) {
-            logger.error("Error al buscar productos por categoría: {}", category, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(com.eafit.tutorial.dto.ApiResponse.error("Error interno del servidor"));
-        }
+        return ResponseEntity.ok(
+            com.eafit.tutorial.dto.ApiResponse.success(productDTOs,
+                "Productos encontrados para la categoría: " + category));
     }
 
     /**
@@ -498,24 +584,12 @@ description = """
 
         logger.debug("GET /api/v1/products/price-range - min: {}, max: {}", minPrice, maxPrice);
 
-        try {
-            List<Product> products = productService.getProductsByPriceRange(minPrice, maxPrice);
-            List<ProductDTO> productDTOs = productMapper.toDTOList(products);
-
-            return ResponseEntity.ok(
-                com.eafit.tutorial.dto.ApiResponse.success(productDTOs,
-                    String.format("Productos encontrados en rango $%.2f - $%.2f", minPrice, maxPrice)));
-
-        } catch (IllegalArgumentException e) {
-            logger.warn("Rango de precios inválido - min: {}, max: {}", minPrice, maxPrice);
-            return ResponseEntity.badRequest()
-                .body(com.eafit.tutorial.dto.ApiResponse.error(e.getMessage(), 400));
+        List<Product> products = productService.getProductsByPriceRange(minPrice, maxPrice);
+        List<ProductDTO> productDTOs = productMapper.toDTOList(products);
 
-        } catch (Exception e) {
-            logger.error("Error al buscar productos por rango de precio", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(com.eafit.tutorial.dto.ApiResponse.error("Error interno del servidor"));
-        }
+        return ResponseEntity.ok(
+            com.eafit.tutorial.dto.ApiResponse.success(productDTOs,
+                String.format("Productos encontrados en rango $%.2f - $%.2f", minPrice, maxPrice)));
     }
 
     /**
@@ -533,19 +607,54 @@ description = """
 
         logger.debug("GET /api/v1/products/search?name={}", name);
 
-        try {
-            List<Product> products = productService.searchProductsByName(name);
-            List<ProductDTO> productDTOs = productMapper.toDTOList(products);
+        List<Product> products = productService.searchProductsByName(name);
+        List<ProductDTO> productDTOs = productMapper.toDTOList(products);
 
-            return ResponseEntity.ok(
-                com.eafit.tutorial.dto.ApiResponse.success(productDTOs,
-                    "Productos encontrados para búsqueda: " + name));
+        return ResponseEntity.ok(
+            com.eafit.tutorial.dto.ApiResponse.success(productDTOs,
+                "Productos encontrados para búsqueda: " + name));
+    }
 
-        } catch (Exception e) {
-            logger.error("Error al buscar productos por nombre: {}", name, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(com.eafit.tutorial.dto.ApiResponse.error("Error interno del servidor"));
-        }
+    /**
+     * Búsqueda con facetas: resultados y recuentos por categoría y precio en una llamada
+     */
+    @Operation(
+        summary = "Búsqueda con facetas",
+        description = """
+            Productos activos cuyo nombre contiene el texto (opcional), filtrados por
+            categoría y tramo de precio (opcionales), junto con los recuentos por
+            categoría y por tramo para construir los filtros. Cada recuento aplica el
+            filtro de la otra faceta, no el suyo. Los resultados van por ID ascendente.
+            """
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Resultados y facetas"),
+        @ApiResponse(responseCode = "400", description = "Tramo de precio desconocido o paginación inválida"),
+        @ApiResponse(responseCode = "503", description = "El índice de facetas aún se está cargando")
+    })
+    @Tag(name = "Products - Search & Filter", description = "Búsquedas y filtros avanzados")
+    @GetMapping("/search/faceted")
+    public ResponseEntity<com.eafit.tutorial.dto.ApiResponse<FacetedSearchDTO>> searchFaceted(
+            @Parameter(description = "Texto a buscar en el nombre", example = "laptop")
+            @RequestParam(value = "name", required = false) String name,
+
+            @Parameter(description = "Categoría", example = "Electrónicos")
+            @RequestParam(value = "category", required = false) String category,
+
+            @Parameter(description = "Tramo de precio, como en priceBuckets de la respuesta", example = "25-50")
+            @RequestParam(value = "priceBucket", required = false) String priceBucket,
+
+            @Parameter(description = "Número de página (base 0)", example = "0")
+            @RequestParam(value = "page", defaultValue = "0") @Min(0) int page,
+
+            @Parameter(description = "Tamaño de página", example = "20")
+            @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(100) int size) {
+
+        logger.debug("GET /api/v1/products/search/faceted?name={}&category={}&priceBucket={}", name, category, priceBucket);
+
+        FacetedSearchDTO result = facetedSearchService.search(name, category, priceBucket, page, size);
+        return ResponseEntity.ok(
+            com.eafit.tutorial.dto.ApiResponse.success(result, "Búsqueda con facetas completada"));
     }
 
     /**
@@ -563,19 +672,12 @@ description = """
 
         logger.debug("GET /api/v1/products/low-stock?minStock={}", minStock);
 
-        try {
-            List<Product> products = productService.getProductsWithLowStock(minStock);
-            List<ProductDTO> productDTOs = productMapper.toDTOList(products);
-
-            return ResponseEntity.ok(
-                com.eafit.tutorial.dto.ApiResponse.success(productDTOs,
-                    "Productos con stock menor a " + minStock));
+        List<Product> products = productService.getProductsWithLowStock(minStock);
+        List<ProductDTO> productDTOs = productMapper.toDTOList(products);
 
-        } catch (Exception e) {
-            logger.error("Error al obtener productos con stock bajo", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(com.eafit.tutorial.dto.ApiResponse.error("Error interno del servidor"));
-        }
+        return ResponseEntity.ok(
+            com.eafit.tutorial.dto.ApiResponse.success(productDTOs,
+                "Productos con stock menor a " + minStock));
     }
 
     /**
@@ -596,25 +698,54 @@ description = """
 
         logger.debug("PATCH /api/v1/products/{}/stock - newStock: {}", id, stock);
 
-        try {
-            Product updatedProduct = productService.updateStock(id, stock);
-            ProductDTO productDTO = productMapper.toDTO(updatedProduct);
+        Product updatedProduct = productService.updateStock(id, stock);
+        ProductDTO productDTO = productMapper.toDTO(updatedProduct);
 
-            return ResponseEntity.ok(
-                com.eafit.tutorial.dto.ApiResponse.success(productDTO,
-                    "Stock actualizado exitosamente"));
+        return ResponseEntity.ok(
+            com.eafit.tutorial.dto.ApiResponse.success(productDTO,
+                "Stock actualizado exitosamente"));
+    }
 
-        } catch (Exception e) {
-            logger.error("Error al actualizar stock del producto {}", id, e);
+    /**
+     * Descuenta el stock de las líneas de un pedido, todo o nada
+     */
+    @Operation(
+        summary = "Descontar stock de un pedido",
+        description = """
+            Descuenta en una sola transacción las unidades de cada línea. Si algún
+            producto no existe o no tiene stock suficiente no se descuenta nada.
+            Las unidades reservadas no cuentan como disponibles. Con shards, las
+            líneas deben ser de productos del mismo shard.
+            Admite Idempotency-Key para reintentos seguros.
+
+            ```json
+            { "items": [ { "productId": 1, "quantity": 2 }, { "productId": 7, "quantity": 1 } ] }
+            ```
+            """
+    )
+    @Tag(name = "Products - Inventory Management", description = "Gestión de inventario")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Stock descontado"),
+        @ApiResponse(responseCode = "400", description = "Líneas inválidas, o productos de varios shards"),
+        @ApiResponse(responseCode = "404", description = "Algún producto no existe o está inactivo"),
+        @ApiResponse(responseCode = "409", description = "Stock insuficiente en alguna línea; no se descontó nada")
+    })
+    @PostMapping("/stock/decrement")
+    public ResponseEntity<com.eafit.tutorial.dto.ApiResponse<List<ProductDTO>>> decrementStock(
+            @Parameter(description = "Líneas del pedido", required = true)
+            @Valid @RequestBody StockDecrementRequest request) {
 
-            if (e.getMessage().contains("no encontrado")) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(com.eafit.tutorial.dto.ApiResponse.error(e.getMessage(), 404));
-            }
+        logger.debug("POST /api/v1/products/stock/decrement - lines: {}", request.getItems().size());
 
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(com.eafit.tutorial.dto.ApiResponse.error("Error interno del servidor"));
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (StockDecrementRequest.Line line : request.getItems()) {
+            quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
         }
+        List<ProductDTO> productDTOs = productMapper.toDTOList(productService.decrementStock(quantities));
+
+        return ResponseEntity.ok(
+            com.eafit.tutorial.dto.ApiResponse.success(productDTOs,
+                "Stock descontado para " + productDTOs.size() + " productos"));
     }
 
  
@@ -0,0 +1,101 @@
+package com.eafit.tutorial.controller;
+
+import com.eafit.tutorial.dto.ApiResponse;
+import com.eafit.tutorial.dto.ImportJobDTO;
+import com.eafit.tutorial.service.ProductImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Controlador REST para la importación masiva de catálogo
+ *
+ * La subida devuelve 202 con el jobId; el progreso se consulta aparte.
+ */
+@RestController
+@RequestMapping("/api/v1/products/import")
+@Tag(name = "Products - Import", description = "Importación masiva de catálogo desde CSV o NDJSON")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ProductImportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportController.class);
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    /**
+     * Sube un fichero de catálogo y encola su importación
+     */
+    @Operation(
+        summary = "Importar catálogo",
+        description = """
+            Sube un fichero CSV (cabecera name,description,price,category,stock) o
+            NDJSON (un CreateProductDTO por línea). Se procesa en segundo plano por
+            lotes; cada registro se valida como en la creación individual.
+            """
+    )
+    @ApiResponses({
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "202", description = "Importación encolada"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Fichero vacío o formato no soportado")
+    })
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<ImportJobDTO>> startImport(
+            @Parameter(description = "Fichero de catálogo", required = true)
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "csv o ndjson; por defecto se deduce de la extensión", example = "csv")
+            @RequestParam(value = "format", required = false) String format) {
+
+        logger.debug("POST /api/v1/products/import - file: {}, size: {}", file.getOriginalFilename(), file.getSize());
+
+        ImportJobDTO job = productImportService.startImport(file, format);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .body(ApiResponse.success(job, "Importación encolada"));
+    }
+
+    /**
+     * Consulta el progreso de una importación
+     */
+    @Operation(summary = "Estado de importación", description = "Progreso, contadores y primeros errores de la importación")
+    @ApiResponses({
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Estado de la importación"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Importación no encontrada")
+    })
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ApiResponse<ImportJobDTO>> getImport(
+            @Parameter(description = "ID de la importación", required = true)
+            @PathVariable String jobId) {
+
+        return ResponseEntity.ok(ApiResponse.success(productImportService.getJob(jobId),
+            "Estado de la importación"));
+    }
+
+    /**
+     * Reanuda una importación fallida desde su último lote confirmado
+     */
+    @Operation(summary = "Reanudar importación", description = "Continúa una importación fallida desde su último punto de control")
+    @ApiResponses({
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "202", description = "Importación reanudada"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Importación no encontrada"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "La importación no está fallida")
+    })
+    @PostMapping("/{jobId}/resume")
+    public ResponseEntity<ApiResponse<ImportJobDTO>> resumeImport(
+            @Parameter(description = "ID de la importación", required = true)
+            @PathVariable String jobId) {
+
+        logger.debug("POST /api/v1/products/import/{}/resume", jobId);
+
+        ImportJobDTO job = productImportService.resumeImport(jobId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .body(ApiResponse.success(job, "Importación reanudada"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.eafit.tutorial.controller;
+
+import com.eafit.tutorial.dto.ApiResponse;
+import com.eafit.tutorial.dto.PriceHistoryDTO;
+import com.eafit.tutorial.service.PriceHistoryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Min;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Controlador REST para el historial de precios
+ *
+ * Se responde desde el historial: sirve también para productos desactivados
+ * o archivados. Un producto sin cambios registrados devuelve una lista vacía;
+ * un ID que no corresponde a ningún producto, 404.
+ */
+@RestController
+@RequestMapping("/api/v1/products")
+@Validated
+@Tag(name = "Products - Price history", description = "Cambios de precio de los productos por intervalo de tiempo")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ProductPriceHistoryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductPriceHistoryController.class);
+
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    /**
+     * Cambios de precio de un producto en un intervalo
+     */
+    @Operation(
+        summary = "Historial de precios",
+        description = """
+            Cambios de precio del producto entre from y to (ambos incluidos, ISO-8601)
+            y el precio vigente en from. Sin from se devuelve desde el principio;
+            sin to, hasta ahora.
+            """
+    )
+    @ApiResponses({
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Historial obtenido"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Intervalo inválido"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "El producto no existe")
+    })
+    @GetMapping("/{id}/price-history")
+    public ResponseEntity<ApiResponse<PriceHistoryDTO>> getPriceHistory(
+            @Parameter(description = "ID del producto", example = "1", required = true)
+            @PathVariable @Min(1) Long id,
+
+            @Parameter(description = "Inicio del intervalo", example = "2024-01-01T00:00:00")
+            @RequestParam(value = "from", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+
+            @Parameter(description = "Fin del intervalo", example = "2024-02-01T00:00:00")
+            @RequestParam(value = "to", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+        logger.debug("GET /api/v1/products/{}/price-history - from: {}, to: {}", id, from, to);
+
+        PriceHistoryDTO history = priceHistoryService.getHistory(id,
+            from != null ? from : EARLIEST,
+            to != null ? to : LocalDateTime.now());
+        return ResponseEntity.ok(ApiResponse.success(history, "Historial de precios obtenido exitosamente"));
+    }
+}
@@ -0,0 +1,127 @@
+package com.eafit.tutorial.controller;
+
+import com.eafit.tutorial.dto.ApiResponse;
+import com.eafit.tutorial.dto.CreateReservationDTO;
+import com.eafit.tutorial.dto.ReservationDTO;
+import com.eafit.tutorial.dto.StockAvailabilityDTO;
+import com.eafit.tutorial.service.ReservationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+
+/**
+ * Controlador REST para reservas temporales de stock
+ *
+ * Flujo de compra: reservar, y después confirmar o liberar; si no se hace
+ * nada, la reserva caduca y sus unidades vuelven a estar disponibles.
+ */
+@RestController
+@RequestMapping("/api/v1/products")
+@Tag(name = "Products - Reservations", description = "Reservas de stock con caducidad para procesos de compra")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ProductReservationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductReservationController.class);
+
+    @Autowired
+    private ReservationService reservationService;
+
+    /**
+     * Reserva unidades de un producto
+     */
+    @Operation(summary = "Reservar stock", description = "Retiene unidades del producto hasta que se confirmen, se liberen o caduque la reserva")
+    @ApiResponses({
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "201", description = "Reserva creada"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Producto no encontrado"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Stock disponible insuficiente")
+    })
+    @PostMapping("/{id}/reservations")
+    public ResponseEntity<ApiResponse<ReservationDTO>> reserve(
+            @Parameter(description = "ID del producto", example = "1", required = true)
+            @PathVariable Long id,
+            @Valid @RequestBody CreateReservationDTO request) {
+
+        logger.debug("POST /api/v1/products/{}/reservations - quantity: {}", id, request.getQuantity());
+
+        Duration ttl = request.getTtlSeconds() != null ? Duration.ofSeconds(request.getTtlSeconds()) : null;
+        ReservationDTO reservation = reservationService.reserve(id, request.getQuantity(), ttl);
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .body(ApiResponse.success(reservation, "Reserva creada exitosamente"));
+    }
+
+    /**
+     * Stock disponible de un producto descontando las reservas
+     */
+    @Operation(summary = "Disponibilidad", description = "Stock, unidades reservadas y disponible (stock - reservadas)")
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<ApiResponse<StockAvailabilityDTO>> getAvailability(
+            @Parameter(description = "ID del producto", example = "1", required = true)
+            @PathVariable Long id) {
+
+        return ResponseEntity.ok(ApiResponse.success(reservationService.getAvailability(id),
+            "Disponibilidad obtenida exitosamente"));
+    }
+
+    /**
+     * Obtiene una reserva
+     */
+    @Operation(summary = "Obtener reserva", description = "Estado de una reserva; las terminadas se conservan un tiempo")
+    @GetMapping("/reservations/{reservationId}")
+    public ResponseEntity<ApiResponse<ReservationDTO>> getReservation(
+            @Parameter(description = "ID de la reserva", required = true)
+            @PathVariable String reservationId) {
+
+        return ResponseEntity.ok(ApiResponse.success(reservationService.getReservation(reservationId),
+            "Reserva encontrada"));
+    }
+
+    /**
+     * Confirma una reserva: sus unidades se descuentan del stock
+     */
+    @Operation(summary = "Confirmar reserva", description = "Descuenta del stock las unidades reservadas")
+    @ApiResponses({
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Reserva confirmada"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Reserva no encontrada"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "La reserva ya no está retenida")
+    })
+    @PostMapping("/reservations/{reservationId}/confirm")
+    public ResponseEntity<ApiResponse<ReservationDTO>> confirm(
+            @Parameter(description = "ID de la reserva", required = true)
+            @PathVariable String reservationId) {
+
+        logger.debug("POST /api/v1/products/reservations/{}/confirm", reservationId);
+
+        return ResponseEntity.ok(ApiResponse.success(reservationService.confirm(reservationId),
+            "Reserva confirmada exitosamente"));
+    }
+
+    /**
+     * Libera una reserva antes de que caduque
+     */
+    @Operation(summary = "Liberar reserva", description = "Devuelve las unidades reservadas al disponible")
+    @ApiResponses({
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Reserva liberada"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Reserva no encontrada"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "La reserva ya no está retenida")
+    })
+    @PostMapping("/reservations/{reservationId}/release")
+    public ResponseEntity<ApiResponse<ReservationDTO>> release(
+            @Parameter(description = "ID de la reserva", required = true)
+            @PathVariable String reservationId) {
+
+        logger.debug("POST /api/v1/products/reservations/{}/release", reservationId);
+
+        return ResponseEntity.ok(ApiResponse.success(reservationService.release(reservationId),
+            "Reserva liberada exitosamente"));
+    }
+}
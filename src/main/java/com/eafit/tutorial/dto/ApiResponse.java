@@ -51,8 +51,8 @@ public class ApiResponse<T> {
         return success(data, "Operación completada exitosamente");
     }
 
-    public static <T> ApiResponse<T> error(ErrorResponse e, String message, int statusCode) {
-        return new ApiResponse<>(false, message, null, statusCode);
+    public static ApiResponse<ErrorResponse> error(ErrorResponse e, String message, int statusCode) {
+        return new ApiResponse<>(false, message, e, statusCode);
     }
 
     public static <T> ApiResponse<T> error(String message, int statusCode) {
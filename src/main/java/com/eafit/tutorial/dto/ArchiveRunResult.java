@@ -0,0 +1,56 @@
+package com.eafit.tutorial.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resultado de una pasada del trabajo de archivado
+ */
+@Schema(description = "Resultado de una pasada de archivado")
+public class ArchiveRunResult {
+
+    @Schema(description = "Productos movidos al archivo", example = "1500")
+    private long archived;
+
+    @Schema(description = "Lotes procesados", example = "3")
+    private int batches;
+
+    @Schema(description = "Duración de la pasada en milisegundos", example = "420")
+    private long durationMillis;
+
+    @Schema(description = "Se archivaron los inactivos anteriores a esta fecha")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime cutoff;
+
+    @Schema(description = "false si la pasada se cortó por el máximo de lotes y quedan candidatos", example = "true")
+    private boolean complete;
+
+    // Constructores
+    public ArchiveRunResult() {}
+
+    public ArchiveRunResult(long archived, int batches, long durationMillis, LocalDateTime cutoff, boolean complete) {
+        this.archived = archived;
+        this.batches = batches;
+        this.durationMillis = durationMillis;
+        this.cutoff = cutoff;
+        this.complete = complete;
+    }
+
+    // Getters y Setters
+    public long getArchived() { return archived; }
+    public void setArchived(long archived) { this.archived = archived; }
+
+    public int getBatches() { return batches; }
+    public void setBatches(int batches) { this.batches = batches; }
+
+    public long getDurationMillis() { return durationMillis; }
+    public void setDurationMillis(long durationMillis) { this.durationMillis = durationMillis; }
+
+    public LocalDateTime getCutoff() { return cutoff; }
+    public void setCutoff(LocalDateTime cutoff) { this.cutoff = cutoff; }
+
+    public boolean isComplete() { return complete; }
+    public void setComplete(boolean complete) { this.complete = complete; }
+}
@@ -0,0 +1,32 @@
+package com.eafit.tutorial.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO para productos archivados: los datos del producto más la fecha de archivado
+ */
+@Schema(description = "Producto dado de baja y archivado")
+public class ArchivedProductDTO extends ProductDTO {
+
+    @Schema(description = "Fecha en que se movió al archivo", example = "2024-03-01T03:00:00")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime archivedAt;
+
+    // Constructores
+    public ArchivedProductDTO() {}
+
+    public ArchivedProductDTO(Long id, String name, String description, BigDecimal price,
+                              String category, Integer stock, LocalDateTime createdAt,
+                              LocalDateTime updatedAt, LocalDateTime archivedAt) {
+        super(id, name, description, price, category, stock, false, createdAt, updatedAt);
+        this.archivedAt = archivedAt;
+    }
+
+    // Getters y Setters
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+    public void setArchivedAt(LocalDateTime archivedAt) { this.archivedAt = archivedAt; }
+}
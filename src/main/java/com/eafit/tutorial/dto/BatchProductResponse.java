@@ -0,0 +1,36 @@
+package com.eafit.tutorial.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Respuesta de una consulta múltiple de productos
+ *
+ * Contiene los productos encontrados en el orden solicitado
+ * y los IDs que no existen o están inactivos.
+ */
+@Schema(description = "Resultado de una consulta múltiple de productos por ID")
+public class BatchProductResponse {
+
+    @Schema(description = "Productos encontrados, en el orden de la petición")
+    private List<ProductDTO> products;
+
+    @Schema(description = "IDs solicitados que no existen o están inactivos", example = "[42]")
+    private List<Long> missingIds;
+
+    // Constructores
+    public BatchProductResponse() {}
+
+    public BatchProductResponse(List<ProductDTO> products, List<Long> missingIds) {
+        this.products = products;
+        this.missingIds = missingIds;
+    }
+
+    // Getters y Setters
+    public List<ProductDTO> getProducts() { return products; }
+    public void setProducts(List<ProductDTO> products) { this.products = products; }
+
+    public List<Long> getMissingIds() { return missingIds; }
+    public void setMissingIds(List<Long> missingIds) { this.missingIds = missingIds; }
+}
@@ -0,0 +1,49 @@
+package com.eafit.tutorial.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO para activar o desactivar productos en bloque
+ *
+ * Se indica una lista de IDs o una categoría completa, no ambas.
+ */
+@Schema(description = "Productos a activar o desactivar en bloque: por IDs o por categoría")
+public class BulkActivationRequest {
+
+    @Size(max = 10000, message = "No se pueden modificar más de 10000 productos por petición")
+    @Schema(description = "IDs de los productos", example = "[1, 2, 3]")
+    private List<@NotNull(message = "Los IDs no pueden ser nulos") Long> ids;
+
+    @Size(max = 50, message = "La categoría no puede exceder 50 caracteres")
+    @Schema(description = "Categoría completa", example = "Libros")
+    private String category;
+
+    // Constructores
+    public BulkActivationRequest() {}
+
+    public BulkActivationRequest(List<Long> ids, String category) {
+        this.ids = ids;
+        this.category = category;
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "Debe indicar una lista de IDs no vacía o una categoría, pero no ambas")
+    public boolean isSingleTarget() {
+        boolean hasIds = ids != null && !ids.isEmpty();
+        boolean hasCategory = category != null && !category.isBlank();
+        return hasIds != hasCategory;
+    }
+
+    // Getters y Setters
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+}
@@ -0,0 +1,31 @@
+package com.eafit.tutorial.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Resultado de una activación o desactivación en bloque
+ */
+@Schema(description = "Resultado de una activación o desactivación en bloque")
+public class BulkActivationResponse {
+
+    @Schema(description = "Productos cuyo estado cambió (los que ya lo tenían no cuentan)", example = "42")
+    private int affected;
+
+    @Schema(description = "Estado resultante", example = "false")
+    private boolean active;
+
+    // Constructores
+    public BulkActivationResponse() {}
+
+    public BulkActivationResponse(int affected, boolean active) {
+        this.affected = affected;
+        this.active = active;
+    }
+
+    // Getters y Setters
+    public int getAffected() { return affected; }
+    public void setAffected(int affected) { this.affected = affected; }
+
+    public boolean isActive() { return active; }
+    public void setActive(boolean active) { this.active = active; }
+}
@@ -0,0 +1,38 @@
+package com.eafit.tutorial.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * DTO para reservar unidades de un producto durante un tiempo limitado
+ */
+@Schema(description = "Unidades a reservar y duración de la reserva")
+public class CreateReservationDTO {
+
+    @NotNull(message = "La cantidad es obligatoria")
+    @Min(value = 1, message = "La cantidad debe ser al menos 1")
+    @Max(value = 100000, message = "La cantidad no puede superar 100000")
+    @Schema(description = "Unidades a reservar", example = "2", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Integer quantity;
+
+    @Min(value = 1, message = "La duración debe ser de al menos 1 segundo")
+    @Schema(description = "Duración de la reserva en segundos; por defecto la configurada", example = "600")
+    private Long ttlSeconds;
+
+    // Constructores
+    public CreateReservationDTO() {}
+
+    public CreateReservationDTO(Integer quantity, Long ttlSeconds) {
+        this.quantity = quantity;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    // Getters y Setters
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+    public Long getTtlSeconds() { return ttlSeconds; }
+    public void setTtlSeconds(Long ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+}
@@ -0,0 +1,108 @@
+package com.eafit.tutorial.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO con una página de resultados de búsqueda y los recuentos por faceta
+ */
+@Schema(description = "Resultados de búsqueda con recuentos por categoría y por tramo de precio")
+public class FacetedSearchDTO {
+
+    @Schema(description = "Página de productos que cumplen la búsqueda y los filtros, por ID ascendente")
+    private PagedResponse<ProductDTO> results;
+
+    @Schema(description = "Productos por categoría (con el filtro de precio aplicado), de más a menos")
+    private List<CategoryFacet> categories;
+
+    @Schema(description = "Productos por tramo de precio (con el filtro de categoría aplicado)")
+    private List<PriceBucketFacet> priceBuckets;
+
+    /**
+     * Recuento de una categoría
+     */
+    @Schema(description = "Faceta de categoría")
+    public static class CategoryFacet {
+
+        @Schema(description = "Categoría", example = "Electrónicos")
+        private String category;
+
+        @Schema(description = "Productos de la categoría", example = "42")
+        private long count;
+
+        public CategoryFacet() {}
+
+        public CategoryFacet(String category, long count) {
+            this.category = category;
+            this.count = count;
+        }
+
+        public String getCategory() { return category; }
+        public void setCategory(String category) { this.category = category; }
+
+        public long getCount() { return count; }
+        public void setCount(long count) { this.count = count; }
+    }
+
+    /**
+     * Recuento de un tramo de precio
+     */
+    @Schema(description = "Faceta de tramo de precio")
+    public static class PriceBucketFacet {
+
+        @Schema(description = "Etiqueta del tramo, válida como filtro priceBucket", example = "25-50")
+        private String bucket;
+
+        @Schema(description = "Precio mínimo (incluido)", example = "25")
+        private BigDecimal min;
+
+        @Schema(description = "Precio máximo (excluido); null en el último tramo", example = "50")
+        private BigDecimal max;
+
+        @Schema(description = "Productos del tramo", example = "17")
+        private long count;
+
+        public PriceBucketFacet() {}
+
+        public PriceBucketFacet(String bucket, BigDecimal min, BigDecimal max, long count) {
+            this.bucket = bucket;
+            this.min = min;
+            this.max = max;
+            this.count = count;
+        }
+
+        public String getBucket() { return bucket; }
+        public void setBucket(String bucket) { this.bucket = bucket; }
+
+        public BigDecimal getMin() { return min; }
+        public void setMin(BigDecimal min) { this.min = min; }
+
+        public BigDecimal getMax() { return max; }
+        public void setMax(BigDecimal max) { this.max = max; }
+
+        public long getCount() { return count; }
+        public void setCount(long count) { this.count = count; }
+    }
+
+    // Constructores
+    public FacetedSearchDTO() {}
+
+    public FacetedSearchDTO(PagedResponse<ProductDTO> results, List<CategoryFacet> categories,
+                            List<PriceBucketFacet> priceBuckets) {
+        this.results = results;
+        this.categories = categories;
+        this.priceBuckets = priceBuckets;
+    }
+
+    // Getters y Setters
+    public PagedResponse<ProductDTO> getResults() { return results; }
+    public void setResults(PagedResponse<ProductDTO> results) { this.results = results; }
+
+    public List<CategoryFacet> getCategories() { return categories; }
+    public void setCategories(List<CategoryFacet> categories) { this.categories = categories; }
+
+    public List<PriceBucketFacet> getPriceBuckets() { return priceBuckets; }
+    public void setPriceBuckets(List<PriceBucketFacet> priceBuckets) { this.priceBuckets = priceBuckets; }
+}
@@ -0,0 +1,119 @@
+package com.eafit.tutorial.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Estado y progreso de una importación de catálogo
+ *
+ * También es el formato del punto de control que se guarda en disco tras cada
+ * lote confirmado, para poder reanudar el trabajo.
+ */
+@Schema(description = "Estado de una importación de catálogo")
+public class ImportJobDTO {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    @Schema(description = "Identificador del trabajo", example = "5f0c2a8e-...")
+    private String jobId;
+
+    @Schema(description = "Nombre del fichero subido", example = "catalogo.csv")
+    private String fileName;
+
+    @Schema(description = "Formato del fichero", example = "csv", allowableValues = {"csv", "ndjson"})
+    private String format;
+
+    @Schema(description = "Estado del trabajo", example = "RUNNING")
+    private Status status;
+
+    @Schema(description = "Tamaño del fichero en bytes", example = "104857600")
+    private long totalBytes;
+
+    @Schema(description = "Bytes procesados", example = "52428800")
+    private long bytesRead;
+
+    @Schema(description = "Progreso en porcentaje", example = "50.0")
+    private double progressPercent;
+
+    @Schema(description = "Registros leídos", example = "250000")
+    private long recordsRead;
+
+    @Schema(description = "Productos importados", example = "249870")
+    private long imported;
+
+    @Schema(description = "Registros rechazados", example = "130")
+    private long rejected;
+
+    @Schema(description = "Último registro confirmado; una reanudación continúa desde aquí", example = "250000")
+    private long checkpoint;
+
+    @Schema(description = "Primeros registros rechazados (lista acotada)")
+    private List<ImportRowError> errors;
+
+    @Schema(description = "Mensaje de estado o causa del fallo")
+    private String message;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime updatedAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime finishedAt;
+
+    // Constructores
+    public ImportJobDTO() {}
+
+    // Getters y Setters
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public String getFormat() { return format; }
+    public void setFormat(String format) { this.format = format; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public long getTotalBytes() { return totalBytes; }
+    public void setTotalBytes(long totalBytes) { this.totalBytes = totalBytes; }
+
+    public long getBytesRead() { return bytesRead; }
+    public void setBytesRead(long bytesRead) { this.bytesRead = bytesRead; }
+
+    public double getProgressPercent() { return progressPercent; }
+    public void setProgressPercent(double progressPercent) { this.progressPercent = progressPercent; }
+
+    public long getRecordsRead() { return recordsRead; }
+    public void setRecordsRead(long recordsRead) { this.recordsRead = recordsRead; }
+
+    public long getImported() { return imported; }
+    public void setImported(long imported) { this.imported = imported; }
+
+    public long getRejected() { return rejected; }
+    public void setRejected(long rejected) { this.rejected = rejected; }
+
+    public long getCheckpoint() { return checkpoint; }
+    public void setCheckpoint(long checkpoint) { this.checkpoint = checkpoint; }
+
+    public List<ImportRowError> getErrors() { return errors; }
+    public void setErrors(List<ImportRowError> errors) { this.errors = errors; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
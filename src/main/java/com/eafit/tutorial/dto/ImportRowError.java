@@ -0,0 +1,33 @@
+package com.eafit.tutorial.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+/**
+ * Registro rechazado durante una importación y sus errores por campo
+ */
+@Schema(description = "Registro rechazado en una importación")
+public class ImportRowError {
+
+    @Schema(description = "Número de registro en el fichero (desde 1, sin la cabecera)", example = "42")
+    private long record;
+
+    @Schema(description = "Errores por campo", example = "{\"price\": \"El precio debe ser mayor a 0\"}")
+    private Map<String, String> errors;
+
+    // Constructores
+    public ImportRowError() {}
+
+    public ImportRowError(long record, Map<String, String> errors) {
+        this.record = record;
+        this.errors = errors;
+    }
+
+    // Getters y Setters
+    public long getRecord() { return record; }
+    public void setRecord(long record) { this.record = record; }
+
+    public Map<String, String> getErrors() { return errors; }
+    public void setErrors(Map<String, String> errors) { this.errors = errors; }
+}
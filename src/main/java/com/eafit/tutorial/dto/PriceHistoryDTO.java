@@ -0,0 +1,70 @@
+package com.eafit.tutorial.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO con los cambios de precio de un producto en un intervalo
+ */
+@Schema(description = "Historial de precios de un producto en un intervalo de tiempo")
+public class PriceHistoryDTO {
+
+    @Schema(description = "ID del producto", example = "1")
+    private Long productId;
+
+    @Schema(description = "Precio vigente al inicio del intervalo; null si el historial empieza después", example = "1299.99")
+    private BigDecimal priceBefore;
+
+    @Schema(description = "Cambios de precio dentro del intervalo, del más antiguo al más reciente")
+    private List<PricePoint> points;
+
+    /**
+     * Precio fijado en un instante
+     */
+    @Schema(description = "Cambio de precio")
+    public static class PricePoint {
+
+        @Schema(description = "Instante del cambio", example = "2024-01-15 10:30:00.000")
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss.SSS")
+        private LocalDateTime at;
+
+        @Schema(description = "Precio desde ese instante", example = "1199.99")
+        private BigDecimal price;
+
+        public PricePoint() {}
+
+        public PricePoint(LocalDateTime at, BigDecimal price) {
+            this.at = at;
+            this.price = price;
+        }
+
+        public LocalDateTime getAt() { return at; }
+        public void setAt(LocalDateTime at) { this.at = at; }
+
+        public BigDecimal getPrice() { return price; }
+        public void setPrice(BigDecimal price) { this.price = price; }
+    }
+
+    // Constructores
+    public PriceHistoryDTO() {}
+
+    public PriceHistoryDTO(Long productId, BigDecimal priceBefore, List<PricePoint> points) {
+        this.productId = productId;
+        this.priceBefore = priceBefore;
+        this.points = points;
+    }
+
+    // Getters y Setters
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public BigDecimal getPriceBefore() { return priceBefore; }
+    public void setPriceBefore(BigDecimal priceBefore) { this.priceBefore = priceBefore; }
+
+    public List<PricePoint> getPoints() { return points; }
+    public void setPoints(List<PricePoint> points) { this.points = points; }
+}
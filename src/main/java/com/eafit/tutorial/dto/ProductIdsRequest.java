@@ -0,0 +1,33 @@
+package com.eafit.tutorial.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO para consultas múltiples de productos por ID
+ *
+ * Variante en el cuerpo de la petición para listas de IDs demasiado largas para la URL.
+ */
+@Schema(description = "Lista de IDs de productos a consultar")
+public class ProductIdsRequest {
+
+    @NotEmpty(message = "Debe enviar al menos un ID")
+    @Size(max = 500, message = "No se pueden consultar más de 500 productos por petición")
+    @Schema(description = "IDs de los productos en el orden deseado", example = "[1, 2, 3]")
+    private List<@NotNull(message = "Los IDs no pueden ser nulos") Long> ids;
+
+    // Constructores
+    public ProductIdsRequest() {}
+
+    public ProductIdsRequest(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    // Getters y Setters
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+}
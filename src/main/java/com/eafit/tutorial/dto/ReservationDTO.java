@@ -0,0 +1,59 @@
+package com.eafit.tutorial.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de una reserva de stock
+ */
+@Schema(description = "Reserva de unidades de un producto")
+public class ReservationDTO {
+
+    /** FAILED: confirmada, pero al guardarla ya no quedaba stock en la base de datos */
+    public enum Status { HELD, CONFIRMED, RELEASED, EXPIRED, FAILED }
+
+    @Schema(description = "ID de la reserva", example = "5f0c1d2e-8a7b-4c3d-9e1f-2a3b4c5d6e7f")
+    private String reservationId;
+
+    @Schema(description = "ID del producto", example = "1")
+    private Long productId;
+
+    @Schema(description = "Unidades reservadas", example = "2")
+    private int quantity;
+
+    @Schema(description = "Estado de la reserva", example = "HELD")
+    private Status status;
+
+    @Schema(description = "Momento en que caduca si no se confirma")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime expiresAt;
+
+    // Constructores
+    public ReservationDTO() {}
+
+    public ReservationDTO(String reservationId, Long productId, int quantity, Status status, LocalDateTime expiresAt) {
+        this.reservationId = reservationId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.status = status;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters y Setters
+    public String getReservationId() { return reservationId; }
+    public void setReservationId(String reservationId) { this.reservationId = reservationId; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -0,0 +1,45 @@
+package com.eafit.tutorial.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO con el stock disponible de un producto descontadas las reservas
+ */
+@Schema(description = "Stock de un producto descontando reservas y confirmaciones pendientes de guardar")
+public class StockAvailabilityDTO {
+
+    @Schema(description = "ID del producto", example = "1")
+    private Long productId;
+
+    @Schema(description = "Stock físico (incluye las confirmaciones aún no guardadas)", example = "25")
+    private int stock;
+
+    @Schema(description = "Unidades en reservas activas", example = "3")
+    private int reserved;
+
+    @Schema(description = "Unidades que se pueden reservar: stock - reserved", example = "22")
+    private int available;
+
+    // Constructores
+    public StockAvailabilityDTO() {}
+
+    public StockAvailabilityDTO(Long productId, int stock, int reserved, int available) {
+        this.productId = productId;
+        this.stock = stock;
+        this.reserved = reserved;
+        this.available = available;
+    }
+
+    // Getters y Setters
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public int getStock() { return stock; }
+    public void setStock(int stock) { this.stock = stock; }
+
+    public int getReserved() { return reserved; }
+    public void setReserved(int reserved) { this.reserved = reserved; }
+
+    public int getAvailable() { return available; }
+    public void setAvailable(int available) { this.available = available; }
+}
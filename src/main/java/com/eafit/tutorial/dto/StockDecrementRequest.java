@@ -0,0 +1,64 @@
+package com.eafit.tutorial.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO para descontar el stock de las líneas de un pedido en una sola operación
+ *
+ * Las líneas repetidas de un mismo producto se suman.
+ */
+@Schema(description = "Líneas de pedido cuyo stock se descuenta todo o nada")
+public class StockDecrementRequest {
+
+    @NotEmpty(message = "Debe enviar al menos una línea")
+    @Size(max = 500, message = "No se puede descontar stock de más de 500 líneas por petición")
+    @Schema(description = "Líneas del pedido")
+    private List<@Valid @NotNull(message = "Las líneas no pueden ser nulas") Line> items;
+
+    /**
+     * Producto y unidades a descontar
+     */
+    @Schema(description = "Línea de pedido")
+    public static class Line {
+
+        @NotNull(message = "El ID de producto es obligatorio")
+        @Schema(description = "ID del producto", example = "1")
+        private Long productId;
+
+        @NotNull(message = "La cantidad es obligatoria")
+        @Min(value = 1, message = "La cantidad debe ser al menos 1")
+        @Schema(description = "Unidades a descontar", example = "2")
+        private Integer quantity;
+
+        public Line() {}
+
+        public Line(Long productId, Integer quantity) {
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+
+        public Long getProductId() { return productId; }
+        public void setProductId(Long productId) { this.productId = productId; }
+
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    }
+
+    // Constructores
+    public StockDecrementRequest() {}
+
+    public StockDecrementRequest(List<Line> items) {
+        this.items = items;
+    }
+
+    // Getters y Setters
+    public List<Line> getItems() { return items; }
+    public void setItems(List<Line> items) { this.items = items; }
+}
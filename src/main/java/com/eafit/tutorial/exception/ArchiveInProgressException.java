@@ -0,0 +1,21 @@
+package com.eafit.tutorial.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Excepción lanzada al pedir una pasada de archivado mientras otra está en curso
+ */
+public class ArchiveInProgressException extends ProductApiException {
+
+    public static final String ERROR_CODE = "ARCHIVE_IN_PROGRESS";
+
+    public ArchiveInProgressException() {
+        super("Ya hay una pasada de archivado en curso", null);
+    }
+
+    @Override
+    public String getErrorCode() { return ERROR_CODE; }
+
+    @Override
+    public HttpStatus getStatus() { return HttpStatus.CONFLICT; }
+}
@@ -0,0 +1,21 @@
+package com.eafit.tutorial.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Excepción lanzada al buscar con facetas antes de que termine la carga inicial del índice
+ */
+public class FacetIndexNotReadyException extends ProductApiException {
+
+    public static final String ERROR_CODE = "FACET_INDEX_LOADING";
+
+    public FacetIndexNotReadyException() {
+        super("El índice de facetas se está cargando", null);
+    }
+
+    @Override
+    public String getErrorCode() { return ERROR_CODE; }
+
+    @Override
+    public HttpStatus getStatus() { return HttpStatus.SERVICE_UNAVAILABLE; }
+}
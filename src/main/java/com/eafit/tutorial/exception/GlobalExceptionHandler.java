@@ -2,6 +2,7 @@ package com.eafit.tutorial.exception;
 
 import com.eafit.tutorial.dto.ApiResponse;
 import com.eafit.tutorial.dto.ErrorResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -86,43 +88,92 @@ public class GlobalExceptionHandler {
     }
 
     /**
-     * Maneja ProductNotFoundException
+     * Plantillas precalculadas por código de error: la parte constante de la
+     * respuesta se construye una sola vez y no en cada petición
      */
-    @ExceptionHandler(ProductNotFoundException.class)
-    public ResponseEntity<ApiResponse<ErrorResponse>> handleProductNotFound(
-            ProductNotFoundException ex, WebRequest request) {
+    private record ErrorTemplate(String responseMessage, Map<String, String> details) {}
+
+    private static final Map<String, ErrorTemplate> TEMPLATES = Map.ofEntries(
+        Map.entry(ProductNotFoundException.ERROR_CODE,
+            new ErrorTemplate("Recurso no encontrado", Map.of())),
+        Map.entry(ProductAlreadyExistsException.ERROR_CODE,
+            new ErrorTemplate("Conflicto de recursos",
+                Map.of("suggestion", "Use un nombre diferente o actualice el producto existente"))),
+        Map.entry(ImportJobNotFoundException.ERROR_CODE,
+            new ErrorTemplate("Recurso no encontrado", Map.of())),
+        Map.entry(ImportJobStateException.ERROR_CODE,
+            new ErrorTemplate("Conflicto de estado",
+                Map.of("suggestion", "Consulte el estado del trabajo antes de reanudarlo"))),
+        Map.entry(ArchiveInProgressException.ERROR_CODE,
+            new ErrorTemplate("Conflicto de estado",
+                Map.of("suggestion", "Espere a que termine la pasada en curso"))),
+        Map.entry(IdempotencyKeyReusedException.ERROR_CODE,
+            new ErrorTemplate("Clave de idempotencia reutilizada",
+                Map.of("suggestion", "Genere un Idempotency-Key nuevo para cada operación distinta"))),
+        Map.entry(IdempotencyKeyInProgressException.ERROR_CODE,
+            new ErrorTemplate("Conflicto de estado",
+                Map.of("suggestion", "Reintente más tarde con el mismo Idempotency-Key"))),
+        Map.entry(InsufficientStockException.ERROR_CODE,
+            new ErrorTemplate("Conflicto de stock",
+                Map.of("suggestion", "Consulte la disponibilidad del producto y reduzca la cantidad"))),
+        Map.entry(ReservationNotFoundException.ERROR_CODE,
+            new ErrorTemplate("Recurso no encontrado", Map.of())),
+        Map.entry(ReservationStateException.ERROR_CODE,
+            new ErrorTemplate("Conflicto de estado",
+                Map.of("suggestion", "Las reservas caducadas o liberadas no se pueden confirmar; cree una nueva"))),
+        Map.entry(FacetIndexNotReadyException.ERROR_CODE,
+            new ErrorTemplate("Servicio no disponible",
+                Map.of("suggestion", "Reintente en unos segundos")))
+    );
+
+    private static final ErrorTemplate DEFAULT_TEMPLATE = new ErrorTemplate("Error de negocio", Map.of());
 
-        logger.warn("Producto no encontrado: {}", ex.getMessage());
+    /**
+     * Maneja los errores de negocio ya clasificados (ProductNotFoundException,
+     * ProductAlreadyExistsException...). Son resultados esperados: no llevan
+     * traza de pila y se registran sin ella a nivel DEBUG.
+     */
+    @ExceptionHandler(ProductApiException.class)
+    public ResponseEntity<ApiResponse<ErrorResponse>> handleProductApiException(
+            ProductApiException ex, HttpServletRequest request) {
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("{} en {}: {}", ex.getErrorCode(), request.getRequestURI(), ex.getMessage());
+        }
+
+        ErrorTemplate template = TEMPLATES.getOrDefault(ex.getErrorCode(), DEFAULT_TEMPLATE);
+        Map<String, String> details = ex instanceof ProductNotFoundException
+            ? Map.of("path", request.getRequestURI())
+            : template.details();
 
         ErrorResponse errorResponse = new ErrorResponse(
-            "PRODUCT_NOT_FOUND",
+            ex.getErrorCode(),
             ex.getMessage(),
-            Map.of("path", request.getDescription(false).replace("uri=", "")),
+            details,
             LocalDateTime.now()
         );
 
-        return ResponseEntity.status(HttpStatus.NOT_FOUND)
-            .body(ApiResponse.error(errorResponse, "Recurso no encontrado", 404));
+        int status = ex.getStatus().value();
+        return ResponseEntity.status(status)
+            .body(ApiResponse.error(errorResponse, template.responseMessage(), status));
     }
 
     /**
-     * Maneja ProductAlreadyExistsException
+     * Maneja rutas inexistentes
      */
-    @ExceptionHandler(ProductAlreadyExistsException.class)
-    public ResponseEntity<ApiResponse<ErrorResponse>> handleProductAlreadyExists(
-            ProductAlreadyExistsException ex) {
-
-        logger.warn("Producto ya existe: {}", ex.getMessage());
+    @ExceptionHandler(NoResourceFoundException.class)
+    public ResponseEntity<ApiResponse<ErrorResponse>> handleNoResourceFound(
+            NoResourceFoundException ex, HttpServletRequest request) {
 
         ErrorResponse errorResponse = new ErrorResponse(
-            "PRODUCT_ALREADY_EXISTS",
-            ex.getMessage(),
-            Map.of("suggestion", "Use un nombre diferente o actualice el producto existente"),
+            "RESOURCE_NOT_FOUND",
+            "No existe el recurso solicitado",
+            Map.of("path", request.getRequestURI()),
             LocalDateTime.now()
         );
 
-        return ResponseEntity.status(HttpStatus.CONFLICT)
-            .body(ApiResponse.error(errorResponse, "Conflicto de recursos", 409));
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body(ApiResponse.error(errorResponse, "Recurso no encontrado", 404));
     }
 
     /**
@@ -0,0 +1,22 @@
+package com.eafit.tutorial.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Excepción lanzada cuando la petición original con el mismo Idempotency-Key
+ * sigue en curso tras el tiempo máximo de espera
+ */
+public class IdempotencyKeyInProgressException extends ProductApiException {
+
+    public static final String ERROR_CODE = "IDEMPOTENCY_KEY_IN_PROGRESS";
+
+    public IdempotencyKeyInProgressException(String key) {
+        super("La petición con este Idempotency-Key sigue en curso: " + key, null);
+    }
+
+    @Override
+    public String getErrorCode() { return ERROR_CODE; }
+
+    @Override
+    public HttpStatus getStatus() { return HttpStatus.CONFLICT; }
+}
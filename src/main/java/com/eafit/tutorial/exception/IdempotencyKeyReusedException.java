@@ -0,0 +1,22 @@
+package com.eafit.tutorial.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Excepción lanzada al reutilizar un Idempotency-Key con otra petición
+ * (distinto método, ruta o cuerpo)
+ */
+public class IdempotencyKeyReusedException extends ProductApiException {
+
+    public static final String ERROR_CODE = "IDEMPOTENCY_KEY_REUSED";
+
+    public IdempotencyKeyReusedException(String key) {
+        super("El Idempotency-Key ya se usó con una petición distinta: " + key, null);
+    }
+
+    @Override
+    public String getErrorCode() { return ERROR_CODE; }
+
+    @Override
+    public HttpStatus getStatus() { return HttpStatus.UNPROCESSABLE_ENTITY; }
+}
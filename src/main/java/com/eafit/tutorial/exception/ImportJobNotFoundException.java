@@ -0,0 +1,21 @@
+package com.eafit.tutorial.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Excepción lanzada cuando no existe el trabajo de importación solicitado
+ */
+public class ImportJobNotFoundException extends ProductApiException {
+
+    public static final String ERROR_CODE = "IMPORT_JOB_NOT_FOUND";
+
+    public ImportJobNotFoundException(String jobId) {
+        super("Trabajo de importación no encontrado: " + jobId, null);
+    }
+
+    @Override
+    public String getErrorCode() { return ERROR_CODE; }
+
+    @Override
+    public HttpStatus getStatus() { return HttpStatus.NOT_FOUND; }
+}
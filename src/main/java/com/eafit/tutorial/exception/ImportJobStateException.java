@@ -0,0 +1,21 @@
+package com.eafit.tutorial.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Excepción lanzada cuando el estado del trabajo de importación no permite la operación
+ */
+public class ImportJobStateException extends ProductApiException {
+
+    public static final String ERROR_CODE = "IMPORT_JOB_CONFLICT";
+
+    public ImportJobStateException(String message) {
+        super(message, null);
+    }
+
+    @Override
+    public String getErrorCode() { return ERROR_CODE; }
+
+    @Override
+    public HttpStatus getStatus() { return HttpStatus.CONFLICT; }
+}
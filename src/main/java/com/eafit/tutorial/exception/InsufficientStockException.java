@@ -0,0 +1,22 @@
+package com.eafit.tutorial.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Excepción lanzada cuando no hay stock disponible suficiente para una operación
+ */
+public class InsufficientStockException extends ProductApiException {
+
+    public static final String ERROR_CODE = "INSUFFICIENT_STOCK";
+
+    public InsufficientStockException(Long productId, int requested, int available) {
+        super("Stock insuficiente para el producto " + productId + ": solicitadas " + requested
+            + ", disponibles " + available, null);
+    }
+
+    @Override
+    public String getErrorCode() { return ERROR_CODE; }
+
+    @Override
+    public HttpStatus getStatus() { return HttpStatus.CONFLICT; }
+}
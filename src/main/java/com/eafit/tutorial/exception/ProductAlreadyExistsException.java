@@ -1,19 +1,25 @@
 package com.eafit.tutorial.exception;
 
+import org.springframework.http.HttpStatus;
+
 /**
  * Excepción lanzada cuando se intenta crear un producto que ya existe
  */
-public class ProductAlreadyExistsException extends RuntimeException {
+public class ProductAlreadyExistsException extends ProductApiException {
+
+    public static final String ERROR_CODE = "PRODUCT_ALREADY_EXISTS";
 
-    /*public ProductAlreadyExistsException(String message) {
-        super(message);
-    }*/
+    public ProductAlreadyExistsException(String message) {
+        super(message, null);
+    }
 
     public ProductAlreadyExistsException(String message, Throwable cause) {
         super(message, cause);
     }
 
-    public ProductAlreadyExistsException(String productName) {
-        super("Ya existe un producto con el nombre: " + productName);
-    }
-}
\ No newline at end of file
+    @Override
+    public String getErrorCode() { return ERROR_CODE; }
+
+    @Override
+    public HttpStatus getStatus() { return HttpStatus.CONFLICT; }
+}
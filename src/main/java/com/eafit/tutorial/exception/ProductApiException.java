@@ -0,0 +1,27 @@
+package com.eafit.tutorial.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Excepción base para errores de negocio esperados de la API de productos
+ *
+ * Es "stackless": no captura la traza de la pila, porque son resultados
+ * previstos (404, 409...) y no fallos. Cada subclase viene ya clasificada
+ * con su código de error y estado HTTP para GlobalExceptionHandler.
+ */
+public abstract class ProductApiException extends RuntimeException {
+
+    protected ProductApiException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+
+    /**
+     * Código de error expuesto en ErrorResponse
+     */
+    public abstract String getErrorCode();
+
+    /**
+     * Estado HTTP asociado al error
+     */
+    public abstract HttpStatus getStatus();
+}
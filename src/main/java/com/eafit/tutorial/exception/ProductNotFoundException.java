@@ -1,12 +1,16 @@
 package com.eafit.tutorial.exception;
 
+import org.springframework.http.HttpStatus;
+
 /**
  * Excepción lanzada cuando no se encuentra un producto
  */
-public class ProductNotFoundException extends RuntimeException {
+public class ProductNotFoundException extends ProductApiException {
+
+    public static final String ERROR_CODE = "PRODUCT_NOT_FOUND";
 
     public ProductNotFoundException(String message) {
-        super(message);
+        super(message, null);
     }
 
     public ProductNotFoundException(String message, Throwable cause) {
@@ -14,6 +18,12 @@ public class ProductNotFoundException extends RuntimeException {
     }
 
     public ProductNotFoundException(Long productId) {
-        super("Producto no encontrado con ID: " + productId);
+        super("Producto no encontrado con ID: " + productId, null);
     }
+
+    @Override
+    public String getErrorCode() { return ERROR_CODE; }
+
+    @Override
+    public HttpStatus getStatus() { return HttpStatus.NOT_FOUND; }
 }
@@ -0,0 +1,21 @@
+package com.eafit.tutorial.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Excepción lanzada cuando una reserva no existe o ya se olvidó
+ */
+public class ReservationNotFoundException extends ProductApiException {
+
+    public static final String ERROR_CODE = "RESERVATION_NOT_FOUND";
+
+    public ReservationNotFoundException(String reservationId) {
+        super("Reserva no encontrada: " + reservationId, null);
+    }
+
+    @Override
+    public String getErrorCode() { return ERROR_CODE; }
+
+    @Override
+    public HttpStatus getStatus() { return HttpStatus.NOT_FOUND; }
+}
@@ -0,0 +1,21 @@
+package com.eafit.tutorial.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Excepción lanzada al confirmar o liberar una reserva que ya no está retenida
+ */
+public class ReservationStateException extends ProductApiException {
+
+    public static final String ERROR_CODE = "RESERVATION_NOT_HELD";
+
+    public ReservationStateException(String reservationId, String status) {
+        super("La reserva " + reservationId + " no está retenida (estado " + status + ")", null);
+    }
+
+    @Override
+    public String getErrorCode() { return ERROR_CODE; }
+
+    @Override
+    public HttpStatus getStatus() { return HttpStatus.CONFLICT; }
+}
@@ -0,0 +1,47 @@
+package com.eafit.tutorial.idempotency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.time.Duration;
+
+/**
+ * Soporte de Idempotency-Key en las escrituras de productos (products.idempotency.enabled)
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyStore idempotencyStore(@Value("${products.idempotency.ttl:PT24H}") Duration ttl,
+                                             @Value("${products.idempotency.max-entries:10000}") int maxEntries,
+                                             @Value("${products.idempotency.wait-timeout:PT10S}") Duration waitTimeout) {
+        return new IdempotencyStore(ttl, maxEntries, waitTimeout);
+    }
+
+    /**
+     * Tras Server-Timing y la afinidad de cliente, para que las repeticiones
+     * también se midan; los errores se delegan en GlobalExceptionHandler
+     */
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(
+            IdempotencyStore idempotencyStore,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver,
+            @Value("${products.idempotency.max-body-size:1MB}") DataSize maxBodySize,
+            MeterRegistry meterRegistry) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(new IdempotencyFilter(
+            idempotencyStore, exceptionResolver, (int) Math.min(maxBodySize.toBytes(), Integer.MAX_VALUE - 8),
+            meterRegistry));
+        registration.addUrlPatterns("/api/v1/products", "/api/v1/products/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 30);
+        return registration;
+    }
+}
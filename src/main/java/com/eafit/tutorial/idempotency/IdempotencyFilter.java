@@ -0,0 +1,254 @@
+package com.eafit.tutorial.idempotency;
+
+import com.eafit.tutorial.exception.ProductApiException;
+import com.eafit.tutorial.exception.ValidationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Repite la primera respuesta de las escrituras con cabecera Idempotency-Key
+ *
+ * Solo actúa sobre POST, PUT y PATCH de ProductController y ReservationController
+ * que traen la cabecera. La huella de la petición (método, ruta, query y cuerpo) va con la
+ * clave: reutilizarla con otra petición es un 422. Las repeticiones se
+ * responden desde IdempotencyStore sin llegar al controlador ni al servicio,
+ * con la cabecera Idempotent-Replayed: true.
+ *
+ * El cuerpo se guarda en memoria para la huella; si supera max-body-size
+ * (por Content-Length o al leerlo) la petición sigue sin idempotencia.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Set<String> METHODS = Set.of("POST", "PUT", "PATCH");
+    // Rutas de otros controladores bajo /api/v1/products
+    private static final List<String> EXCLUDED_PREFIXES = List.of("/api/v1/products/import", "/api/v1/products/archive");
+
+    private final IdempotencyStore store;
+    private final HandlerExceptionResolver exceptionResolver;
+    private final int maxBodyBytes;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter rejected;
+    private final Counter skipped;
+
+    public IdempotencyFilter(IdempotencyStore store, HandlerExceptionResolver exceptionResolver,
+                             int maxBodyBytes, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.exceptionResolver = exceptionResolver;
+        this.maxBodyBytes = maxBodyBytes;
+        this.executed = outcome(meterRegistry, "executed");
+        this.replayed = outcome(meterRegistry, "replayed");
+        this.rejected = outcome(meterRegistry, "rejected");
+        this.skipped = outcome(meterRegistry, "skipped");
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("products.idempotency.requests")
+            .description("Escrituras con Idempotency-Key por resultado")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!METHODS.contains(request.getMethod()) || request.getHeader(HEADER) == null) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        return EXCLUDED_PREFIXES.stream().anyMatch(path::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String key = request.getHeader(HEADER).trim();
+        if (request.getContentLengthLong() > maxBodyBytes) {
+            skipped.increment();
+            chain.doFilter(request, response);
+            return;
+        }
+        // Sin Content-Length (chunked) se lee como mucho un byte más del límite
+        InputStream input = request.getInputStream();
+        byte[] body = input.readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            skipped.increment();
+            chain.doFilter(new CachedBodyRequest(request, body, input), response);
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body, null);
+
+        IdempotencyStore.Reservation reservation;
+        try {
+            if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+                throw new ValidationException("El Idempotency-Key debe tener entre 1 y " + MAX_KEY_LENGTH + " caracteres");
+            }
+            reservation = store.begin(key, fingerprint(cachedRequest));
+        } catch (ProductApiException | ValidationException e) {
+            rejected.increment();
+            exceptionResolver.resolveException(request, response, null, e);
+            return;
+        }
+
+        if (reservation.isReplay()) {
+            replayed.increment();
+            replay(reservation.replay(), response);
+            return;
+        }
+
+        executed.increment();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        StoredResponse stored = null;
+        try {
+            chain.doFilter(cachedRequest, wrapper);
+            stored = new StoredResponse(wrapper.getStatus(), wrapper.getContentType(),
+                wrapper.getHeader(HttpHeaders.LOCATION), wrapper.getContentAsByteArray());
+        } finally {
+            store.complete(key, reservation.claim(), stored);
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.location());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private static String fingerprint(CachedBodyRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            if (request.getQueryString() != null) {
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) 0);
+            digest.update(request.body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Petición con el cuerpo ya leído, para calcular la huella y volver a leerlo
+     *
+     * Si el cuerpo superaba el límite, body es solo su comienzo y rest el resto
+     * del original, que se lee a continuación.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+        private final InputStream rest;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body, InputStream rest) {
+            super(request);
+            this.body = body;
+            this.rest = rest;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            InputStream input = rest == null
+                ? new ByteArrayInputStream(body)
+                : new SequenceInputStream(new ByteArrayInputStream(body), rest);
+            return new ServletInputStream() {
+                private boolean finished;
+
+                @Override
+                public int read() throws IOException {
+                    int b = input.read();
+                    finished = b < 0;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int read = input.read(buffer, offset, length);
+                    finished = read < 0;
+                    return read;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return finished || (rest == null && available() == 0);
+                }
+
+                @Override
+                public int available() {
+                    try {
+                        return input.available();
+                    } catch (IOException e) {
+                        return 0;
+                    }
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * Los datos ya están disponibles: se avisa en el acto, como haría
+                 * el contenedor con un cuerpo que ya ha llegado entero
+                 */
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException | RuntimeException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
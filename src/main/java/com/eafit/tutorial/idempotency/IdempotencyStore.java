@@ -0,0 +1,164 @@
+package com.eafit.tutorial.idempotency;
+
+import com.eafit.tutorial.exception.IdempotencyKeyInProgressException;
+import com.eafit.tutorial.exception.IdempotencyKeyReusedException;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Almacén acotado de respuestas por Idempotency-Key con caducidad
+ *
+ * La primera petición de una clave la reserva (begin) y la completa con su
+ * respuesta; las que llegan mientras tanto esperan a esa respuesta en vez de
+ * ejecutarse. Las respuestas guardadas caducan tras ttl y, por encima de
+ * max-entries, se descartan las más antiguas. Como el ttl es fijo, el orden de
+ * guardado es también el de caducidad y basta una cola FIFO para ambas cosas.
+ */
+public class IdempotencyStore {
+
+    /**
+     * Reserva devuelta a quien debe ejecutar la petición
+     */
+    public static final class Claim {
+
+        private final String fingerprint;
+        private final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+        private volatile long expiresAt;
+        // Hasta guardar la respuesta la reserva no caduca; expiresAt no vale nada
+        private volatile boolean stored;
+
+        private Claim(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        boolean expired(long now) {
+            return stored && expiresAt - now < 0;
+        }
+    }
+
+    /**
+     * Resultado de begin: una reserva que ejecutar o una respuesta que repetir
+     */
+    public record Reservation(Claim claim, StoredResponse replay) {
+
+        public boolean isReplay() {
+            return replay != null;
+        }
+    }
+
+    private record Slot(String key, Claim claim) {}
+
+    private final ConcurrentMap<String, Claim> entries = new ConcurrentHashMap<>();
+    private final Queue<Slot> completed = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger completedCount = new AtomicInteger();
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Duration waitTimeout;
+
+    public IdempotencyStore(Duration ttl, int maxEntries, Duration waitTimeout) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.waitTimeout = waitTimeout;
+    }
+
+    /**
+     * Reserva la clave o devuelve la respuesta ya guardada para ella
+     *
+     * Devuelve una reserva si hay que ejecutar la petición, o la respuesta a
+     * repetir. Si la petición original está en curso se espera a su respuesta;
+     * si terminó sin respuesta guardable (5xx o excepción) se vuelve a intentar
+     * la reserva.
+     *
+     * @throws IdempotencyKeyReusedException si la clave se usó con otra petición
+     * @throws IdempotencyKeyInProgressException si la original no termina a tiempo
+     */
+    public Reservation begin(String key, String fingerprint) {
+        while (true) {
+            long now = System.nanoTime();
+            purgeExpired(now);
+
+            Claim claim = new Claim(fingerprint);
+            Claim existing = entries.putIfAbsent(key, claim);
+            if (existing == null) {
+                return new Reservation(claim, null);
+            }
+            if (existing.expired(now)) {
+                entries.remove(key, existing);
+                continue;
+            }
+            if (!existing.fingerprint.equals(fingerprint)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+            StoredResponse response = await(key, existing);
+            if (response != null) {
+                return new Reservation(null, response);
+            }
+        }
+    }
+
+    /**
+     * Completa la reserva: la respuesta se guarda si es guardable y, en todo
+     * caso, se libera a quienes esperaban
+     */
+    public void complete(String key, Claim claim, StoredResponse response) {
+        if (response == null || response.status() >= 500) {
+            // Sin resultado definitivo: un reintento debe poder ejecutarse
+            entries.remove(key, claim);
+            claim.response.complete(null);
+            return;
+        }
+        claim.expiresAt = System.nanoTime() + ttlNanos;
+        claim.stored = true;
+        completed.add(new Slot(key, claim));
+        completedCount.incrementAndGet();
+        claim.response.complete(response);
+
+        while (completedCount.get() > maxEntries) {
+            Slot oldest = completed.poll();
+            if (oldest == null) {
+                break;
+            }
+            completedCount.decrementAndGet();
+            entries.remove(oldest.key(), oldest.claim());
+        }
+    }
+
+    private StoredResponse await(String key, Claim claim) {
+        try {
+            return claim.response.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException(key);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private void purgeExpired(long now) {
+        Slot head;
+        while ((head = completed.peek()) != null && head.claim().expired(now)) {
+            if (completed.remove(head)) {
+                completedCount.decrementAndGet();
+                entries.remove(head.key(), head.claim());
+            }
+        }
+    }
+
+    /**
+     * Claves guardadas o en curso
+     */
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,7 @@
+package com.eafit.tutorial.idempotency;
+
+/**
+ * Respuesta guardada para repetirla ante reintentos con el mismo Idempotency-Key
+ */
+public record StoredResponse(int status, String contentType, String location, byte[] body) {
+}
@@ -0,0 +1,72 @@
+package com.eafit.tutorial.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Filtro de Logback que muestrea los mensajes de depuración de loggers calientes
+ *
+ * Para los loggers cuyo nombre empieza por alguno de los prefijos configurados,
+ * deja pasar solo uno de cada "rate" eventos de nivel DEBUG o inferior (al azar,
+ * sin contadores compartidos). Los niveles INFO y superiores no se tocan.
+ *
+ * <pre>
+ * &lt;turboFilter class="com.eafit.tutorial.logging.SamplingTurboFilter"&gt;
+ *     &lt;logger&gt;com.eafit.tutorial.controller&lt;/logger&gt;
+ *     &lt;rate&gt;100&lt;/rate&gt;
+ * &lt;/turboFilter&gt;
+ * </pre>
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final List<String> loggerPrefixes = new ArrayList<>();
+    private int rate = 100;
+    private Level maxLevel = Level.DEBUG;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level,
+                              String format, Object[] params, Throwable t) {
+        // format == null: es una consulta isXxxEnabled(), no un evento
+        if (format == null || level.isGreaterOrEqual(Level.INFO) || level.toInt() > maxLevel.toInt()) {
+            return FilterReply.NEUTRAL;
+        }
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel()) || !isSampled(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return ThreadLocalRandom.current().nextInt(rate) == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean isSampled(String loggerName) {
+        for (String prefix : loggerPrefixes) {
+            if (loggerName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void start() {
+        if (rate < 1) {
+            addError("rate debe ser >= 1");
+            return;
+        }
+        super.start();
+    }
+
+    // Propiedades configurables desde logback-spring.xml
+    public void addLogger(String prefix) {
+        loggerPrefixes.add(prefix.trim());
+    }
+
+    public void setRate(int rate) { this.rate = rate; }
+
+    public void setMaxLevel(String maxLevel) { this.maxLevel = Level.toLevel(maxLevel, Level.DEBUG); }
+}
@@ -0,0 +1,116 @@
+package com.eafit.tutorial.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Entidad PriceHistorySegment - tramo del historial de precios de un producto
+ *
+ * Agrupa hasta products.price-history.segment-entries cambios codificados con
+ * PriceHistoryCodec. Solo se añade al último segmento de cada producto; los
+ * anteriores no se modifican. first_at y last_at acotan los cambios que
+ * contiene para resolver consultas por rango sin decodificar el resto.
+ * segment_number numera la cadena de cada producto desde 0 y es único por
+ * producto, así que no pueden crearse dos cadenas para el mismo producto.
+ */
+@Entity
+@Table(name = "price_history_segments",
+       indexes = {
+           @Index(name = "idx_price_history_product_last_at", columnList = "product_id, last_at")
+       },
+       uniqueConstraints = {
+           @UniqueConstraint(name = "uk_price_history_product_segment", columnNames = {"product_id", "segment_number"})
+       })
+public class PriceHistorySegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "segment_number", nullable = false)
+    private Integer number;
+
+    @Column(name = "first_at", nullable = false)
+    private LocalDateTime firstAt;
+
+    @Column(name = "last_at", nullable = false)
+    private LocalDateTime lastAt;
+
+    @Column(name = "last_cents", nullable = false)
+    private Long lastCents;
+
+    @Column(name = "entry_count", nullable = false)
+    private Integer entryCount;
+
+    @Column(name = "data", nullable = false, length = 8192)
+    private byte[] data;
+
+    // Constructores
+    public PriceHistorySegment() {}
+
+    public PriceHistorySegment(Long productId, int number, LocalDateTime firstAt) {
+        this.productId = productId;
+        this.number = number;
+        this.firstAt = firstAt;
+        this.lastAt = firstAt;
+        this.lastCents = 0L;
+        this.entryCount = 0;
+        this.data = new byte[0];
+    }
+
+    // Getters y Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public Integer getNumber() { return number; }
+    public void setNumber(Integer number) { this.number = number; }
+
+    public LocalDateTime getFirstAt() { return firstAt; }
+    public void setFirstAt(LocalDateTime firstAt) { this.firstAt = firstAt; }
+
+    public LocalDateTime getLastAt() { return lastAt; }
+    public void setLastAt(LocalDateTime lastAt) { this.lastAt = lastAt; }
+
+    public Long getLastCents() { return lastCents; }
+    public void setLastCents(Long lastCents) { this.lastCents = lastCents; }
+
+    public Integer getEntryCount() { return entryCount; }
+    public void setEntryCount(Integer entryCount) { this.entryCount = entryCount; }
+
+    public byte[] getData() { return data; }
+    public void setData(byte[] data) { this.data = data; }
+
+    // equals, hashCode y toString
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PriceHistorySegment that = (PriceHistorySegment) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "PriceHistorySegment{" +
+                "id=" + id +
+                ", productId=" + productId +
+                ", number=" + number +
+                ", firstAt=" + firstAt +
+                ", lastAt=" + lastAt +
+                ", entryCount=" + entryCount +
+                '}';
+    }
+}
@@ -19,7 +19,9 @@ import java.util.Objects;
 @Table(name = "products",
        indexes = {
            @Index(name = "idx_product_name", columnList = "name"),
-           @Index(name = "idx_product_category", columnList = "category")
+           @Index(name = "idx_product_category", columnList = "category"),
+           // Candidatos del archivado: inactivos ordenados por antigüedad
+           @Index(name = "idx_product_active_updated", columnList = "active, updated_at")
        })
 public class Product {
 
@@ -0,0 +1,8 @@
+package com.eafit.tutorial.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección de un producto activo con los campos por los que se facetan las búsquedas
+ */
+public record ProductFacetRow(Long id, String category, BigDecimal price) {}
@@ -0,0 +1,28 @@
+package com.eafit.tutorial.monitoring;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Interceptor que atribuye el tiempo de las llamadas a un bean a una fase
+ */
+class PhaseTimingInterceptor implements MethodInterceptor {
+
+    private final RequestPhase phase;
+
+    PhaseTimingInterceptor(RequestPhase phase) {
+        this.phase = phase;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (!RequestTiming.enter(phase)) {
+            return invocation.proceed();
+        }
+        try {
+            return invocation.proceed();
+        } finally {
+            RequestTiming.exit(phase);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.eafit.tutorial.monitoring;
+
+/**
+ * Fases de una petición medidas para la cabecera Server-Timing
+ */
+public enum RequestPhase {
+
+    BIND("bind", "Enrutado y binding de parámetros"),
+    CONTROLLER("ctrl", "ProductController"),
+    SERVICE("svc", "ProductService"),
+    REPOSITORY("db", "ProductRepository"),
+    MAPPER("map", "ProductMapper"),
+    SERIALIZATION("ser", "Serialización JSON"),
+    TOTAL("total", "Total");
+
+    private final String metricName;
+    private final String description;
+
+    RequestPhase(String metricName, String description) {
+        this.metricName = metricName;
+        this.description = description;
+    }
+
+    public String getMetricName() { return metricName; }
+
+    public String getDescription() { return description; }
+}
@@ -0,0 +1,128 @@
+package com.eafit.tutorial.monitoring;
+
+/**
+ * Acumulador de tiempos por fase de la petición en curso
+ *
+ * Vive en un ThreadLocal solo mientras ServerTimingFilter procesa la petición;
+ * fuera de él (o con el timing desactivado) enter/exit no hacen nada. Las fases
+ * anidadas del mismo tipo (p. ej. CoalescingProductService -> ProductServiceImpl)
+ * se cuentan una sola vez.
+ */
+public final class RequestTiming {
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+    private static final RequestPhase[] PHASES = RequestPhase.values();
+
+    private final long startedAt;
+    private final long[] totals = new long[PHASES.length];
+    private final long[] enteredAt = new long[PHASES.length];
+    private final int[] depth = new int[PHASES.length];
+    private final boolean[] seen = new boolean[PHASES.length];
+    private long controllerEnteredAt;
+    private long controllerExitedAt;
+
+    private RequestTiming(long startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    static RequestTiming start() {
+        RequestTiming timing = new RequestTiming(System.nanoTime());
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Marca la entrada en una fase; devuelve false si no hay medición activa
+     */
+    public static boolean enter(RequestPhase phase) {
+        RequestTiming timing = CURRENT.get();
+        if (timing == null) {
+            return false;
+        }
+        int i = phase.ordinal();
+        if (timing.depth[i]++ == 0) {
+            long now = System.nanoTime();
+            timing.enteredAt[i] = now;
+            if (phase == RequestPhase.CONTROLLER && timing.controllerEnteredAt == 0) {
+                timing.controllerEnteredAt = now;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marca la salida de una fase
+     */
+    public static void exit(RequestPhase phase) {
+        RequestTiming timing = CURRENT.get();
+        if (timing == null) {
+            return;
+        }
+        int i = phase.ordinal();
+        if (--timing.depth[i] == 0) {
+            long now = System.nanoTime();
+            timing.totals[i] += now - timing.enteredAt[i];
+            timing.seen[i] = true;
+            if (phase == RequestPhase.CONTROLLER) {
+                timing.controllerExitedAt = now;
+            }
+        }
+    }
+
+    /**
+     * Cierra la medición hasta este instante: deriva binding, serialización y total
+     *
+     * Se puede llamar varias veces (al poner la cabecera y al terminar); cada
+     * llamada sustituye los valores derivados.
+     */
+    void finish() {
+        long now = System.nanoTime();
+        if (controllerEnteredAt != 0) {
+            record(RequestPhase.BIND, controllerEnteredAt - startedAt);
+        }
+        if (controllerExitedAt != 0) {
+            record(RequestPhase.SERIALIZATION, now - controllerExitedAt);
+        }
+        record(RequestPhase.TOTAL, now - startedAt);
+    }
+
+    boolean hasPhase(RequestPhase phase) {
+        return seen[phase.ordinal()];
+    }
+
+    long nanos(RequestPhase phase) {
+        return totals[phase.ordinal()];
+    }
+
+    /**
+     * Valor de la cabecera Server-Timing: "svc;dur=1.234, db;dur=0.987, ..."
+     */
+    String toHeaderValue() {
+        StringBuilder header = new StringBuilder(128);
+        for (RequestPhase phase : PHASES) {
+            if (!seen[phase.ordinal()]) {
+                continue;
+            }
+            if (header.length() > 0) {
+                header.append(", ");
+            }
+            long micros = totals[phase.ordinal()] / 1_000;
+            header.append(phase.getMetricName())
+                .append(";dur=").append(micros / 1_000).append('.');
+            long fraction = micros % 1_000;
+            if (fraction < 100) header.append('0');
+            if (fraction < 10) header.append('0');
+            header.append(fraction);
+        }
+        return header.toString();
+    }
+
+    private void record(RequestPhase phase, long nanos) {
+        totals[phase.ordinal()] = nanos;
+        seen[phase.ordinal()] = true;
+    }
+}
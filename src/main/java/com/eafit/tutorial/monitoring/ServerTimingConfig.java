@@ -0,0 +1,82 @@
+package com.eafit.tutorial.monitoring;
+
+import com.eafit.tutorial.controller.ProductController;
+import com.eafit.tutorial.repository.ProductRepository;
+import com.eafit.tutorial.service.ProductService;
+import com.eafit.tutorial.util.ProductMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Activa la cabecera Server-Timing (products.timing.enabled=true)
+ *
+ * Con la propiedad desactivada no se registra nada: ni filtro ni proxies,
+ * así que el coste es nulo.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.timing.enabled", havingValue = "true")
+public class ServerTimingConfig {
+
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<ServerTimingFilter> registration =
+            new FilterRegistrationBean<>(new ServerTimingFilter(meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    /**
+     * Envuelve controlador, servicio, repositorio y mapper con la medición de su fase
+     */
+    @Bean
+    public static BeanPostProcessor phaseTimingPostProcessor() {
+        return new PhaseTimingPostProcessor();
+    }
+
+    static class PhaseTimingPostProcessor implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof ProductController) {
+                return proxy(bean, RequestPhase.CONTROLLER, null);
+            }
+            if (bean instanceof ProductService) {
+                return proxy(bean, RequestPhase.SERVICE, ProductService.class);
+            }
+            if (bean instanceof ProductRepository) {
+                return proxy(bean, RequestPhase.REPOSITORY, ProductRepository.class);
+            }
+            if (bean instanceof ProductMapper) {
+                return proxy(bean, RequestPhase.MAPPER, null);
+            }
+            return bean;
+        }
+
+        /**
+         * Proxy por interfaz si se indica, o por subclase (CGLIB) en caso contrario
+         */
+        private Object proxy(Object bean, RequestPhase phase, Class<?> proxyInterface) {
+            ProxyFactory factory = new ProxyFactory();
+            factory.setTarget(bean);
+            if (proxyInterface != null) {
+                factory.setInterfaces(proxyInterface);
+            } else {
+                factory.setProxyTargetClass(true);
+            }
+            factory.addAdvice(new PhaseTimingInterceptor(phase));
+            return factory.getProxy(bean.getClass().getClassLoader());
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.eafit.tutorial.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide las fases de cada petición a la API y las publica en la cabecera
+ * Server-Timing y en el timer products.request.phase
+ *
+ * El cuerpo no se retiene: la cabecera se añade justo antes del primer byte,
+ * así que en ella "ser" y "total" llegan hasta ese momento (en respuestas
+ * pequeñas Jackson ya terminó; en las grandes, solo el primer bloque). El
+ * timer recibe los valores completos al terminar la petición.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Server-Timing";
+
+    private final Timer[] timers;
+
+    public ServerTimingFilter(MeterRegistry meterRegistry) {
+        RequestPhase[] phases = RequestPhase.values();
+        this.timers = new Timer[phases.length];
+        for (RequestPhase phase : phases) {
+            timers[phase.ordinal()] = Timer.builder("products.request.phase")
+                .description("Duración de cada fase de las peticiones a la API de productos")
+                .tag("phase", phase.getMetricName())
+                .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        RequestTiming timing = RequestTiming.start();
+        TimingResponse wrapper = new TimingResponse(response, timing);
+        try {
+            chain.doFilter(request, wrapper);
+        } finally {
+            RequestTiming.clear();
+            // Lo escrito por getWriter() sigue en el búfer del PrintWriter hasta aquí
+            wrapper.flushWriter();
+            // Sin cuerpo (204, 304...) no hubo primer byte: la cabecera se pone ahora
+            wrapper.addTimingHeader();
+            timing.finish();
+            record(timing);
+        }
+    }
+
+    private void record(RequestTiming timing) {
+        for (RequestPhase phase : RequestPhase.values()) {
+            if (timing.hasPhase(phase)) {
+                timers[phase.ordinal()].record(timing.nanos(phase), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Respuesta que añade Server-Timing en el último momento antes del commit
+     */
+    static final class TimingResponse extends HttpServletResponseWrapper {
+
+        private final RequestTiming timing;
+        private boolean headerAdded;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        TimingResponse(HttpServletResponse response, RequestTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        void addTimingHeader() {
+            if (headerAdded) {
+                return;
+            }
+            headerAdded = true;
+            if (!getResponse().isCommitted()) {
+                timing.finish();
+                setHeader(HEADER, timing.toHeaderValue());
+            }
+        }
+
+        void flushWriter() {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new TimingOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addTimingHeader();
+            flushWriter();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addTimingHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addTimingHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addTimingHeader();
+            super.sendRedirect(location);
+        }
+
+        private final class TimingOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            private TimingOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                addTimingHeader();
+                delegate.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                addTimingHeader();
+                delegate.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                addTimingHeader();
+                delegate.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                addTimingHeader();
+                delegate.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                delegate.setWriteListener(listener);
+            }
+        }
+    }
+}
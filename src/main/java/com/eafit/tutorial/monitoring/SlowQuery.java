@@ -0,0 +1,56 @@
+package com.eafit.tutorial.monitoring;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Consulta SQL que superó el umbral de lentitud
+ *
+ * El plan de ejecución se obtiene después, en segundo plano, y se completa
+ * sobre la misma instancia.
+ */
+public class SlowQuery {
+
+    private final long sequence;
+    private final String sql;
+    private final List<String> parameters;
+    private final long durationMillis;
+    private final long rows;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss.SSS")
+    private final LocalDateTime executedAt;
+
+    private volatile String plan;
+
+    public SlowQuery(long sequence, String sql, List<String> parameters,
+                     long durationMillis, long rows, LocalDateTime executedAt) {
+        this.sequence = sequence;
+        this.sql = sql;
+        this.parameters = parameters;
+        this.durationMillis = durationMillis;
+        this.rows = rows;
+        this.executedAt = executedAt;
+    }
+
+    // Getters
+    public long getSequence() { return sequence; }
+
+    public String getSql() { return sql; }
+
+    public List<String> getParameters() { return parameters; }
+
+    public long getDurationMillis() { return durationMillis; }
+
+    /**
+     * Filas leídas (consultas) o afectadas (actualizaciones)
+     */
+    public long getRows() { return rows; }
+
+    public LocalDateTime getExecutedAt() { return executedAt; }
+
+    public String getPlan() { return plan; }
+
+    void setPlan(String plan) { this.plan = plan; }
+}
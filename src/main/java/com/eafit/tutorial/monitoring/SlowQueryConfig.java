@@ -0,0 +1,46 @@
+package com.eafit.tutorial.monitoring;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Registro de consultas lentas (products.slow-query.*)
+ *
+ * Envuelve el DataSource para medir cada sentencia; las que superan el umbral
+ * quedan en /actuator/slowqueries con su plan de ejecución.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryConfig {
+
+    @Bean
+    public SlowQueryLog slowQueryLog(@Value("${products.slow-query.threshold-ms:200}") long thresholdMillis,
+                                     @Value("${products.slow-query.capacity:100}") int capacity,
+                                     @Value("${products.slow-query.redact-parameters:true}") boolean redactParameters) {
+        return new SlowQueryLog(thresholdMillis, capacity, redactParameters);
+    }
+
+    @Bean
+    public SlowQueryEndpoint slowQueryEndpoint(SlowQueryLog slowQueryLog) {
+        return new SlowQueryEndpoint(slowQueryLog);
+    }
+
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SlowQueryDataSource)) {
+                    return new SlowQueryDataSource(dataSource, slowQueryLog.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,190 @@
+package com.eafit.tutorial.monitoring;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DataSource que cronometra cada sentencia y pasa las lentas a SlowQueryLog
+ *
+ * Envuelve conexiones, sentencias y ResultSet con proxies dinámicos para
+ * capturar el SQL, los parámetros enlazados y el número de filas. El plan se
+ * pide al DataSource envuelto por esta instancia; con enrutado de réplica es el
+ * enrutador, que fuera de una transacción readOnly va al primario.
+ */
+public class SlowQueryDataSource extends DelegatingDataSource {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueryDataSource(DataSource target, SlowQueryLog slowQueryLog) {
+        super(target);
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SlowQueryDataSource.invoke(target, method, args);
+            String name = method.getName();
+
+            if (result instanceof CallableStatement statement) {
+                return wrapStatement(statement, CallableStatement.class, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return wrapStatement(statement, PreparedStatement.class, (String) args[0]);
+            }
+            if (result instanceof Statement statement && name.equals("createStatement")) {
+                return wrapStatement(statement, Statement.class, null);
+            }
+            return result;
+        }
+
+        private Object wrapStatement(Statement statement, Class<?> type, String sql) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                new StatementHandler(statement, sql));
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String preparedSql;
+        private final List<Object> parameters = new ArrayList<>();
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bind(index, name.equals("setNull") ? null : args[1]);
+                return SlowQueryDataSource.invoke(target, method, args);
+            }
+            if (name.equals("clearParameters")) {
+                parameters.clear();
+                return SlowQueryDataSource.invoke(target, method, args);
+            }
+            if (!name.startsWith("execute")) {
+                return SlowQueryDataSource.invoke(target, method, args);
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+            long start = System.nanoTime();
+            Object result = SlowQueryDataSource.invoke(target, method, args);
+            long elapsed = System.nanoTime() - start;
+
+            if (sql == null || !slowQueryLog.isSlow(elapsed)) {
+                return result;
+            }
+
+            List<Object> bound = new ArrayList<>(parameters);
+            if (result instanceof ResultSet resultSet) {
+                // Se registra al cerrar el ResultSet, cuando ya se conocen las filas
+                return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+                    new ResultSetHandler(resultSet, sql, bound, elapsed));
+            }
+            slowQueryLog.record(sql, bound, elapsed, affectedRows(result), obtainTargetDataSource());
+            return result;
+        }
+
+        private void bind(int index, Object value) {
+            while (parameters.size() < index) {
+                parameters.add(null);
+            }
+            parameters.set(index - 1, value);
+        }
+
+        private long affectedRows(Object result) throws SQLException {
+            if (result instanceof Integer count) return count;
+            if (result instanceof Long count) return count;
+            if (result instanceof int[] counts) {
+                long total = 0;
+                for (int count : counts) total += Math.max(count, 0);
+                return total;
+            }
+            if (result instanceof long[] counts) {
+                long total = 0;
+                for (long count : counts) total += Math.max(count, 0);
+                return total;
+            }
+            if (Boolean.FALSE.equals(result)) return target.getUpdateCount();
+            return -1;
+        }
+    }
+
+    private final class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet target;
+        private final String sql;
+        private final List<Object> parameters;
+        private final long elapsed;
+        private long rows;
+        private boolean recorded;
+
+        ResultSetHandler(ResultSet target, String sql, List<Object> parameters, long elapsed) {
+            this.target = target;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.elapsed = elapsed;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SlowQueryDataSource.invoke(target, method, args);
+            String name = method.getName();
+            if (name.equals("next") && Boolean.TRUE.equals(result)) {
+                rows++;
+            } else if (name.equals("close") && !recorded) {
+                recorded = true;
+                slowQueryLog.record(sql, parameters, elapsed, rows, obtainTargetDataSource());
+            }
+            return result;
+        }
+    }
+}
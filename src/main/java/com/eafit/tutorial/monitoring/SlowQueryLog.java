@@ -0,0 +1,140 @@
+package com.eafit.tutorial.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Registro acotado de consultas lentas
+ *
+ * Guarda las últimas N consultas en un buffer circular sin bloqueos y obtiene
+ * su plan con EXPLAIN en un hilo aparte, contra el DataSource sin instrumentar
+ * que ejecutó la consulta, para no penalizar la petición que la lanzó.
+ */
+public class SlowQueryLog implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private final long thresholdNanos;
+    private final boolean redactParameters;
+    private final AtomicReferenceArray<SlowQuery> buffer;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadPoolExecutor explainExecutor;
+
+    public SlowQueryLog(long thresholdMillis, int capacity, boolean redactParameters) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.redactParameters = redactParameters;
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        // Un solo hilo y cola corta: si EXPLAIN no da abasto se descartan planes
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(capacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "slow-query-explain");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos;
+    }
+
+    /**
+     * Registra una consulta lenta y programa la captura de su plan en explainTarget
+     */
+    void record(String sql, List<Object> parameters, long elapsedNanos, long rows, DataSource explainTarget) {
+        long seq = sequence.incrementAndGet();
+        SlowQuery query = new SlowQuery(seq, sql, describe(parameters),
+            TimeUnit.NANOSECONDS.toMillis(elapsedNanos), rows, LocalDateTime.now());
+        buffer.set((int) ((seq - 1) % buffer.length()), query);
+
+        logger.warn("Consulta lenta ({} ms, {} filas): {}", query.getDurationMillis(), rows, sql);
+
+        if (explainTarget != null && isExplainable(sql)) {
+            List<Object> bound = new ArrayList<>(parameters);
+            explainExecutor.execute(() -> query.setPlan(explain(explainTarget, sql, bound)));
+        }
+    }
+
+    /**
+     * Consultas lentas registradas, de la más reciente a la más antigua
+     */
+    public List<SlowQuery> snapshot() {
+        List<SlowQuery> queries = new ArrayList<>(buffer.length());
+        long last = sequence.get();
+        for (long seq = last; seq > 0 && seq > last - buffer.length(); seq--) {
+            SlowQuery query = buffer.get((int) ((seq - 1) % buffer.length()));
+            if (query != null && query.getSequence() == seq) {
+                queries.add(query);
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * Vacía el registro
+     */
+    public void clear() {
+        for (int i = 0; i < buffer.length(); i++) {
+            buffer.set(i, null);
+        }
+    }
+
+    private List<String> describe(List<Object> parameters) {
+        List<String> described = new ArrayList<>(parameters.size());
+        for (Object parameter : parameters) {
+            described.add(redactParameters ? "?" : String.valueOf(parameter));
+        }
+        return described;
+    }
+
+    private static boolean isExplainable(String sql) {
+        String start = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return start.startsWith("select") || start.startsWith("with")
+            || start.startsWith("update") || start.startsWith("delete");
+    }
+
+    private String explain(DataSource dataSource, String sql, List<Object> parameters) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                int columns = resultSet.getMetaData().getColumnCount();
+                while (resultSet.next()) {
+                    for (int c = 1; c <= columns; c++) {
+                        if (c > 1) plan.append(' ');
+                        plan.append(resultSet.getString(c));
+                    }
+                    plan.append('\n');
+                }
+            }
+            return plan.toString().strip();
+        } catch (Exception e) {
+            logger.debug("No se pudo obtener el plan de: {}", sql, e);
+            return "EXPLAIN no disponible: " + e.getMessage();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        explainExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,19 @@
+package com.eafit.tutorial.repository;
+
+import com.eafit.tutorial.model.ArchivedProduct;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio de productos archivados (solo lectura desde la API)
+ */
+@Repository
+public interface ArchivedProductRepository extends JpaRepository<ArchivedProduct, Long> {
+
+    /**
+     * Productos archivados de una categoría, sin distinguir mayúsculas
+     */
+    Page<ArchivedProduct> findByCategoryIgnoreCase(String category, Pageable pageable);
+}
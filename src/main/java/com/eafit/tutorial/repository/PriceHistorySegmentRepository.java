@@ -0,0 +1,50 @@
+package com.eafit.tutorial.repository;
+
+import com.eafit.tutorial.model.PriceHistorySegment;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio de segmentos del historial de precios
+ */
+@Repository
+public interface PriceHistorySegmentRepository extends JpaRepository<PriceHistorySegment, Long> {
+
+    /**
+     * Primer segmento de un producto, bloqueado: hace de cerrojo de su cadena
+     *
+     * A diferencia del último, nunca cambia, así que quien espera por él no
+     * acaba con un segmento que otro ya ha dejado atrás.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM PriceHistorySegment s WHERE s.productId = :productId AND s.number = 0")
+    Optional<PriceHistorySegment> lockFirstSegment(@Param("productId") Long productId);
+
+    /**
+     * Último segmento de un producto
+     */
+    Optional<PriceHistorySegment> findFirstByProductIdOrderByNumberDesc(Long productId);
+
+    /**
+     * Segmentos con algún cambio dentro de [from, to]
+     */
+    @Query("SELECT s FROM PriceHistorySegment s WHERE s.productId = :productId "
+         + "AND s.lastAt >= :from AND s.firstAt <= :to ORDER BY s.id")
+    List<PriceHistorySegment> findOverlapping(@Param("productId") Long productId,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
+
+    /**
+     * Segmento más reciente terminado antes de from (su último precio es el vigente en from)
+     */
+    Optional<PriceHistorySegment> findFirstByProductIdAndLastAtLessThanOrderByLastAtDescIdDesc(Long productId,
+                                                                                               LocalDateTime from);
+}
@@ -1,14 +1,20 @@
 package com.eafit.tutorial.repository;
 
 import com.eafit.tutorial.model.Product;
+import com.eafit.tutorial.model.ProductFacetRow;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -65,4 +71,87 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * Encuentra un producto activo por ID
      */
     Optional<Product> findByIdAndActiveTrue(Long id);
+
+    /**
+     * Encuentra productos activos cuyos IDs estén en la colección (una sola consulta IN)
+     */
+    List<Product> findByIdInAndActiveTrue(Collection<Long> ids);
+
+    /**
+     * Nombres ya existentes, sin distinguir mayúsculas (igual que existsByNameIgnoreCaseAndIdNot)
+     *
+     * Los nombres de la colección deben llegar ya en minúsculas.
+     */
+    @Query("SELECT p.name FROM Product p WHERE LOWER(p.name) IN :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+
+    /**
+     * Bloquea para escritura los productos activos de la colección, en orden de ID
+     *
+     * Todas las transacciones bloquean en el mismo orden, así que varios pedidos
+     * sobre productos comunes esperan entre sí en vez de interbloquearse.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids AND p.active = true ORDER BY p.id")
+    List<Product> lockActiveByIdsOrdered(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Descuenta la misma cantidad a los productos de la colección que tengan
+     * stock suficiente; devuelve las filas afectadas
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity, p.updatedAt = :now "
+         + "WHERE p.id IN :ids AND p.active = true AND p.stock >= :quantity")
+    int decrementStockIfAvailable(@Param("ids") Collection<Long> ids,
+                                  @Param("quantity") int quantity,
+                                  @Param("now") LocalDateTime now);
+
+    /**
+     * Activa o desactiva en una sola sentencia los productos de la colección
+     * que aún no tienen ese estado; devuelve las filas afectadas
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.active = :active, p.updatedAt = :now WHERE p.id IN :ids AND p.active <> :active")
+    int updateActiveByIds(@Param("ids") Collection<Long> ids,
+                          @Param("active") boolean active,
+                          @Param("now") LocalDateTime now);
+
+    /**
+     * Activa o desactiva en una sola sentencia los productos de una categoría
+     * (sin distinguir mayúsculas) que aún no tienen ese estado
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.active = :active, p.updatedAt = :now "
+         + "WHERE LOWER(p.category) = LOWER(:category) AND p.active <> :active")
+    int updateActiveByCategory(@Param("category") String category,
+                               @Param("active") boolean active,
+                               @Param("now") LocalDateTime now);
+
+    /**
+     * IDs de los productos activos cuyo nombre contiene el texto
+     */
+    @Query("SELECT p.id FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')) AND p.active = true")
+    List<Long> findActiveIdsByNameContaining(@Param("name") String name);
+
+    /**
+     * Facetas de los productos activos con ID mayor que afterId, en orden de ID
+     * (carga completa del índice de facetas por tramos)
+     */
+    @Query("SELECT new com.eafit.tutorial.model.ProductFacetRow(p.id, p.category, p.price) FROM Product p "
+         + "WHERE p.active = true AND p.id > :afterId ORDER BY p.id")
+    List<ProductFacetRow> findActiveFacetRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Facetas de los productos activos de la colección
+     */
+    @Query("SELECT new com.eafit.tutorial.model.ProductFacetRow(p.id, p.category, p.price) FROM Product p "
+         + "WHERE p.id IN :ids AND p.active = true")
+    List<ProductFacetRow> findActiveFacetRowsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Facetas de los productos activos de una categoría, sin distinguir mayúsculas
+     */
+    @Query("SELECT new com.eafit.tutorial.model.ProductFacetRow(p.id, p.category, p.price) FROM Product p "
+         + "WHERE LOWER(p.category) = LOWER(:category) AND p.active = true")
+    List<ProductFacetRow> findActiveFacetRowsByCategory(@Param("category") String category);
 }
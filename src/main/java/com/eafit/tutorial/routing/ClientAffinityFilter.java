@@ -0,0 +1,66 @@
+package com.eafit.tutorial.routing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Identifica al cliente de cada petición para la afinidad de lectura tras escritura
+ *
+ * El cliente es, por orden: la cabecera configurada (X-Client-Id por defecto),
+ * la sesión HTTP si ya existe, la primera dirección de X-Forwarded-For y, en
+ * último caso, la dirección remota. Detrás de un balanceador la dirección
+ * remota es la del balanceador y juntaría a todos los clientes en uno.
+ */
+public class ClientAffinityFilter extends OncePerRequestFilter {
+
+    static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private final ReadYourWritesTracker tracker;
+    private final ReplicaLagMonitor lagMonitor;
+    private final String header;
+
+    public ClientAffinityFilter(ReadYourWritesTracker tracker, ReplicaLagMonitor lagMonitor, String header) {
+        this.tracker = tracker;
+        this.lagMonitor = lagMonitor;
+        this.header = header;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String clientKey = clientKey(request);
+        ReadRoutingContext.bind(clientKey, () -> tracker.isPinned(clientKey, lagMonitor.replicaBeatMillis()));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadRoutingContext.clear();
+        }
+    }
+
+    String clientKey(HttpServletRequest request) {
+        String clientId = request.getHeader(header);
+        if (clientId != null && !clientId.isBlank()) {
+            return "client:" + clientId.strip();
+        }
+        // No se crea sesión solo para esto
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            return "session:" + session.getId();
+        }
+        String forwardedFor = request.getHeader(FORWARDED_FOR);
+        if (forwardedFor != null) {
+            int comma = forwardedFor.indexOf(',');
+            String origin = (comma < 0 ? forwardedFor : forwardedFor.substring(0, comma)).strip();
+            if (!origin.isEmpty()) {
+                return "addr:" + origin;
+            }
+        }
+        return "addr:" + request.getRemoteAddr();
+    }
+}
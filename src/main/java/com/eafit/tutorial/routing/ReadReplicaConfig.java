@@ -0,0 +1,134 @@
+package com.eafit.tutorial.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enrutado de lecturas a una réplica (products.routing.enabled=true)
+ *
+ * El DataSource de la aplicación pasa a ser un enrutador sobre dos pools: el
+ * primario (spring.datasource.*, con spring.datasource.hikari.* como haría la
+ * autoconfiguración) y la réplica (products.routing.replica.*).
+ * Los pools no se publican como beans para que solo haya un DataSource que
+ * envolver (registro de consultas lentas, JPA, JdbcTemplate).
+ *
+ * Exige spring.jpa.open-in-view=false: con la sesión abierta durante toda la
+ * petición, Hibernate retiene la conexión elegida por la primera transacción
+ * y una escritura posterior de la misma petición acabaría en la réplica.
+ *
+ * Para probarlo en local con dos H2: --spring.profiles.active=replica.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.routing.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    public ReadReplicaConfig(@Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+        if (openInView) {
+            throw new IllegalStateException("El enrutado a la réplica necesita spring.jpa.open-in-view=false: "
+                + "la sesión abierta en la vista reutiliza la conexión de la primera transacción de la petición");
+        }
+    }
+
+    /**
+     * Pools físicos del primario y la réplica; se cierran con el contexto
+     */
+    public static final class Pools implements AutoCloseable {
+
+        private final HikariDataSource primary;
+        private final HikariDataSource replica;
+
+        Pools(HikariDataSource primary, HikariDataSource replica) {
+            this.primary = primary;
+            this.replica = replica;
+        }
+
+        @Override
+        public void close() {
+            replica.close();
+            primary.close();
+        }
+    }
+
+    @Bean
+    public Pools routingPools(DataSourceProperties properties, Environment environment,
+                              @Value("${products.routing.replica.url}") String replicaUrl,
+                              @Value("${products.routing.replica.username:${spring.datasource.username:}}") String replicaUsername,
+                              @Value("${products.routing.replica.password:${spring.datasource.password:}}") String replicaPassword,
+                              @Value("${products.routing.replica.pool-size:10}") int replicaPoolSize) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(replicaUrl);
+        replica.setUsername(replicaUsername);
+        replica.setPassword(replicaPassword);
+        replica.setMaximumPoolSize(replicaPoolSize);
+        // La réplica puede no estar disponible al arrancar: no se valida al crear el pool
+        replica.setInitializationFailTimeout(-1);
+        return new Pools(primary, replica);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(Pools pools, MeterRegistry meterRegistry,
+                                               @Value("${products.routing.max-lag:PT2S}") Duration maxLag,
+                                               @Value("${products.routing.heartbeat-interval:PT0.5S}") Duration heartbeatInterval) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(pools.primary, pools.replica, maxLag, heartbeatInterval);
+        TimeGauge.builder("products.datasource.replica.lag", monitor,
+                TimeUnit.MILLISECONDS, m -> Math.min(m.lagMillis(), Duration.ofDays(1).toMillis()))
+            .description("Retraso estimado de la réplica")
+            .register(meterRegistry);
+        return monitor;
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(
+            @Value("${products.routing.sticky.window:PT5S}") Duration window) {
+        return new ReadYourWritesTracker(window);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(Pools pools, ReplicaLagMonitor lagMonitor,
+                                 ReadYourWritesTracker tracker, MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(
+            new ReplicaRoutingDataSource(pools.primary, pools.replica, lagMonitor, tracker, meterRegistry));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "products.routing.sticky.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<ClientAffinityFilter> clientAffinityFilter(
+            ReadYourWritesTracker tracker, ReplicaLagMonitor lagMonitor,
+            @Value("${products.routing.sticky.header:X-Client-Id}") String header) {
+        FilterRegistrationBean<ClientAffinityFilter> registration =
+            new FilterRegistrationBean<>(new ClientAffinityFilter(tracker, lagMonitor, header));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "products.routing.replication.enabled", havingValue = "true")
+    public ReplicationStandIn replicationStandIn(Pools pools,
+                                                 @Value("${products.routing.replication.interval:PT1S}") Duration interval) {
+        return new ReplicationStandIn(pools.primary, pools.replica, interval);
+    }
+}
@@ -0,0 +1,43 @@
+package com.eafit.tutorial.routing;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Cliente de la petición en curso, para la afinidad de lectura tras escritura
+ *
+ * Lo fija ClientAffinityFilter al inicio de cada petición a la API. Fuera de
+ * una petición (trabajos en segundo plano) no hay cliente y nunca se fija la
+ * lectura al primario.
+ */
+public final class ReadRoutingContext {
+
+    private record Binding(String clientKey, BooleanSupplier pinnedToPrimary) {}
+
+    private static final ThreadLocal<Binding> CURRENT = new ThreadLocal<>();
+
+    private ReadRoutingContext() {}
+
+    static void bind(String clientKey, BooleanSupplier pinnedToPrimary) {
+        CURRENT.set(new Binding(clientKey, pinnedToPrimary));
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Cliente de la petición en curso, o null fuera de una petición
+     */
+    static String currentClientKey() {
+        Binding binding = CURRENT.get();
+        return binding == null ? null : binding.clientKey();
+    }
+
+    /**
+     * true si el cliente actual escribió hace poco y la réplica aún no tiene su escritura
+     */
+    public static boolean isPinnedToPrimary() {
+        Binding binding = CURRENT.get();
+        return binding != null && binding.pinnedToPrimary().getAsBoolean();
+    }
+}
@@ -0,0 +1,56 @@
+package com.eafit.tutorial.routing;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Última escritura confirmada de cada cliente
+ *
+ * Un cliente queda fijado al primario mientras la réplica no haya alcanzado
+ * su última escritura, como mucho durante la ventana configurada.
+ */
+public class ReadYourWritesTracker {
+
+    private static final int PURGE_EVERY = 1024;
+
+    private final long windowMillis;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final AtomicLong recorded = new AtomicLong();
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowMillis = window.toMillis();
+    }
+
+    /**
+     * Registra una escritura confirmada del cliente
+     */
+    public void recordWrite(String clientKey) {
+        long now = System.currentTimeMillis();
+        lastWrites.put(clientKey, now);
+        if (recorded.incrementAndGet() % PURGE_EVERY == 0) {
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt >= windowMillis);
+        }
+    }
+
+    /**
+     * true si la última escritura del cliente está dentro de la ventana y es
+     * posterior a lo que la réplica ya ha aplicado
+     */
+    public boolean isPinned(String clientKey, long replicaAppliedMillis) {
+        Long writtenAt = lastWrites.get(clientKey);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - writtenAt >= windowMillis) {
+            lastWrites.remove(clientKey, writtenAt);
+            return false;
+        }
+        return writtenAt >= replicaAppliedMillis;
+    }
+
+    int trackedClients() {
+        return lastWrites.size();
+    }
+}
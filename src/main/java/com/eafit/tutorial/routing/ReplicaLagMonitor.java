@@ -0,0 +1,104 @@
+package com.eafit.tutorial.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el retraso de la réplica con un latido
+ *
+ * Cada intervalo escribe la hora actual en replication_heartbeat del primario
+ * y lee la que ha llegado a la réplica; la diferencia con la hora actual es el
+ * retraso, con la resolución del intervalo. Como el cálculo se hace al
+ * consultar, si el latido deja de llegar (replicación parada, réplica caída)
+ * el retraso crece solo y las lecturas vuelven al primario.
+ */
+public class ReplicaLagMonitor implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    static final String HEARTBEAT_TABLE = "replication_heartbeat";
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile long replicaBeatMillis;
+    private volatile boolean replicaReachable;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag, Duration interval) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLag.toMillis();
+        this.primary.execute("CREATE TABLE IF NOT EXISTS " + HEARTBEAT_TABLE
+            + " (id INT PRIMARY KEY, beat_millis BIGINT NOT NULL)");
+        executor.scheduleWithFixedDelay(this::beat, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void beat() {
+        try {
+            long now = System.currentTimeMillis();
+            if (primary.update("UPDATE " + HEARTBEAT_TABLE + " SET beat_millis = ? WHERE id = 1", now) == 0) {
+                primary.update("INSERT INTO " + HEARTBEAT_TABLE + " (id, beat_millis) VALUES (1, ?)", now);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo escribir el latido en el primario: {}", e.getMessage());
+        }
+        try {
+            List<Long> beats = replica.queryForList(
+                "SELECT beat_millis FROM " + HEARTBEAT_TABLE + " WHERE id = 1", Long.class);
+            if (!beats.isEmpty()) {
+                replicaBeatMillis = beats.get(0);
+            }
+            if (!replicaReachable) {
+                logger.info("Réplica disponible, retraso {} ms", lagMillis());
+            }
+            replicaReachable = true;
+        } catch (RuntimeException e) {
+            if (replicaReachable) {
+                logger.warn("Réplica no disponible, lecturas al primario: {}", e.getMessage());
+            }
+            replicaReachable = false;
+        }
+    }
+
+    /**
+     * Hora del primario hasta la que la réplica tiene aplicados los cambios
+     */
+    public long replicaBeatMillis() {
+        return replicaBeatMillis;
+    }
+
+    /**
+     * Retraso actual estimado de la réplica en milisegundos
+     */
+    public long lagMillis() {
+        long beat = replicaBeatMillis;
+        return beat == 0 ? Long.MAX_VALUE : Math.max(0, System.currentTimeMillis() - beat);
+    }
+
+    /**
+     * true si la réplica responde y su retraso está dentro del máximo
+     */
+    public boolean isReplicaFresh() {
+        return replicaReachable && lagMillis() <= maxLagMillis;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
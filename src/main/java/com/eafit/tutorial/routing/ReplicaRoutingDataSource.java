@@ -0,0 +1,89 @@
+package com.eafit.tutorial.routing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Envía las transacciones de solo lectura a la réplica y el resto al primario
+ *
+ * La decisión se toma al obtener la conexión física, así que debe ir detrás de
+ * un LazyConnectionDataSourceProxy: el gestor de transacciones pide la conexión
+ * antes de publicar que la transacción es readOnly, y el proxy la retrasa hasta
+ * la primera sentencia. Una lectura va al primario si la réplica va retrasada
+ * o si el cliente escribió hace poco y la réplica aún no tiene esa escritura.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route { PRIMARY, REPLICA }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker tracker;
+    private final Counter readWrite;
+    private final Counter replica;
+    private final Counter replicaLagging;
+    private final Counter sticky;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+                                    ReplicaLagMonitor lagMonitor, ReadYourWritesTracker tracker,
+                                    MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.tracker = tracker;
+        this.readWrite = counter(meterRegistry, Route.PRIMARY, "read-write");
+        this.replica = counter(meterRegistry, Route.REPLICA, "read-only");
+        this.replicaLagging = counter(meterRegistry, Route.PRIMARY, "replica-lag");
+        this.sticky = counter(meterRegistry, Route.PRIMARY, "read-your-writes");
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    private static Counter counter(MeterRegistry registry, Route route, String reason) {
+        return Counter.builder("products.datasource.routing")
+            .description("Conexiones obtenidas por destino y motivo")
+            .tag("target", route.name().toLowerCase())
+            .tag("reason", reason)
+            .register(registry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite();
+            readWrite.increment();
+            return Route.PRIMARY;
+        }
+        if (!lagMonitor.isReplicaFresh()) {
+            replicaLagging.increment();
+            return Route.PRIMARY;
+        }
+        if (ReadRoutingContext.isPinnedToPrimary()) {
+            sticky.increment();
+            return Route.PRIMARY;
+        }
+        replica.increment();
+        return Route.REPLICA;
+    }
+
+    /**
+     * Anota la escritura del cliente cuando la transacción confirma
+     */
+    private void trackWrite() {
+        String clientKey = ReadRoutingContext.currentClientKey();
+        if (clientKey == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                tracker.recordWrite(clientKey);
+            }
+        });
+    }
+}
@@ -0,0 +1,206 @@
+package com.eafit.tutorial.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sustituto local de la replicación entre dos bases H2
+ *
+ * Para probar el enrutado sin un clúster real: cada intervalo copia a la
+ * réplica las tablas del primario que han cambiado, leídas en una misma
+ * instantánea (REPEATABLE READ) y aplicadas en una sola transacción, de modo
+ * que la réplica siempre ve un estado consistente, con un retraso de hasta un
+ * intervalo más lo que dure la copia. El esquema se crea en la réplica con
+ * SCRIPT NODATA la primera vez que aparece cada tabla.
+ *
+ * Los cambios se detectan con LAST_MODIFICATION de INFORMATION_SCHEMA.TABLES,
+ * que H2 actualiza al escribir y no al confirmar: una tabla con un contador
+ * nuevo se copia también en la pasada siguiente, para recoger transacciones
+ * que aún no habían confirmado. Copia tablas enteras, así que solo vale para
+ * volúmenes de desarrollo.
+ */
+public class ReplicationStandIn implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationStandIn.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final Duration interval;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replication-stand-in");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Último contador de modificación visto por tabla y si ya se copió en una pasada posterior */
+    private final Map<String, Long> seenModification = new HashMap<>();
+    private final Map<String, Boolean> settled = new HashMap<>();
+
+    public ReplicationStandIn(DataSource primary, DataSource replica, Duration interval) {
+        this.primary = primary;
+        this.replica = replica;
+        this.interval = interval;
+    }
+
+    /**
+     * Empieza a replicar cuando el esquema del primario ya está creado
+     */
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        logger.info("Replicación simulada hacia la réplica cada {}", interval);
+        executor.scheduleWithFixedDelay(this::replicateSafely, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void replicateSafely() {
+        try {
+            replicate();
+        } catch (SQLException | RuntimeException e) {
+            logger.warn("Fallo en la replicación simulada: {}", e.getMessage());
+        }
+    }
+
+    void replicate() throws SQLException {
+        try (Connection source = primary.getConnection(); Connection target = replica.getConnection()) {
+            Map<String, Long> modifications = tableModifications(source);
+
+            source.setAutoCommit(false);
+            source.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            target.setAutoCommit(false);
+            long start = System.nanoTime();
+            List<String> copied = new ArrayList<>();
+            try {
+                for (Map.Entry<String, Long> entry : modifications.entrySet()) {
+                    String table = entry.getKey();
+                    Long modification = entry.getValue();
+                    if (modification.equals(seenModification.get(table)) && settled.getOrDefault(table, false)) {
+                        continue;
+                    }
+                    ensureTable(source, target, table);
+                    copyTable(source, target, table);
+                    copied.add(table);
+                }
+                target.commit();
+                source.commit();
+            } catch (SQLException | RuntimeException e) {
+                target.rollback();
+                source.rollback();
+                throw e;
+            }
+
+            for (String table : copied) {
+                Long modification = modifications.get(table);
+                settled.put(table, modification.equals(seenModification.get(table)));
+                seenModification.put(table, modification);
+            }
+            if (!copied.isEmpty() && logger.isDebugEnabled()) {
+                logger.debug("Replicadas {} en {} ms", copied, (System.nanoTime() - start) / 1_000_000);
+            }
+        }
+    }
+
+    private Map<String, Long> tableModifications(Connection source) throws SQLException {
+        Map<String, Long> modifications = new LinkedHashMap<>();
+        try (Statement statement = source.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT TABLE_NAME, LAST_MODIFICATION "
+                 + "FROM INFORMATION_SCHEMA.TABLES "
+                 + "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE' ORDER BY TABLE_NAME")) {
+            while (rs.next()) {
+                modifications.put(rs.getString(1), rs.getLong(2));
+            }
+        }
+        return modifications;
+    }
+
+    private void ensureTable(Connection source, Connection target, String table) throws SQLException {
+        try (ResultSet rs = target.getMetaData().getTables(null, "PUBLIC", table, new String[] {"TABLE"})) {
+            if (rs.next()) {
+                return;
+            }
+        }
+        List<String> ddl = new ArrayList<>();
+        try (Statement statement = source.createStatement();
+             ResultSet rs = statement.executeQuery(
+                 "SCRIPT NODATA NOPASSWORDS NOSETTINGS TABLE " + quote(table))) {
+            while (rs.next()) {
+                String sql = rs.getString(1);
+                if (!sql.startsWith("--") && !sql.startsWith("CREATE USER")) {
+                    ddl.add(sql);
+                }
+            }
+        }
+        try (Statement statement = target.createStatement()) {
+            for (String sql : ddl) {
+                statement.execute(sql);
+            }
+        }
+        logger.info("Tabla {} creada en la réplica", table);
+    }
+
+    private void copyTable(Connection source, Connection target, String table) throws SQLException {
+        try (Statement delete = target.createStatement()) {
+            delete.executeUpdate("DELETE FROM " + quote(table));
+        }
+        try (Statement select = source.createStatement()) {
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet rs = select.executeQuery("SELECT * FROM " + quote(table))) {
+                ResultSetMetaData meta = rs.getMetaData();
+                int columns = meta.getColumnCount();
+                StringJoiner names = new StringJoiner(", ");
+                StringJoiner placeholders = new StringJoiner(", ");
+                for (int i = 1; i <= columns; i++) {
+                    names.add(quote(meta.getColumnName(i)));
+                    placeholders.add("?");
+                }
+                String insert = "INSERT INTO " + quote(table) + " (" + names + ") VALUES (" + placeholders + ")";
+                try (PreparedStatement ps = target.prepareStatement(insert)) {
+                    int pending = 0;
+                    while (rs.next()) {
+                        for (int i = 1; i <= columns; i++) {
+                            ps.setObject(i, rs.getObject(i));
+                        }
+                        ps.addBatch();
+                        if (++pending == BATCH_SIZE) {
+                            ps.executeBatch();
+                            pending = 0;
+                        }
+                    }
+                    if (pending > 0) {
+                        ps.executeBatch();
+                    }
+                }
+            }
+        }
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
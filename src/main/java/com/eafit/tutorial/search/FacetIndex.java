@@ -0,0 +1,416 @@
+package com.eafit.tutorial.search;
+
+import com.eafit.tutorial.cache.InvalidationBus;
+import com.eafit.tutorial.cache.ProductInvalidation;
+import com.eafit.tutorial.exception.FacetIndexNotReadyException;
+import com.eafit.tutorial.model.ProductFacetRow;
+import com.eafit.tutorial.repository.ProductRepository;
+import com.eafit.tutorial.util.CompressedBitmap;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice en memoria de los productos activos por categoría y tramo de precio
+ *
+ * Un mapa de bits comprimido por categoría y otro por tramo de precio; contar
+ * una faceta es intersecar mapas de bits, sin consultas. Se carga por tramos
+ * de ID al arrancar y se mantiene con el bus de invalidaciones: los productos
+ * y categorías invalidados se releen de la base de datos en un hilo propio,
+ * agrupando lo que llegue mientras tanto, así que sigue a las escrituras de
+ * cualquier nodo con un retraso de milisegundos. Un mensaje sin productos ni
+ * categorías concretas recarga el índice entero.
+ *
+ * Además de los mapas de bits guarda, por ID, la categoría y el tramo en que
+ * está cada producto, para quitarlo sin recorrer todas las categorías.
+ */
+@Component
+public class FacetIndex implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(FacetIndex.class);
+
+    /**
+     * IDs por consulta al releer productos invalidados
+     */
+    private static final int RELOAD_CHUNK = 1000;
+
+    /**
+     * Espera máxima de refresh: lo que tarde el hilo del índice en llegar a la petición
+     */
+    private static final Duration REFRESH_TIMEOUT = Duration.ofSeconds(1);
+
+    /**
+     * Resultado de una búsqueda: total, IDs de la página y recuentos por faceta
+     */
+    public record Result(long total, long[] ids, Map<String, Long> categoryCounts, long[] bucketCounts) {}
+
+    private final ProductRepository productRepository;
+    private final BigDecimal[] boundaries;
+    private final int loadBatchSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Queue<ProductInvalidation> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "facet-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private State state;
+    private volatile boolean ready;
+
+    public FacetIndex(ProductRepository productRepository,
+                      InvalidationBus invalidationBus,
+                      MeterRegistry meterRegistry,
+                      @Value("${products.facets.price-buckets:25,50,100,250,500,1000}") List<BigDecimal> boundaries,
+                      @Value("${products.facets.load-batch-size:10000}") int loadBatchSize) {
+        this.productRepository = productRepository;
+        this.boundaries = boundaries.stream().sorted().distinct().toArray(BigDecimal[]::new);
+        this.loadBatchSize = loadBatchSize;
+        this.state = new State(this.boundaries.length + 1);
+        invalidationBus.addListener(this::enqueue);
+        Gauge.builder("products.facets.indexed", this, FacetIndex::indexedCount)
+            .description("Productos activos en el índice de facetas")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        // Tras los ApplicationRunner (p. ej. la siembra del catálogo)
+        worker.execute(this::rebuildSafely);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Tramos de precio
+
+    public int bucketCount() {
+        return boundaries.length + 1;
+    }
+
+    /**
+     * Límite inferior (incluido) del tramo
+     */
+    public BigDecimal bucketMin(int bucket) {
+        return bucket == 0 ? BigDecimal.ZERO : boundaries[bucket - 1];
+    }
+
+    /**
+     * Límite superior (excluido) del tramo; null en el último
+     */
+    public BigDecimal bucketMax(int bucket) {
+        return bucket < boundaries.length ? boundaries[bucket] : null;
+    }
+
+    /**
+     * Etiqueta del tramo: "25-50", o "1000+" para el último
+     */
+    public String bucketLabel(int bucket) {
+        BigDecimal max = bucketMax(bucket);
+        String min = bucketMin(bucket).stripTrailingZeros().toPlainString();
+        return max == null ? min + "+" : min + "-" + max.stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Tramo con esa etiqueta, o -1 si no existe
+     */
+    public int bucketOf(String label) {
+        for (int i = 0; i < bucketCount(); i++) {
+            if (bucketLabel(i).equals(label)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Tramo al que pertenece un precio
+     */
+    public int bucketOf(BigDecimal price) {
+        for (int i = 0; i < boundaries.length; i++) {
+            if (price.compareTo(boundaries[i]) < 0) {
+                return i;
+            }
+        }
+        return boundaries.length;
+    }
+
+    // Búsqueda
+
+    /**
+     * Filtra y cuenta sobre los productos activos
+     *
+     * candidates (null = todos) es el resultado de la búsqueda por texto; la
+     * categoría y el tramo son filtros opcionales (null y -1 = sin filtro). Los
+     * recuentos de cada faceta aplican el filtro de la otra, pero no el suyo,
+     * para que la barra lateral muestre qué daría elegir otra opción.
+     */
+    public Result search(CompressedBitmap candidates, String category, int bucket, long offset, int limit) {
+        if (!ready) {
+            throw new FacetIndexNotReadyException();
+        }
+        lock.readLock().lock();
+        try {
+            CompressedBitmap base = candidates == null ? state.active : CompressedBitmap.and(candidates, state.active);
+            CompressedBitmap inCategory = base;
+            if (category != null) {
+                CompressedBitmap categoryIds = state.byCategory.get(ProductInvalidation.normalize(category));
+                inCategory = categoryIds == null ? new CompressedBitmap() : CompressedBitmap.and(base, categoryIds);
+            }
+            CompressedBitmap inBucket = bucket < 0 ? base : CompressedBitmap.and(base, state.byBucket[bucket]);
+            CompressedBitmap matches = bucket < 0 ? inCategory : CompressedBitmap.and(inCategory, state.byBucket[bucket]);
+
+            List<Map.Entry<String, Long>> categories = new ArrayList<>();
+            for (Map.Entry<String, CompressedBitmap> entry : state.byCategory.entrySet()) {
+                long count = CompressedBitmap.andCardinality(inBucket, entry.getValue());
+                if (count > 0) {
+                    categories.add(Map.entry(state.categoryNames.get(entry.getKey()), count));
+                }
+            }
+            categories.sort(Map.Entry.<String, Long>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+            Map<String, Long> categoryCounts = new LinkedHashMap<>();
+            categories.forEach(entry -> categoryCounts.put(entry.getKey(), entry.getValue()));
+
+            long[] bucketCounts = new long[state.byBucket.length];
+            for (int i = 0; i < bucketCounts.length; i++) {
+                bucketCounts[i] = CompressedBitmap.andCardinality(inCategory, state.byBucket[i]);
+            }
+
+            return new Result(matches.cardinality(), matches.select(offset, limit), categoryCounts, bucketCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Productos activos indexados
+     */
+    public long indexedCount() {
+        lock.readLock().lock();
+        try {
+            return state.active.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Mantenimiento
+
+    /**
+     * Relee ya esos productos y espera a que el índice los refleje
+     *
+     * Para quien ha comprobado en la base de datos que el índice está desfasado
+     * (p. ej. un producto desactivado entre la búsqueda y la carga de la
+     * página). Se hace en el hilo del índice, en orden con las invalidaciones.
+     */
+    public void refresh(Collection<Long> ids) {
+        List<Long> copy = List.copyOf(ids);
+        try {
+            worker.submit(() -> reloadIds(copy)).get(REFRESH_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException | RejectedExecutionException e) {
+            logger.warn("No se pudieron releer {} productos del índice de facetas: {}", copy.size(), e.toString());
+        }
+    }
+
+    private void enqueue(ProductInvalidation invalidation) {
+        pending.add(invalidation);
+        if (drainScheduled.compareAndSet(false, true)) {
+            worker.execute(this::drain);
+        }
+    }
+
+    /**
+     * Aplica de una vez todo lo invalidado desde la última pasada
+     */
+    private void drain() {
+        drainScheduled.set(false);
+        Set<Long> ids = new HashSet<>();
+        Set<String> categories = new HashSet<>();
+        boolean rebuild = false;
+        ProductInvalidation invalidation;
+        while ((invalidation = pending.poll()) != null) {
+            if (!invalidation.productIds().isEmpty()) {
+                ids.addAll(invalidation.productIds());
+            } else if (!invalidation.categories().isEmpty()) {
+                categories.addAll(invalidation.categories());
+            } else if (invalidation.allCategories()) {
+                rebuild = true;
+            }
+        }
+        if (rebuild) {
+            rebuildSafely();
+            return;
+        }
+        try {
+            for (String category : categories) {
+                reloadCategory(category);
+            }
+            List<Long> remaining = new ArrayList<>(ids);
+            for (int from = 0; from < remaining.size(); from += RELOAD_CHUNK) {
+                reloadIds(remaining.subList(from, Math.min(remaining.size(), from + RELOAD_CHUNK)));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo actualizar el índice de facetas ({}); se recarga entero", e.getMessage());
+            rebuildSafely();
+        }
+    }
+
+    private void reloadIds(List<Long> ids) {
+        List<ProductFacetRow> rows = productRepository.findActiveFacetRowsByIds(ids);
+        lock.writeLock().lock();
+        try {
+            for (Long id : ids) {
+                state.remove(id);
+            }
+            for (ProductFacetRow row : rows) {
+                state.add(row, bucketOf(row.price()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void reloadCategory(String category) {
+        List<ProductFacetRow> rows = productRepository.findActiveFacetRowsByCategory(category);
+        lock.writeLock().lock();
+        try {
+            CompressedBitmap previous = state.byCategory.get(category);
+            if (previous != null) {
+                List<Long> stale = new ArrayList<>();
+                previous.forEach(stale::add);
+                stale.forEach(state::remove);
+            }
+            for (ProductFacetRow row : rows) {
+                state.remove(row.id());
+                state.add(row, bucketOf(row.price()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void rebuildSafely() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.error("No se pudo cargar el índice de facetas: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Carga todos los productos activos en un índice nuevo y lo sustituye de golpe
+     */
+    private void rebuild() {
+        long start = System.nanoTime();
+        State fresh = new State(bucketCount());
+        long afterId = 0;
+        List<ProductFacetRow> rows;
+        do {
+            rows = productRepository.findActiveFacetRowsAfter(afterId, PageRequest.of(0, loadBatchSize));
+            for (ProductFacetRow row : rows) {
+                fresh.add(row, bucketOf(row.price()));
+                afterId = row.id();
+            }
+        } while (rows.size() == loadBatchSize);
+
+        lock.writeLock().lock();
+        try {
+            state = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+        logger.info("Índice de facetas cargado: {} productos, {} categorías en {} ms",
+            fresh.active.cardinality(), fresh.byCategory.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void destroy() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * Mapas de bits del índice; se modifica solo con el cerrojo de escritura
+     */
+    private static final class State {
+
+        final CompressedBitmap active = new CompressedBitmap();
+        final Map<String, CompressedBitmap> byCategory = new HashMap<>();
+        final Map<String, String> categoryNames = new HashMap<>();
+        final CompressedBitmap[] byBucket;
+        // Dónde está cada ID; las ubicaciones se comparten entre productos
+        final Map<Long, Placement> placements = new HashMap<>();
+        final Map<Placement, Placement> interned = new HashMap<>();
+
+        State(int buckets) {
+            byBucket = new CompressedBitmap[buckets];
+            for (int i = 0; i < buckets; i++) {
+                byBucket[i] = new CompressedBitmap();
+            }
+        }
+
+        void add(ProductFacetRow row, int bucket) {
+            String key = ProductInvalidation.normalize(row.category());
+            active.add(row.id());
+            byCategory.computeIfAbsent(key, k -> new CompressedBitmap()).add(row.id());
+            categoryNames.putIfAbsent(key, row.category().trim());
+            byBucket[bucket].add(row.id());
+            Placement placement = new Placement(key, bucket);
+            placements.put(row.id(), interned.computeIfAbsent(placement, p -> p));
+        }
+
+        /**
+         * Quita el producto de sus mapas de bits (está en una sola categoría y un solo tramo)
+         */
+        void remove(long id) {
+            Placement placement = placements.remove(id);
+            if (placement == null) {
+                return;
+            }
+            active.remove(id);
+            CompressedBitmap category = byCategory.get(placement.category());
+            category.remove(id);
+            if (category.isEmpty()) {
+                byCategory.remove(placement.category());
+                categoryNames.remove(placement.category());
+            }
+            byBucket[placement.bucket()].remove(id);
+        }
+    }
+
+    private record Placement(String category, int bucket) {}
+}
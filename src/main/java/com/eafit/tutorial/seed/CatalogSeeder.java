@@ -0,0 +1,215 @@
+package com.eafit.tutorial.seed;
+
+import com.eafit.tutorial.sharding.ProductShard;
+import com.eafit.tutorial.sharding.ProductShards;
+import com.eafit.tutorial.sharding.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sembrado masivo del catálogo para pruebas de rendimiento (perfil "seed")
+ *
+ *   java -jar app.jar --spring.profiles.active=seed --products.seed.count=5000000
+ *
+ * Inserta directamente con lotes JDBC, sin pasar por JPA ni por el servicio,
+ * repartiendo el trabajo entre varios hilos con una conexión cada uno. Con
+ * shards (products.sharding.enabled) cada fila va al shard de su categoría,
+ * igual que en ShardedProductRepository: cada hilo abre una conexión y un lote
+ * por shard. Al terminar la aplicación sigue sirviendo los datos sembrados,
+ * salvo que products.seed.exit=true.
+ */
+@Component
+@Profile("seed")
+public class CatalogSeeder implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSeeder.class);
+
+    private final List<DataSource> targets;
+    private final ShardRouter router;
+    private final ConfigurableApplicationContext context;
+    private final long count;
+    private final int batchSize;
+    private final int threads;
+    private final long randomSeed;
+    private final boolean exitWhenDone;
+
+    public CatalogSeeder(DataSource dataSource,
+                         ObjectProvider<ProductShards> productShards,
+                         ConfigurableApplicationContext context,
+                         @Value("${products.seed.count:1000000}") long count,
+                         @Value("${products.seed.batch-size:5000}") int batchSize,
+                         @Value("${products.seed.threads:0}") int threads,
+                         @Value("${products.seed.random-seed:42}") long randomSeed,
+                         @Value("${products.seed.exit:false}") boolean exitWhenDone) {
+        ProductShards shards = productShards.getIfAvailable();
+        if (shards != null) {
+            this.targets = shards.all().stream().map(ProductShard::dataSource).toList();
+            this.router = shards.router();
+        } else {
+            this.targets = List.of(unwrap(dataSource));
+            this.router = null;
+        }
+        this.context = context;
+        this.count = count;
+        this.batchSize = batchSize;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.randomSeed = randomSeed;
+        this.exitWhenDone = exitWhenDone;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        logger.info("Sembrando {} productos en lotes de {} con {} hilos ({} bases de datos)",
+            count, batchSize, threads, targets.size());
+        long start = System.nanoTime();
+
+        SyntheticProductGenerator generator = new SyntheticProductGenerator();
+        AtomicLong inserted = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            long perThread = (count + threads - 1) / threads;
+            for (int t = 0; t < threads; t++) {
+                long from = t * perThread;
+                long to = Math.min(count, from + perThread);
+                if (from >= to) {
+                    break;
+                }
+                SplittableRandom random = new SplittableRandom(randomSeed + t);
+                futures.add(executor.submit(() -> {
+                    insertRange(generator, random, from, to, inserted, start);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        logger.info("Sembrado completado: {} productos en {} s ({} filas/min)",
+            inserted.get(), String.format("%.1f", seconds), Math.round(inserted.get() / seconds * 60));
+
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    private void insertRange(SyntheticProductGenerator generator, SplittableRandom random,
+                             long from, long to, AtomicLong inserted, long start) throws SQLException {
+        Batch[] batches = new Batch[targets.size()];
+        try {
+            for (int i = 0; i < batches.length; i++) {
+                batches[i] = new Batch(targets.get(i).getConnection());
+            }
+            int[] shardOfCategory = new int[generator.categoryCount()];
+            for (int c = 0; c < shardOfCategory.length; c++) {
+                shardOfCategory[c] = router == null ? 0 : router.shardForCategory(generator.categoryName(c));
+            }
+            for (long n = from; n < to; n++) {
+                int category = generator.pickCategory(random);
+                Batch batch = batches[shardOfCategory[category]];
+                generator.bind(batch.statement, n + 1, category, random);
+                batch.statement.addBatch();
+                if (++batch.pending == batchSize) {
+                    flush(batch, inserted, start);
+                }
+            }
+            for (Batch batch : batches) {
+                if (batch.pending > 0) {
+                    flush(batch, inserted, start);
+                }
+            }
+        } catch (SQLException e) {
+            for (Batch batch : batches) {
+                if (batch != null) {
+                    batch.connection.rollback();
+                }
+            }
+            throw e;
+        } finally {
+            for (Batch batch : batches) {
+                if (batch != null) {
+                    batch.close();
+                }
+            }
+        }
+    }
+
+    private void flush(Batch batch, AtomicLong inserted, long start) throws SQLException {
+        batch.statement.executeBatch();
+        batch.connection.commit();
+        int rows = batch.pending;
+        batch.pending = 0;
+        long total = inserted.addAndGet(rows);
+        long step = Math.max(count / 10, batchSize);
+        if (total % step < rows) {
+            logger.info("Sembrados {} de {} productos ({} s)", total, count,
+                String.format("%.1f", (System.nanoTime() - start) / 1e9));
+        }
+    }
+
+    /**
+     * El sembrado no pasa por envoltorios de instrumentación (registro de consultas lentas)
+     */
+    private static DataSource unwrap(DataSource dataSource) {
+        DataSource current = dataSource;
+        while (current instanceof DelegatingDataSource delegating && delegating.getTargetDataSource() != null) {
+            current = delegating.getTargetDataSource();
+        }
+        return current;
+    }
+
+    /**
+     * Conexión, sentencia y filas pendientes de un hilo en una base de datos
+     */
+    private static final class Batch implements AutoCloseable {
+
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private int pending;
+
+        private Batch(Connection connection) throws SQLException {
+            this.connection = connection;
+            try {
+                connection.setAutoCommit(false);
+                this.statement = connection.prepareStatement(SyntheticProductGenerator.INSERT_SQL);
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                statement.close();
+            } finally {
+                connection.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.eafit.tutorial.seed;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Genera filas de productos sintéticas con distribuciones realistas
+ *
+ * - Categorías con peso decreciente (unas pocas concentran el catálogo)
+ * - Precio log-normal por categoría, dentro de los límites de product-rules.yml
+ *   y con terminaciones .99/.90/.00 como en un catálogo real
+ * - Stock exponencial con un porcentaje de productos agotados
+ * - Fechas de creación repartidas en los últimos dos años
+ *
+ * Con la misma semilla se generan las mismas filas.
+ */
+class SyntheticProductGenerator {
+
+    static final String INSERT_SQL = "INSERT INTO products "
+        + "(name, description, price, category, stock, active, created_at, updated_at) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final Category[] CATEGORIES = {
+        new Category("Electronicos", 25, 250.0, 1.0, 50.00, 9999.99,
+            new String[] {"Smartphone", "Audifonos", "Monitor", "Teclado", "Camara", "Parlante", "Tablet", "Router"}),
+        new Category("Hogar", 20, 45.0, 0.9, 1.00, 4999.99,
+            new String[] {"Lampara", "Cojin", "Sarten", "Cortina", "Tapete", "Vajilla", "Silla", "Repisa"}),
+        new Category("Ropa", 18, 60.0, 0.7, 10.00, 1000.00,
+            new String[] {"Camiseta", "Chaqueta", "Pantalon", "Vestido", "Bufanda", "Sudadera", "Falda", "Zapatos"}),
+        new Category("Deportes", 12, 70.0, 0.9, 5.00, 4999.99,
+            new String[] {"Balon", "Raqueta", "Bicicleta", "Guantes", "Pesas", "Casco", "Mancuerna", "Colchoneta"}),
+        new Category("Libros", 10, 25.0, 0.5, 3.00, 200.00,
+            new String[] {"Novela", "Manual", "Cuento", "Ensayo", "Atlas", "Diccionario", "Biografia", "Poemario"}),
+        new Category("Salud", 9, 20.0, 0.8, 1.00, 999.99,
+            new String[] {"Vitamina", "Termometro", "Tensiometro", "Protector", "Crema", "Botiquin", "Mascarilla", "Balanza"}),
+        new Category("Automoviles", 6, 90.0, 1.1, 5.00, 9999.99,
+            new String[] {"Llanta", "Bateria", "Aceite", "Plumillas", "Forro", "Cargador", "Espejo", "Tapetes"})
+    };
+
+    private static final String[] ADJECTIVES = {
+        "Basico", "Premium", "Compacto", "Clasico", "Ligero", "Profesional", "Esencial", "Deluxe", "Eco", "Ultra"
+    };
+
+    private static final String[] BRANDS = {
+        "Andino", "Caribe", "Nevado", "Orion", "Patagonia", "Quimbaya", "Sierra", "Tayrona", "Volcan", "Zenit"
+    };
+
+    private static final long CREATION_WINDOW_SECONDS = 2L * 365 * 24 * 3600;
+
+    private final int totalWeight;
+    private final LocalDateTime now = LocalDateTime.now();
+
+    SyntheticProductGenerator() {
+        int sum = 0;
+        for (Category category : CATEGORIES) {
+            sum += category.weight();
+        }
+        this.totalWeight = sum;
+    }
+
+    /**
+     * Número de categorías; pickCategory devuelve un índice entre 0 y este valor
+     */
+    int categoryCount() {
+        return CATEGORIES.length;
+    }
+
+    String categoryName(int category) {
+        return CATEGORIES[category].name();
+    }
+
+    /**
+     * Elige la categoría del siguiente producto, con su peso
+     */
+    int pickCategory(SplittableRandom random) {
+        int pick = random.nextInt(totalWeight);
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            pick -= CATEGORIES[i].weight();
+            if (pick < 0) {
+                return i;
+            }
+        }
+        return CATEGORIES.length - 1;
+    }
+
+    /**
+     * Enlaza en la sentencia de inserción el producto número n, de la categoría elegida
+     */
+    void bind(PreparedStatement statement, long n, int categoryIndex, SplittableRandom random) throws SQLException {
+        Category category = CATEGORIES[categoryIndex];
+        String noun = category.nouns()[random.nextInt(category.nouns().length)];
+        String adjective = ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+        String brand = BRANDS[random.nextInt(BRANDS.length)];
+
+        statement.setString(1, noun + " " + adjective + " " + brand + " " + n);
+        statement.setString(2, noun + " " + adjective.toLowerCase() + " de la marca " + brand
+            + ", categoría " + category.name().toLowerCase());
+        statement.setBigDecimal(3, price(category, random));
+        statement.setString(4, category.name());
+        statement.setInt(5, stock(random));
+        statement.setBoolean(6, random.nextInt(100) >= 3);
+
+        Timestamp createdAt = Timestamp.valueOf(now.minusSeconds(random.nextLong(CREATION_WINDOW_SECONDS)));
+        statement.setTimestamp(7, createdAt);
+        statement.setTimestamp(8, createdAt);
+    }
+
+    private static BigDecimal price(Category category, SplittableRandom random) {
+        double raw = category.medianPrice() * Math.exp(category.priceSigma() * gaussian(random));
+        double clamped = Math.min(Math.max(raw, category.minPrice()), category.maxPrice());
+        long whole = (long) clamped;
+        int cents = switch (random.nextInt(10)) {
+            case 0, 1, 2, 3, 4 -> 99;
+            case 5, 6 -> 90;
+            case 7, 8 -> 0;
+            default -> random.nextInt(100);
+        };
+        BigDecimal price = BigDecimal.valueOf(whole * 100 + cents, 2);
+        if (price.doubleValue() < category.minPrice()) return BigDecimal.valueOf(category.minPrice()).setScale(2);
+        if (price.doubleValue() > category.maxPrice()) return BigDecimal.valueOf(category.maxPrice()).setScale(2);
+        return price;
+    }
+
+    /**
+     * ~5 % agotados, el resto exponencial con media 120 (cola larga hasta 5000)
+     */
+    private static int stock(SplittableRandom random) {
+        if (random.nextInt(100) < 5) {
+            return 0;
+        }
+        return (int) Math.min(5000, 1 + (-120.0 * Math.log(1.0 - random.nextDouble())));
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller: SplittableRandom no trae nextGaussian en Java 17
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+
+    private record Category(String name, int weight, double medianPrice, double priceSigma,
+                            double minPrice, double maxPrice, String[] nouns) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.eafit.tutorial.service;
+
+import com.eafit.tutorial.dto.FacetedSearchDTO;
+
+/**
+ * Búsqueda de productos con recuentos por faceta para construir filtros
+ */
+public interface FacetedSearchService {
+
+    /**
+     * Productos activos cuyo nombre contiene name (null = todos), filtrados
+     * opcionalmente por categoría y tramo de precio, con los recuentos por
+     * categoría y por tramo
+     */
+    FacetedSearchDTO search(String name, String category, String priceBucket, int page, int size);
+}
@@ -0,0 +1,27 @@
+package com.eafit.tutorial.service;
+
+import com.eafit.tutorial.dto.PriceHistoryDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Historial de cambios de precio de los productos, solo de añadido
+ */
+public interface PriceHistoryService {
+
+    /**
+     * Registra el precio de un producto dentro de la transacción en curso
+     *
+     * Si el producto aún no tiene historial y previousPrice no es null (creado
+     * por importación o antes de existir el historial), se registra primero
+     * previousPrice en previousSince (instante desde el que consta vigente)
+     * como punto de partida.
+     */
+    void recordPrice(Long productId, BigDecimal price, BigDecimal previousPrice, LocalDateTime previousSince);
+
+    /**
+     * Cambios de precio de un producto en [from, to] y el precio vigente en from
+     */
+    PriceHistoryDTO getHistory(Long productId, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,32 @@
+package com.eafit.tutorial.service;
+
+import com.eafit.tutorial.dto.ArchiveRunResult;
+import com.eafit.tutorial.model.ArchivedProduct;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Optional;
+
+/**
+ * Archivado de productos dados de baja
+ *
+ * Mueve a archived_products los productos inactivos desde hace más que el
+ * periodo de retención, para que la tabla viva solo contenga filas útiles.
+ */
+public interface ProductArchiveService {
+
+    /**
+     * Ejecuta una pasada de archivado por lotes
+     */
+    ArchiveRunResult archiveExpired();
+
+    /**
+     * Obtiene un producto archivado por su ID original
+     */
+    Optional<ArchivedProduct> getArchivedProduct(Long id);
+
+    /**
+     * Lista productos archivados, opcionalmente filtrados por categoría
+     */
+    Page<ArchivedProduct> getArchivedProducts(String category, Pageable pageable);
+}
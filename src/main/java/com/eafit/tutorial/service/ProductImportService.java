@@ -0,0 +1,31 @@
+package com.eafit.tutorial.service;
+
+import com.eafit.tutorial.dto.ImportJobDTO;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Importación masiva de catálogo desde ficheros CSV o NDJSON
+ *
+ * Los ficheros se procesan en segundo plano, en flujo y por lotes
+ * transaccionales; cada trabajo se identifica por un jobId que permite
+ * consultar el progreso y reanudarlo si falla.
+ */
+public interface ProductImportService {
+
+    /**
+     * Registra el fichero y encola su importación
+     *
+     * @param format "csv", "ndjson" o null para deducirlo del nombre o tipo de contenido
+     */
+    ImportJobDTO startImport(MultipartFile file, String format);
+
+    /**
+     * Estado actual de un trabajo
+     */
+    ImportJobDTO getJob(String jobId);
+
+    /**
+     * Reanuda un trabajo fallido desde su último lote confirmado
+     */
+    ImportJobDTO resumeImport(String jobId);
+}
@@ -5,7 +5,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -30,6 +32,12 @@ public interface ProductService {
      */
     Optional<Product> getProductById(Long id);
 
+    /**
+     * Obtiene varios productos activos por ID en una sola consulta,
+     * respetando el orden solicitado (los IDs inexistentes se omiten)
+     */
+    List<Product> getProductsByIds(Collection<Long> ids);
+
     /**
      * Crea un nuevo producto
      */
@@ -45,6 +53,20 @@ public interface ProductService {
      */
     void deleteProduct(Long id);
 
+    /**
+     * Activa o desactiva (soft delete) varios productos con una sola sentencia
+     *
+     * @return número de productos cuyo estado cambió
+     */
+    int setProductsActive(Collection<Long> ids, boolean active);
+
+    /**
+     * Activa o desactiva todos los productos de una categoría con una sola sentencia
+     *
+     * @return número de productos cuyo estado cambió
+     */
+    int setCategoryActive(String category, boolean active);
+
     /**
      * Busca productos por categoría
      */
@@ -74,4 +96,15 @@ public interface ProductService {
      * Actualiza el stock de un producto
      */
     Product updateStock(Long id, Integer newStock);
+
+    /**
+     * Descuenta stock de varios productos en una transacción: todo o nada
+     *
+     * Las unidades reservadas no cuentan como disponibles. Con shards, todos los
+     * productos deben estar en el mismo shard.
+     *
+     * @param quantities unidades a descontar por ID de producto
+     * @return los productos actualizados, en orden de ID
+     */
+    List<Product> decrementStock(Map<Long, Integer> quantities);
 }
\ No newline at end of file
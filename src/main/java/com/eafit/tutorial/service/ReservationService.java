@@ -0,0 +1,49 @@
+package com.eafit.tutorial.service;
+
+import com.eafit.tutorial.dto.ReservationDTO;
+import com.eafit.tutorial.dto.StockAvailabilityDTO;
+
+import java.time.Duration;
+
+/**
+ * Reservas temporales de stock para procesos de compra
+ *
+ * Reservar retiene unidades durante un tiempo; confirmar las descuenta del
+ * stock y liberar (o caducar) las devuelve al disponible.
+ */
+public interface ReservationService {
+
+    /**
+     * Reserva unidades de un producto activo; ttl null usa la duración por defecto
+     */
+    ReservationDTO reserve(Long productId, int quantity, Duration ttl);
+
+    /**
+     * Confirma una reserva retenida: sus unidades se descuentan del stock
+     */
+    ReservationDTO confirm(String reservationId);
+
+    /**
+     * Libera una reserva retenida antes de que caduque
+     */
+    ReservationDTO release(String reservationId);
+
+    /**
+     * Obtiene una reserva (también confirmada, liberada o caducada, durante un tiempo)
+     */
+    ReservationDTO getReservation(String reservationId);
+
+    /**
+     * Stock, unidades reservadas y disponible de un producto
+     */
+    StockAvailabilityDTO getAvailability(Long productId);
+
+    /**
+     * Aparta unidades para un pedido que descuenta stock directamente
+     *
+     * Se llama con la fila del producto ya bloqueada y su stock leído; falla con
+     * InsufficientStockException si la cantidad no cabe en stock - reservado.
+     * Lo apartado deja de contar al terminar la transacción en curso.
+     */
+    void holdForOrder(Long productId, int quantity, int stock);
+}
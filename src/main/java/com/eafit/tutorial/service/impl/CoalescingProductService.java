@@ -0,0 +1,209 @@
+package com.eafit.tutorial.service.impl;
+
+import com.eafit.tutorial.cache.InvalidationBus;
+import com.eafit.tutorial.cache.ProductCache;
+import com.eafit.tutorial.model.Product;
+import com.eafit.tutorial.routing.ReadRoutingContext;
+import com.eafit.tutorial.service.ProductService;
+import com.eafit.tutorial.util.SingleFlight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Capa de agrupación de lecturas concurrentes delante de ProductServiceImpl
+ *
+ * Las lecturas idénticas que coinciden en el tiempo comparten una única consulta
+ * a la base de datos. Cada escritura invalida las consultas en curso después del
+ * commit, de modo que ninguna lectura iniciada tras la escritura recibe datos previos.
+ *
+ * Con products.cache.enabled, las lecturas por ID y por categoría se sirven
+ * además desde ProductCache; las invalidaciones de otros nodos también
+ * invalidan las consultas en curso.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "products.coalescing.enabled", havingValue = "true", matchIfMissing = true)
+public class CoalescingProductService implements ProductService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoalescingProductService.class);
+
+    private static final Object PRIMARY_READ = "primary";
+
+    private final ProductService delegate;
+    private final SingleFlight<List<Object>, Object> reads = new SingleFlight<>();
+    private final ProductCache cache;
+
+    public CoalescingProductService(@Qualifier("productServiceImpl") ProductService delegate,
+                                    ObjectProvider<ProductCache> cache,
+                                    InvalidationBus invalidationBus) {
+        this.delegate = delegate;
+        this.cache = cache.getIfAvailable();
+        invalidationBus.addListener(invalidation -> reads.invalidateAll());
+    }
+
+    // Lecturas agrupadas
+
+    @Override
+    public List<Product> getAllProducts() {
+        return coalesce(() -> delegate.getAllProducts(), "getAllProducts");
+    }
+
+    @Override
+    public Page<Product> getAllProducts(Pageable pageable) {
+        return coalesce(() -> delegate.getAllProducts(pageable), "getAllProductsPaged", pageable);
+    }
+
+    @Override
+    public Optional<Product> getProductById(Long id) {
+        if (cache == null) {
+            return coalesce(() -> delegate.getProductById(id), "getProductById", id);
+        }
+        Product cached = cache.getProduct(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long generation = cache.generation();
+        Optional<Product> loaded = coalesce(() -> delegate.getProductById(id), "getProductById", id);
+        loaded.ifPresent(product -> cache.putProduct(product, generation));
+        return loaded;
+    }
+
+    @Override
+    public List<Product> getProductsByIds(Collection<Long> ids) {
+        // Copia propia como clave; admite los null que el servicio descarta (p. ej. ?ids=1,,2)
+        List<Long> key = Collections.unmodifiableList(new ArrayList<>(ids));
+        return coalesce(() -> delegate.getProductsByIds(key), "getProductsByIds", key);
+    }
+
+    @Override
+    public List<Product> getProductsByCategory(String category) {
+        if (cache == null) {
+            return coalesce(() -> delegate.getProductsByCategory(category), "getProductsByCategory", category);
+        }
+        List<Product> cached = cache.getCategory(category);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = cache.generation();
+        List<Product> loaded = coalesce(() -> delegate.getProductsByCategory(category), "getProductsByCategory", category);
+        cache.putCategory(category, loaded, generation);
+        return loaded;
+    }
+
+    @Override
+    public List<Product> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        return coalesce(() -> delegate.getProductsByPriceRange(minPrice, maxPrice),
+                "getProductsByPriceRange", minPrice, maxPrice);
+    }
+
+    @Override
+    public List<Product> searchProductsByName(String name) {
+        return coalesce(() -> delegate.searchProductsByName(name), "searchProductsByName", name);
+    }
+
+    @Override
+    public List<Product> getProductsWithLowStock(Integer minStock) {
+        return coalesce(() -> delegate.getProductsWithLowStock(minStock), "getProductsWithLowStock", minStock);
+    }
+
+    @Override
+    public boolean existsProduct(Long id) {
+        return getProductById(id).isPresent();
+    }
+
+    // Escrituras: se delegan e invalidan las lecturas en curso
+
+    @Override
+    public Product createProduct(Product product) {
+        Product created = delegate.createProduct(product);
+        invalidateAfterCommit();
+        return created;
+    }
+
+    @Override
+    public Product updateProduct(Long id, Product product) {
+        Product updated = delegate.updateProduct(id, product);
+        invalidateAfterCommit();
+        return updated;
+    }
+
+    @Override
+    public void deleteProduct(Long id) {
+        delegate.deleteProduct(id);
+        invalidateAfterCommit();
+    }
+
+    @Override
+    public int setProductsActive(Collection<Long> ids, boolean active) {
+        int affected = delegate.setProductsActive(ids, active);
+        invalidateAfterCommit();
+        return affected;
+    }
+
+    @Override
+    public int setCategoryActive(String category, boolean active) {
+        int affected = delegate.setCategoryActive(category, active);
+        invalidateAfterCommit();
+        return affected;
+    }
+
+    @Override
+    public Product updateStock(Long id, Integer newStock) {
+        Product updated = delegate.updateStock(id, newStock);
+        invalidateAfterCommit();
+        return updated;
+    }
+
+    @Override
+    public List<Product> decrementStock(Map<Long, Integer> quantities) {
+        List<Product> updated = delegate.decrementStock(quantities);
+        invalidateAfterCommit();
+        return updated;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T coalesce(Supplier<T> query, Object... key) {
+        List<Object> flightKey = Arrays.asList(key);
+        if (ReadRoutingContext.isPinnedToPrimary()) {
+            // Con réplica: quien acaba de escribir no se une a lecturas que pueden ir a ella
+            flightKey = Arrays.asList(PRIMARY_READ, flightKey);
+        }
+        return (T) reads.execute(flightKey, (Supplier<Object>) query);
+    }
+
+    /**
+     * Invalida las lecturas en curso cuando la escritura ya es visible
+     */
+    private void invalidateAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reads.invalidateAll();
+                }
+            });
+        } else {
+            reads.invalidateAll();
+        }
+        logger.debug("Lecturas agrupadas invalidadas tras escritura");
+    }
+}
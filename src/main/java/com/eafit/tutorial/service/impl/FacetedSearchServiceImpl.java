@@ -0,0 +1,137 @@
+package com.eafit.tutorial.service.impl;
+
+import com.eafit.tutorial.cache.ProductInvalidation;
+import com.eafit.tutorial.dto.FacetedSearchDTO;
+import com.eafit.tutorial.dto.PagedResponse;
+import com.eafit.tutorial.dto.ProductDTO;
+import com.eafit.tutorial.model.Product;
+import com.eafit.tutorial.repository.ProductRepository;
+import com.eafit.tutorial.search.FacetIndex;
+import com.eafit.tutorial.service.FacetedSearchService;
+import com.eafit.tutorial.service.ProductService;
+import com.eafit.tutorial.util.CompressedBitmap;
+import com.eafit.tutorial.util.ProductMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementación de la búsqueda con facetas
+ *
+ * El texto se resuelve con una única consulta de IDs; filtros, recuentos y
+ * paginación salen del índice de facetas, y solo se cargan los productos de
+ * la página pedida. Si alguno de ellos ya no cumple (el índice va por detrás
+ * de la base de datos), se releen en el índice y se repite la búsqueda.
+ */
+@Service
+public class FacetedSearchServiceImpl implements FacetedSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FacetedSearchServiceImpl.class);
+
+    /**
+     * Búsquedas como máximo cuando la página trae productos que ya no cumplen
+     */
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final FacetIndex facetIndex;
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final ProductMapper productMapper;
+
+    public FacetedSearchServiceImpl(FacetIndex facetIndex,
+                                    ProductRepository productRepository,
+                                    ProductService productService,
+                                    ProductMapper productMapper) {
+        this.facetIndex = facetIndex;
+        this.productRepository = productRepository;
+        this.productService = productService;
+        this.productMapper = productMapper;
+    }
+
+    @Override
+    public FacetedSearchDTO search(String name, String category, String priceBucket, int page, int size) {
+        int bucket = -1;
+        if (priceBucket != null && !priceBucket.isBlank()) {
+            bucket = facetIndex.bucketOf(priceBucket.trim());
+            if (bucket < 0) {
+                throw new IllegalArgumentException("Tramo de precio desconocido: " + priceBucket);
+            }
+        }
+
+        CompressedBitmap candidates = null;
+        if (name != null && !name.isBlank()) {
+            List<Long> ids = productRepository.findActiveIdsByNameContaining(name.trim());
+            candidates = CompressedBitmap.of(ids.stream().mapToLong(Long::longValue).toArray());
+        }
+
+        String categoryFilter = category == null || category.isBlank() ? null : category.trim();
+        FacetIndex.Result result;
+        List<Product> loaded;
+        int attempt = 0;
+        while (true) {
+            result = facetIndex.search(candidates, categoryFilter, bucket, (long) page * size, size);
+            loaded = loadPage(result.ids());
+            List<Long> stale = staleIds(result.ids(), loaded, categoryFilter, bucket);
+            if (stale.isEmpty()) {
+                break;
+            }
+            if (++attempt >= MAX_ATTEMPTS) {
+                // El índice sigue sin reflejarlo: mejor una página corta que productos que no cumplen el filtro
+                logger.warn("Índice de facetas desfasado para {} productos tras {} intentos", stale.size(), attempt);
+                loaded = loaded.stream().filter(product -> !stale.contains(product.getId())).toList();
+                break;
+            }
+            // Se releen y se repite la búsqueda: así se rellena la página y los recuentos cuadran
+            facetIndex.refresh(stale);
+        }
+        logger.debug("Búsqueda con facetas '{}': {} resultados", name, result.total());
+
+        List<ProductDTO> products = productMapper.toDTOList(loaded);
+        PagedResponse<ProductDTO> results = PagedResponse.of(
+            new PageImpl<>(products, PageRequest.of(page, size), result.total()));
+
+        List<FacetedSearchDTO.CategoryFacet> categories = new ArrayList<>(result.categoryCounts().size());
+        result.categoryCounts().forEach((value, count) -> categories.add(new FacetedSearchDTO.CategoryFacet(value, count)));
+
+        List<FacetedSearchDTO.PriceBucketFacet> buckets = new ArrayList<>(facetIndex.bucketCount());
+        for (int i = 0; i < facetIndex.bucketCount(); i++) {
+            buckets.add(new FacetedSearchDTO.PriceBucketFacet(facetIndex.bucketLabel(i),
+                facetIndex.bucketMin(i), facetIndex.bucketMax(i), result.bucketCounts()[i]));
+        }
+        return new FacetedSearchDTO(results, categories, buckets);
+    }
+
+    private List<Product> loadPage(long[] ids) {
+        List<Long> pageIds = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            pageIds.add(id);
+        }
+        return productService.getProductsByIds(pageIds);
+    }
+
+    /**
+     * IDs de la página que el índice da por buenos y ya no lo son: desactivados
+     * o con otra categoría o precio desde la última invalidación
+     */
+    private List<Long> staleIds(long[] ids, List<Product> loaded, String category, int bucket) {
+        Map<Long, Product> byId = new HashMap<>();
+        loaded.forEach(product -> byId.put(product.getId(), product));
+        List<Long> stale = new ArrayList<>();
+        for (long id : ids) {
+            Product product = byId.get(id);
+            if (product == null
+                || category != null && !ProductInvalidation.normalize(category).equals(ProductInvalidation.normalize(product.getCategory()))
+                || bucket >= 0 && facetIndex.bucketOf(product.getPrice()) != bucket) {
+                stale.add(id);
+            }
+        }
+        return stale;
+    }
+}
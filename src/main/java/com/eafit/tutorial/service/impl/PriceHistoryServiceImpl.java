@@ -0,0 +1,216 @@
+package com.eafit.tutorial.service.impl;
+
+import com.eafit.tutorial.dto.PriceHistoryDTO;
+import com.eafit.tutorial.exception.ProductNotFoundException;
+import com.eafit.tutorial.model.PriceHistorySegment;
+import com.eafit.tutorial.repository.ArchivedProductRepository;
+import com.eafit.tutorial.repository.PriceHistorySegmentRepository;
+import com.eafit.tutorial.repository.ProductRepository;
+import com.eafit.tutorial.service.PriceHistoryService;
+import com.eafit.tutorial.util.PriceHistoryCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Implementación del historial de precios sobre price_history_segments
+ *
+ * Cada producto tiene una cadena de segmentos; un cambio se añade al último y,
+ * cuando este se llena, se abre otro. Los cambios de un mismo producto se
+ * serializan bloqueando el primer segmento (SELECT ... FOR UPDATE). Si un
+ * producto que ya existía aún no tiene cadena, su primer segmento se inserta
+ * tras un savepoint: la restricción única (product_id, segment_number) deja
+ * pasar solo una de las creaciones simultáneas y el resto vuelve al savepoint
+ * y usa la ya creada, sin pedir otra conexión. Las consultas por rango leen solo los segmentos
+ * que se solapan con el intervalo, por el índice (product_id, last_at); solo
+ * si no hay nada se mira si el producto existe (activo, inactivo o archivado).
+ *
+ * Los instantes se guardan con precisión de milisegundos y nunca retroceden
+ * dentro de un producto aunque lo haga el reloj.
+ */
+@Service
+@Transactional
+public class PriceHistoryServiceImpl implements PriceHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryServiceImpl.class);
+
+    /**
+     * Cambios por segmento que caben con seguridad en la columna data
+     */
+    private static final int MAX_SEGMENT_ENTRIES = 8192 / PriceHistoryCodec.MAX_ENTRY_BYTES;
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private static final String INSERT_SQL = "INSERT INTO price_history_segments "
+        + "(product_id, segment_number, first_at, last_at, last_cents, entry_count, data) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final PriceHistorySegmentRepository segmentRepository;
+    private final ProductRepository productRepository;
+    private final ArchivedProductRepository archivedProductRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int segmentEntries;
+
+    public PriceHistoryServiceImpl(PriceHistorySegmentRepository segmentRepository,
+                                   ProductRepository productRepository,
+                                   ArchivedProductRepository archivedProductRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   @Value("${products.price-history.segment-entries:256}") int segmentEntries) {
+        this.segmentRepository = segmentRepository;
+        this.productRepository = productRepository;
+        this.archivedProductRepository = archivedProductRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.segmentEntries = Math.max(1, Math.min(segmentEntries, MAX_SEGMENT_ENTRIES));
+    }
+
+    @Override
+    public void recordPrice(Long productId, BigDecimal price, BigDecimal previousPrice, LocalDateTime previousSince) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        PriceHistorySegment first = segmentRepository.lockFirstSegment(productId).orElse(null);
+
+        if (first == null && previousPrice != null && previousSince != null) {
+            createBaseline(productId, previousPrice, previousSince.truncatedTo(ChronoUnit.MILLIS));
+            first = segmentRepository.lockFirstSegment(productId).orElseThrow();
+        }
+        PriceHistorySegment segment = first == null ? null
+            : segmentRepository.findFirstByProductIdOrderByNumberDesc(productId).orElseThrow();
+        if (segment != null && segment.getEntryCount() > 0 && segment.getLastCents() == toCents(price)) {
+            return;
+        }
+        append(productId, segment, now, price);
+        logger.debug("Precio registrado en el historial del producto {}: {}", productId, price);
+    }
+
+    /**
+     * Crea la cadena de un producto sin historial con su precio de partida
+     *
+     * Por JDBC sobre la conexión de la transacción en curso y no por JPA: si
+     * otra transacción la crea a la vez, la inserción falla por la restricción
+     * única, se vuelve al savepoint y no queda nada en el contexto de
+     * persistencia. El precio de partida de la otra es el mismo.
+     */
+    private void createBaseline(Long productId, BigDecimal price, LocalDateTime since) {
+        PriceHistorySegment baseline = new PriceHistorySegment(productId, 0, since);
+        addEntry(baseline, since, price);
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+                insert.setLong(1, baseline.getProductId());
+                insert.setInt(2, baseline.getNumber());
+                insert.setTimestamp(3, Timestamp.valueOf(baseline.getFirstAt()));
+                insert.setTimestamp(4, Timestamp.valueOf(baseline.getLastAt()));
+                insert.setLong(5, baseline.getLastCents());
+                insert.setInt(6, baseline.getEntryCount());
+                insert.setBytes(7, baseline.getData());
+                insert.executeUpdate();
+                connection.releaseSavepoint(savepoint);
+            } catch (SQLException e) {
+                connection.rollback(savepoint);
+                if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                    throw e;
+                }
+                logger.debug("El historial del producto {} ya lo creó otra transacción", productId);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Añade un cambio al segmento (o a uno nuevo si no hay o está lleno) y lo guarda
+     */
+    private PriceHistorySegment append(Long productId, PriceHistorySegment segment, LocalDateTime at, BigDecimal price) {
+        if (segment != null && at.isBefore(segment.getLastAt())) {
+            at = segment.getLastAt();
+        }
+        if (segment == null || segment.getEntryCount() >= segmentEntries) {
+            segment = new PriceHistorySegment(productId, segment == null ? 0 : segment.getNumber() + 1, at);
+        }
+        addEntry(segment, at, price);
+        return segmentRepository.save(segment);
+    }
+
+    private static void addEntry(PriceHistorySegment segment, LocalDateTime at, BigDecimal price) {
+        long cents = toCents(price);
+        long deltaMillis = toMillis(at) - toMillis(segment.getLastAt());
+        long deltaCents = cents - segment.getLastCents();
+
+        segment.setData(PriceHistoryCodec.append(segment.getData(), deltaMillis, deltaCents));
+        segment.setLastAt(at);
+        segment.setLastCents(cents);
+        segment.setEntryCount(segment.getEntryCount() + 1);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PriceHistoryDTO getHistory(Long productId, LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("El inicio del intervalo no puede ser posterior al final");
+        }
+        long fromMillis = toMillis(from);
+        long toMillis = toMillis(to);
+
+        List<PriceHistoryDTO.PricePoint> points = new ArrayList<>();
+        long[] before = {Long.MIN_VALUE, 0};
+        for (PriceHistorySegment segment : segmentRepository.findOverlapping(productId, from, to)) {
+            PriceHistoryCodec.decode(segment.getData(), toMillis(segment.getFirstAt()), (atMillis, cents) -> {
+                if (atMillis < fromMillis) {
+                    if (atMillis >= before[0]) {
+                        before[0] = atMillis;
+                        before[1] = cents;
+                    }
+                } else if (atMillis <= toMillis) {
+                    points.add(new PriceHistoryDTO.PricePoint(toDateTime(atMillis), fromCents(cents)));
+                }
+            });
+        }
+        points.sort(Comparator.comparing(PriceHistoryDTO.PricePoint::getAt));
+
+        BigDecimal priceBefore;
+        if (before[0] != Long.MIN_VALUE) {
+            priceBefore = fromCents(before[1]);
+        } else {
+            priceBefore = segmentRepository.findFirstByProductIdAndLastAtLessThanOrderByLastAtDescIdDesc(productId, from)
+                .map(segment -> fromCents(segment.getLastCents()))
+                .orElse(null);
+        }
+        if (points.isEmpty() && priceBefore == null
+                && !productRepository.existsById(productId) && !archivedProductRepository.existsById(productId)) {
+            throw new ProductNotFoundException(productId);
+        }
+        return new PriceHistoryDTO(productId, priceBefore, points);
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,209 @@
+package com.eafit.tutorial.service.impl;
+
+import com.eafit.tutorial.cache.InvalidationBus;
+import com.eafit.tutorial.cache.ProductInvalidation;
+import com.eafit.tutorial.dto.ArchiveRunResult;
+import com.eafit.tutorial.exception.ArchiveInProgressException;
+import com.eafit.tutorial.model.ArchivedProduct;
+import com.eafit.tutorial.repository.ArchivedProductRepository;
+import com.eafit.tutorial.service.ProductArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Implementación del archivado de productos dados de baja
+ *
+ * La antigüedad de la baja se mide con updated_at, que se fija al desactivar
+ * el producto (individual o masivamente) y no cambia mientras siga inactivo.
+ * Cada lote es una transacción corta: selecciona y bloquea hasta batch-size
+ * candidatos por el índice (active, updated_at), los copia a archived_products
+ * y los borra de products. Entre lotes se hace una pausa para no acaparar la
+ * base de datos, y una pasada se corta tras max-batches-per-run lotes; lo que
+ * quede se archiva en la siguiente.
+ *
+ * Los productos movidos desaparecen de products: al confirmar cada lote se
+ * publica una invalidación por sus IDs para que los oyentes del bus (caché de
+ * productos, reservas, índice de facetas, otros nodos) descarten lo que
+ * tuvieran de ellos.
+ *
+ * Sin shards solamente: con ellos products no está en la base de datos
+ * principal (ShardingConfig exige products.archive.enabled=false).
+ */
+@Service
+@ConditionalOnProperty(name = "products.sharding.enabled", havingValue = "false", matchIfMissing = true)
+public class ProductArchiveServiceImpl implements ProductArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductArchiveServiceImpl.class);
+
+    private static final String SELECT_CANDIDATES_SQL = "SELECT id FROM products "
+        + "WHERE active = FALSE AND updated_at < :cutoff "
+        + "ORDER BY updated_at, id LIMIT :limit FOR UPDATE";
+
+    private static final String COPY_SQL = "INSERT INTO archived_products "
+        + "(id, name, description, price, category, stock, created_at, updated_at, archived_at) "
+        + "SELECT id, name, description, price, category, stock, created_at, updated_at, :archivedAt "
+        + "FROM products WHERE id IN (:ids)";
+
+    private static final String DELETE_SQL = "DELETE FROM products WHERE id IN (:ids)";
+
+    private final ArchivedProductRepository archivedProductRepository;
+    private final InvalidationBus invalidationBus;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration retention;
+    private final int batchSize;
+    private final Duration pause;
+    private final int maxBatchesPerRun;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ProductArchiveServiceImpl(ArchivedProductRepository archivedProductRepository,
+                                     InvalidationBus invalidationBus,
+                                     NamedParameterJdbcTemplate jdbcTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${products.archive.enabled:true}") boolean enabled,
+                                     @Value("${products.archive.retention:P30D}") Duration retention,
+                                     @Value("${products.archive.batch-size:500}") int batchSize,
+                                     @Value("${products.archive.pause:PT0.1S}") Duration pause,
+                                     @Value("${products.archive.max-batches-per-run:200}") int maxBatchesPerRun) {
+        this.archivedProductRepository = archivedProductRepository;
+        this.invalidationBus = invalidationBus;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.pause = pause;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    /**
+     * Pasada programada; si la anterior (o una manual) sigue en curso, se omite
+     */
+    @Scheduled(initialDelayString = "${products.archive.interval:PT1H}",
+               fixedDelayString = "${products.archive.interval:PT1H}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archiveExpired();
+        } catch (ArchiveInProgressException e) {
+            logger.debug("Pasada de archivado omitida: hay otra en curso");
+        } catch (RuntimeException e) {
+            logger.error("Error en la pasada de archivado", e);
+        }
+    }
+
+    @Override
+    public ArchiveRunResult archiveExpired() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ArchiveInProgressException();
+        }
+        try {
+            return runBatches();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ArchiveRunResult runBatches() {
+        long start = System.nanoTime();
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        long archived = 0;
+        int batches = 0;
+        boolean complete = false;
+
+        while (batches < maxBatchesPerRun) {
+            int moved = archiveBatch(cutoff);
+            if (moved > 0) {
+                archived += moved;
+                batches++;
+            }
+            if (moved < batchSize) {
+                complete = true;
+                break;
+            }
+            if (!pauseBetweenBatches()) {
+                break;
+            }
+        }
+
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+        if (archived > 0) {
+            logger.info("Archivados {} productos inactivos desde antes de {} en {} lotes ({} ms)",
+                archived, cutoff, batches, durationMillis);
+        }
+        return new ArchiveRunResult(archived, batches, durationMillis, cutoff, complete);
+    }
+
+    /**
+     * Mueve un lote de candidatos en una sola transacción y devuelve cuántos movió
+     */
+    private int archiveBatch(LocalDateTime cutoff) {
+        Integer moved = transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(SELECT_CANDIDATES_SQL,
+                new MapSqlParameterSource()
+                    .addValue("cutoff", Timestamp.valueOf(cutoff))
+                    .addValue("limit", batchSize),
+                Long.class);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            LocalDateTime archivedAt = LocalDateTime.now();
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("archivedAt", Timestamp.valueOf(archivedAt));
+            jdbcTemplate.update(COPY_SQL, params);
+            invalidationBus.publishAfterCommit(() -> ProductInvalidation.forProducts(ids, archivedAt));
+            return jdbcTemplate.update(DELETE_SQL, params);
+        });
+        return moved == null ? 0 : moved;
+    }
+
+    private boolean pauseBetweenBatches() {
+        if (pause.isZero() || pause.isNegative()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ArchivedProduct> getArchivedProduct(Long id) {
+        return archivedProductRepository.findById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ArchivedProduct> getArchivedProducts(String category, Pageable pageable) {
+        if (category == null || category.isBlank()) {
+            return archivedProductRepository.findAll(pageable);
+        }
+        return archivedProductRepository.findByCategoryIgnoreCase(category.trim(), pageable);
+    }
+}
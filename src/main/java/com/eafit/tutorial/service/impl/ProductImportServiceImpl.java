@@ -0,0 +1,572 @@
+package com.eafit.tutorial.service.impl;
+
+import com.eafit.tutorial.cache.InvalidationBus;
+import com.eafit.tutorial.cache.ProductInvalidation;
+import com.eafit.tutorial.dto.CreateProductDTO;
+import com.eafit.tutorial.dto.ImportJobDTO;
+import com.eafit.tutorial.dto.ImportJobDTO.Status;
+import com.eafit.tutorial.dto.ImportRowError;
+import com.eafit.tutorial.exception.ImportJobNotFoundException;
+import com.eafit.tutorial.exception.ImportJobStateException;
+import com.eafit.tutorial.exception.ValidationException;
+import com.eafit.tutorial.model.Product;
+import com.eafit.tutorial.repository.ProductRepository;
+import com.eafit.tutorial.service.ProductImportService;
+import com.eafit.tutorial.sharding.ProductShard;
+import com.eafit.tutorial.sharding.ProductShards;
+import com.eafit.tutorial.util.CsvProductReader;
+import com.eafit.tutorial.util.NdjsonProductReader;
+import com.eafit.tutorial.util.ProductMapper;
+import com.eafit.tutorial.util.ProductRecordReader;
+import com.eafit.tutorial.util.ProductValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Implementación de la importación masiva de catálogo
+ *
+ * El fichero subido se mueve a products.import.directory y lo procesa un único
+ * hilo en segundo plano: se lee registro a registro, se valida con las
+ * restricciones de CreateProductDTO y con ProductValidator, y los válidos se
+ * insertan con lotes JDBC, una transacción por lote. Tras cada lote se guarda
+ * un punto de control (jobId.json) con el último registro confirmado; una
+ * reanudación, incluso tras reiniciar la aplicación, continúa desde ahí.
+ *
+ * Con shards, cada fila se inserta en el shard de su categoría. Un lote solo
+ * lleva filas de un shard (cambiar de shard cierra el lote), para que el
+ * punto de control siga siendo un número de registro sin confirmaciones a
+ * medias entre bases de datos.
+ *
+ * La memoria usada es la de un lote y una lista acotada de errores,
+ * independientemente del tamaño del fichero.
+ */
+@Service
+public class ProductImportServiceImpl implements ProductImportService, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportServiceImpl.class);
+
+    private static final String INSERT_SQL = "INSERT INTO products "
+        + "(name, description, price, category, stock, active, created_at, updated_at) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ProductValidator productValidator;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InvalidationBus invalidationBus;
+    private final ProductShards productShards;
+    private final Path directory;
+    private final int batchSize;
+    private final int maxErrors;
+    private final int maxRecordChars;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ProductImportServiceImpl(ProductRepository productRepository,
+                                    ProductMapper productMapper,
+                                    ProductValidator productValidator,
+                                    Validator validator,
+                                    ObjectMapper objectMapper,
+                                    JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    InvalidationBus invalidationBus,
+                                    ObjectProvider<ProductShards> productShards,
+                                    @Value("${products.import.directory:${java.io.tmpdir}/products-import}") Path directory,
+                                    @Value("${products.import.batch-size:1000}") int batchSize,
+                                    @Value("${products.import.max-errors:100}") int maxErrors,
+                                    @Value("${products.import.max-record-chars:65536}") int maxRecordChars) throws IOException {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.productValidator = productValidator;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.invalidationBus = invalidationBus;
+        this.productShards = productShards.getIfAvailable();
+        this.directory = Files.createDirectories(directory);
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        this.maxRecordChars = maxRecordChars;
+    }
+
+    @Override
+    public ImportJobDTO startImport(MultipartFile file, String format) {
+        if (file == null || file.isEmpty()) {
+            throw new ValidationException("El fichero de importación está vacío");
+        }
+        String resolvedFormat = resolveFormat(file, format);
+        String jobId = UUID.randomUUID().toString();
+
+        ImportJobDTO state = new ImportJobDTO();
+        state.setJobId(jobId);
+        state.setFileName(file.getOriginalFilename());
+        state.setFormat(resolvedFormat);
+        state.setStatus(Status.QUEUED);
+        state.setTotalBytes(file.getSize());
+        state.setErrors(new ArrayList<>());
+        state.setCreatedAt(LocalDateTime.now());
+        state.setUpdatedAt(state.getCreatedAt());
+
+        try {
+            // El multipart ya está en disco: se mueve, no se copia a memoria
+            file.transferTo(dataFile(jobId));
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo guardar el fichero de importación", e);
+        }
+
+        ImportJob job = new ImportJob(state);
+        jobs.put(jobId, job);
+        saveCheckpoint(job.snapshot());
+        logger.info("Importación {} encolada: {} ({} bytes, {})",
+            jobId, state.getFileName(), state.getTotalBytes(), resolvedFormat);
+
+        executor.execute(() -> run(job));
+        return job.snapshot();
+    }
+
+    @Override
+    public ImportJobDTO getJob(String jobId) {
+        return findJob(jobId).snapshot();
+    }
+
+    @Override
+    public ImportJobDTO resumeImport(String jobId) {
+        ImportJob current = findJob(jobId);
+        if (current.status() != Status.FAILED) {
+            throw new ImportJobStateException("Solo se pueden reanudar importaciones fallidas; estado actual: "
+                + current.status());
+        }
+        if (!Files.exists(dataFile(jobId))) {
+            throw new ImportJobStateException("El fichero de la importación " + jobId + " ya no está disponible");
+        }
+
+        // Se parte del último punto de control: lo posterior a él se vuelve a procesar
+        ImportJobDTO state = loadCheckpoint(jobId);
+        state.setStatus(Status.QUEUED);
+        state.setMessage("Reanudada desde el registro " + state.getCheckpoint());
+        state.setFinishedAt(null);
+        ImportJob job = new ImportJob(state);
+        if (!jobs.replace(jobId, current, job)) {
+            throw new ImportJobStateException("La importación " + jobId + " ya se está reanudando");
+        }
+        saveCheckpoint(job.snapshot());
+        logger.info("Importación {} reanudada desde el registro {}", jobId, state.getCheckpoint());
+
+        executor.execute(() -> run(job));
+        return job.snapshot();
+    }
+
+    private ImportJob findJob(String jobId) {
+        try {
+            UUID.fromString(jobId);
+        } catch (IllegalArgumentException e) {
+            throw new ImportJobNotFoundException(jobId);
+        }
+        return jobs.computeIfAbsent(jobId, id -> {
+            if (!Files.exists(checkpointFile(id))) {
+                throw new ImportJobNotFoundException(id);
+            }
+            ImportJobDTO state = loadCheckpoint(id);
+            if (state.getStatus() == Status.QUEUED || state.getStatus() == Status.RUNNING) {
+                state.setStatus(Status.FAILED);
+                state.setMessage("Interrumpida por un reinicio de la aplicación");
+            }
+            return new ImportJob(state);
+        });
+    }
+
+    private void run(ImportJob job) {
+        String jobId = job.id();
+        job.start();
+        try (CountingInputStream counter = new CountingInputStream(Files.newInputStream(dataFile(jobId)));
+             ProductRecordReader reader = openReader(job.format(), counter)) {
+
+            long skip = job.checkpoint();
+            List<PendingRow> batch = new ArrayList<>(batchSize);
+            ProductRecordReader.Row row;
+            while ((row = reader.next()) != null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Importación interrumpida");
+                }
+                job.progress(row.number(), counter.count);
+                if (row.number() <= skip) {
+                    continue;
+                }
+                Product product = validate(job, row);
+                if (product != null) {
+                    if (!batch.isEmpty() && shardOf(product) != shardOf(batch.get(0).product())) {
+                        // Lo anterior a este registro ya está procesado
+                        flush(job, batch, row.number() - 1);
+                        batch.clear();
+                    }
+                    batch.add(new PendingRow(row.number(), product));
+                }
+                if (batch.size() >= batchSize) {
+                    flush(job, batch, row.number());
+                    batch.clear();
+                }
+            }
+            flush(job, batch, job.recordsRead());
+
+            job.finish(Status.COMPLETED, null, counter.count);
+            saveCheckpoint(job.snapshot());
+            Files.deleteIfExists(dataFile(jobId));
+            ImportJobDTO result = job.snapshot();
+            logger.info("Importación {} completada: {} importados, {} rechazados",
+                jobId, result.getImported(), result.getRejected());
+        } catch (Exception e) {
+            logger.warn("Importación {} fallida en el registro {}: {}", jobId, job.recordsRead(), e.getMessage());
+            job.finish(Status.FAILED, e.getMessage(), -1);
+            // En disco queda el último lote confirmado, no el avance posterior sin confirmar
+            saveCheckpoint(job.committed(Status.FAILED, e.getMessage()));
+        }
+    }
+
+    private ProductRecordReader openReader(String format, InputStream in) throws IOException {
+        InputStreamReader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        return "csv".equals(format)
+            ? new CsvProductReader(reader, maxRecordChars)
+            : new NdjsonProductReader(reader, maxRecordChars, objectMapper);
+    }
+
+    /**
+     * Valida el registro; si no es válido lo anota como rechazado y devuelve null
+     */
+    private Product validate(ImportJob job, ProductRecordReader.Row row) {
+        if (!row.isValid()) {
+            job.reject(row.number(), row.errors());
+            return null;
+        }
+        CreateProductDTO dto = row.product();
+        Set<ConstraintViolation<CreateProductDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            Map<String, String> errors = new LinkedHashMap<>();
+            for (ConstraintViolation<CreateProductDTO> violation : violations) {
+                errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+            }
+            job.reject(row.number(), errors);
+            return null;
+        }
+        Product product = productMapper.toEntity(dto);
+        try {
+            productValidator.validate(product);
+        } catch (ValidationException e) {
+            job.reject(row.number(), e.getErrors() != null ? e.getErrors() : Map.of("product", e.getMessage()));
+            return null;
+        }
+        return product;
+    }
+
+    /**
+     * Shard donde va el producto, o null sin shards
+     */
+    private ProductShard shardOf(Product product) {
+        return productShards != null ? productShards.forCategory(product.getCategory()) : null;
+    }
+
+    /**
+     * Inserta el lote en una transacción (descartando nombres ya existentes) y
+     * guarda el punto de control
+     */
+    private void flush(ImportJob job, List<PendingRow> batch, long checkpoint) {
+        if (!batch.isEmpty()) {
+            LocalDateTime insertedAt = LocalDateTime.now();
+            Timestamp now = Timestamp.valueOf(insertedAt);
+            List<PendingRow> duplicates = inTransaction(shardOf(batch.get(0).product()), jdbc -> {
+                // Sin distinguir mayúsculas, contra la tabla y dentro del propio lote,
+                // como la unicidad de nombres del alta individual
+                Set<String> names = new HashSet<>();
+                for (PendingRow row : batch) {
+                    names.add(row.product().getName().toLowerCase(Locale.ROOT));
+                }
+                Set<String> taken = new HashSet<>();
+                for (String existing : productRepository.findExistingNames(names)) {
+                    taken.add(existing.toLowerCase(Locale.ROOT));
+                }
+
+                List<Product> inserts = new ArrayList<>(batch.size());
+                List<PendingRow> rejected = new ArrayList<>();
+                for (PendingRow row : batch) {
+                    if (taken.add(row.product().getName().toLowerCase(Locale.ROOT))) {
+                        inserts.add(row.product());
+                    } else {
+                        rejected.add(row);
+                    }
+                }
+                jdbc.batchUpdate(INSERT_SQL, inserts, inserts.size(), (ps, product) -> {
+                    ps.setString(1, product.getName());
+                    ps.setString(2, product.getDescription());
+                    ps.setBigDecimal(3, product.getPrice());
+                    ps.setString(4, product.getCategory());
+                    ps.setInt(5, product.getStock());
+                    ps.setBoolean(6, true);
+                    ps.setTimestamp(7, now);
+                    ps.setTimestamp(8, now);
+                });
+                return rejected;
+            });
+
+            // Los listados por categoría cacheados no incluyen los productos nuevos
+            Set<String> categories = new HashSet<>();
+            for (PendingRow row : batch) {
+                categories.add(row.product().getCategory());
+            }
+            for (String category : categories) {
+                invalidationBus.publish(ProductInvalidation.forCategory(category, insertedAt));
+            }
+
+            for (PendingRow row : duplicates) {
+                job.reject(row.number(), Map.of("name", "Ya existe un producto con el nombre: " + row.product().getName()));
+            }
+            job.imported(batch.size() - duplicates.size());
+        }
+        job.checkpoint(checkpoint);
+        saveCheckpoint(job.snapshot());
+    }
+
+    /**
+     * Ejecuta la escritura en una transacción del shard, o de la base de datos principal sin shards
+     */
+    private <T> T inTransaction(ProductShard shard, Function<JdbcTemplate, T> work) {
+        if (shard != null) {
+            return shard.writeJdbc(work);
+        }
+        return transactionTemplate.execute(status -> work.apply(jdbcTemplate));
+    }
+
+    private String resolveFormat(MultipartFile file, String format) {
+        String candidate = format;
+        if (candidate == null || candidate.isBlank()) {
+            String name = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase(Locale.ROOT) : "";
+            String contentType = file.getContentType() != null ? file.getContentType() : "";
+            if (name.endsWith(".csv") || contentType.startsWith("text/csv")) {
+                candidate = "csv";
+            } else if (name.endsWith(".ndjson") || name.endsWith(".jsonl")
+                || contentType.startsWith("application/x-ndjson")) {
+                candidate = "ndjson";
+            }
+        }
+        if (candidate != null) {
+            candidate = candidate.strip().toLowerCase(Locale.ROOT);
+            if (candidate.equals("csv") || candidate.equals("ndjson")) {
+                return candidate;
+            }
+        }
+        throw new ValidationException("Formato de importación no soportado; use csv o ndjson",
+            Map.of("format", String.valueOf(format)));
+    }
+
+    private Path dataFile(String jobId) {
+        return directory.resolve(jobId + ".data");
+    }
+
+    private Path checkpointFile(String jobId) {
+        return directory.resolve(jobId + ".json");
+    }
+
+    private void saveCheckpoint(ImportJobDTO state) {
+        Path target = checkpointFile(state.getJobId());
+        Path temp = directory.resolve(state.getJobId() + ".json.tmp");
+        try {
+            objectMapper.writeValue(temp.toFile(), state);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("No se pudo guardar el punto de control de la importación {}", state.getJobId(), e);
+        }
+    }
+
+    private ImportJobDTO loadCheckpoint(String jobId) {
+        try {
+            ImportJobDTO state = objectMapper.readValue(checkpointFile(jobId).toFile(), ImportJobDTO.class);
+            if (state.getErrors() == null) {
+                state.setErrors(new ArrayList<>());
+            }
+            return state;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el punto de control de la importación " + jobId, e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // El hilo interrumpido marca la importación como fallida en su punto de control
+        executor.shutdownNow();
+    }
+
+    private record PendingRow(long number, Product product) {}
+
+    /**
+     * Estado mutable de un trabajo; las lecturas se hacen sobre copias
+     */
+    private final class ImportJob {
+
+        private final ImportJobDTO state;
+        private ImportJobDTO committed;
+
+        ImportJob(ImportJobDTO state) {
+            this.state = state;
+            this.committed = snapshot();
+        }
+
+        String id() {
+            return state.getJobId();
+        }
+
+        synchronized String format() {
+            return state.getFormat();
+        }
+
+        synchronized Status status() {
+            return state.getStatus();
+        }
+
+        synchronized long checkpoint() {
+            return state.getCheckpoint();
+        }
+
+        synchronized long recordsRead() {
+            return state.getRecordsRead();
+        }
+
+        synchronized void start() {
+            state.setStatus(Status.RUNNING);
+            state.setUpdatedAt(LocalDateTime.now());
+        }
+
+        synchronized void progress(long records, long bytes) {
+            state.setRecordsRead(records);
+            state.setBytesRead(bytes);
+        }
+
+        synchronized void reject(long record, Map<String, String> errors) {
+            state.setRejected(state.getRejected() + 1);
+            if (state.getErrors().size() < maxErrors) {
+                state.getErrors().add(new ImportRowError(record, errors));
+            }
+        }
+
+        synchronized void imported(long count) {
+            state.setImported(state.getImported() + count);
+        }
+
+        synchronized void checkpoint(long record) {
+            state.setCheckpoint(record);
+            state.setUpdatedAt(LocalDateTime.now());
+            committed = snapshot();
+        }
+
+        /**
+         * Estado del último punto de control con el estado final indicado
+         */
+        synchronized ImportJobDTO committed(Status status, String message) {
+            ImportJobDTO copy = committed;
+            copy.setStatus(status);
+            copy.setMessage(message);
+            copy.setFinishedAt(state.getFinishedAt());
+            copy.setUpdatedAt(state.getUpdatedAt());
+            return copy;
+        }
+
+        synchronized void finish(Status status, String message, long bytes) {
+            state.setStatus(status);
+            state.setMessage(message);
+            if (bytes >= 0) {
+                state.setBytesRead(bytes);
+            }
+            state.setFinishedAt(LocalDateTime.now());
+            state.setUpdatedAt(state.getFinishedAt());
+        }
+
+        synchronized ImportJobDTO snapshot() {
+            ImportJobDTO copy = new ImportJobDTO();
+            copy.setJobId(state.getJobId());
+            copy.setFileName(state.getFileName());
+            copy.setFormat(state.getFormat());
+            copy.setStatus(state.getStatus());
+            copy.setTotalBytes(state.getTotalBytes());
+            copy.setBytesRead(state.getBytesRead());
+            copy.setProgressPercent(state.getTotalBytes() > 0
+                ? Math.round(state.getBytesRead() * 1000.0 / state.getTotalBytes()) / 10.0 : 0);
+            copy.setRecordsRead(state.getRecordsRead());
+            copy.setImported(state.getImported());
+            copy.setRejected(state.getRejected());
+            copy.setCheckpoint(state.getCheckpoint());
+            copy.setErrors(new ArrayList<>(state.getErrors()));
+            copy.setMessage(state.getMessage());
+            copy.setCreatedAt(state.getCreatedAt());
+            copy.setUpdatedAt(state.getUpdatedAt());
+            copy.setFinishedAt(state.getFinishedAt());
+            return copy;
+        }
+    }
+
+    /**
+     * Cuenta los bytes leídos del fichero para informar del progreso
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+}
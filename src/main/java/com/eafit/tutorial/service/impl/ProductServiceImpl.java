@@ -1,10 +1,19 @@
 package com.eafit.tutorial.service.impl;
 
+import com.eafit.tutorial.cache.InvalidationBus;
+import com.eafit.tutorial.cache.ProductInvalidation;
+import com.eafit.tutorial.exception.InsufficientStockException;
 import com.eafit.tutorial.exception.ProductAlreadyExistsException;
 import com.eafit.tutorial.exception.ProductNotFoundException;
 import com.eafit.tutorial.model.Product;
 import com.eafit.tutorial.repository.ProductRepository;
+import com.eafit.tutorial.service.PriceHistoryService;
 import com.eafit.tutorial.service.ProductService;
+import com.eafit.tutorial.service.ReservationService;
+import com.eafit.tutorial.sharding.ProductShard;
+import com.eafit.tutorial.sharding.ProductShards;
+import com.eafit.tutorial.stock.StockWriteBehind;
+import com.eafit.tutorial.util.ProductValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,10 +21,21 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Implementación del servicio de productos
@@ -28,9 +48,42 @@ public class ProductServiceImpl implements ProductService {
 
 private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.class);
 
+    /**
+     * Máximo de IDs aceptados en una consulta múltiple
+     */
+    public static final int MAX_BATCH_IDS = 500;
+
+    /**
+     * Máximo de IDs aceptados en una activación o desactivación en bloque
+     */
+    public static final int MAX_BULK_IDS = 10_000;
+
+    /**
+     * Máximo de productos distintos en un descuento de stock de un pedido
+     */
+    public static final int MAX_ORDER_ITEMS = 500;
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Autowired(required = false)
+    private StockWriteBehind stockWriteBehind;
+
+    @Autowired(required = false)
+    private ProductShards productShards;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @Autowired
+    private ProductValidator productValidator;
+
     @Override
     @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
@@ -52,6 +105,37 @@ private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.
         return productRepository.findByIdAndActiveTrue(id);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Product> getProductsByIds(Collection<Long> ids) {
+        logger.debug("Buscando {} productos por ID", ids.size());
+
+        // Eliminar duplicados conservando el orden de la petición
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        uniqueIds.remove(null);
+
+        if (uniqueIds.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("No se pueden consultar más de " + MAX_BATCH_IDS + " productos por petición");
+        }
+        if (uniqueIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Product> byId = new HashMap<>();
+        for (Product product : productRepository.findByIdInAndActiveTrue(uniqueIds)) {
+            byId.put(product.getId(), product);
+        }
+
+        List<Product> ordered = new ArrayList<>(byId.size());
+        for (Long id : uniqueIds) {
+            Product product = byId.get(id);
+            if (product != null) {
+                ordered.add(product);
+            }
+        }
+        return ordered;
+    }
+
     @Override
     public Product createProduct(Product product) {
         logger.debug("Creando nuevo producto: {}", product.getName());
@@ -67,6 +151,8 @@ private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.
         }
 
         Product savedProduct = productRepository.save(product);
+        priceHistoryService.recordPrice(savedProduct.getId(), savedProduct.getPrice(), null, null);
+        invalidationBus.publishAfterCommit(() -> ProductInvalidation.forProduct(savedProduct));
         logger.info("Producto creado exitosamente con ID: {}", savedProduct.getId());
         return savedProduct;
     }
@@ -76,7 +162,7 @@ private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.
         logger.debug("Actualizando producto con ID: {}", id);
 
         Product existingProduct = productRepository.findByIdAndActiveTrue(id)
-                .orElseThrow(() -> new ProductNotFoundException("Producto no encontrado con ID: " + id));
+                .orElseThrow(() -> new ProductNotFoundException(id));
 
         // Validar nombre único (excluyendo el producto actual)
         if (!existingProduct.getName().equalsIgnoreCase(product.getName()) &&
@@ -84,6 +170,10 @@ private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.
             throw new ProductAlreadyExistsException("Ya existe otro producto con el nombre: " + product.getName());
         }
 
+        String previousCategory = existingProduct.getCategory();
+        BigDecimal previousPrice = existingProduct.getPrice();
+        LocalDateTime previousSince = existingProduct.getUpdatedAt();
+
         // Actualizar campos
         existingProduct.setName(product.getName());
         existingProduct.setDescription(product.getDescription());
@@ -92,6 +182,14 @@ private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.
         existingProduct.setStock(product.getStock());
 
         Product updatedProduct = productRepository.save(existingProduct);
+        if (previousPrice.compareTo(updatedProduct.getPrice()) != 0) {
+            priceHistoryService.recordPrice(id, updatedProduct.getPrice(), previousPrice, previousSince);
+        }
+        if (stockWriteBehind != null) {
+            // Al confirmar: si la transacción se deshace, el stock pendiente sigue valiendo
+            afterCommit(() -> stockWriteBehind.discard(id, updatedProduct.getUpdatedAt()));
+        }
+        invalidationBus.publishAfterCommit(() -> ProductInvalidation.forProduct(updatedProduct, previousCategory));
         logger.info("Producto actualizado exitosamente: {}", updatedProduct.getId());
         return updatedProduct;
     }
@@ -101,15 +199,48 @@ private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.
         logger.debug("Eliminando producto con ID: {}", id);
 
         Product product = productRepository.findByIdAndActiveTrue(id)
-                .orElseThrow(() -> new ProductNotFoundException("Producto no encontrado con ID: " + id));
+                .orElseThrow(() -> new ProductNotFoundException(id));
 
         // Soft delete - marcar como inactivo
         product.setActive(false);
-        productRepository.save(product);
+        Product deactivated = productRepository.save(product);
+        invalidationBus.publishAfterCommit(() -> ProductInvalidation.forProduct(deactivated));
 
         logger.info("Producto marcado como inactivo: {}", id);
     }
 
+    @Override
+    public int setProductsActive(Collection<Long> ids, boolean active) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        uniqueIds.remove(null);
+        if (uniqueIds.isEmpty()) {
+            return 0;
+        }
+        if (uniqueIds.size() > MAX_BULK_IDS) {
+            throw new IllegalArgumentException("No se pueden modificar más de " + MAX_BULK_IDS + " productos por petición");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int affected = productRepository.updateActiveByIds(uniqueIds, active, now);
+        if (affected > 0) {
+            invalidationBus.publishAfterCommit(() -> ProductInvalidation.forProducts(uniqueIds, now));
+        }
+        logger.info("Productos {} en bloque: {} de {} solicitados",
+            active ? "reactivados" : "desactivados", affected, uniqueIds.size());
+        return affected;
+    }
+
+    @Override
+    public int setCategoryActive(String category, boolean active) {
+        LocalDateTime now = LocalDateTime.now();
+        int affected = productRepository.updateActiveByCategory(category, active, now);
+        if (affected > 0) {
+            invalidationBus.publishAfterCommit(() -> ProductInvalidation.forCategory(category, now));
+        }
+        logger.info("Categoría '{}' {}: {} productos", category, active ? "reactivada" : "desactivada", affected);
+        return affected;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Product> getProductsByCategory(String category) {
@@ -154,18 +285,152 @@ private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.
         logger.debug("Actualizando stock del producto {}: nuevo stock = {}", id, newStock);
 
         Product product = productRepository.findByIdAndActiveTrue(id)
-                .orElseThrow(() -> new ProductNotFoundException("Producto no encontrado con ID: " + id));
+                .orElseThrow(() -> new ProductNotFoundException(id));
 
         if (newStock < 0) {
             throw new IllegalArgumentException("El stock no puede ser negativo");
         }
+        productValidator.validateStockForCategory(product.getCategory(), newStock);
+
+        if (stockWriteBehind != null) {
+            // Escritura diferida: se confirma al quedar en el diario y se vuelca por lotes
+            stockWriteBehind.write(id, newStock);
+            logger.debug("Stock diferido para producto {}: {}", id, newStock);
+            return stockWriteBehind.overlay(product);
+        }
 
         product.setStock(newStock);
         Product updatedProduct = productRepository.save(product);
+        invalidationBus.publishAfterCommit(() -> ProductInvalidation.forProduct(updatedProduct));
 
         logger.info("Stock actualizado para producto {}: {}", id, newStock);
         return updatedProduct;
     }
-}   
-    
 
+    @Override
+    public List<Product> decrementStock(Map<Long, Integer> quantities) {
+        logger.debug("Descontando stock de {} productos", quantities.size());
+
+        if (quantities.isEmpty()) {
+            throw new IllegalArgumentException("El pedido no tiene productos");
+        }
+        if (quantities.size() > MAX_ORDER_ITEMS) {
+            throw new IllegalArgumentException("No se puede descontar stock de más de " + MAX_ORDER_ITEMS + " productos por pedido");
+        }
+        for (Map.Entry<Long, Integer> item : quantities.entrySet()) {
+            if (item.getKey() == null || item.getValue() == null || item.getValue() <= 0) {
+                throw new IllegalArgumentException("Cada línea necesita un ID de producto y una cantidad positiva");
+            }
+        }
+        if (stockWriteBehind != null) {
+            // Los PATCH de stock pendientes deben aplicarse antes que el descuento
+            stockWriteBehind.flush();
+        }
+
+        if (productShards != null) {
+            // Sin transacción común entre shards: el pedido entero se bloquea y descuenta en el suyo
+            ProductShard shard = shardOf(quantities.keySet());
+            return shard.write(repository -> applyDecrement(repository, quantities));
+        }
+        return applyDecrement(productRepository, quantities);
+    }
+
+    /**
+     * Bloquea, comprueba y descuenta las líneas del pedido en la transacción en curso
+     */
+    private List<Product> applyDecrement(ProductRepository repository, Map<Long, Integer> quantities) {
+        // Bloqueo en orden de ID y comprobación previa, para informar de la primera línea que falla
+        List<Product> locked = repository.lockActiveByIdsOrdered(quantities.keySet());
+        Map<Long, Product> byId = new HashMap<>();
+        for (Product product : locked) {
+            byId.put(product.getId(), product);
+        }
+        for (Long id : quantities.keySet()) {
+            if (!byId.containsKey(id)) {
+                throw new ProductNotFoundException(id);
+            }
+        }
+        // Las unidades reservadas no se pueden vender; lo apartado se suelta al terminar
+        quantities.forEach((id, quantity) -> reservationService.holdForOrder(id, quantity, byId.get(id).getStock()));
+
+        // Una sentencia condicional por cantidad distinta; con las filas ya
+        // bloqueadas no debería fallar, y si falla la excepción deshace todo
+        Map<Integer, List<Long>> byQuantity = new HashMap<>();
+        quantities.forEach((id, quantity) -> byQuantity.computeIfAbsent(quantity, q -> new ArrayList<>()).add(id));
+        // En microsegundos, la precisión de la columna: así se reconocen las filas que el UPDATE tocó
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        for (Map.Entry<Integer, List<Long>> group : byQuantity.entrySet()) {
+            int affected = repository.decrementStockIfAvailable(group.getValue(), group.getKey(), now);
+            if (affected != group.getValue().size()) {
+                throw shortLine(repository, group.getValue(), group.getKey(), now);
+            }
+        }
+
+        Set<Long> ids = quantities.keySet();
+        invalidationBus.publishAfterCommit(() -> ProductInvalidation.forProducts(ids, now));
+        logger.info("Stock descontado para {} productos", ids.size());
+        List<Product> updated = new ArrayList<>(repository.findByIdInAndActiveTrue(ids));
+        updated.sort(Comparator.comparing(Product::getId));
+        return updated;
+    }
+
+    /**
+     * Error para la línea del grupo que el UPDATE no pudo descontar, con el stock que encontró
+     *
+     * El UPDATE vacía el contexto de persistencia, así que las filas se leen
+     * como quedaron: las que no llevan su updated_at son las que se quedaron cortas.
+     */
+    private static InsufficientStockException shortLine(ProductRepository repository, List<Long> ids,
+                                                        int quantity, LocalDateTime now) {
+        Map<Long, Product> current = new HashMap<>();
+        for (Product product : repository.findByIdInAndActiveTrue(ids)) {
+            current.put(product.getId(), product);
+        }
+        Long shortId = ids.stream()
+            .filter(id -> current.get(id) == null || !now.equals(current.get(id).getUpdatedAt()))
+            .min(Comparator.naturalOrder())
+            .orElse(ids.get(0));
+        Product product = current.get(shortId);
+        // Sin fila activa (p. ej. desactivada entre medias) no queda nada disponible
+        return new InsufficientStockException(shortId, quantity, product == null ? 0 : product.getStock());
+    }
+
+    /**
+     * Shard con todos los productos del pedido; los pedidos entre shards se rechazan
+     */
+    private ProductShard shardOf(Set<Long> ids) {
+        Map<Long, Product> byId = new HashMap<>();
+        for (Product product : productRepository.findByIdInAndActiveTrue(ids)) {
+            byId.put(product.getId(), product);
+        }
+        Set<ProductShard> targets = new LinkedHashSet<>();
+        for (Long id : ids) {
+            Product product = byId.get(id);
+            if (product == null) {
+                throw new ProductNotFoundException(id);
+            }
+            targets.add(productShards.forCategory(product.getCategory()));
+        }
+        if (targets.size() > 1) {
+            throw new IllegalArgumentException("Los productos de un pedido deben estar en el mismo shard; "
+                + "este pedido abarca " + targets.size());
+        }
+        return targets.iterator().next();
+    }
+
+    /**
+     * Ejecuta la acción cuando la transacción en curso confirma (o ya, si no hay)
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,625 @@
+package com.eafit.tutorial.service.impl;
+
+import com.eafit.tutorial.cache.InvalidationBus;
+import com.eafit.tutorial.cache.ProductInvalidation;
+import com.eafit.tutorial.dto.ReservationDTO;
+import com.eafit.tutorial.dto.ReservationDTO.Status;
+import com.eafit.tutorial.dto.StockAvailabilityDTO;
+import com.eafit.tutorial.exception.InsufficientStockException;
+import com.eafit.tutorial.exception.ProductNotFoundException;
+import com.eafit.tutorial.exception.ReservationNotFoundException;
+import com.eafit.tutorial.exception.ReservationStateException;
+import com.eafit.tutorial.exception.ValidationException;
+import com.eafit.tutorial.model.Product;
+import com.eafit.tutorial.repository.ProductRepository;
+import com.eafit.tutorial.service.ReservationService;
+import com.eafit.tutorial.sharding.ProductShard;
+import com.eafit.tutorial.sharding.ProductShards;
+import com.eafit.tutorial.stock.StockWriteBehind;
+import com.eafit.tutorial.util.TimerWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Libro de reservas de stock en memoria
+ *
+ * Cada producto tiene su libro (stock leído de la base de datos, unidades
+ * reservadas y unidades confirmadas aún sin guardar) protegido por su propio
+ * monitor, así que las reservas de productos distintos no compiten entre sí.
+ * Disponible = stock - confirmadas sin guardar - reservadas - apartadas por
+ * pedidos en curso (holdForOrder).
+ *
+ * - Las caducidades van en una TimerWheel: programar y cancelar es O(1).
+ * - Las confirmaciones se acumulan y un hilo las guarda cada flush-interval
+ *   (o al llegar a max-batch) en una transacción, un UPDATE por confirmación
+ *   que solo descuenta si queda stock. Con shards, cada shard guarda las de
+ *   sus productos en su propia transacción. Si la fila ya no tiene unidades (el
+ *   stock se cambió por otra vía), la reserva pasa a FAILED y se cuenta en
+ *   products.reservations{outcome=failed}.
+ * - Un libro se vuelve a leer de la base de datos cuando el bus de
+ *   invalidaciones anuncia una escritura más nueva que la que conoce (p. ej.
+ *   un PATCH de stock), y tras cada guardado.
+ * - Los libros sin reservas vivas ni confirmaciones pendientes se retiran del
+ *   mapa en cada guardado; el siguiente uso vuelve a leer el producto.
+ */
+@Service
+public class ReservationServiceImpl implements ReservationService, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationServiceImpl.class);
+
+    private static final String DECREMENT_SQL =
+        "UPDATE products SET stock = stock - ?, updated_at = ? WHERE id = ? AND stock >= ?";
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InvalidationBus invalidationBus;
+    private final ObjectProvider<StockWriteBehind> stockWriteBehind;
+    private final ObjectProvider<ProductShards> productShards;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+    private final Duration retention;
+    private final int maxBatch;
+
+    private final Map<Long, Ledger> ledgers = new ConcurrentHashMap<>();
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+    private final Queue<Reservation> unpersisted = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger unpersistedCount = new AtomicInteger();
+    private final AtomicBoolean persistRequested = new AtomicBoolean();
+    private final Object persistLock = new Object();
+    private final TimerWheel wheel;
+    private final ScheduledExecutorService persister = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "reservation-persister");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Counter reserved;
+    private final Counter rejected;
+    private final Counter confirmed;
+    private final Counter released;
+    private final Counter expired;
+    private final Counter failed;
+
+    public ReservationServiceImpl(ProductRepository productRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  InvalidationBus invalidationBus,
+                                  ObjectProvider<StockWriteBehind> stockWriteBehind,
+                                  ObjectProvider<ProductShards> productShards,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${products.reservations.default-ttl:PT10M}") Duration defaultTtl,
+                                  @Value("${products.reservations.max-ttl:PT1H}") Duration maxTtl,
+                                  @Value("${products.reservations.retention:PT10M}") Duration retention,
+                                  @Value("${products.reservations.tick:PT0.1S}") Duration tick,
+                                  @Value("${products.reservations.wheel-size:512}") int wheelSize,
+                                  @Value("${products.reservations.flush-interval:PT0.2S}") Duration flushInterval,
+                                  @Value("${products.reservations.max-batch:1000}") int maxBatch) {
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.invalidationBus = invalidationBus;
+        this.stockWriteBehind = stockWriteBehind;
+        this.productShards = productShards;
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+        this.retention = retention;
+        this.maxBatch = maxBatch;
+        this.wheel = new TimerWheel("reservation-expiry", tick, wheelSize);
+        this.reserved = outcome(meterRegistry, "reserved");
+        this.rejected = outcome(meterRegistry, "rejected");
+        this.confirmed = outcome(meterRegistry, "confirmed");
+        this.released = outcome(meterRegistry, "released");
+        this.expired = outcome(meterRegistry, "expired");
+        this.failed = outcome(meterRegistry, "failed");
+        Gauge.builder("products.reservations.ledgers", ledgers, Map::size)
+            .description("Productos con libro de reservas en memoria")
+            .register(meterRegistry);
+
+        invalidationBus.addListener(this::onInvalidation);
+        long interval = flushInterval.toMillis();
+        persister.scheduleWithFixedDelay(this::persistSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("products.reservations")
+            .description("Operaciones de reserva de stock por resultado")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public ReservationDTO reserve(Long productId, int quantity, Duration ttl) {
+        if (quantity <= 0) {
+            throw new ValidationException("La cantidad a reservar debe ser positiva");
+        }
+        Duration duration = ttl != null ? ttl : defaultTtl;
+        if (duration.compareTo(maxTtl) > 0) {
+            throw new ValidationException("La duración máxima de una reserva es de " + maxTtl.toSeconds() + " segundos");
+        }
+
+        while (true) {
+            Ledger ledger = ledgers.computeIfAbsent(productId, Ledger::new);
+            load(ledger);
+            Reservation reservation;
+            synchronized (ledger) {
+                if (!ledger.isFresh()) {
+                    // Llegó una invalidación mientras se leía
+                    continue;
+                }
+                if (!ledger.active) {
+                    throw new ProductNotFoundException(productId);
+                }
+                if (ledger.retired) {
+                    // Se retiró del mapa mientras tanto: se usa el que lo sustituye
+                    continue;
+                }
+                int available = ledger.available();
+                if (available < quantity) {
+                    rejected.increment();
+                    throw new InsufficientStockException(productId, quantity, available);
+                }
+                ledger.reserved += quantity;
+                reservation = new Reservation(UUID.randomUUID().toString(), ledger, quantity,
+                    LocalDateTime.now().plus(duration));
+            }
+            reservations.put(reservation.id, reservation);
+            reservation.expiry = wheel.schedule(() -> expire(reservation), duration);
+            reserved.increment();
+            return toDTO(reservation);
+        }
+    }
+
+    @Override
+    public ReservationDTO confirm(String reservationId) {
+        Reservation reservation = find(reservationId);
+        Ledger ledger = reservation.ledger;
+        synchronized (ledger) {
+            requireHeld(reservation);
+            reservation.status = Status.CONFIRMED;
+            ledger.reserved -= reservation.quantity;
+            ledger.unpersisted += reservation.quantity;
+        }
+        finish(reservation);
+        unpersisted.add(reservation);
+        confirmed.increment();
+        if (unpersistedCount.incrementAndGet() >= maxBatch && persistRequested.compareAndSet(false, true)) {
+            persister.execute(this::persistSafely);
+        }
+        return toDTO(reservation);
+    }
+
+    @Override
+    public ReservationDTO release(String reservationId) {
+        Reservation reservation = find(reservationId);
+        Ledger ledger = reservation.ledger;
+        synchronized (ledger) {
+            requireHeld(reservation);
+            reservation.status = Status.RELEASED;
+            ledger.reserved -= reservation.quantity;
+        }
+        finish(reservation);
+        released.increment();
+        return toDTO(reservation);
+    }
+
+    @Override
+    public ReservationDTO getReservation(String reservationId) {
+        return toDTO(find(reservationId));
+    }
+
+    @Override
+    public StockAvailabilityDTO getAvailability(Long productId) {
+        while (true) {
+            Ledger ledger = ledgers.computeIfAbsent(productId, Ledger::new);
+            load(ledger);
+            synchronized (ledger) {
+                if (!ledger.active) {
+                    throw new ProductNotFoundException(productId);
+                }
+                if (ledger.retired) {
+                    continue;
+                }
+                return new StockAvailabilityDTO(productId, ledger.stock - ledger.unpersisted, ledger.reserved,
+                    ledger.available());
+            }
+        }
+    }
+
+    @Override
+    public void holdForOrder(Long productId, int quantity, int stock) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("holdForOrder necesita una transacción en curso");
+        }
+        while (true) {
+            Ledger ledger = ledgers.computeIfAbsent(productId, Ledger::new);
+            synchronized (ledger) {
+                if (ledger.retired) {
+                    continue;
+                }
+                // stock viene de la fila bloqueada: ya incluye lo que otros pedidos descontaron
+                int available = stock - ledger.unpersisted - ledger.reserved;
+                if (available < quantity) {
+                    throw new InsufficientStockException(productId, quantity, Math.max(available, 0));
+                }
+                ledger.ordered += quantity;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    releaseOrder(ledger, quantity);
+                }
+            });
+            return;
+        }
+    }
+
+    /**
+     * Suelta lo apartado por un pedido y obliga a releer el stock
+     *
+     * Con el cerrojo de carga: una lectura anterior a la confirmación del
+     * pedido termina antes, mientras lo apartado aún cuenta.
+     */
+    private void releaseOrder(Ledger ledger, int quantity) {
+        ledger.loadLock.lock();
+        try {
+            synchronized (ledger) {
+                ledger.ordered -= quantity;
+                ledger.loaded = false;
+            }
+        } finally {
+            ledger.loadLock.unlock();
+        }
+    }
+
+    private void expire(Reservation reservation) {
+        Ledger ledger = reservation.ledger;
+        synchronized (ledger) {
+            if (reservation.status != Status.HELD) {
+                return;
+            }
+            reservation.status = Status.EXPIRED;
+            ledger.reserved -= reservation.quantity;
+        }
+        expired.increment();
+        wheel.schedule(() -> reservations.remove(reservation.id, reservation), retention);
+    }
+
+    /**
+     * Cancela la caducidad y programa el olvido de una reserva ya terminada
+     */
+    private void finish(Reservation reservation) {
+        if (reservation.expiry != null) {
+            reservation.expiry.cancel();
+        }
+        wheel.schedule(() -> reservations.remove(reservation.id, reservation), retention);
+    }
+
+    private Reservation find(String reservationId) {
+        Reservation reservation = reservations.get(reservationId);
+        if (reservation == null) {
+            throw new ReservationNotFoundException(reservationId);
+        }
+        return reservation;
+    }
+
+    private static void requireHeld(Reservation reservation) {
+        if (reservation.status != Status.HELD) {
+            throw new ReservationStateException(reservation.id, reservation.status.name());
+        }
+    }
+
+    /**
+     * Lee el stock del producto si el libro no está al día
+     *
+     * Se hace con el cerrojo de guardado del libro, para no leer a mitad de un
+     * guardado de confirmaciones; las reservas en curso no esperan por él.
+     */
+    private void load(Ledger ledger) {
+        synchronized (ledger) {
+            if (ledger.isFresh()) {
+                return;
+            }
+        }
+        ledger.loadLock.lock();
+        try {
+            synchronized (ledger) {
+                if (ledger.isFresh()) {
+                    return;
+                }
+            }
+            Optional<Product> product = productRepository.findByIdAndActiveTrue(ledger.productId);
+            StockWriteBehind writeBehind = stockWriteBehind.getIfAvailable();
+            Integer pending = writeBehind != null ? writeBehind.pendingStock(ledger.productId) : null;
+            synchronized (ledger) {
+                ledger.loaded = true;
+                ledger.active = product.isPresent();
+                if (product.isPresent()) {
+                    ledger.stock = pending != null ? pending : product.get().getStock();
+                    ledger.category = ProductInvalidation.normalize(product.get().getCategory());
+                    ledger.version = ProductInvalidation.versionOf(product.get().getUpdatedAt());
+                } else {
+                    // Sin producto no hay nada que invalidar: la siguiente lectura decide
+                    ledger.version = ledger.invalidatedVersion;
+                }
+                if (!ledger.active) {
+                    retireIfIdle(ledger);
+                }
+            }
+        } finally {
+            ledger.loadLock.unlock();
+        }
+    }
+
+    private void onInvalidation(ProductInvalidation invalidation) {
+        for (Long id : invalidation.productIds()) {
+            Ledger ledger = ledgers.get(id);
+            if (ledger != null) {
+                ledger.invalidate(invalidation.version());
+            }
+        }
+        if (!invalidation.categories().isEmpty()) {
+            for (Ledger ledger : ledgers.values()) {
+                // Sin categoría aún no se ha leído: no hay nada que invalidar
+                String key = ledger.categoryKey();
+                if (key != null && invalidation.categories().contains(key)) {
+                    ledger.invalidate(invalidation.version());
+                }
+            }
+        }
+    }
+
+    /**
+     * Guarda las confirmaciones acumuladas en una transacción (una por shard)
+     *
+     * Cada confirmación descuenta con "stock >= cantidad"; las que no
+     * encuentran unidades no tocan la fila y su reserva pasa a FAILED. Si un
+     * shard falla, sus confirmaciones y las de los siguientes vuelven a la cola.
+     */
+    void persist() {
+        synchronized (persistLock) {
+            persistRequested.set(false);
+            List<Reservation> entries = new ArrayList<>();
+            Reservation next;
+            while ((next = unpersisted.poll()) != null) {
+                unpersistedCount.decrementAndGet();
+                entries.add(next);
+            }
+            if (entries.isEmpty()) {
+                return;
+            }
+            // Orden por ID (estable): los cerrojos de fila y de carga se toman siempre en el mismo orden
+            entries.sort(Comparator.comparing(entry -> entry.ledger.productId));
+            Map<Long, Ledger> touched = new TreeMap<>();
+            entries.forEach(entry -> touched.putIfAbsent(entry.ledger.productId, entry.ledger));
+
+            StockWriteBehind writeBehind = stockWriteBehind.getIfAvailable();
+            if (writeBehind != null) {
+                // Los PATCH de stock anteriores deben llegar antes que los descuentos
+                writeBehind.flush();
+            }
+
+            List<Ledger> locked = new ArrayList<>(touched.size());
+            List<Reservation> conflicts = new ArrayList<>();
+            List<Reservation> saved = new ArrayList<>(entries.size());
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            RuntimeException error = null;
+            try {
+                for (Ledger ledger : touched.values()) {
+                    ledger.loadLock.lock();
+                    locked.add(ledger);
+                }
+                Timestamp updatedAt = Timestamp.valueOf(now);
+                for (List<Reservation> batch : byShard(entries).values()) {
+                    if (error != null) {
+                        // Tras un fallo no se sigue: lo que queda se reintenta en el siguiente guardado
+                        requeue(batch);
+                        continue;
+                    }
+                    int[][] counts;
+                    try {
+                        counts = decrement(batch, updatedAt);
+                    } catch (RuntimeException e) {
+                        requeue(batch);
+                        error = e;
+                        continue;
+                    }
+                    for (int i = 0; i < batch.size(); i++) {
+                        Reservation entry = batch.get(i);
+                        synchronized (entry.ledger) {
+                            // Se relee en la siguiente operación con el stock que quedó
+                            entry.ledger.unpersisted -= entry.quantity;
+                            entry.ledger.loaded = false;
+                            if (counts[0][i] == 0) {
+                                entry.status = Status.FAILED;
+                                conflicts.add(entry);
+                            }
+                        }
+                        saved.add(entry);
+                    }
+                }
+            } finally {
+                locked.forEach(ledger -> ledger.loadLock.unlock());
+            }
+
+            if (!conflicts.isEmpty()) {
+                failed.increment(conflicts.size());
+                logger.warn("{} confirmaciones de reserva sin stock en la base de datos; pasan a FAILED: {}",
+                    conflicts.size(), conflicts.stream().map(entry -> entry.id).limit(20).toList());
+            }
+            if (!saved.isEmpty()) {
+                List<Long> ids = saved.stream().map(entry -> entry.ledger.productId).distinct().toList();
+                invalidationBus.publish(ProductInvalidation.forProducts(ids, now));
+                logger.debug("Guardadas {} confirmaciones de reserva de {} productos", saved.size(), ids.size());
+            }
+            if (error != null) {
+                throw error;
+            }
+        }
+    }
+
+    /**
+     * Confirmaciones agrupadas por el shard de su producto (una sola entrada sin shards)
+     */
+    private Map<ProductShard, List<Reservation>> byShard(List<Reservation> entries) {
+        ProductShards shards = productShards.getIfAvailable();
+        Map<ProductShard, List<Reservation>> groups = new LinkedHashMap<>();
+        for (Reservation entry : entries) {
+            // El libro se leyó al reservar, así que ya conoce su categoría
+            ProductShard shard = shards != null ? shards.forCategory(entry.ledger.categoryKey()) : null;
+            groups.computeIfAbsent(shard, key -> new ArrayList<>()).add(entry);
+        }
+        return groups;
+    }
+
+    private int[][] decrement(List<Reservation> batch, Timestamp updatedAt) {
+        ProductShards shards = productShards.getIfAvailable();
+        if (shards == null) {
+            return transactionTemplate.execute(status -> batchDecrement(jdbcTemplate, batch, updatedAt));
+        }
+        ProductShard shard = shards.forCategory(batch.get(0).ledger.categoryKey());
+        return shard.writeJdbc(jdbc -> batchDecrement(jdbc, batch, updatedAt));
+    }
+
+    private static int[][] batchDecrement(JdbcTemplate jdbc, List<Reservation> batch, Timestamp updatedAt) {
+        return jdbc.batchUpdate(DECREMENT_SQL, batch, batch.size(), (ps, entry) -> {
+            ps.setInt(1, entry.quantity);
+            ps.setTimestamp(2, updatedAt);
+            ps.setLong(3, entry.ledger.productId);
+            ps.setInt(4, entry.quantity);
+        });
+    }
+
+    private void requeue(List<Reservation> batch) {
+        for (Reservation entry : batch) {
+            unpersisted.add(entry);
+            unpersistedCount.incrementAndGet();
+        }
+    }
+
+    private void persistSafely() {
+        try {
+            persist();
+        } catch (RuntimeException e) {
+            logger.warn("No se pudieron guardar las confirmaciones de reserva; se reintentará: {}", e.getMessage());
+        }
+        ledgers.values().forEach(this::retireIfIdle);
+    }
+
+    /**
+     * Quita del mapa un libro sin reservas vivas, confirmaciones pendientes ni
+     * unidades apartadas por pedidos
+     *
+     * Se marca como retirado con su monitor, así que quien lo tuviera ya en la
+     * mano lo ve y pide el que lo sustituye en lugar de reservar sobre él.
+     */
+    private void retireIfIdle(Ledger ledger) {
+        synchronized (ledger) {
+            if (!ledger.retired && ledger.reserved == 0 && ledger.unpersisted == 0 && ledger.ordered == 0) {
+                ledger.retired = true;
+                ledgers.remove(ledger.productId, ledger);
+            }
+        }
+    }
+
+    private static ReservationDTO toDTO(Reservation reservation) {
+        return new ReservationDTO(reservation.id, reservation.ledger.productId, reservation.quantity,
+            reservation.status, reservation.expiresAt);
+    }
+
+    @Override
+    public void destroy() {
+        wheel.close();
+        persister.shutdownNow();
+        persistSafely();
+    }
+
+    /**
+     * Estado de reservas de un producto; los contadores se protegen con su monitor
+     */
+    private static final class Ledger {
+
+        private final Long productId;
+        private final ReentrantLock loadLock = new ReentrantLock();
+        private boolean loaded;
+        private boolean active;
+        private boolean retired;
+        private String category;
+        private int stock;
+        private int reserved;
+        private int unpersisted;
+        private int ordered;
+        private long version;
+        private long invalidatedVersion;
+
+        private Ledger(Long productId) {
+            this.productId = productId;
+        }
+
+        private boolean isFresh() {
+            return loaded && invalidatedVersion <= version;
+        }
+
+        private int available() {
+            return stock - unpersisted - reserved - ordered;
+        }
+
+        private synchronized String categoryKey() {
+            return category;
+        }
+
+        private synchronized void invalidate(long version) {
+            invalidatedVersion = Math.max(invalidatedVersion, version);
+        }
+    }
+
+    private static final class Reservation {
+
+        private final String id;
+        private final Ledger ledger;
+        private final int quantity;
+        private final LocalDateTime expiresAt;
+        // Cambia con el monitor del libro
+        private volatile Status status = Status.HELD;
+        private volatile TimerWheel.Timeout expiry;
+
+        private Reservation(String id, Ledger ledger, int quantity, LocalDateTime expiresAt) {
+            this.id = id;
+            this.ledger = ledger;
+            this.quantity = quantity;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.eafit.tutorial.sharding;
+
+import com.eafit.tutorial.repository.ProductRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.function.Function;
+
+/**
+ * Un shard: su pool, su EntityManagerFactory y un ProductRepository sobre ellos
+ *
+ * Cada operación se ejecuta en una transacción propia del shard.
+ */
+public final class ProductShard implements AutoCloseable {
+
+    private final int index;
+    private final HikariDataSource dataSource;
+    private final AbstractEntityManagerFactoryBean entityManagerFactory;
+    private final ProductRepository repository;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final JdbcTemplate jdbcTemplate;
+
+    ProductShard(int index, HikariDataSource dataSource, AbstractEntityManagerFactoryBean entityManagerFactory,
+                 ProductRepository repository, TransactionTemplate readTransaction,
+                 TransactionTemplate writeTransaction) {
+        this.index = index;
+        this.dataSource = dataSource;
+        this.entityManagerFactory = entityManagerFactory;
+        this.repository = repository;
+        this.readTransaction = readTransaction;
+        this.writeTransaction = writeTransaction;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public int index() {
+        return index;
+    }
+
+    public String url() {
+        return dataSource.getJdbcUrl();
+    }
+
+    /**
+     * Ejecuta una consulta en una transacción de solo lectura del shard
+     */
+    public <T> T read(Function<ProductRepository, T> operation) {
+        return readTransaction.execute(status -> operation.apply(repository));
+    }
+
+    /**
+     * Ejecuta una escritura en una transacción del shard
+     */
+    public <T> T write(Function<ProductRepository, T> operation) {
+        return writeTransaction.execute(status -> operation.apply(repository));
+    }
+
+    /**
+     * Ejecuta SQL directo en una transacción del shard
+     */
+    public <T> T writeJdbc(Function<JdbcTemplate, T> operation) {
+        return writeTransaction.execute(status -> operation.apply(jdbcTemplate));
+    }
+
+    /**
+     * Pool del shard, para cargas masivas por JDBC sin JPA (sembrado)
+     */
+    public DataSource dataSource() {
+        return dataSource;
+    }
+
+    JdbcTemplate jdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    @Override
+    public void close() {
+        entityManagerFactory.destroy();
+        dataSource.close();
+    }
+}
@@ -0,0 +1,138 @@
+package com.eafit.tutorial.sharding;
+
+import com.eafit.tutorial.repository.ProductRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Conjunto de shards con su enrutador y el pool de consultas en paralelo
+ */
+public class ProductShards implements AutoCloseable {
+
+    private final List<ProductShard> shards;
+    private final ShardRouter router;
+    private final ExecutorService executor;
+
+    public ProductShards(List<ProductShard> shards, ShardRouter router, int queryThreads) {
+        this.shards = List.copyOf(shards);
+        this.router = router;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(queryThreads, runnable -> {
+            Thread thread = new Thread(runnable, "shard-query-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public List<ProductShard> all() {
+        return shards;
+    }
+
+    public ShardRouter router() {
+        return router;
+    }
+
+    public ProductShard get(int index) {
+        return shards.get(index);
+    }
+
+    public ProductShard forCategory(String category) {
+        return shards.get(router.shardForCategory(category));
+    }
+
+    /**
+     * Shard donde se creó el ID, o null si no corresponde a ninguno
+     */
+    public ProductShard homeOf(long id) {
+        int index = router.homeShardOfId(id);
+        return index < 0 ? null : shards.get(index);
+    }
+
+    /**
+     * Ejecuta la operación en todos los shards a la vez; resultados en orden de shard
+     */
+    public <T> List<T> scatter(boolean readOnly, Function<ProductRepository, T> operation) {
+        return scatter(shards, readOnly, operation);
+    }
+
+    /**
+     * Ejecuta la operación en los shards indicados a la vez; con uno solo, en el hilo actual
+     */
+    public <T> List<T> scatter(Collection<ProductShard> targets, boolean readOnly,
+                               Function<ProductRepository, T> operation) {
+        List<Callable<T>> tasks = new ArrayList<>(targets.size());
+        for (ProductShard shard : targets) {
+            tasks.add(() -> readOnly ? shard.read(operation) : shard.write(operation));
+        }
+        return run(tasks);
+    }
+
+    /**
+     * Como scatter, pero con un argumento distinto para cada shard (p. ej. sus IDs)
+     */
+    public <A, T> List<T> scatter(Map<ProductShard, A> arguments, boolean readOnly,
+                                  BiFunction<ProductRepository, A, T> operation) {
+        List<Callable<T>> tasks = new ArrayList<>(arguments.size());
+        arguments.forEach((shard, argument) -> tasks.add(() -> readOnly
+            ? shard.read(r -> operation.apply(r, argument))
+            : shard.write(r -> operation.apply(r, argument))));
+        return run(tasks);
+    }
+
+    private <T> List<T> run(List<Callable<T>> tasks) {
+        if (tasks.size() == 1) {
+            try {
+                return List.of(tasks.get(0).call());
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Error en la consulta a un shard", e);
+            }
+        }
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(executor.submit(task));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            results.add(await(future));
+        }
+        return results;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta a los shards interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Error en la consulta a un shard", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        for (ProductShard shard : shards) {
+            shard.close();
+        }
+    }
+}
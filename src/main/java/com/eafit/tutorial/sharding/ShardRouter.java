@@ -0,0 +1,75 @@
+package com.eafit.tutorial.sharding;
+
+import java.util.Locale;
+
+/**
+ * Reparto de productos entre shards
+ *
+ * La categoría decide el shard (hash de la categoría normalizada, igual que
+ * las consultas IgnoreCase). Los IDs son globales porque cada shard genera
+ * los suyos intercalados: el shard i usa i + 1, i + 1 + stride, i + 1 + 2·stride...
+ * así que el shard donde se creó un producto se deduce de su ID. El stride
+ * fija el máximo de shards y no puede cambiar una vez hay datos.
+ */
+public class ShardRouter {
+
+    private final int shardCount;
+    private final int idStride;
+
+    public ShardRouter(int shardCount, int idStride) {
+        if (shardCount < 1 || shardCount > idStride) {
+            throw new IllegalArgumentException(
+                "El número de shards debe estar entre 1 y el stride de IDs (" + idStride + "): " + shardCount);
+        }
+        this.shardCount = shardCount;
+        this.idStride = idStride;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Shard de una categoría, sin distinguir mayúsculas ni espacios exteriores
+     */
+    public int shardForCategory(String category) {
+        String key = category.trim().toLowerCase(Locale.ROOT);
+        return Math.floorMod(mix(key.hashCode()), shardCount);
+    }
+
+    /**
+     * Shard donde se creó el producto con ese ID, o -1 si el ID no corresponde a ninguno
+     */
+    public int homeShardOfId(long id) {
+        if (id < 1) {
+            return -1;
+        }
+        int slot = (int) ((id - 1) % idStride);
+        return slot < shardCount ? slot : -1;
+    }
+
+    /**
+     * Siguiente ID que debe generar el shard para quedar por encima de maxId
+     */
+    public long nextIdAfter(int shard, long maxId) {
+        long first = shard + 1L;
+        if (maxId < first) {
+            return first;
+        }
+        return first + ((maxId - first) / idStride + 1) * idStride;
+    }
+
+    public int idStride() {
+        return idStride;
+    }
+
+    /** Mezcla final de MurmurHash3: reparte bien claves con hashCode parecidos */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,130 @@
+package com.eafit.tutorial.sharding;
+
+import com.eafit.tutorial.model.Product;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * findBy(Example, ...) sobre todos los shards
+ *
+ * Cada operación final se resuelve con las consultas por ejemplo de
+ * ShardedProductRepository, que ya reparten la consulta y mezclan los
+ * resultados. project(...) es solo una pista de carga y se ignora; as(...)
+ * admite la entidad y proyecciones por interfaz.
+ */
+final class ShardedFluentQuery<S extends Product, R> implements FluentQuery.FetchableFluentQuery<R> {
+
+    private static final ProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+
+    private final ShardedProductRepository repository;
+    private final Example<S> example;
+    private final Sort sort;
+    private final int limit;
+    private final Function<? super S, R> mapper;
+
+    private ShardedFluentQuery(ShardedProductRepository repository, Example<S> example, Sort sort, int limit,
+                               Function<? super S, R> mapper) {
+        this.repository = repository;
+        this.example = example;
+        this.sort = sort;
+        this.limit = limit;
+        this.mapper = mapper;
+    }
+
+    static <S extends Product> ShardedFluentQuery<S, S> of(ShardedProductRepository repository, Example<S> example) {
+        return new ShardedFluentQuery<>(repository, example, Sort.unsorted(), 0, Function.identity());
+    }
+
+    @Override
+    public FetchableFluentQuery<R> sortBy(Sort sort) {
+        return new ShardedFluentQuery<>(repository, example, this.sort.and(sort), limit, mapper);
+    }
+
+    @Override
+    public FetchableFluentQuery<R> limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("El límite no puede ser negativo");
+        }
+        return new ShardedFluentQuery<>(repository, example, sort, limit, mapper);
+    }
+
+    @Override
+    public <P> FetchableFluentQuery<P> as(Class<P> resultType) {
+        Function<? super S, P> projection;
+        if (resultType.isAssignableFrom(example.getProbeType())) {
+            projection = resultType::cast;
+        } else if (resultType.isInterface()) {
+            projection = entity -> PROJECTIONS.createProjection(resultType, entity);
+        } else {
+            throw new UnsupportedOperationException(
+                "Con shards solo se admiten proyecciones por interfaz: " + resultType.getName());
+        }
+        return new ShardedFluentQuery<>(repository, example, sort, limit, projection);
+    }
+
+    @Override
+    public FetchableFluentQuery<R> project(Collection<String> properties) {
+        return this;
+    }
+
+    @Override
+    public R oneValue() {
+        List<S> matches = repository.findAll(example, PageRequest.of(0, 2, sort)).getContent();
+        if (matches.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1);
+        }
+        return matches.isEmpty() ? null : mapper.apply(matches.get(0));
+    }
+
+    @Override
+    public R firstValue() {
+        List<S> first = repository.findAll(example, PageRequest.of(0, 1, sort)).getContent();
+        return first.isEmpty() ? null : mapper.apply(first.get(0));
+    }
+
+    @Override
+    public List<R> all() {
+        List<S> matches = limit > 0
+            ? repository.findAll(example, PageRequest.of(0, limit, sort)).getContent()
+            : repository.findAll(example, sort);
+        return matches.stream().<R>map(mapper).toList();
+    }
+
+    @Override
+    public Page<R> page(Pageable pageable) {
+        Pageable sorted = pageable;
+        if (pageable.getSort().isUnsorted() && sort.isSorted()) {
+            sorted = pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort)
+                : Pageable.unpaged(sort);
+        }
+        return repository.findAll(example, sorted).map(mapper::apply);
+    }
+
+    @Override
+    public Stream<R> stream() {
+        return all().stream();
+    }
+
+    @Override
+    public long count() {
+        return repository.count(example);
+    }
+
+    @Override
+    public boolean exists() {
+        return repository.exists(example);
+    }
+}
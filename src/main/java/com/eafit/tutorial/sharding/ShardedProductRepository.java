@@ -0,0 +1,570 @@
+package com.eafit.tutorial.sharding;
+
+import com.eafit.tutorial.model.Product;
+import com.eafit.tutorial.model.ProductFacetRow;
+import com.eafit.tutorial.repository.ProductRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * ProductRepository repartido entre varios shards por categoría
+ *
+ * - Consultas de una categoría: un único shard.
+ * - Consultas por ID: el shard donde se creó (se deduce del ID) y, si no está
+ *   ahí, el resto, porque un cambio de categoría mueve el producto de shard
+ *   conservando su ID.
+ * - El resto (listados, rango de precio, búsqueda...): todos los shards en
+ *   paralelo, mezclando resultados con el mismo orden que la consulta. Una
+ *   página pide a cada shard las offset + size primeras filas, así que las
+ *   páginas profundas cuestan más que con una sola tabla.
+ *
+ * Cada llamada es una transacción independiente en cada shard: no hay
+ * atomicidad entre shards ni con la transacción del servicio que la invoca.
+ * En las escrituras repartidas (updateActiveByIds, decrementStockIfAvailable,
+ * borrados en bloque) un fallo en un shard no deshace lo ya confirmado en los
+ * demás.
+ */
+public class ShardedProductRepository implements ProductRepository {
+
+    private static final String MOVE_INSERT_SQL = "INSERT INTO products "
+        + "(id, name, description, price, category, stock, active, created_at, updated_at) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final Sort BY_ID = Sort.by("id");
+
+    private final ProductShards shards;
+
+    public ShardedProductRepository(ProductShards shards) {
+        this.shards = shards;
+    }
+
+    // Consultas de una sola categoría
+
+    @Override
+    public List<Product> findByCategoryIgnoreCaseAndActiveTrue(String category) {
+        return shards.forCategory(category).read(r -> r.findByCategoryIgnoreCaseAndActiveTrue(category));
+    }
+
+    @Override
+    public Long countByCategory(String category) {
+        return shards.forCategory(category).read(r -> r.countByCategory(category));
+    }
+
+    @Override
+    public int updateActiveByCategory(String category, boolean active, LocalDateTime now) {
+        return shards.forCategory(category).write(r -> r.updateActiveByCategory(category, active, now));
+    }
+
+    @Override
+    public List<ProductFacetRow> findActiveFacetRowsByCategory(String category) {
+        return shards.forCategory(category).read(r -> r.findActiveFacetRowsByCategory(category));
+    }
+
+    // Consultas por ID
+
+    @Override
+    public Optional<Product> findById(Long id) {
+        ProductShard home = shards.homeOf(id);
+        if (home != null) {
+            Optional<Product> product = home.read(r -> r.findById(id));
+            if (product.isPresent()) {
+                return product;
+            }
+        }
+        return shards.scatter(othersThan(home), true, r -> r.findById(id)).stream()
+            .flatMap(Optional::stream)
+            .findFirst();
+    }
+
+    @Override
+    public Optional<Product> findByIdAndActiveTrue(Long id) {
+        return findById(id).filter(product -> Boolean.TRUE.equals(product.getActive()));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public List<Product> findAllById(Iterable<Long> ids) {
+        Set<Long> pending = new HashSet<>();
+        Map<ProductShard, List<Long>> byHome = new LinkedHashMap<>();
+        for (Long id : ids) {
+            if (pending.add(id)) {
+                ProductShard home = shards.homeOf(id);
+                if (home != null) {
+                    byHome.computeIfAbsent(home, shard -> new ArrayList<>()).add(id);
+                }
+            }
+        }
+
+        List<Product> found = new ArrayList<>(pending.size());
+        if (!byHome.isEmpty()) {
+            for (List<Product> partial : shards.scatter(byHome, true, ProductRepository::findAllById)) {
+                for (Product product : partial) {
+                    pending.remove(product.getId());
+                    found.add(product);
+                }
+            }
+        }
+
+        // Los que no están en su shard de origen se movieron por cambio de categoría
+        if (!pending.isEmpty()) {
+            List<Long> missing = List.copyOf(pending);
+            for (List<Product> partial : shards.scatter(true, r -> r.findAllById(missing))) {
+                for (Product product : partial) {
+                    if (pending.remove(product.getId())) {
+                        found.add(product);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<Product> findByIdInAndActiveTrue(Collection<Long> ids) {
+        return findAllById(ids).stream()
+            .filter(product -> Boolean.TRUE.equals(product.getActive()))
+            .toList();
+    }
+
+    /**
+     * No disponible: cada llamada confirma su propia transacción en el shard,
+     * así que el bloqueo se soltaría al volver. Hay que bloquear dentro de
+     * ProductShard.write, junto con las escrituras que protege.
+     */
+    @Override
+    public List<Product> lockActiveByIdsOrdered(Collection<Long> ids) {
+        throw new UnsupportedOperationException(
+            "Con shards el bloqueo debe tomarse dentro de la transacción del shard (ProductShard.write)");
+    }
+
+    /**
+     * No atómico entre shards: cada uno confirma su parte por separado. Los
+     * pedidos no la usan: descuentan en la transacción de su único shard.
+     */
+    @Override
+    public int decrementStockIfAvailable(Collection<Long> ids, int quantity, LocalDateTime now) {
+        return shards.scatter(false, r -> r.decrementStockIfAvailable(ids, quantity, now)).stream()
+            .mapToInt(Integer::intValue)
+            .sum();
+    }
+
+    @Override
+    public List<ProductFacetRow> findActiveFacetRowsByIds(Collection<Long> ids) {
+        List<ProductFacetRow> rows = new ArrayList<>();
+        shards.scatter(true, r -> r.findActiveFacetRowsByIds(ids)).forEach(rows::addAll);
+        return rows;
+    }
+
+    /**
+     * No atómico entre shards: cada uno confirma su parte por separado, y si
+     * uno falla los demás ya han cambiado el estado
+     */
+    @Override
+    public int updateActiveByIds(Collection<Long> ids, boolean active, LocalDateTime now) {
+        // Cada shard actualiza los que tiene: cubre también los productos movidos
+        return shards.scatter(false, r -> r.updateActiveByIds(ids, active, now)).stream()
+            .mapToInt(Integer::intValue)
+            .sum();
+    }
+
+    // Consultas sobre todos los shards
+
+    @Override
+    public List<Product> findByActiveTrue() {
+        return gather(r -> r.findByActiveTrue(), BY_ID);
+    }
+
+    @Override
+    public Page<Product> findByActiveTrue(Pageable pageable) {
+        return gatherPage(pageable, ProductRepository::findByActiveTrue);
+    }
+
+    @Override
+    public List<Product> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        return gather(r -> r.findByPriceRange(minPrice, maxPrice), BY_ID);
+    }
+
+    @Override
+    public List<Product> findByNameContainingIgnoreCase(String name) {
+        return gather(r -> r.findByNameContainingIgnoreCase(name), BY_ID);
+    }
+
+    @Override
+    public List<Product> findByStockLessThanAndActiveTrue(Integer minStock) {
+        return gather(r -> r.findByStockLessThanAndActiveTrue(minStock), BY_ID);
+    }
+
+    @Override
+    public List<Long> findActiveIdsByNameContaining(String name) {
+        List<Long> ids = new ArrayList<>();
+        shards.scatter(true, r -> r.findActiveIdsByNameContaining(name)).forEach(ids::addAll);
+        return ids;
+    }
+
+    @Override
+    public List<ProductFacetRow> findActiveFacetRowsAfter(Long afterId, Pageable pageable) {
+        // Cada shard devuelve sus primeras filas tras afterId; las primeras del conjunto están entre ellas
+        List<ProductFacetRow> rows = new ArrayList<>();
+        shards.scatter(true, r -> r.findActiveFacetRowsAfter(afterId, pageable)).forEach(rows::addAll);
+        rows.sort(Comparator.comparing(ProductFacetRow::id));
+        return rows.size() > pageable.getPageSize() ? List.copyOf(rows.subList(0, pageable.getPageSize())) : rows;
+    }
+
+    @Override
+    public boolean existsByNameIgnoreCaseAndIdNot(String name, Long id) {
+        return shards.scatter(true, r -> r.existsByNameIgnoreCaseAndIdNot(name, id)).contains(Boolean.TRUE);
+    }
+
+    @Override
+    public List<String> findExistingNames(Collection<String> names) {
+        List<String> existing = new ArrayList<>();
+        shards.scatter(true, r -> r.findExistingNames(names)).forEach(existing::addAll);
+        return existing;
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return gather(r -> r.findAll(), BY_ID);
+    }
+
+    @Override
+    public List<Product> findAll(Sort sort) {
+        Sort stable = withIdTieBreaker(sort);
+        return gather(r -> r.findAll(stable), stable);
+    }
+
+    @Override
+    public Page<Product> findAll(Pageable pageable) {
+        return gatherPage(pageable, ProductRepository::findAll);
+    }
+
+    @Override
+    public long count() {
+        return shards.scatter(true, r -> r.count()).stream().mapToLong(Long::longValue).sum();
+    }
+
+    // Escrituras
+
+    @Override
+    public <S extends Product> S save(S product) {
+        ProductShard target = shards.forCategory(product.getCategory());
+        if (product.getId() == null) {
+            return target.write(r -> r.save(product));
+        }
+        ProductShard current = locate(product.getId());
+        if (current == null || current == target) {
+            return target.write(r -> r.save(product));
+        }
+        return move(product, current, target);
+    }
+
+    /**
+     * Cambio de categoría a otra de distinto shard: se inserta en el nuevo con
+     * el mismo ID y después se borra del anterior
+     */
+    private <S extends Product> S move(S product, ProductShard from, ProductShard to) {
+        product.setUpdatedAt(LocalDateTime.now());
+        to.writeJdbc(jdbc -> jdbc.update(MOVE_INSERT_SQL,
+            product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+            product.getCategory(), product.getStock(), product.getActive(),
+            Timestamp.valueOf(product.getCreatedAt()), Timestamp.valueOf(product.getUpdatedAt())));
+        from.write(r -> {
+            r.deleteById(product.getId());
+            return null;
+        });
+        return product;
+    }
+
+    /**
+     * Shard que contiene hoy el ID, o null si no existe
+     */
+    private ProductShard locate(Long id) {
+        ProductShard home = shards.homeOf(id);
+        if (home != null && home.read(r -> r.existsById(id))) {
+            return home;
+        }
+        List<ProductShard> others = othersThan(home);
+        List<Boolean> exists = shards.scatter(others, true, r -> r.existsById(id));
+        for (int i = 0; i < others.size(); i++) {
+            if (exists.get(i)) {
+                return others.get(i);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public <S extends Product> List<S> saveAll(Iterable<S> products) {
+        List<S> saved = new ArrayList<>();
+        for (S product : products) {
+            saved.add(save(product));
+        }
+        return saved;
+    }
+
+    @Override
+    public <S extends Product> S saveAndFlush(S product) {
+        return save(product);
+    }
+
+    @Override
+    public <S extends Product> List<S> saveAllAndFlush(Iterable<S> products) {
+        return saveAll(products);
+    }
+
+    /**
+     * Cada operación confirma su propia transacción en el shard: no hay nada pendiente
+     */
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        ProductShard current = locate(id);
+        if (current != null) {
+            current.write(r -> {
+                r.deleteById(id);
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void delete(Product product) {
+        if (product.getId() != null) {
+            deleteById(product.getId());
+        }
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        List<Long> list = new ArrayList<>();
+        ids.forEach(list::add);
+        deleteAllByIdInBatch(list);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Product> products) {
+        List<Long> ids = new ArrayList<>();
+        products.forEach(product -> ids.add(product.getId()));
+        deleteAllByIdInBatch(ids);
+    }
+
+    @Override
+    public void deleteAll() {
+        deleteAllInBatch();
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<Product> products) {
+        deleteAll(products);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        List<Long> list = new ArrayList<>();
+        ids.forEach(list::add);
+        if (list.isEmpty()) {
+            return;
+        }
+        shards.scatter(false, r -> {
+            r.deleteAllByIdInBatch(list);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        shards.scatter(false, r -> {
+            r.deleteAllInBatch();
+            return null;
+        });
+    }
+
+    // Referencias: no hay proxies perezosos entre shards, se carga la entidad
+
+    @Override
+    @Deprecated
+    public Product getOne(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    @Deprecated
+    public Product getById(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    public Product getReferenceById(Long id) {
+        return findById(id).orElseThrow(() -> new EntityNotFoundException("Producto no encontrado con ID: " + id));
+    }
+
+    // Consultas por ejemplo
+
+    @Override
+    public <S extends Product> Optional<S> findOne(Example<S> example) {
+        List<S> matches = new ArrayList<>();
+        shards.scatter(true, r -> r.findOne(example)).forEach(match -> match.ifPresent(matches::add));
+        if (matches.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, matches.size());
+        }
+        return matches.stream().findFirst();
+    }
+
+    @Override
+    public <S extends Product> List<S> findAll(Example<S> example) {
+        return gather(r -> r.findAll(example), BY_ID);
+    }
+
+    @Override
+    public <S extends Product> List<S> findAll(Example<S> example, Sort sort) {
+        Sort stable = withIdTieBreaker(sort);
+        return gather(r -> r.findAll(example, stable), stable);
+    }
+
+    @Override
+    public <S extends Product> Page<S> findAll(Example<S> example, Pageable pageable) {
+        return gatherPage(pageable, (r, page) -> r.findAll(example, page));
+    }
+
+    @Override
+    public <S extends Product> long count(Example<S> example) {
+        return shards.scatter(true, r -> r.count(example)).stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public <S extends Product> boolean exists(Example<S> example) {
+        return shards.scatter(true, r -> r.exists(example)).contains(Boolean.TRUE);
+    }
+
+    @Override
+    public <S extends Product, R> R findBy(Example<S> example,
+                                           Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        return queryFunction.apply(ShardedFluentQuery.of(this, example));
+    }
+
+    // Mezcla de resultados
+
+    private List<ProductShard> othersThan(ProductShard excluded) {
+        List<ProductShard> others = new ArrayList<>(shards.all());
+        others.remove(excluded);
+        return others;
+    }
+
+    private <S extends Product> List<S> gather(Function<ProductRepository, List<S>> query, Sort sort) {
+        List<S> merged = new ArrayList<>();
+        shards.scatter(true, query).forEach(merged::addAll);
+        merged.sort(comparator(sort));
+        return merged;
+    }
+
+    /**
+     * Página global: cada shard devuelve sus offset + size primeras filas en el
+     * orden pedido (con el ID como desempate), se mezclan y se recorta la página;
+     * el total es la suma de los totales de cada shard
+     */
+    private <S extends Product> Page<S> gatherPage(Pageable pageable,
+                                                   BiFunction<ProductRepository, Pageable, Page<S>> query) {
+        Sort stable = withIdTieBreaker(pageable.getSort());
+        if (pageable.isUnpaged()) {
+            List<S> all = gather(r -> query.apply(r, Pageable.unpaged(stable)).getContent(), stable);
+            return new PageImpl<>(all, pageable, all.size());
+        }
+
+        long window = pageable.getOffset() + pageable.getPageSize();
+        if (window > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Página demasiado profunda para una consulta entre shards");
+        }
+        Pageable top = PageRequest.of(0, (int) window, stable);
+        List<Page<S>> pages = shards.scatter(true, r -> query.apply(r, top));
+
+        List<S> merged = new ArrayList<>();
+        long total = 0;
+        for (Page<S> page : pages) {
+            merged.addAll(page.getContent());
+            total += page.getTotalElements();
+        }
+        merged.sort(comparator(stable));
+        int from = (int) Math.min(pageable.getOffset(), merged.size());
+        int to = (int) Math.min(window, merged.size());
+        return new PageImpl<>(new ArrayList<>(merged.subList(from, to)), pageable, total);
+    }
+
+    private static Sort withIdTieBreaker(Sort sort) {
+        return sort.getOrderFor("id") != null ? sort : sort.and(BY_ID);
+    }
+
+    /**
+     * Comparador equivalente al ORDER BY de la consulta (NULL como el menor valor, como H2)
+     */
+    static Comparator<Product> comparator(Sort sort) {
+        Comparator<Product> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Product> next = orderComparator(order);
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator == null ? Comparator.comparing(Product::getId) : comparator;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Product> orderComparator(Sort.Order order) {
+        Function<Product, Object> property = propertyOf(order.getProperty());
+        Comparator<Object> values = order.isIgnoreCase()
+            ? (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(a.toString(), b.toString())
+            : (a, b) -> ((Comparable) a).compareTo(b);
+        boolean nullsFirst = switch (order.getNullHandling()) {
+            case NULLS_FIRST -> true;
+            case NULLS_LAST -> false;
+            case NATIVE -> order.isAscending();
+        };
+        if (order.isDescending()) {
+            values = values.reversed();
+        }
+        Comparator<Object> withNulls = nullsFirst ? Comparator.nullsFirst(values) : Comparator.nullsLast(values);
+        return Comparator.comparing(property, withNulls);
+    }
+
+    private static Function<Product, Object> propertyOf(String name) {
+        return switch (name) {
+            case "id" -> Product::getId;
+            case "name" -> Product::getName;
+            case "description" -> Product::getDescription;
+            case "price" -> Product::getPrice;
+            case "category" -> Product::getCategory;
+            case "stock" -> Product::getStock;
+            case "active" -> Product::getActive;
+            case "createdAt" -> Product::getCreatedAt;
+            case "updatedAt" -> Product::getUpdatedAt;
+            default -> product -> new BeanWrapperImpl(product).getPropertyValue(name);
+        };
+    }
+}
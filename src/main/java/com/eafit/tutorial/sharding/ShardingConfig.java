@@ -0,0 +1,139 @@
+package com.eafit.tutorial.sharding;
+
+import com.eafit.tutorial.model.Product;
+import com.eafit.tutorial.repository.ProductRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reparto de la tabla products entre varias bases de datos (products.sharding.enabled=true)
+ *
+ * Cada URL de products.sharding.urls es un shard con su propio pool y su
+ * EntityManagerFactory; ShardedProductRepository pasa a ser el ProductRepository
+ * principal. Ni los pools ni las EntityManagerFactory de los shards son beans,
+ * para no alterar la configuración JPA de la base de datos principal.
+ *
+ * El archivado y la escritura diferida de stock escriben en la base de datos
+ * principal y no saben repartir sus transacciones entre shards: con shards no
+ * arranca si alguno está activo (products.archive.enabled=false es obligatorio).
+ *
+ * Para probarlo en local con cuatro H2: --spring.profiles.active=sharded.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardingConfig.class);
+
+    public ShardingConfig(@Value("${products.archive.enabled:true}") boolean archiveEnabled,
+                          @Value("${products.stock.write-behind.enabled:false}") boolean writeBehindEnabled) {
+        if (archiveEnabled) {
+            throw new IllegalStateException("El archivado mueve filas de products a archived_products en una "
+                + "transacción de la base de datos principal y no funciona con shards; "
+                + "configure products.archive.enabled=false");
+        }
+        if (writeBehindEnabled) {
+            throw new IllegalStateException("La escritura diferida de stock vuelca en la base de datos principal "
+                + "y no funciona con shards; configure products.stock.write-behind.enabled=false");
+        }
+    }
+
+    @Bean
+    public ProductShards productShards(EntityManagerFactoryBuilder builder,
+                                       @Value("${products.sharding.urls}") List<String> urls,
+                                       @Value("${products.sharding.username:${spring.datasource.username:}}") String username,
+                                       @Value("${products.sharding.password:${spring.datasource.password:}}") String password,
+                                       @Value("${products.sharding.pool-size:10}") int poolSize,
+                                       @Value("${products.sharding.id-stride:64}") int idStride,
+                                       @Value("${products.sharding.query-threads:0}") int queryThreads,
+                                       @Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto) {
+        ShardRouter router = new ShardRouter(urls.size(), idStride);
+        List<ProductShard> shards = new ArrayList<>(urls.size());
+        try {
+            for (int i = 0; i < urls.size(); i++) {
+                shards.add(createShard(builder, i, urls.get(i).trim(), username, password, poolSize, ddlAuto, router));
+            }
+        } catch (RuntimeException e) {
+            shards.forEach(ProductShard::close);
+            throw e;
+        }
+        logger.info("Productos repartidos en {} shards por categoría", shards.size());
+        return new ProductShards(shards, router, queryThreads > 0 ? queryThreads : 2 * shards.size());
+    }
+
+    private ProductShard createShard(EntityManagerFactoryBuilder builder, int index, String url,
+                                     String username, String password, int poolSize,
+                                     String ddlAuto, ShardRouter router) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("shard-" + index);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(poolSize);
+
+        LocalContainerEntityManagerFactoryBean entityManagerFactory = builder
+            .dataSource(dataSource)
+            .managedTypes(PersistenceManagedTypes.of(Product.class.getName()))
+            .persistenceUnit("shard-" + index)
+            .properties(Map.of(
+                "hibernate.hbm2ddl.auto", ddlAuto,
+                "hibernate.physical_naming_strategy",
+                "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy"))
+            .build();
+        entityManagerFactory.afterPropertiesSet();
+
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory.getObject());
+        TransactionTemplate readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        TransactionTemplate writeTransaction = new TransactionTemplate(transactionManager);
+
+        ProductRepository repository = new JpaRepositoryFactory(
+            SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory.getObject()))
+            .getRepository(ProductRepository.class);
+
+        ProductShard shard = new ProductShard(index, dataSource, entityManagerFactory,
+            repository, readTransaction, writeTransaction);
+        alignIdentity(shard, router);
+        return shard;
+    }
+
+    /**
+     * IDs intercalados: el shard i genera i + 1 + k·stride, por encima de los que ya tenga.
+     * Sintaxis de H2; en otra base de datos equivale a su desplazamiento e
+     * incremento de autoincremento por servidor.
+     */
+    private void alignIdentity(ProductShard shard, ShardRouter router) {
+        Long maxId = shard.jdbcTemplate().queryForObject("SELECT COALESCE(MAX(id), 0) FROM products", Long.class);
+        long next = router.nextIdAfter(shard.index(), maxId == null ? 0 : maxId);
+        shard.jdbcTemplate().execute("ALTER TABLE products ALTER COLUMN id RESTART WITH " + next
+            + " SET INCREMENT BY " + router.idStride());
+    }
+
+    @Bean
+    @Primary
+    public ProductRepository shardedProductRepository(ProductShards productShards) {
+        return new ShardedProductRepository(productShards);
+    }
+
+    @Bean
+    public ShardsEndpoint shardsEndpoint(ProductShards productShards) {
+        return new ShardsEndpoint(productShards);
+    }
+}
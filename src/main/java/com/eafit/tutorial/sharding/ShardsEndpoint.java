@@ -0,0 +1,49 @@
+package com.eafit.tutorial.sharding;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Endpoint de Actuator con el reparto de productos entre shards
+ *
+ * GET /actuator/shards lista cada shard con sus productos por categoría;
+ * GET /actuator/shards/{category} indica a qué shard va una categoría.
+ */
+@Endpoint(id = "shards")
+public class ShardsEndpoint {
+
+    public record ShardSummary(int shard, String url, long products, Map<String, Long> categories) {}
+
+    public record CategoryShard(String category, int shard) {}
+
+    private final ProductShards shards;
+
+    public ShardsEndpoint(ProductShards shards) {
+        this.shards = shards;
+    }
+
+    @ReadOperation
+    public List<ShardSummary> shards() {
+        List<ShardSummary> summaries = new ArrayList<>();
+        for (ProductShard shard : shards.all()) {
+            Map<String, Long> categories = new LinkedHashMap<>();
+            shard.jdbcTemplate().query(
+                "SELECT category, COUNT(*) FROM products GROUP BY category ORDER BY category",
+                rs -> { categories.put(rs.getString(1), rs.getLong(2)); });
+            long total = categories.values().stream().mapToLong(Long::longValue).sum();
+            summaries.add(new ShardSummary(shard.index(), shard.url(), total, categories));
+        }
+        return summaries;
+    }
+
+    @ReadOperation
+    public CategoryShard shardOf(@Selector String category) {
+        return new CategoryShard(category, shards.router().shardForCategory(category));
+    }
+}
@@ -0,0 +1,9 @@
+package com.eafit.tutorial.stock;
+
+import java.time.LocalDateTime;
+
+/**
+ * Último stock escrito para un producto y cuándo se escribió
+ */
+public record PendingStock(long productId, int stock, LocalDateTime writtenAt) {
+}
@@ -0,0 +1,218 @@
+package com.eafit.tutorial.stock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Diario local de escrituras de stock, solo de anexado
+ *
+ * Una línea por escritura: id,stock,microsegundos,crc32. Se escribe en
+ * segmentos numerados; al volcar se abre uno nuevo (roll) y los anteriores se
+ * borran cuando su contenido ya está confirmado en la base de datos. Con fsync
+ * activo, append no vuelve hasta que la línea está en disco; los hilos que
+ * escriben a la vez comparten la misma sincronización.
+ */
+public class StockJournal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockJournal.class);
+
+    private static final String PREFIX = "stock-";
+    private static final String SUFFIX = ".journal";
+
+    private final Path directory;
+    private final boolean fsync;
+    private final Object writeLock = new Object();
+    private final Object forceLock = new Object();
+
+    private FileChannel channel;
+    private Path current;
+    private long sequence;
+    // Posiciones dentro del segmento actual: escrita y ya sincronizada
+    private volatile long written;
+    private long forced;
+
+    public StockJournal(Path directory, boolean fsync) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.fsync = fsync;
+        List<Path> existing = segments();
+        this.sequence = existing.isEmpty() ? 0 : sequenceOf(existing.get(existing.size() - 1));
+        open();
+    }
+
+    /**
+     * Escrituras de los segmentos que quedaron de una ejecución anterior, en orden
+     *
+     * Una línea incompleta o corrupta (caída a mitad de escritura) termina la
+     * lectura de su segmento.
+     */
+    public List<PendingStock> recover(List<Path> segments) throws IOException {
+        List<PendingStock> entries = new ArrayList<>();
+        for (Path segment : segments) {
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    PendingStock entry = parse(line);
+                    if (entry == null) {
+                        logger.warn("Línea corrupta en {}; se ignora el resto del segmento", segment.getFileName());
+                        break;
+                    }
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Segmentos del directorio salvo el actual, del más antiguo al más nuevo
+     */
+    public List<Path> closedSegments() throws IOException {
+        List<Path> closed = segments();
+        closed.remove(current);
+        return closed;
+    }
+
+    public void append(PendingStock entry) {
+        byte[] line = format(entry).getBytes(StandardCharsets.UTF_8);
+        long end;
+        synchronized (writeLock) {
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(line);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo escribir en el diario de stock", e);
+            }
+            written += line.length;
+            end = written;
+        }
+        if (fsync) {
+            force(end);
+        }
+    }
+
+    /**
+     * Cierra el segmento actual y abre uno nuevo; devuelve el cerrado
+     *
+     * Quien llama debe garantizar que no hay append en curso.
+     */
+    public Path roll() throws IOException {
+        synchronized (writeLock) {
+            synchronized (forceLock) {
+                Path closed = current;
+                channel.force(false);
+                channel.close();
+                open();
+                return closed;
+            }
+        }
+    }
+
+    public void delete(List<Path> segments) {
+        for (Path segment : segments) {
+            try {
+                Files.deleteIfExists(segment);
+            } catch (IOException e) {
+                logger.warn("No se pudo borrar el segmento {}: {}", segment.getFileName(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writeLock) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private void force(long end) {
+        synchronized (forceLock) {
+            if (forced >= end) {
+                // Otro hilo ya sincronizó hasta aquí
+                return;
+            }
+            long target = written;
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo sincronizar el diario de stock", e);
+            }
+            forced = target;
+        }
+    }
+
+    private void open() throws IOException {
+        sequence++;
+        current = directory.resolve(PREFIX + String.format("%012d", sequence) + SUFFIX);
+        channel = FileChannel.open(current, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND);
+        written = 0;
+        forced = 0;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files
+                .filter(file -> file.getFileName().toString().startsWith(PREFIX)
+                    && file.getFileName().toString().endsWith(SUFFIX))
+                .sorted()
+                .toList());
+        }
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    static String format(PendingStock entry) {
+        Instant at = entry.writtenAt().toInstant(ZoneOffset.UTC);
+        String body = entry.productId() + "," + entry.stock() + "," + ChronoUnit.MICROS.between(Instant.EPOCH, at);
+        return body + "," + Long.toHexString(crc(body)) + "\n";
+    }
+
+    static PendingStock parse(String line) {
+        int last = line.lastIndexOf(',');
+        if (last < 0) {
+            return null;
+        }
+        String body = line.substring(0, last);
+        String[] fields = body.split(",");
+        try {
+            if (fields.length != 3 || Long.parseLong(line.substring(last + 1), 16) != crc(body)) {
+                return null;
+            }
+            Instant at = Instant.EPOCH.plus(Long.parseLong(fields[2]), ChronoUnit.MICROS);
+            return new PendingStock(Long.parseLong(fields[0]), Integer.parseInt(fields[1]),
+                LocalDateTime.ofInstant(at, ZoneOffset.UTC));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long crc(String body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,319 @@
+package com.eafit.tutorial.stock;
+
+import com.eafit.tutorial.cache.InvalidationBus;
+import com.eafit.tutorial.cache.ProductInvalidation;
+import com.eafit.tutorial.model.Product;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Escritura diferida del stock (products.stock.write-behind.enabled=true)
+ *
+ * Cada escritura se anota en StockJournal y en un búfer por franjas que solo
+ * guarda el último valor por producto; un hilo lo vuelca cada flush-interval,
+ * o antes si hay max-pending productos pendientes, en una transacción con un
+ * lote JDBC. Una escritura confirmada al cliente ya está en el diario: tras
+ * una caída se recupera al arrancar.
+ *
+ * El UPDATE solo se aplica si la fila no se modificó después de la escritura
+ * (updated_at &lt;= writtenAt), así que un valor del búfer o del diario nunca pisa
+ * una actualización completa posterior. La tabla no guarda cuándo cambió cada
+ * campo, de modo que también se descarta si lo posterior no tocó el stock (p.
+ * ej. una desactivación en bloque): esos descartes se cuentan en
+ * products.stock.write-behind.dropped y se registran con los IDs afectados.
+ */
+public class StockWriteBehind implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockWriteBehind.class);
+
+    private static final int MAX_LOGGED_IDS = 20;
+
+    private static final String UPDATE_SQL =
+        "UPDATE products SET stock = ?, updated_at = ? WHERE id = ? AND updated_at <= ?";
+
+    private static final class Stripe {
+        private Map<Long, PendingStock> pending = new HashMap<>();
+    }
+
+    private final StockJournal journal;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InvalidationBus invalidationBus;
+    private final int maxPending;
+
+    private final Stripe[] stripes;
+    // Lectura: escrituras (diario + búfer); escritura: vaciado del búfer y cambio de segmento
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final Object flushLock = new Object();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final List<Path> segmentsToDelete = new ArrayList<>();
+    private final Counter writes;
+    private final Counter flushed;
+    private final Counter dropped;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stock-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StockWriteBehind(StockJournal journal, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                            InvalidationBus invalidationBus, MeterRegistry meterRegistry,
+                            int stripeCount, Duration flushInterval, int maxPending) throws IOException {
+        this.journal = journal;
+        this.jdbcTemplate = jdbcTemplate;
+        // Transacción propia: un volcado pedido desde otra transacción no debe depender de ella
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.invalidationBus = invalidationBus;
+        this.maxPending = maxPending;
+        this.stripes = new Stripe[Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.writes = Counter.builder("products.stock.write-behind.writes")
+            .description("Escrituras de stock absorbidas por el búfer")
+            .register(meterRegistry);
+        this.flushed = Counter.builder("products.stock.write-behind.flushed")
+            .description("Filas de stock volcadas a la base de datos")
+            .register(meterRegistry);
+        this.dropped = Counter.builder("products.stock.write-behind.dropped")
+            .description("Escrituras de stock descartadas por un cambio posterior de la fila")
+            .register(meterRegistry);
+        Gauge.builder("products.stock.write-behind.pending", pendingCount, AtomicInteger::get)
+            .description("Productos con stock pendiente de volcar")
+            .register(meterRegistry);
+
+        recover();
+        long interval = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Anota el nuevo stock; vuelve cuando está en el diario, no en la base de datos
+     */
+    public PendingStock write(long productId, int stock) {
+        PendingStock entry = new PendingStock(productId, stock, LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        swapLock.readLock().lock();
+        try {
+            journal.append(entry);
+            Stripe stripe = stripeOf(productId);
+            synchronized (stripe) {
+                if (stripe.pending.put(productId, entry) == null) {
+                    pendingCount.incrementAndGet();
+                }
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        writes.increment();
+        if (pendingCount.get() >= maxPending && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushSafely);
+        }
+        return entry;
+    }
+
+    /**
+     * Stock pendiente de volcar del producto, o null si no hay
+     */
+    public Integer pendingStock(long productId) {
+        Stripe stripe = stripeOf(productId);
+        synchronized (stripe) {
+            PendingStock entry = stripe.pending.get(productId);
+            return entry != null ? entry.stock() : null;
+        }
+    }
+
+    /**
+     * Copia del producto con el stock pendiente, o el propio producto si no hay
+     */
+    public Product overlay(Product product) {
+        Integer stock = product.getId() != null ? pendingStock(product.getId()) : null;
+        return stock == null ? product : withStock(product, stock);
+    }
+
+    /**
+     * Olvida el stock pendiente escrito antes de una actualización completa ya
+     * confirmada del producto; uno escrito después se conserva
+     *
+     * Solo afecta a lo que se muestra: el volcado ya lo descartaría por updated_at.
+     */
+    public void discard(long productId, LocalDateTime supersededAt) {
+        Stripe stripe = stripeOf(productId);
+        synchronized (stripe) {
+            PendingStock entry = stripe.pending.get(productId);
+            if (entry != null && !entry.writtenAt().isAfter(supersededAt)) {
+                stripe.pending.remove(productId);
+                pendingCount.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Vuelca lo pendiente en una transacción; si falla, lo devuelve al búfer
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            flushRequested.set(false);
+            List<PendingStock> batch = new ArrayList<>();
+            swapLock.writeLock().lock();
+            try {
+                for (Stripe stripe : stripes) {
+                    synchronized (stripe) {
+                        batch.addAll(stripe.pending.values());
+                        stripe.pending = new HashMap<>();
+                    }
+                }
+                pendingCount.set(0);
+                if (!batch.isEmpty()) {
+                    segmentsToDelete.add(journal.roll());
+                }
+            } catch (IOException e) {
+                restore(batch);
+                throw new IllegalStateException("No se pudo rotar el diario de stock", e);
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            int[][] counts;
+            try {
+                counts = transactionTemplate.execute(status ->
+                    jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batch.size(), (ps, entry) -> {
+                        Timestamp writtenAt = Timestamp.valueOf(entry.writtenAt());
+                        ps.setInt(1, entry.stock());
+                        ps.setTimestamp(2, writtenAt);
+                        ps.setLong(3, entry.productId());
+                        ps.setTimestamp(4, writtenAt);
+                    }));
+            } catch (RuntimeException e) {
+                restore(batch);
+                throw e;
+            }
+
+            journal.delete(segmentsToDelete);
+            segmentsToDelete.clear();
+            List<Long> droppedIds = droppedIds(batch, counts);
+            flushed.increment(batch.size() - droppedIds.size());
+            if (!droppedIds.isEmpty()) {
+                dropped.increment(droppedIds.size());
+                logger.warn("Descartadas {} escrituras de stock: la fila cambió después o ya no existe; IDs {}",
+                    droppedIds.size(), droppedIds.size() > MAX_LOGGED_IDS
+                        ? droppedIds.subList(0, MAX_LOGGED_IDS) + "..." : droppedIds);
+            }
+            LocalDateTime newest = batch.stream().map(PendingStock::writtenAt).max(LocalDateTime::compareTo).get();
+            invalidationBus.publish(ProductInvalidation.forProducts(
+                batch.stream().map(PendingStock::productId).toList(), newest));
+            logger.debug("Stock volcado para {} productos", batch.size() - droppedIds.size());
+        }
+    }
+
+    /**
+     * Productos del lote cuyo UPDATE no afectó a ninguna fila
+     */
+    private static List<Long> droppedIds(List<PendingStock> batch, int[][] counts) {
+        List<Long> ids = new ArrayList<>();
+        int index = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                // SUCCESS_NO_INFO (-2): el driver no informa, se da por aplicada
+                if (count == 0) {
+                    ids.add(batch.get(index).productId());
+                }
+                index++;
+            }
+        }
+        return ids;
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Lo pendiente sigue en el búfer y en el diario; se reintenta en el siguiente ciclo
+            logger.warn("No se pudo volcar el stock pendiente: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Devuelve al búfer lo no volcado, salvo productos con una escritura más nueva
+     */
+    private void restore(List<PendingStock> batch) {
+        for (PendingStock entry : batch) {
+            Stripe stripe = stripeOf(entry.productId());
+            synchronized (stripe) {
+                if (stripe.pending.putIfAbsent(entry.productId(), entry) == null) {
+                    pendingCount.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> leftover = journal.closedSegments();
+        List<PendingStock> entries = journal.recover(leftover);
+        for (PendingStock entry : entries) {
+            Stripe stripe = stripeOf(entry.productId());
+            if (stripe.pending.put(entry.productId(), entry) == null) {
+                pendingCount.incrementAndGet();
+            }
+        }
+        segmentsToDelete.addAll(leftover);
+        if (!entries.isEmpty()) {
+            logger.info("Recuperadas {} escrituras de stock del diario ({} productos)",
+                entries.size(), pendingCount.get());
+        }
+    }
+
+    private Stripe stripeOf(long productId) {
+        long h = productId * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h >>> 32) & (stripes.length - 1)];
+    }
+
+    private static Product withStock(Product product, int stock) {
+        Product copy = new Product(product.getName(), product.getDescription(), product.getPrice(),
+            product.getCategory(), stock);
+        copy.setId(product.getId());
+        copy.setActive(product.getActive());
+        copy.setCreatedAt(product.getCreatedAt());
+        copy.setUpdatedAt(product.getUpdatedAt());
+        return copy;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        flusher.shutdownNow();
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Stock pendiente sin volcar al cerrar; queda en el diario: {}", e.getMessage());
+        }
+        journal.close();
+    }
+}
@@ -0,0 +1,37 @@
+package com.eafit.tutorial.stock;
+
+import com.eafit.tutorial.cache.InvalidationBus;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Escritura diferida del stock (products.stock.write-behind.enabled=true)
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.stock.write-behind.enabled", havingValue = "true")
+public class StockWriteBehindConfig {
+
+    @Bean
+    public StockWriteBehind stockWriteBehind(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            InvalidationBus invalidationBus,
+            MeterRegistry meterRegistry,
+            @Value("${products.stock.write-behind.journal-directory:${java.io.tmpdir}/products-stock-journal}") Path directory,
+            @Value("${products.stock.write-behind.fsync:true}") boolean fsync,
+            @Value("${products.stock.write-behind.stripes:16}") int stripes,
+            @Value("${products.stock.write-behind.flush-interval:PT0.2S}") Duration flushInterval,
+            @Value("${products.stock.write-behind.max-pending:1000}") int maxPending) throws IOException {
+        return new StockWriteBehind(new StockJournal(directory, fsync), jdbcTemplate, transactionTemplate,
+            invalidationBus, meterRegistry, stripes, flushInterval, maxPending);
+    }
+}
@@ -0,0 +1,193 @@
+package com.eafit.tutorial.util;
+
+import com.eafit.tutorial.dto.CreateProductDTO;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lector CSV (RFC 4180) de productos
+ *
+ * La primera línea es la cabecera; se requieren las columnas name, price,
+ * category y stock (description es opcional) en cualquier orden. Admite campos
+ * entre comillas con comas, comillas dobles escapadas y saltos de línea.
+ */
+public class CsvProductReader implements ProductRecordReader {
+
+    private static final List<String> REQUIRED = List.of("name", "price", "category", "stock");
+
+    private final Reader in;
+    private final int maxRecordChars;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private boolean tooLong;
+    private long number;
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    public CsvProductReader(Reader in, int maxRecordChars) throws IOException {
+        this.in = in;
+        this.maxRecordChars = maxRecordChars;
+        readHeader();
+    }
+
+    private void readHeader() throws IOException {
+        List<String> header = readRecord();
+        if (header == null || tooLong) {
+            throw new IOException("El fichero CSV no tiene una cabecera válida");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i).strip().toLowerCase(Locale.ROOT);
+            // BOM de UTF-8 al inicio del fichero
+            if (i == 0 && column.startsWith("\uFEFF")) {
+                column = column.substring(1);
+            }
+            columns.put(column, i);
+        }
+        List<String> missing = REQUIRED.stream().filter(c -> !columns.containsKey(c)).toList();
+        if (!missing.isEmpty()) {
+            throw new IOException("Faltan columnas en la cabecera CSV: " + String.join(", ", missing));
+        }
+    }
+
+    @Override
+    public Row next() throws IOException {
+        while (true) {
+            List<String> fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+            if (tooLong) {
+                return Row.invalid(++number, Map.of("record",
+                    "El registro supera el máximo de " + maxRecordChars + " caracteres"));
+            }
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            return toRow(++number, fields);
+        }
+    }
+
+    private Row toRow(long number, List<String> fields) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        CreateProductDTO dto = new CreateProductDTO();
+        dto.setName(field(fields, "name"));
+        dto.setDescription(field(fields, "description"));
+        dto.setCategory(field(fields, "category"));
+
+        String price = field(fields, "price");
+        if (price != null) {
+            try {
+                dto.setPrice(new BigDecimal(price));
+            } catch (NumberFormatException e) {
+                errors.put("price", "Precio no numérico: " + price);
+            }
+        }
+        String stock = field(fields, "stock");
+        if (stock != null) {
+            try {
+                dto.setStock(Integer.valueOf(stock));
+            } catch (NumberFormatException e) {
+                errors.put("stock", "Stock no numérico: " + stock);
+            }
+        }
+        return errors.isEmpty() ? Row.valid(number, dto) : Row.invalid(number, errors);
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).strip();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Lee un registro completo; si excede el límite se descarta hasta su final
+     * y se marca tooLong
+     */
+    private List<String> readRecord() throws IOException {
+        tooLong = false;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int length = 0;
+        boolean quoted = false;
+        boolean any = false;
+
+        int c;
+        while ((c = read()) != -1) {
+            any = true;
+            if (++length > maxRecordChars && !tooLong) {
+                tooLong = true;
+                fields.clear();
+                field.setLength(0);
+            }
+            if (quoted) {
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        if (!tooLong) field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else if (!tooLong) {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                if (!tooLong) fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c == '\r') {
+                if (peek() == '\n') read();
+                break;
+            } else if (!tooLong) {
+                field.append((char) c);
+            }
+        }
+        if (!any) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
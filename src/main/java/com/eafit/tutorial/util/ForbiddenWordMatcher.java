@@ -0,0 +1,258 @@
+package com.eafit.tutorial.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Buscador de palabras prohibidas basado en el autómata de Aho-Corasick
+ *
+ * Se construye una vez a partir de la lista de términos y recorre el texto en
+ * una sola pasada, con coste proporcional a la longitud del texto y no al
+ * número de términos. Términos y texto se comparan normalizados con
+ * TextNormalizer (sin mayúsculas ni acentos). Es inmutable y seguro entre hilos.
+ */
+public final class ForbiddenWordMatcher {
+
+    private static final ForbiddenWordMatcher EMPTY = new ForbiddenWordMatcher(List.of());
+
+    private final String[] terms;
+    private final TransitionTable transitions;
+    private final int[] failure;
+    // Índice del término que termina en el nodo, o -1
+    private final int[] termAt;
+    // Siguiente nodo terminal alcanzable por enlaces de fallo, o -1
+    private final int[] outputLink;
+
+    private ForbiddenWordMatcher(Collection<String> rawTerms) {
+        Set<String> unique = new LinkedHashSet<>();
+        for (String term : rawTerms) {
+            if (term != null && !term.isBlank()) {
+                unique.add(TextNormalizer.normalize(term.trim()));
+            }
+        }
+        this.terms = unique.toArray(String[]::new);
+
+        int maxNodes = 1;
+        for (String term : terms) {
+            maxNodes += term.length();
+        }
+        this.transitions = new TransitionTable(maxNodes);
+        int[] terminal = new int[maxNodes];
+        Arrays.fill(terminal, -1);
+
+        // 1. Trie
+        int nodeCount = 1;
+        for (int t = 0; t < terms.length; t++) {
+            int node = 0;
+            String term = terms[t];
+            for (int i = 0; i < term.length(); i++) {
+                char c = term.charAt(i);
+                int next = transitions.get(node, c);
+                if (next < 0) {
+                    next = nodeCount++;
+                    transitions.put(node, c, next);
+                }
+                node = next;
+            }
+            terminal[node] = t;
+        }
+
+        // 2. Enlaces de fallo y de salida, en anchura
+        this.termAt = Arrays.copyOf(terminal, nodeCount);
+        this.failure = new int[nodeCount];
+        this.outputLink = new int[nodeCount];
+        Arrays.fill(outputLink, -1);
+
+        int[][] children = transitions.childrenByNode(nodeCount);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int i = 0; i < children[0].length; i += 2) {
+            int child = children[0][i + 1];
+            failure[child] = 0;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            int[] edges = children[node];
+            for (int i = 0; i < edges.length; i += 2) {
+                char c = (char) edges[i];
+                int child = edges[i + 1];
+
+                int fallback = failure[node];
+                while (fallback > 0 && transitions.get(fallback, c) < 0) {
+                    fallback = failure[fallback];
+                }
+                int target = transitions.get(fallback, c);
+                failure[child] = target >= 0 && target != child ? target : 0;
+
+                int f = failure[child];
+                outputLink[child] = termAt[f] >= 0 ? f : outputLink[f];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Construye el autómata para la lista de términos
+     */
+    public static ForbiddenWordMatcher of(Collection<String> terms) {
+        return terms == null || terms.isEmpty() ? EMPTY : new ForbiddenWordMatcher(terms);
+    }
+
+    /**
+     * Indica si el texto contiene algún término
+     */
+    public boolean matches(String text) {
+        if (terms.length == 0 || text == null) {
+            return false;
+        }
+        String normalized = prepare(text);
+        int node = 0;
+        for (int i = 0; i < normalized.length(); i++) {
+            node = step(node, lowerAscii(normalized.charAt(i)));
+            if (termAt[node] >= 0 || outputLink[node] >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Términos encontrados en el texto, sin repetir y en orden de aparición
+     */
+    public List<String> findMatches(String text) {
+        if (terms.length == 0 || text == null) {
+            return List.of();
+        }
+        String normalized = prepare(text);
+        Set<String> found = null;
+        int node = 0;
+        for (int i = 0; i < normalized.length(); i++) {
+            node = step(node, lowerAscii(normalized.charAt(i)));
+            for (int out = termAt[node] >= 0 ? node : outputLink[node]; out >= 0; out = outputLink[out]) {
+                if (found == null) {
+                    found = new LinkedHashSet<>();
+                }
+                found.add(terms[termAt[out]]);
+            }
+        }
+        return found == null ? List.of() : new ArrayList<>(found);
+    }
+
+    /**
+     * Número de términos del autómata
+     */
+    public int size() {
+        return terms.length;
+    }
+
+    /**
+     * El texto ASCII se recorre tal cual (pasando a minúsculas carácter a
+     * carácter, sin copiar); el resto se normaliza completo
+     */
+    private static String prepare(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) {
+                return TextNormalizer.normalize(text);
+            }
+        }
+        return text;
+    }
+
+    private static char lowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private int step(int node, char c) {
+        while (true) {
+            int next = transitions.get(node, c);
+            if (next >= 0) {
+                return next;
+            }
+            if (node == 0) {
+                return 0;
+            }
+            node = failure[node];
+        }
+    }
+
+    /**
+     * Tabla hash abierta (nodo, carácter) -> nodo hijo, sin boxing
+     */
+    private static final class TransitionTable {
+
+        private final long[] keys;
+        private final int[] values;
+        private final int mask;
+
+        TransitionTable(int expectedEntries) {
+            int capacity = Integer.highestOneBit(Math.max(4, expectedEntries * 2) - 1) << 1;
+            this.keys = new long[capacity];
+            this.values = new int[capacity];
+            this.mask = capacity - 1;
+            Arrays.fill(keys, -1L);
+        }
+
+        int get(int node, char c) {
+            long key = key(node, c);
+            for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+                long current = keys[slot];
+                if (current == key) {
+                    return values[slot];
+                }
+                if (current == -1L) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(int node, char c, int child) {
+            long key = key(node, c);
+            int slot = slot(key);
+            while (keys[slot] != -1L && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = child;
+        }
+
+        /**
+         * Aristas agrupadas por nodo: pares (carácter, hijo)
+         */
+        int[][] childrenByNode(int nodeCount) {
+            int[] counts = new int[nodeCount];
+            for (long key : keys) {
+                if (key != -1L) {
+                    counts[(int) (key >>> 16)]++;
+                }
+            }
+            int[][] children = new int[nodeCount][];
+            for (int n = 0; n < nodeCount; n++) {
+                children[n] = new int[counts[n] * 2];
+                counts[n] = 0;
+            }
+            for (int slot = 0; slot < keys.length; slot++) {
+                long key = keys[slot];
+                if (key != -1L) {
+                    int node = (int) (key >>> 16);
+                    children[node][counts[node]++] = (int) (key & 0xFFFF);
+                    children[node][counts[node]++] = values[slot];
+                }
+            }
+            return children;
+        }
+
+        private static long key(int node, char c) {
+            return ((long) node << 16) | c;
+        }
+
+        private int slot(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 40) & mask;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.eafit.tutorial.util;
+
+import com.eafit.tutorial.dto.CreateProductDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Map;
+
+/**
+ * Lector NDJSON de productos: un objeto JSON por línea con los campos de CreateProductDTO
+ */
+public class NdjsonProductReader implements ProductRecordReader {
+
+    private final Reader in;
+    private final int maxRecordChars;
+    private final ObjectReader objectReader;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder line = new StringBuilder();
+    private int position;
+    private int limit;
+    private long number;
+
+    public NdjsonProductReader(Reader in, int maxRecordChars, ObjectMapper objectMapper) {
+        this.in = in;
+        this.maxRecordChars = maxRecordChars;
+        this.objectReader = objectMapper.readerFor(CreateProductDTO.class);
+    }
+
+    @Override
+    public Row next() throws IOException {
+        while (true) {
+            int length = readLine();
+            if (length < 0) {
+                return null;
+            }
+            if (length > maxRecordChars) {
+                return Row.invalid(++number, Map.of("record",
+                    "El registro supera el máximo de " + maxRecordChars + " caracteres"));
+            }
+            if (line.toString().isBlank()) {
+                continue;
+            }
+            long current = ++number;
+            try {
+                return Row.valid(current, objectReader.readValue(line.toString()));
+            } catch (JsonProcessingException e) {
+                return Row.invalid(current, Map.of("record", "JSON inválido: " + e.getOriginalMessage()));
+            }
+        }
+    }
+
+    /**
+     * Lee la siguiente línea en line (vacía si excede el límite); devuelve su
+     * longitud real o -1 al final del fichero
+     */
+    private int readLine() throws IOException {
+        line.setLength(0);
+        int length = 0;
+        boolean any = false;
+        while (true) {
+            if (position == limit) {
+                int n = in.read(buffer, 0, buffer.length);
+                if (n <= 0) {
+                    return any ? length : -1;
+                }
+                position = 0;
+                limit = n;
+            }
+            any = true;
+            char c = buffer[position++];
+            if (c == '\n') {
+                return length;
+            }
+            if (c == '\r') {
+                continue;
+            }
+            if (++length <= maxRecordChars) {
+                line.append(c);
+            } else if (line.length() > 0) {
+                line.setLength(0);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
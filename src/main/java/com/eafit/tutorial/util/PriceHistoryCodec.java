@@ -0,0 +1,90 @@
+package com.eafit.tutorial.util;
+
+import java.util.Arrays;
+
+/**
+ * Codificación compacta de una serie de precios
+ *
+ * Cada cambio se guarda como dos varints zigzag: milisegundos desde el cambio
+ * anterior y diferencia en céntimos con el precio anterior. El primer cambio
+ * de un segmento se codifica respecto a su instante inicial y a 0 céntimos.
+ * Un cambio típico ocupa de 4 a 7 bytes, y añadir no requiere decodificar lo
+ * ya escrito: basta con conocer el último instante y el último precio.
+ */
+public final class PriceHistoryCodec {
+
+    /**
+     * Bytes máximos de un cambio: dos varints de 64 bits
+     */
+    public static final int MAX_ENTRY_BYTES = 20;
+
+    /**
+     * Recibe los cambios decodificados, en orden de escritura
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long atMillis, long cents);
+    }
+
+    private PriceHistoryCodec() {}
+
+    /**
+     * Devuelve data con un cambio más al final
+     */
+    public static byte[] append(byte[] data, long deltaMillis, long deltaCents) {
+        byte[] entry = new byte[MAX_ENTRY_BYTES];
+        int length = writeVarLong(entry, 0, zigzag(deltaMillis));
+        length = writeVarLong(entry, length, zigzag(deltaCents));
+        byte[] result = Arrays.copyOf(data, data.length + length);
+        System.arraycopy(entry, 0, result, data.length, length);
+        return result;
+    }
+
+    /**
+     * Recorre los cambios de un segmento que empieza en startMillis
+     */
+    public static void decode(byte[] data, long startMillis, EntryConsumer consumer) {
+        long at = startMillis;
+        long cents = 0;
+        int position = 0;
+        while (position < data.length) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            at += unzigzag(value);
+
+            value = 0;
+            shift = 0;
+            do {
+                b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            cents += unzigzag(value);
+
+            consumer.accept(at, cents);
+        }
+    }
+
+    private static int writeVarLong(byte[] buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
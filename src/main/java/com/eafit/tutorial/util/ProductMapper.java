@@ -1,9 +1,13 @@
 package com.eafit.tutorial.util;
 
+import com.eafit.tutorial.dto.ArchivedProductDTO;
 import com.eafit.tutorial.dto.CreateProductDTO;
 import com.eafit.tutorial.dto.ProductDTO;
 import com.eafit.tutorial.dto.UpdateProductDTO;
+import com.eafit.tutorial.model.ArchivedProduct;
 import com.eafit.tutorial.model.Product;
+import com.eafit.tutorial.stock.StockWriteBehind;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -17,13 +21,21 @@ import java.util.stream.Collectors;
 @Component
 public class ProductMapper {
 
+    @Autowired(required = false)
+    private StockWriteBehind stockWriteBehind;
+
     /**
      * Convierte una entidad Product a ProductDTO
+     *
+     * Con escritura diferida del stock, muestra el valor aún no volcado.
      */
     public ProductDTO toDTO(Product product) {
         if (product == null) {
             return null;
         }
+        if (stockWriteBehind != null) {
+            product = stockWriteBehind.overlay(product);
+        }
 
         return new ProductDTO(
                 product.getId(),
@@ -38,6 +50,27 @@ public class ProductMapper {
         );
     }
 
+    /**
+     * Convierte una entidad ArchivedProduct a ArchivedProductDTO
+     */
+    public ArchivedProductDTO toArchivedDTO(ArchivedProduct product) {
+        if (product == null) {
+            return null;
+        }
+
+        return new ArchivedProductDTO(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getCategory(),
+                product.getStock(),
+                product.getCreatedAt(),
+                product.getUpdatedAt(),
+                product.getArchivedAt()
+        );
+    }
+
     /**
      * Convierte una lista de entidades Product a lista de DTOs
      */
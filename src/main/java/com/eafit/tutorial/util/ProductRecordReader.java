@@ -0,0 +1,40 @@
+package com.eafit.tutorial.util;
+
+import com.eafit.tutorial.dto.CreateProductDTO;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Lector incremental de registros de un fichero de catálogo (CSV o NDJSON)
+ *
+ * Lee un registro cada vez con un límite de tamaño por registro, de modo que
+ * la memoria usada no depende del tamaño del fichero.
+ */
+public interface ProductRecordReader extends Closeable {
+
+    /**
+     * Siguiente registro, o null al final del fichero
+     */
+    Row next() throws IOException;
+
+    /**
+     * Registro leído: número (desde 1, sin contar cabecera ni líneas vacías) y
+     * el producto, o los errores de formato si no se pudo interpretar
+     */
+    record Row(long number, CreateProductDTO product, Map<String, String> errors) {
+
+        public static Row valid(long number, CreateProductDTO product) {
+            return new Row(number, product, null);
+        }
+
+        public static Row invalid(long number, Map<String, String> errors) {
+            return new Row(number, null, errors);
+        }
+
+        public boolean isValid() {
+            return errors == null;
+        }
+    }
+}
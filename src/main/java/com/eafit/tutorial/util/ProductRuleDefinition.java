@@ -0,0 +1,76 @@
+package com.eafit.tutorial.util;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Definición de reglas de negocio tal como se leen de product-rules.yml
+ *
+ * Es solo el formato de configuración; ProductRuleSet es la forma compilada
+ * que se evalúa en cada petición.
+ */
+public class ProductRuleDefinition {
+
+    private BigDecimal maxPrice;
+    private Integer maxStock;
+    private List<String> forbiddenWords = new ArrayList<>();
+    private String forbiddenWordsLocation;
+    private List<CategoryRule> categories = new ArrayList<>();
+
+    // Getters y Setters
+    public BigDecimal getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(BigDecimal maxPrice) { this.maxPrice = maxPrice; }
+
+    public Integer getMaxStock() { return maxStock; }
+    public void setMaxStock(Integer maxStock) { this.maxStock = maxStock; }
+
+    public List<String> getForbiddenWords() { return forbiddenWords; }
+    public void setForbiddenWords(List<String> forbiddenWords) { this.forbiddenWords = forbiddenWords; }
+
+    public String getForbiddenWordsLocation() { return forbiddenWordsLocation; }
+    public void setForbiddenWordsLocation(String forbiddenWordsLocation) { this.forbiddenWordsLocation = forbiddenWordsLocation; }
+
+    public List<CategoryRule> getCategories() { return categories; }
+    public void setCategories(List<CategoryRule> categories) { this.categories = categories; }
+
+    /**
+     * Regla aplicable a las categorías que contienen alguna de las palabras clave
+     */
+    public static class CategoryRule {
+
+        private String name;
+        private List<String> keywords = new ArrayList<>();
+        private BigDecimal minPrice;
+        private BigDecimal maxPrice;
+        private Integer minStock;
+        private Integer maxStock;
+        private String priceMessage;
+        private String stockMessage;
+
+        // Getters y Setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public List<String> getKeywords() { return keywords; }
+        public void setKeywords(List<String> keywords) { this.keywords = keywords; }
+
+        public BigDecimal getMinPrice() { return minPrice; }
+        public void setMinPrice(BigDecimal minPrice) { this.minPrice = minPrice; }
+
+        public BigDecimal getMaxPrice() { return maxPrice; }
+        public void setMaxPrice(BigDecimal maxPrice) { this.maxPrice = maxPrice; }
+
+        public Integer getMinStock() { return minStock; }
+        public void setMinStock(Integer minStock) { this.minStock = minStock; }
+
+        public Integer getMaxStock() { return maxStock; }
+        public void setMaxStock(Integer maxStock) { this.maxStock = maxStock; }
+
+        public String getPriceMessage() { return priceMessage; }
+        public void setPriceMessage(String priceMessage) { this.priceMessage = priceMessage; }
+
+        public String getStockMessage() { return stockMessage; }
+        public void setStockMessage(String stockMessage) { this.stockMessage = stockMessage; }
+    }
+}
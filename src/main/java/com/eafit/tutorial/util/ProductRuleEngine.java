@@ -0,0 +1,138 @@
+package com.eafit.tutorial.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Motor de reglas de negocio de productos
+ *
+ * Carga las reglas desde products.rules.location, las compila en un
+ * ProductRuleSet y lo publica de forma atómica. Si el recurso es un fichero
+ * externo se vigila su fecha de modificación y se recarga en caliente; una
+ * recarga con errores deja activas las reglas anteriores.
+ */
+@Component
+public class ProductRuleEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductRuleEngine.class);
+
+    private final ResourceLoader resourceLoader;
+    private final Resource resource;
+    private volatile Resource wordsResource;
+    private volatile ProductRuleSet ruleSet;
+    private volatile long lastModified;
+    private volatile long wordsLastModified;
+
+    public ProductRuleEngine(ResourceLoader resourceLoader,
+                             @Value("${products.rules.location:classpath:product-rules.yml}") String location) {
+        this.resourceLoader = resourceLoader;
+        this.resource = resourceLoader.getResource(location);
+        this.ruleSet = load();
+    }
+
+    /**
+     * Evalúa las reglas vigentes; devuelve ProductRuleSet.NO_ERRORS si se cumplen
+     */
+    public Map<String, String> evaluate(String name, BigDecimal price, String category, Integer stock) {
+        return ruleSet.evaluate(name, price, category, stock);
+    }
+
+    /**
+     * Reglas vigentes
+     */
+    public ProductRuleSet getRuleSet() {
+        return ruleSet;
+    }
+
+    /**
+     * Recarga las reglas si el fichero de reglas o el de palabras prohibidas
+     * cambió desde la última carga
+     */
+    @Scheduled(fixedDelayString = "${products.rules.reload-interval:PT10S}")
+    public void reloadIfModified() {
+        try {
+            boolean rulesChanged = resource.isFile() && resource.lastModified() != lastModified;
+            Resource words = wordsResource;
+            boolean wordsChanged = words != null && words.isFile() && words.lastModified() != wordsLastModified;
+            if (rulesChanged || wordsChanged) {
+                reload();
+            }
+        } catch (IOException e) {
+            logger.warn("No se pudo comprobar el fichero de reglas {}: {}", resource, e.getMessage());
+        }
+    }
+
+    /**
+     * Fuerza la recarga de las reglas
+     */
+    public synchronized void reload() {
+        try {
+            ruleSet = load();
+            logger.info("Reglas de productos recargadas desde {}", resource);
+        } catch (RuntimeException e) {
+            logger.error("Reglas inválidas en {}, se mantienen las anteriores: {}", resource, e.getMessage());
+        }
+    }
+
+    private ProductRuleSet load() {
+        try {
+            if (resource.isFile()) {
+                lastModified = resource.lastModified();
+            }
+            List<PropertySource<?>> sources = new YamlPropertySourceLoader().load("product-rules", resource);
+            ProductRuleDefinition definition = new Binder(ConfigurationPropertySources.from(sources))
+                .bind("rules", ProductRuleDefinition.class)
+                .orElseGet(ProductRuleDefinition::new);
+            return ProductRuleSet.compile(definition, loadWordList(definition.getForbiddenWordsLocation()));
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudieron leer las reglas de productos: " + resource, e);
+        }
+    }
+
+    /**
+     * Lista externa de palabras prohibidas: un término por línea, '#' para comentarios
+     */
+    private List<String> loadWordList(String location) throws IOException {
+        if (location == null || location.isBlank()) {
+            wordsResource = null;
+            return List.of();
+        }
+        Resource words = resourceLoader.getResource(location);
+        if (words.isFile()) {
+            wordsLastModified = words.lastModified();
+        }
+        wordsResource = words;
+
+        List<String> terms = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(words.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String term = line.strip();
+                if (!term.isEmpty() && !term.startsWith("#")) {
+                    terms.add(term);
+                }
+            }
+        }
+        logger.debug("Cargadas {} palabras prohibidas desde {}", terms.size(), words);
+        return terms;
+    }
+}
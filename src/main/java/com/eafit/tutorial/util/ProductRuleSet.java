@@ -0,0 +1,162 @@
+package com.eafit.tutorial.util;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Conjunto de reglas de negocio compilado e inmutable
+ *
+ * Se construye una vez a partir de ProductRuleDefinition. Las reglas de cada
+ * categoría se resuelven la primera vez que se ve esa categoría y se guardan,
+ * de modo que una validación que pasa no crea objetos: solo compara valores
+ * ya precalculados (los nombres no ASCII sí se normalizan antes de buscar
+ * palabras prohibidas).
+ */
+public final class ProductRuleSet {
+
+    /** Resultado de una validación sin errores (instancia compartida) */
+    public static final Map<String, String> NO_ERRORS = Map.of();
+
+    private static final int MAX_CACHED_CATEGORIES = 1024;
+
+    private final BigDecimal maxPrice;
+    private final int maxStock;
+    private final ForbiddenWordMatcher forbiddenWords;
+    private final CompiledCategoryRule[] categoryRules;
+    private final ConcurrentHashMap<String, CompiledCategoryRule[]> rulesByCategory = new ConcurrentHashMap<>();
+
+    private ProductRuleSet(BigDecimal maxPrice, int maxStock, ForbiddenWordMatcher forbiddenWords,
+                           CompiledCategoryRule[] categoryRules) {
+        this.maxPrice = maxPrice;
+        this.maxStock = maxStock;
+        this.forbiddenWords = forbiddenWords;
+        this.categoryRules = categoryRules;
+    }
+
+    /**
+     * Compila una definición de reglas
+     */
+    public static ProductRuleSet compile(ProductRuleDefinition definition) {
+        return compile(definition, List.of());
+    }
+
+    /**
+     * Compila una definición de reglas añadiendo una lista externa de palabras prohibidas
+     */
+    public static ProductRuleSet compile(ProductRuleDefinition definition, List<String> extraForbiddenWords) {
+        List<String> words = new ArrayList<>(definition.getForbiddenWords());
+        words.addAll(extraForbiddenWords);
+
+        List<CompiledCategoryRule> rules = new ArrayList<>();
+        for (ProductRuleDefinition.CategoryRule rule : definition.getCategories()) {
+            String[] keywords = rule.getKeywords().stream()
+                .filter(k -> k != null && !k.isBlank())
+                .map(k -> TextNormalizer.normalize(k.trim()))
+                .toArray(String[]::new);
+            if (keywords.length == 0) {
+                throw new IllegalArgumentException("La regla de categoría '" + rule.getName() + "' no tiene palabras clave");
+            }
+            rules.add(new CompiledCategoryRule(keywords,
+                rule.getMinPrice(), rule.getMaxPrice(),
+                rule.getMinStock(), rule.getMaxStock(),
+                rule.getPriceMessage() != null ? rule.getPriceMessage()
+                    : "Precio fuera del rango permitido para la categoría",
+                rule.getStockMessage() != null ? rule.getStockMessage()
+                    : "Stock fuera del rango permitido para la categoría"));
+        }
+
+        return new ProductRuleSet(
+            definition.getMaxPrice(),
+            definition.getMaxStock() != null ? definition.getMaxStock() : Integer.MAX_VALUE,
+            ForbiddenWordMatcher.of(words),
+            rules.toArray(CompiledCategoryRule[]::new));
+    }
+
+    /**
+     * Evalúa las reglas; devuelve NO_ERRORS si el producto las cumple todas
+     */
+    public Map<String, String> evaluate(String name, BigDecimal price, String category, Integer stock) {
+        Map<String, String> errors = NO_ERRORS;
+
+        if (name != null && forbiddenWords.matches(name)) {
+            errors = put(errors, "name", "El nombre del producto contiene palabras prohibidas: "
+                + String.join(", ", forbiddenWords.findMatches(name)));
+        }
+        if (price != null && maxPrice != null && price.compareTo(maxPrice) > 0) {
+            errors = put(errors, "price", "El precio no puede exceder $" + maxPrice);
+        }
+        if (stock != null && stock > maxStock) {
+            errors = put(errors, "stock", "El stock no puede exceder " + maxStock + " unidades");
+        }
+
+        if (category != null) {
+            for (CompiledCategoryRule rule : rulesFor(category)) {
+                if (price != null && !rule.priceAllowed(price)) {
+                    errors = put(errors, "price", rule.priceMessage());
+                }
+                if (stock != null && !rule.stockAllowed(stock)) {
+                    errors = put(errors, "stock", rule.stockMessage());
+                }
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Autómata de palabras prohibidas
+     */
+    public ForbiddenWordMatcher forbiddenWords() {
+        return forbiddenWords;
+    }
+
+    private CompiledCategoryRule[] rulesFor(String category) {
+        CompiledCategoryRule[] cached = rulesByCategory.get(category);
+        if (cached != null) {
+            return cached;
+        }
+        CompiledCategoryRule[] resolved = resolve(TextNormalizer.normalize(category));
+        if (rulesByCategory.size() < MAX_CACHED_CATEGORIES) {
+            rulesByCategory.putIfAbsent(category, resolved);
+        }
+        return resolved;
+    }
+
+    private CompiledCategoryRule[] resolve(String normalizedCategory) {
+        List<CompiledCategoryRule> matching = new ArrayList<>();
+        for (CompiledCategoryRule rule : categoryRules) {
+            for (String keyword : rule.keywords()) {
+                if (normalizedCategory.contains(keyword)) {
+                    matching.add(rule);
+                    break;
+                }
+            }
+        }
+        return matching.toArray(CompiledCategoryRule[]::new);
+    }
+
+    private static Map<String, String> put(Map<String, String> errors, String field, String message) {
+        Map<String, String> mutable = errors == NO_ERRORS ? new HashMap<>() : errors;
+        mutable.put(field, message);
+        return mutable;
+    }
+
+    private record CompiledCategoryRule(String[] keywords,
+                                        BigDecimal minPrice, BigDecimal maxPrice,
+                                        Integer minStock, Integer maxStock,
+                                        String priceMessage, String stockMessage) {
+
+        boolean priceAllowed(BigDecimal price) {
+            return (minPrice == null || price.compareTo(minPrice) >= 0)
+                && (maxPrice == null || price.compareTo(maxPrice) <= 0);
+        }
+
+        boolean stockAllowed(int stock) {
+            return (minStock == null || stock >= minStock)
+                && (maxStock == null || stock <= maxStock);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.eafit.tutorial.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa llamadas concurrentes idénticas en una sola ejecución
+ *
+ * La primera llamada para una clave ejecuta el proveedor; las llamadas que llegan
+ * mientras está en curso esperan y comparten su resultado (o su excepción).
+ * La contabilidad se hace solo con operaciones atómicas de ConcurrentHashMap.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Ejecuta el proveedor o se une a la ejecución en curso para la misma clave
+     */
+    public V execute(K key, Supplier<V> supplier) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            V value = supplier.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Solo se retira si sigue siendo la misma llamada (pudo ser invalidada)
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Olvida todas las ejecuciones en curso: las llamadas posteriores
+     * no se unirán a consultas iniciadas antes de la invalidación
+     */
+    public void invalidateAll() {
+        inFlight.clear();
+    }
+
+    /**
+     * Número de ejecuciones actualmente en curso
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando una consulta compartida", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.eafit.tutorial.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de texto para comparaciones: minúsculas y sin acentos
+ */
+public final class TextNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private TextNormalizer() {}
+
+    /**
+     * "Electrónicos" -> "electronicos"
+     *
+     * Usa la descomposición de compatibilidad (NFKD), así que también pliega
+     * variantes como letras de ancho completo o ligaduras.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,73 @@
+package com.eafit.tutorial.benchmark;
+
+import com.eafit.tutorial.util.ForbiddenWordMatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de la búsqueda de palabras prohibidas en nombres de producto
+ *
+ * Compara el bucle anterior (toLowerCase + String.contains por término) con el
+ * autómata de Aho-Corasick para listas de 10, 1.000 y 50.000 términos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ForbiddenWordMatcherBenchmark {
+
+    @Param({"10", "1000", "50000"})
+    public int terms;
+
+    private static final String[] NAMES = {
+        "Laptop Gaming Pro 15 pulgadas",
+        "Camiseta de algodón orgánico talla M",
+        "Smartphone Pro Max 256GB Negro",
+        "Libro Clean Code edición en español"
+    };
+
+    private String[] words;
+    private ForbiddenWordMatcher matcher;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(7);
+        List<String> list = new ArrayList<>(terms);
+        for (int i = 0; i < terms; i++) {
+            int length = 5 + random.nextInt(6);
+            StringBuilder word = new StringBuilder(length);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            list.add(word.toString());
+        }
+        words = list.toArray(String[]::new);
+        matcher = ForbiddenWordMatcher.of(list);
+    }
+
+    @Benchmark
+    public boolean naiveContainsLoop() {
+        String lowerName = nextName().toLowerCase(Locale.ROOT);
+        for (String forbidden : words) {
+            if (lowerName.contains(forbidden)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean ahoCorasick() {
+        return matcher.matches(nextName());
+    }
+
+    private String nextName() {
+        next = (next + 1) & 3;
+        return NAMES[next];
+    }
+}
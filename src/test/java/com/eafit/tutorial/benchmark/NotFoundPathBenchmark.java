@@ -0,0 +1,64 @@
+package com.eafit.tutorial.benchmark;
+
+import com.eafit.tutorial.exception.GlobalExceptionHandler;
+import com.eafit.tutorial.exception.ProductNotFoundException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark del camino de error 404
+ *
+ * Compara el esquema anterior (RuntimeException con traza de pila, clasificada
+ * con getMessage().contains(...)) con la excepción sin traza resuelta por
+ * GlobalExceptionHandler. La profundidad de pila simula la de una petición
+ * atravesando Tomcat, los filtros y los proxies de Spring.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class NotFoundPathBenchmark {
+
+    @Param({"30", "120"})
+    public int stackDepth;
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/products/999");
+
+    @Benchmark
+    public Object legacyStackTraceAndContains() {
+        return descend(stackDepth, true);
+    }
+
+    @Benchmark
+    public Object stacklessTypedException() {
+        return descend(stackDepth, false);
+    }
+
+    private Object descend(int depth, boolean legacy) {
+        if (depth > 0) {
+            return descend(depth - 1, legacy);
+        }
+        return legacy ? legacyPath() : typedPath();
+    }
+
+    private Object legacyPath() {
+        try {
+            throw new RuntimeException("Producto no encontrado con ID: " + 999L);
+        } catch (Exception e) {
+            if (e.getMessage().contains("no encontrado")) {
+                return e.getStackTrace().length;
+            }
+            return e;
+        }
+    }
+
+    private Object typedPath() {
+        try {
+            throw new ProductNotFoundException(999L);
+        } catch (ProductNotFoundException e) {
+            return handler.handleProductApiException(e, request);
+        }
+    }
+}
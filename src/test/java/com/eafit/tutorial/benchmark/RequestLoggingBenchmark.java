@@ -0,0 +1,114 @@
+package com.eafit.tutorial.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.eafit.tutorial.logging.SamplingTurboFilter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.logging.logback.StructuredLogEncoder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark del coste de logging por petición
+ *
+ * Simula el logging de una petición GET /api/v1/products/{id} (DEBUG en el
+ * controlador, DEBUG en el servicio, DEBUG en el manejador de errores) con
+ * cada modo de configuración. La salida va a un flujo que descarta los bytes,
+ * así que se mide el coste en el hilo de la petición, no el de la consola.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class RequestLoggingBenchmark {
+
+    public enum LoggingMode { SYNC_PATTERN, ASYNC_JSON, ASYNC_JSON_SAMPLED }
+
+    @Param({"SYNC_PATTERN", "ASYNC_JSON", "ASYNC_JSON_SAMPLED"})
+    public LoggingMode mode;
+
+    private LoggerContext context;
+    private Logger controllerLogger;
+    private Logger serviceLogger;
+    private Logger handlerLogger;
+    private long id;
+
+    @Setup
+    public void setup() {
+        context = new LoggerContext();
+        context.putObject(Environment.class.getName(), new StandardEnvironment());
+
+        OutputStreamAppender<ILoggingEvent> sink = new OutputStreamAppender<>();
+        sink.setContext(context);
+        sink.setEncoder(mode == LoggingMode.SYNC_PATTERN ? patternEncoder() : jsonEncoder());
+        sink.setOutputStream(OutputStream.nullOutputStream());
+        sink.start();
+
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        if (mode == LoggingMode.SYNC_PATTERN) {
+            root.addAppender(sink);
+        } else {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setDiscardingThreshold(1638);
+            async.setNeverBlock(true);
+            async.addAppender(sink);
+            async.start();
+            root.addAppender(async);
+        }
+
+        if (mode == LoggingMode.ASYNC_JSON_SAMPLED) {
+            SamplingTurboFilter sampling = new SamplingTurboFilter();
+            sampling.setContext(context);
+            sampling.addLogger("com.eafit.tutorial");
+            sampling.setRate(100);
+            sampling.start();
+            context.addTurboFilter(sampling);
+        }
+
+        context.getLogger("com.eafit.tutorial").setLevel(Level.DEBUG);
+        controllerLogger = context.getLogger("com.eafit.tutorial.controller.ProductController");
+        serviceLogger = context.getLogger("com.eafit.tutorial.service.impl.ProductServiceImpl");
+        handlerLogger = context.getLogger("com.eafit.tutorial.exception.GlobalExceptionHandler");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Benchmark
+    public void requestLogging() {
+        long productId = ++id;
+        controllerLogger.debug("GET /api/v1/products/{}", productId);
+        serviceLogger.debug("Buscando producto con ID: {}", productId);
+        handlerLogger.debug("{} en {}: {}", "PRODUCT_NOT_FOUND", "/api/v1/products/" + productId,
+            "Producto no encontrado con ID: " + productId);
+    }
+
+    private Encoder<ILoggingEvent> patternEncoder() {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg%n");
+        encoder.start();
+        return encoder;
+    }
+
+    private Encoder<ILoggingEvent> jsonEncoder() {
+        StructuredLogEncoder encoder = new StructuredLogEncoder();
+        encoder.setContext(context);
+        encoder.setFormat("ecs");
+        encoder.start();
+        return encoder;
+    }
+}
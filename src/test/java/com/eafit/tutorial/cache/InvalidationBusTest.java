@@ -0,0 +1,96 @@
+package com.eafit.tutorial.cache;
+
+import com.eafit.tutorial.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class InvalidationBusTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final LoopbackInvalidationTransport transport = new LoopbackInvalidationTransport();
+    // Intervalo largo: los envíos se fuerzan con flush()
+    private final InvalidationBus nodeA = new InvalidationBus(transport, "a", Duration.ofHours(1), 2);
+    private final InvalidationBus nodeB = new InvalidationBus(transport, "b", Duration.ofHours(1), 2);
+    private final ProductCache cacheA = new ProductCache(Duration.ofMinutes(1), Duration.ZERO, 100);
+    private final ProductCache cacheB = new ProductCache(Duration.ofMinutes(1), Duration.ZERO, 100);
+
+    InvalidationBusTest() {
+        nodeA.addListener(cacheA);
+        nodeB.addListener(cacheB);
+    }
+
+    @AfterEach
+    void shutdown() {
+        nodeA.destroy();
+        nodeB.destroy();
+    }
+
+    @Test
+    void writeOnOneNodeEvictsProductAndCategoryOnTheOther() {
+        Product before = product(1L, "Libros", T0);
+        cacheB.putProduct(before, cacheB.generation());
+        cacheB.putCategory("Libros", List.of(before), cacheB.generation());
+
+        nodeA.publish(ProductInvalidation.forProduct(product(1L, "Libros", T0.plusSeconds(1))));
+        assertNotNull(cacheB.getProduct(1L));
+
+        nodeA.flush();
+        assertNull(cacheB.getProduct(1L));
+        assertNull(cacheB.getCategory("LIBROS"));
+        assertEquals(1, nodeB.receivedCount());
+        assertEquals(0, nodeA.receivedCount());
+    }
+
+    @Test
+    void lateMessageDoesNotEvictNewerEntry() {
+        Product newer = product(1L, "Libros", T0.plusSeconds(5));
+        cacheB.putProduct(newer, cacheB.generation());
+
+        nodeA.publish(ProductInvalidation.forProduct(product(1L, "Libros", T0)));
+        nodeA.flush();
+
+        assertEquals(newer, cacheB.getProduct(1L));
+    }
+
+    @Test
+    void staleLoadIsNotCachedAfterInvalidation() {
+        long generation = cacheB.generation();
+        nodeA.publish(ProductInvalidation.forProduct(product(1L, "Libros", T0.plusSeconds(1))));
+        nodeA.flush();
+
+        // Carga empezada antes de la invalidación
+        cacheB.putProduct(product(1L, "Libros", T0), generation);
+        assertNull(cacheB.getProduct(1L));
+        // Carga posterior pero de una copia más vieja (réplica retrasada)
+        cacheB.putProduct(product(1L, "Libros", T0), cacheB.generation());
+        assertNull(cacheB.getProduct(1L));
+    }
+
+    @Test
+    void pendingInvalidationsAreSentInBatchesOfMaxBatch() {
+        for (long id = 1; id <= 5; id++) {
+            nodeA.publish(ProductInvalidation.forProducts(List.of(id), T0));
+        }
+        nodeA.flush();
+
+        assertEquals(3, nodeA.sentBatches());
+        assertEquals(5, nodeB.receivedCount());
+    }
+
+    private static Product product(Long id, String category, LocalDateTime updatedAt) {
+        Product product = new Product("Producto " + id, "Descripción", new BigDecimal("10.00"), category, 5);
+        product.setId(id);
+        product.setUpdatedAt(updatedAt);
+        return product;
+    }
+}
@@ -0,0 +1,81 @@
+package com.eafit.tutorial.cache;
+
+import com.eafit.tutorial.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ProductCacheTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Test
+    void fullCacheEvictsTheOldestProductInsteadOfRefusingNewOnes() {
+        ProductCache cache = new ProductCache(Duration.ofMinutes(1), Duration.ZERO, 3);
+        for (long id = 1; id <= 5; id++) {
+            cache.putProduct(product(id, "Libros"), cache.generation());
+        }
+
+        assertNull(cache.getProduct(1L));
+        assertNull(cache.getProduct(2L));
+        assertNotNull(cache.getProduct(3L));
+        assertNotNull(cache.getProduct(5L));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void fullCacheEvictsTheOldestCategory() {
+        // Con mark-retention > 0 y sin invalidaciones previas los listados se guardan
+        ProductCache cache = new ProductCache(Duration.ofMinutes(1), Duration.ofSeconds(5), 2);
+        cache.putCategory("Libros", List.of(product(1L, "Libros")), cache.generation());
+        cache.putCategory("Ropa", List.of(product(2L, "Ropa")), cache.generation());
+        cache.putCategory("Hogar", List.of(product(3L, "Hogar")), cache.generation());
+
+        assertNull(cache.getCategory("Libros"));
+        assertNotNull(cache.getCategory("Ropa"));
+        assertNotNull(cache.getCategory("Hogar"));
+    }
+
+    @Test
+    void expiredEntriesArePurgedBeforeStoring() throws InterruptedException {
+        ProductCache cache = new ProductCache(Duration.ofMillis(20), Duration.ZERO, 100);
+        cache.putProduct(product(1L, "Libros"), cache.generation());
+        cache.putProduct(product(2L, "Libros"), cache.generation());
+        Thread.sleep(40);
+
+        cache.putProduct(product(3L, "Libros"), cache.generation());
+
+        // Las caducadas salen al guardar, sin esperar a que alguien las lea
+        assertEquals(1, cache.size());
+        assertNotNull(cache.getProduct(3L));
+    }
+
+    @Test
+    void invalidatedSlotsDoNotEvictTheirReplacement() {
+        ProductCache cache = new ProductCache(Duration.ofMinutes(1), Duration.ZERO, 2);
+        cache.putProduct(product(1L, "Libros"), cache.generation());
+        cache.accept(ProductInvalidation.forProducts(List.of(1L), T0.plusSeconds(1)));
+        Product reloaded = product(1L, "Libros");
+        reloaded.setUpdatedAt(T0.plusSeconds(1));
+        cache.putProduct(reloaded, cache.generation());
+
+        // Sale el hueco antiguo del ID 1, no la copia recargada
+        cache.putProduct(product(2L, "Libros"), cache.generation());
+        assertEquals(reloaded, cache.getProduct(1L));
+        assertNotNull(cache.getProduct(2L));
+    }
+
+    private static Product product(Long id, String category) {
+        Product product = new Product("Producto " + id, null, new BigDecimal("10.00"), category, 5);
+        product.setId(id);
+        product.setUpdatedAt(T0);
+        return product;
+    }
+}
@@ -0,0 +1,31 @@
+package com.eafit.tutorial.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeHintsConfigTest {
+
+    @Test
+    void prebuiltOpenApiDocumentIsIncludedInTheImage() {
+        RuntimeHints hints = new RuntimeHints();
+        new NativeHintsConfig.ProductsApiRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        // Como native-image, con globs: "*" no cruza directorios (el predicado de Spring sí lo hace)
+        List<PathMatcher> globs = hints.resources().resourcePatternHints()
+            .flatMap(hint -> hint.getIncludes().stream())
+            .map(include -> FileSystems.getDefault().getPathMatcher("glob:" + include.getPattern()))
+            .toList();
+
+        for (String resource : List.of("static/openapi/products-api.json", "static/openapi/products-api.json.gz",
+                                       "static/swagger-ui-custom.css")) {
+            assertTrue(globs.stream().anyMatch(glob -> glob.matches(Path.of(resource))), resource);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.eafit.tutorial.controller;
+
+import com.eafit.tutorial.Artifact.products_api.ArtifactProductsApiApplication;
+import com.eafit.tutorial.model.Product;
+import com.eafit.tutorial.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Consulta por lista de IDs: los elementos vacíos de ?ids= se ignoran en
+ * lugar de romper la petición.
+ */
+@SpringBootTest(classes = ArtifactProductsApiApplication.class,
+                properties = {"spring.jpa.show-sql=false", "logging.level.com.eafit.tutorial=WARN"})
+@AutoConfigureMockMvc
+class ProductBatchLookupTest {
+
+    private static final long UNKNOWN_ID = 987_654_321L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void emptyElementsInTheIdListAreSkipped() throws Exception {
+        Product first = save("Jarron lista uno");
+        Product second = save("Jarron lista dos");
+
+        mockMvc.perform(get("/api/v1/products")
+                .param("ids", first.getId() + ",," + second.getId() + "," + UNKNOWN_ID))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.products", hasSize(2)))
+            .andExpect(jsonPath("$.data.products[0].id").value(first.getId()))
+            .andExpect(jsonPath("$.data.products[1].id").value(second.getId()))
+            .andExpect(jsonPath("$.data.missingIds", hasSize(1)))
+            .andExpect(jsonPath("$.data.missingIds[0]").value(UNKNOWN_ID));
+    }
+
+    private Product save(String name) {
+        return productRepository.save(new Product(name, null, new BigDecimal("25.00"), "Hogar", 4));
+    }
+}
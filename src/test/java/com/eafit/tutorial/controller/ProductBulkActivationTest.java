@@ -0,0 +1,146 @@
+package com.eafit.tutorial.controller;
+
+import com.eafit.tutorial.Artifact.products_api.ArtifactProductsApiApplication;
+import com.eafit.tutorial.model.Product;
+import com.eafit.tutorial.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Activación y desactivación en bloque: solo cuentan las filas que cambian de
+ * estado; los IDs desconocidos y los que ya tenían el estado se ignoran.
+ */
+@SpringBootTest(classes = ArtifactProductsApiApplication.class,
+                properties = {"spring.jpa.show-sql=false", "logging.level.com.eafit.tutorial=WARN"})
+@AutoConfigureMockMvc
+class ProductBulkActivationTest {
+
+    private static final long UNKNOWN_ID = 987_654_321L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void deactivateByIdsCountsOnlyRowsThatChange() throws Exception {
+        Product first = save("Lampara bloque uno", "Hogar");
+        Product second = save("Lampara bloque dos", "Hogar");
+        Product alreadyInactive = save("Lampara bloque tres", "Hogar");
+        alreadyInactive.setActive(false);
+        productRepository.save(alreadyInactive);
+
+        mockMvc.perform(post("/api/v1/products/bulk/deactivate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ids(first.getId(), second.getId(), alreadyInactive.getId(), UNKNOWN_ID, first.getId())))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.affected").value(2))
+            .andExpect(jsonPath("$.data.active").value(false));
+
+        assertFalse(isActive(first));
+        assertFalse(isActive(second));
+        assertFalse(isActive(alreadyInactive));
+
+        // Repetir la petición no cambia nada
+        mockMvc.perform(post("/api/v1/products/bulk/deactivate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ids(first.getId(), second.getId())))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.affected").value(0));
+    }
+
+    @Test
+    void reactivateByIdsSkipsActiveAndUnknownRows() throws Exception {
+        Product inactive = save("Silla bloque uno", "Hogar");
+        inactive.setActive(false);
+        productRepository.save(inactive);
+        Product active = save("Silla bloque dos", "Hogar");
+
+        mockMvc.perform(post("/api/v1/products/bulk/reactivate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ids(inactive.getId(), active.getId(), UNKNOWN_ID)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.affected").value(1))
+            .andExpect(jsonPath("$.data.active").value(true));
+
+        assertTrue(isActive(inactive));
+        assertTrue(isActive(active));
+    }
+
+    @Test
+    void categoryIsMatchedIgnoringCaseAndOnlyThatCategoryChanges() throws Exception {
+        Product kite = save("Cometa bloque", "Juguetes Bloque");
+        Product ball = save("Pelota bloque", "Juguetes Bloque");
+        Product other = save("Raqueta bloque", "Deportes Bloque");
+
+        mockMvc.perform(post("/api/v1/products/bulk/deactivate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"category\": \" juguetes bloque \"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.affected").value(2));
+
+        assertFalse(isActive(kite));
+        assertFalse(isActive(ball));
+        assertTrue(isActive(other));
+
+        mockMvc.perform(post("/api/v1/products/bulk/reactivate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"category\": \"JUGUETES BLOQUE\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.affected").value(2));
+
+        assertTrue(isActive(kite));
+        assertTrue(isActive(ball));
+    }
+
+    @Test
+    void unknownCategoryAffectsNothing() throws Exception {
+        mockMvc.perform(post("/api/v1/products/bulk/deactivate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"category\": \"Categoria Inexistente\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.affected").value(0));
+    }
+
+    @Test
+    void idsAndCategoryTogetherOrNeitherAreRejected() throws Exception {
+        mockMvc.perform(post("/api/v1/products/bulk/deactivate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\": [1], \"category\": \"Hogar\"}"))
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/v1/products/bulk/reactivate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\": []}"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private Product save(String name, String category) {
+        return productRepository.save(new Product(name, null, new BigDecimal("20.00"), category, 5));
+    }
+
+    private boolean isActive(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getActive();
+    }
+
+    private static String ids(Long... ids) {
+        StringBuilder json = new StringBuilder("{\"ids\": [");
+        for (int i = 0; i < ids.length; i++) {
+            json.append(i > 0 ? ", " : "").append(ids[i]);
+        }
+        return json.append("]}").toString();
+    }
+}
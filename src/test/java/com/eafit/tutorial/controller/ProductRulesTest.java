@@ -0,0 +1,91 @@
+package com.eafit.tutorial.controller;
+
+import com.eafit.tutorial.Artifact.products_api.ArtifactProductsApiApplication;
+import com.eafit.tutorial.model.Product;
+import com.eafit.tutorial.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Las reglas de product-rules.yml se aplican igual en alta, actualización y
+ * PATCH de stock (p. ej. perecederos con stock máximo 100).
+ */
+@SpringBootTest(classes = ArtifactProductsApiApplication.class,
+                properties = {"spring.jpa.show-sql=false", "logging.level.com.eafit.tutorial=WARN"})
+@AutoConfigureMockMvc
+class ProductRulesTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void createRejectsStockAboveTheCategoryLimit() throws Exception {
+        mockMvc.perform(post("/api/v1/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json("Manzana reglas alta", "Comida", 500)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.data.details.stock").exists());
+
+        mockMvc.perform(post("/api/v1/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json("Manzana reglas alta", "Comida", 50)))
+            .andExpect(status().isCreated());
+    }
+
+    @Test
+    void updateRejectsStockAboveTheCategoryLimit() throws Exception {
+        Product pear = productRepository.save(new Product("Pera reglas", null, new BigDecimal("3.00"), "Comida", 20));
+
+        mockMvc.perform(put("/api/v1/products/{id}", pear.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json("Pera reglas", "Comida", 500)))
+            .andExpect(status().isBadRequest());
+
+        assertEquals(20, productRepository.findById(pear.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void stockPatchAppliesTheSameCategoryRules() throws Exception {
+        Product bread = productRepository.save(new Product("Pan reglas", null, new BigDecimal("2.00"), "Comida", 20));
+
+        mockMvc.perform(patch("/api/v1/products/{id}/stock", bread.getId()).param("stock", "500"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.data.details.stock").exists());
+        assertEquals(20, productRepository.findById(bread.getId()).orElseThrow().getStock());
+
+        mockMvc.perform(patch("/api/v1/products/{id}/stock", bread.getId()).param("stock", "80"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.stock").value(80));
+    }
+
+    @Test
+    void stockPatchAppliesTheGlobalStockCap() throws Exception {
+        Product shirt = productRepository.save(new Product("Camisa reglas", null, new BigDecimal("30.00"), "Ropa", 20));
+
+        mockMvc.perform(patch("/api/v1/products/{id}/stock", shirt.getId()).param("stock", "20000"))
+            .andExpect(status().isBadRequest());
+        assertEquals(20, productRepository.findById(shirt.getId()).orElseThrow().getStock());
+    }
+
+    private static String json(String name, String category, int stock) {
+        return """
+            {"name": "%s", "price": 5.00, "category": "%s", "stock": %d}
+            """.formatted(name, category, stock);
+    }
+}
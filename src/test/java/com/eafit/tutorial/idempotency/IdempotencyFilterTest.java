@@ -0,0 +1,204 @@
+package com.eafit.tutorial.idempotency;
+
+import com.eafit.tutorial.exception.ProductApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyFilterTest {
+
+    private static final String BODY = "{\"name\": \"Taladro\", \"price\": 80.00}";
+
+    /** Traduce los errores como GlobalExceptionHandler: solo el estado */
+    private static final HandlerExceptionResolver RESOLVER = (request, response, handler, e) -> {
+        response.setStatus(e instanceof ProductApiException api ? api.getStatus().value() : HttpStatus.BAD_REQUEST.value());
+        return new ModelAndView();
+    };
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void repeatedRequestGetsTheStoredResponseWithoutRunningAgain() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofSeconds(5), 1024);
+
+        MockHttpServletResponse first = run(filter, request("clave-1", BODY), created());
+        MockHttpServletResponse second = run(filter, request("clave-1", BODY), created());
+
+        assertEquals(1, executions.get());
+        assertEquals(201, second.getStatus());
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+        assertEquals("/api/v1/products/1", second.getHeader("Location"));
+        assertEquals("true", second.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(1.0, outcome("replayed"));
+    }
+
+    @Test
+    void keyReusedWithAnotherBodyIsUnprocessable() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofSeconds(5), 1024);
+        run(filter, request("clave-2", BODY), created());
+
+        MockHttpServletResponse reused = run(filter, request("clave-2", "{\"name\": \"Sierra\"}"), created());
+
+        assertEquals(422, reused.getStatus());
+        assertEquals(1, executions.get());
+        assertEquals(1.0, outcome("rejected"));
+    }
+
+    @Test
+    void duplicateOfARequestStillRunningIsAConflictAfterTheWait() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofMillis(50), 1024);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (req, res) -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            created().doFilter(req, res);
+        };
+
+        Future<MockHttpServletResponse> original = executor.submit(() -> run(filter, request("clave-3", BODY), slow));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        MockHttpServletResponse duplicate = run(filter, request("clave-3", BODY), created());
+        release.countDown();
+
+        assertEquals(409, duplicate.getStatus());
+        assertEquals(201, original.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void bodiesOverTheLimitPassThroughWithoutIdempotency() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofSeconds(5), 16);
+        List<String> seenBodies = new ArrayList<>();
+        FilterChain echo = (req, res) -> {
+            seenBodies.add(new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            created().doFilter(req, res);
+        };
+
+        run(filter, request("clave-4", BODY), echo);
+        // Sin Content-Length (chunked) se detecta al leer y el cuerpo llega entero igualmente
+        MockHttpServletRequest chunked = new MockHttpServletRequest("POST", "/api/v1/products") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        chunked.addHeader(IdempotencyFilter.HEADER, "clave-4");
+        chunked.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse second = run(filter, chunked, echo);
+
+        assertEquals(2, executions.get());
+        assertEquals(List.of(BODY, BODY), seenBodies);
+        assertNull(second.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(2.0, outcome("skipped"));
+    }
+
+    @Test
+    void readListenerIsToldTheBodyIsAlreadyAvailable() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofSeconds(5), 1024);
+        List<String> events = new ArrayList<>();
+        StringBuilder read = new StringBuilder();
+        FilterChain async = (req, res) -> {
+            ServletInputStream input = req.getInputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    events.add("data");
+                    while (input.isReady() && !input.isFinished()) {
+                        int b = input.read();
+                        if (b >= 0) {
+                            read.append((char) b);
+                        }
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    events.add("done");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    events.add("error");
+                }
+            });
+            created().doFilter(req, res);
+        };
+
+        run(filter, request("clave-5", BODY), async);
+
+        assertEquals(List.of("data", "done"), events);
+        assertEquals(BODY, read.toString());
+    }
+
+    private IdempotencyFilter filter(Duration waitTimeout, int maxBodyBytes) {
+        IdempotencyStore store = new IdempotencyStore(Duration.ofMinutes(1), 100, waitTimeout);
+        return new IdempotencyFilter(store, RESOLVER, maxBodyBytes, registry);
+    }
+
+    private FilterChain created() {
+        return (req, res) -> {
+            executions.incrementAndGet();
+            HttpServletResponse response = (HttpServletResponse) res;
+            response.setStatus(201);
+            response.setContentType("application/json");
+            response.setHeader("Location", "/api/v1/products/1");
+            response.getOutputStream().write("{\"id\": 1}".getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private static MockHttpServletRequest request(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/products");
+        request.addHeader(IdempotencyFilter.HEADER, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static MockHttpServletResponse run(IdempotencyFilter filter, MockHttpServletRequest request,
+                                               FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private double outcome(String outcome) {
+        return registry.get("products.idempotency.requests").tag("outcome", outcome).counter().count();
+    }
+}
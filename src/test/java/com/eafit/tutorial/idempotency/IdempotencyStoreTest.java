@@ -0,0 +1,80 @@
+package com.eafit.tutorial.idempotency;
+
+import com.eafit.tutorial.exception.IdempotencyKeyReusedException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyStoreTest {
+
+    private static final StoredResponse CREATED = new StoredResponse(201, "application/json", null, "{}".getBytes());
+
+    @Test
+    void duplicateWaitsForInFlightRequestAndGetsItsResponse() throws Exception {
+        IdempotencyStore store = new IdempotencyStore(Duration.ofMinutes(1), 10, Duration.ofSeconds(5));
+        IdempotencyStore.Reservation first = store.begin("k", "f");
+        assertFalse(first.isReplay());
+
+        CompletableFuture<IdempotencyStore.Reservation> duplicate =
+            CompletableFuture.supplyAsync(() -> store.begin("k", "f"));
+        Thread.sleep(50);
+        assertFalse(duplicate.isDone());
+
+        store.complete("k", first.claim(), CREATED);
+        IdempotencyStore.Reservation replay = duplicate.get(5, TimeUnit.SECONDS);
+        assertTrue(replay.isReplay());
+        assertArrayEquals(CREATED.body(), replay.replay().body());
+    }
+
+    @Test
+    void inFlightClaimNeverExpiresWhateverTheClockReads() {
+        IdempotencyStore store = new IdempotencyStore(Duration.ofMinutes(1), 10, Duration.ofSeconds(5));
+        IdempotencyStore.Claim claim = store.begin("k", "f").claim();
+
+        // System.nanoTime() puede ser negativo: la resta no debe desbordar
+        for (long now : new long[] {Long.MIN_VALUE, -1, 0, Long.MAX_VALUE}) {
+            assertFalse(claim.expired(now), "Reserva en curso caducada con now = " + now);
+        }
+    }
+
+    @Test
+    void serverErrorsAreNotStored() {
+        IdempotencyStore store = new IdempotencyStore(Duration.ofMinutes(1), 10, Duration.ofSeconds(5));
+        IdempotencyStore.Reservation first = store.begin("k", "f");
+        store.complete("k", first.claim(), new StoredResponse(500, null, null, new byte[0]));
+
+        assertFalse(store.begin("k", "f").isReplay());
+    }
+
+    @Test
+    void reusingKeyWithAnotherRequestIsRejected() {
+        IdempotencyStore store = new IdempotencyStore(Duration.ofMinutes(1), 10, Duration.ofSeconds(5));
+        store.complete("k", store.begin("k", "f").claim(), CREATED);
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> store.begin("k", "otra"));
+    }
+
+    @Test
+    void oldestResponsesAreEvictedAboveMaxEntriesAndAfterTtl() throws Exception {
+        IdempotencyStore store = new IdempotencyStore(Duration.ofMinutes(1), 2, Duration.ofSeconds(5));
+        for (String key : new String[] {"a", "b", "c"}) {
+            store.complete(key, store.begin(key, "f").claim(), CREATED);
+        }
+        assertEquals(2, store.size());
+        assertFalse(store.begin("a", "f").isReplay());
+        assertTrue(store.begin("c", "f").isReplay());
+
+        IdempotencyStore shortLived = new IdempotencyStore(Duration.ofMillis(20), 10, Duration.ofSeconds(5));
+        shortLived.complete("k", shortLived.begin("k", "f").claim(), CREATED);
+        Thread.sleep(40);
+        assertFalse(shortLived.begin("k", "f").isReplay());
+    }
+}
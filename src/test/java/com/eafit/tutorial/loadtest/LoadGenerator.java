@@ -0,0 +1,248 @@
+package com.eafit.tutorial.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga para la API de productos
+ *
+ * Se ejecuta contra una instancia ya arrancada:
+ *
+ *   mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--rps 200 --duration 60s"
+ *   mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--concurrency 32 --mix get=80,patch-stock=20"
+ *
+ * Siembra un catálogo propio, genera la mezcla de operaciones indicada y
+ * escribe el resultado en JSON (target/loadtest por defecto) para comparar
+ * ejecuciones. Con ritmo objetivo cada petición tiene un instante previsto de
+ * envío y la latencia se mide desde él, de modo que las esperas provocadas por
+ * un servidor lento cuentan (corrección de omisión coordinada).
+ */
+public final class LoadGenerator {
+
+    private final LoadTestOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final Workload workload;
+    private final LoadReport report = new LoadReport();
+    private final ExecutorService clientExecutor = Executors.newFixedThreadPool(
+        Math.max(4, Runtime.getRuntime().availableProcessors()), daemon("loadtest-http"));
+    private final HttpClient client;
+
+    LoadGenerator(LoadTestOptions options) {
+        this.options = options;
+        this.workload = new Workload(options.baseUri, objectMapper);
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(clientExecutor)
+            .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        new LoadGenerator(options).run();
+    }
+
+    void run() throws Exception {
+        seed();
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        long warmupEnd = System.nanoTime() + options.warmup.toNanos();
+        long end = warmupEnd + options.duration.toNanos();
+
+        System.out.printf("Carga %s contra %s: %s, calentamiento %ss, medición %ss%n",
+            options.closedLoop() ? "de lazo cerrado" : "de lazo abierto", options.baseUri,
+            describeRate(), options.warmup.toSeconds(), options.duration.toSeconds());
+
+        if (options.closedLoop()) {
+            runClosedLoop(warmupEnd, end);
+        } else {
+            runOpenLoop(warmupEnd, end);
+        }
+        clientExecutor.shutdown();
+
+        writeResult(startedAt);
+    }
+
+    /**
+     * Lazo abierto: las peticiones salen a ritmo fijo sin esperar respuestas,
+     * limitadas a max-in-flight concurrentes
+     */
+    private void runOpenLoop(long warmupEnd, long end) throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.rps);
+        Semaphore inFlight = new Semaphore(options.maxInFlight);
+        long start = System.nanoTime();
+
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            sleepUntil(intended);
+            // Si el servidor no da abasto la espera aquí se suma a la latencia medida
+            inFlight.acquire();
+
+            Operation.Planned planned = options.mix.next().plan(workload);
+            Operation operation = planned.operation();
+            client.sendAsync(planned.request(), HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    long latency = System.nanoTime() - intended;
+                    try {
+                        complete(operation, intended >= warmupEnd, latency, response, error);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+        }
+        inFlight.acquire(options.maxInFlight);
+    }
+
+    /**
+     * Lazo cerrado: N hilos, cada uno con una petición en vuelo. Con --rps cada
+     * hilo lleva su propio calendario de envíos a rps/N
+     */
+    private void runClosedLoop(long warmupEnd, long end) throws InterruptedException {
+        int threads = options.concurrency;
+        long intervalNanos = options.paced()
+            ? (long) (TimeUnit.SECONDS.toNanos(1) * threads / options.rps) : 0;
+        CountDownLatch done = new CountDownLatch(threads);
+        long start = System.nanoTime();
+
+        for (int t = 0; t < threads; t++) {
+            long offset = intervalNanos * t / threads;
+            Thread worker = new Thread(() -> {
+                try {
+                    for (long i = 0; ; i++) {
+                        long intended = intervalNanos > 0 ? start + offset + i * intervalNanos : System.nanoTime();
+                        if (intended >= end) {
+                            break;
+                        }
+                        sleepUntil(intended);
+                        Operation.Planned planned = options.mix.next().plan(workload);
+                        Operation operation = planned.operation();
+                        try {
+                            HttpResponse<String> response =
+                                client.send(planned.request(), HttpResponse.BodyHandlers.ofString());
+                            complete(operation, intended >= warmupEnd, System.nanoTime() - intended, response, null);
+                        } catch (IOException e) {
+                            complete(operation, intended >= warmupEnd, System.nanoTime() - intended, null, e);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "loadtest-worker-" + t);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        done.await();
+    }
+
+    private void complete(Operation operation, boolean measured, long latencyNanos,
+                          HttpResponse<String> response, Throwable error) {
+        if (response != null) {
+            operation.onResponse(workload, response.statusCode(), response.body());
+        }
+        if (!measured) {
+            return;
+        }
+        if (error != null || response == null) {
+            report.recordFailure(operation, latencyNanos);
+        } else {
+            report.record(operation, latencyNanos, response.statusCode());
+        }
+    }
+
+    /**
+     * Crea el catálogo base sobre el que trabajan lecturas, PUT y PATCH
+     */
+    private void seed() throws IOException, InterruptedException {
+        List<Long> ids = new ArrayList<>(options.seedProducts);
+        for (int i = 0; i < options.seedProducts; i++) {
+            HttpResponse<String> response = client.send(
+                workload.post("", workload.newProductJson()), HttpResponse.BodyHandlers.ofString());
+            Long id = response.statusCode() == 201 ? workload.extractId(response.body()) : null;
+            if (id == null) {
+                throw new IllegalStateException("No se pudo sembrar el catálogo (HTTP "
+                    + response.statusCode() + "): " + response.body());
+            }
+            ids.add(id);
+        }
+        workload.setSeededIds(ids);
+        System.out.printf("Catálogo sembrado: %d productos%n", ids.size());
+    }
+
+    private void writeResult(LocalDateTime startedAt) throws IOException {
+        double elapsedSeconds = options.duration.toNanos() / 1e9;
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("baseUrl", options.baseUri.toString());
+        config.put("mode", options.closedLoop() ? "closed-loop" : "open-loop");
+        config.put("targetRps", options.rps);
+        config.put("concurrency", options.concurrency);
+        config.put("durationSeconds", options.duration.toSeconds());
+        config.put("warmupSeconds", options.warmup.toSeconds());
+        config.put("seedProducts", options.seedProducts);
+        config.put("coordinatedOmissionCorrected", options.paced());
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        options.mix.weights().forEach((operation, weight) -> mix.put(operation.key(), weight));
+        config.put("mix", mix);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("startedAt", startedAt.toString());
+        result.put("config", config);
+        result.putAll(report.toMap(elapsedSeconds));
+
+        Files.createDirectories(options.output.toAbsolutePath().getParent());
+        objectMapper.writeValue(options.output.toFile(), result);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> total = (Map<String, Object>) result.get("total");
+        System.out.printf("%d peticiones medidas, resumen total: %s%n", report.totalRequests(), total.get("latencyMs"));
+        System.out.println("Resultado: " + options.output.toAbsolutePath());
+    }
+
+    private String describeRate() {
+        if (options.closedLoop()) {
+            return options.concurrency + " hilos" + (options.paced() ? " a " + options.rps + " rps" : " sin ritmo");
+        }
+        return options.rps + " rps";
+    }
+
+    private static void sleepUntil(long deadline) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,105 @@
+package com.eafit.tutorial.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramas de latencia (HdrHistogram) y conteos por operación
+ *
+ * Las latencias se guardan en microsegundos hasta un máximo de 60 s con tres
+ * dígitos significativos.
+ */
+final class LoadReport {
+
+    private static final long HIGHEST_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+    private final Stats total = new Stats();
+
+    LoadReport() {
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+    }
+
+    void record(Operation operation, long latencyNanos, int status) {
+        long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(latencyNanos), 1), HIGHEST_MICROS);
+        stats.get(operation).record(micros, status);
+        total.record(micros, status);
+    }
+
+    void recordFailure(Operation operation, long latencyNanos) {
+        record(operation, latencyNanos, 0);
+    }
+
+    long totalRequests() {
+        return total.histogram.getTotalCount();
+    }
+
+    Map<String, Object> toMap(double elapsedSeconds) {
+        Map<String, Object> operations = new LinkedHashMap<>();
+        stats.forEach((operation, s) -> {
+            if (s.histogram.getTotalCount() > 0) {
+                operations.put(operation.key(), s.toMap(elapsedSeconds));
+            }
+        });
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("total", total.toMap(elapsedSeconds));
+        result.put("operations", operations);
+        return result;
+    }
+
+    private static final class Stats {
+
+        private final Histogram histogram = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+        private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+        private final LongAdder errors = new LongAdder();
+
+        void record(long micros, int status) {
+            histogram.recordValue(micros);
+            statusCodes.computeIfAbsent(status, s -> new LongAdder()).increment();
+            // 0 = fallo de transporte (timeout, conexión rechazada)
+            if (status == 0 || status >= 500) {
+                errors.increment();
+            }
+        }
+
+        Map<String, Object> toMap(double elapsedSeconds) {
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("min", millis(histogram.getMinValue()));
+            latency.put("mean", millis(histogram.getMean()));
+            latency.put("p50", millis(histogram.getValueAtPercentile(50)));
+            latency.put("p90", millis(histogram.getValueAtPercentile(90)));
+            latency.put("p99", millis(histogram.getValueAtPercentile(99)));
+            latency.put("p99.9", millis(histogram.getValueAtPercentile(99.9)));
+            latency.put("max", millis(histogram.getMaxValue()));
+
+            Map<String, Long> codes = new TreeMap<>();
+            statusCodes.forEach((code, count) -> codes.put(code == 0 ? "error" : code.toString(), count.sum()));
+
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("requests", histogram.getTotalCount());
+            map.put("errors", errors.sum());
+            map.put("throughputRps", round(histogram.getTotalCount() / elapsedSeconds));
+            map.put("latencyMs", latency);
+            map.put("statusCodes", codes);
+            return map;
+        }
+
+        private static double millis(double micros) {
+            return round(micros / 1000.0);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 1000.0) / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.eafit.tutorial.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Opciones de la prueba de carga, leídas de la línea de comandos
+ *
+ * Formato --clave valor o --clave=valor. Con --concurrency la prueba es de lazo
+ * cerrado (N hilos, ritmo opcional con --rps); sin ella es de lazo abierto a
+ * --rps peticiones por segundo.
+ */
+final class LoadTestOptions {
+
+    final URI baseUri;
+    final double rps;
+    final int concurrency;
+    final Duration duration;
+    final Duration warmup;
+    final WorkloadMix mix;
+    final int seedProducts;
+    final int maxInFlight;
+    final Path output;
+
+    private LoadTestOptions(Map<String, String> values) {
+        this.baseUri = URI.create(stripSlash(values.getOrDefault("base-url", "http://localhost:8080")));
+        this.concurrency = Integer.parseInt(values.getOrDefault("concurrency", "0"));
+        this.rps = Double.parseDouble(values.getOrDefault("rps", concurrency > 0 ? "0" : "50"));
+        this.duration = parseDuration(values.getOrDefault("duration", "30s"));
+        this.warmup = parseDuration(values.getOrDefault("warmup", "5s"));
+        this.mix = WorkloadMix.parse(values.getOrDefault("mix", WorkloadMix.DEFAULT));
+        this.seedProducts = Integer.parseInt(values.getOrDefault("seed", "100"));
+        this.maxInFlight = Integer.parseInt(values.getOrDefault("max-in-flight", "512"));
+        this.output = Path.of(values.getOrDefault("output", "target/loadtest/result-"
+            + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json"));
+
+        if (concurrency <= 0 && rps <= 0) {
+            throw new IllegalArgumentException("Se requiere --rps o --concurrency mayor a 0");
+        }
+        if (seedProducts < 1) {
+            throw new IllegalArgumentException("--seed debe ser al menos 1");
+        }
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Argumento no reconocido: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                values.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else if (i + 1 < args.length) {
+                values.put(arg.substring(2), args[++i]);
+            } else {
+                throw new IllegalArgumentException("Falta el valor de " + arg);
+            }
+        }
+        return new LoadTestOptions(values);
+    }
+
+    boolean closedLoop() {
+        return concurrency > 0;
+    }
+
+    /**
+     * Con ritmo objetivo la latencia se mide desde el instante previsto de envío
+     * (corrección de omisión coordinada); sin él solo se mide el tiempo de servicio
+     */
+    boolean paced() {
+        return rps > 0;
+    }
+
+    static Duration parseDuration(String value) {
+        String v = value.trim().toLowerCase();
+        if (v.endsWith("ms")) return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        if (v.endsWith("s")) return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)));
+        if (v.endsWith("m")) return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1)));
+        return Duration.ofSeconds(Long.parseLong(v));
+    }
+
+    private static String stripSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,119 @@
+package com.eafit.tutorial.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Operaciones que puede generar la prueba de carga contra /api/v1/products
+ */
+enum Operation {
+
+    GET("get") {
+        @Override
+        HttpRequest request(Workload workload) {
+            return workload.get("/" + workload.randomId());
+        }
+    },
+    LIST("list") {
+        @Override
+        HttpRequest request(Workload workload) {
+            return workload.get("?page=" + ThreadLocalRandom.current().nextInt(5) + "&size=20");
+        }
+    },
+    SEARCH("search") {
+        @Override
+        HttpRequest request(Workload workload) {
+            return workload.get("/search?name=" + workload.randomSearchTerm());
+        }
+    },
+    PRICE_RANGE("price-range") {
+        @Override
+        HttpRequest request(Workload workload) {
+            int min = ThreadLocalRandom.current().nextInt(10, 150);
+            return workload.get("/price-range?minPrice=" + min + "&maxPrice=" + (min + 100));
+        }
+    },
+    LOW_STOCK("low-stock") {
+        @Override
+        HttpRequest request(Workload workload) {
+            return workload.get("/low-stock?minStock=" + ThreadLocalRandom.current().nextInt(5, 50));
+        }
+    },
+    CREATE("create") {
+        @Override
+        HttpRequest request(Workload workload) {
+            return workload.post("", workload.newProductJson());
+        }
+
+        @Override
+        void onResponse(Workload workload, int status, String body) {
+            if (status == 201) {
+                workload.registerCreated(body);
+            }
+        }
+    },
+    UPDATE("update") {
+        @Override
+        HttpRequest request(Workload workload) {
+            long id = workload.randomId();
+            return workload.put("/" + id, workload.updateJson(id));
+        }
+    },
+    PATCH_STOCK("patch-stock") {
+        @Override
+        HttpRequest request(Workload workload) {
+            return workload.patch("/" + workload.randomId() + "/stock?stock="
+                + ThreadLocalRandom.current().nextInt(0, 500));
+        }
+    },
+    DELETE("delete") {
+        @Override
+        Planned plan(Workload workload) {
+            // Solo se borran productos creados durante la prueba, para no vaciar el catálogo base;
+            // sin ninguno se crea uno, y se mide como create
+            Long id = workload.takeCreated();
+            return id != null ? new Planned(this, workload.delete("/" + id)) : CREATE.plan(workload);
+        }
+
+        @Override
+        HttpRequest request(Workload workload) {
+            return plan(workload).request();
+        }
+    };
+
+    /**
+     * Petición que se va a enviar y operación bajo la que se mide
+     */
+    record Planned(Operation operation, HttpRequest request) {}
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    String key() {
+        return key;
+    }
+
+    abstract HttpRequest request(Workload workload);
+
+    /**
+     * Prepara la petición; puede resolverse a otra operación (DELETE sin productos creados)
+     */
+    Planned plan(Workload workload) {
+        return new Planned(this, request(workload));
+    }
+
+    void onResponse(Workload workload, int status, String body) {
+    }
+
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equalsIgnoreCase(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Operación desconocida: " + key);
+    }
+}
@@ -0,0 +1,117 @@
+package com.eafit.tutorial.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estado compartido de la carga: catálogo sembrado, productos creados y
+ * construcción de peticiones
+ */
+final class Workload {
+
+    private static final String[] CATEGORIES = {"Hogar", "Deportes", "Libros", "Salud"};
+    private static final String[] WORDS = {"Lampara", "Balon", "Novela", "Cojin", "Raqueta", "Manual", "Termo", "Tapete"};
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String productsUrl;
+    private final ObjectMapper objectMapper;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong nameSequence = new AtomicLong();
+    private final ConcurrentLinkedDeque<Long> createdIds = new ConcurrentLinkedDeque<>();
+    private volatile long[] seededIds = new long[0];
+
+    Workload(URI baseUri, ObjectMapper objectMapper) {
+        this.productsUrl = baseUri + "/api/v1/products";
+        this.objectMapper = objectMapper;
+    }
+
+    void setSeededIds(List<Long> ids) {
+        this.seededIds = ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    long randomId() {
+        long[] ids = seededIds;
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    String randomSearchTerm() {
+        return WORDS[ThreadLocalRandom.current().nextInt(WORDS.length)];
+    }
+
+    String newProductJson() {
+        long n = nameSequence.incrementAndGet();
+        return productJson(WORDS[(int) (n % WORDS.length)] + " carga " + runId + "-" + n);
+    }
+
+    String updateJson(long id) {
+        return productJson(WORDS[(int) (id % WORDS.length)] + " carga " + runId + "-u" + id);
+    }
+
+    private String productJson(String name) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+        return "{\"name\":\"" + name + "\",\"description\":\"Producto generado para carga\","
+            + "\"price\":" + random.nextInt(15, 190) + "." + random.nextInt(10, 100) + ","
+            + "\"category\":\"" + category + "\",\"stock\":" + random.nextInt(1, 100) + "}";
+    }
+
+    /**
+     * Guarda el id de un producto recién creado para que DELETE lo pueda consumir
+     */
+    void registerCreated(String body) {
+        Long id = extractId(body);
+        if (id != null) {
+            createdIds.add(id);
+        }
+    }
+
+    Long takeCreated() {
+        return createdIds.pollFirst();
+    }
+
+    Long extractId(String body) {
+        try {
+            JsonNode id = objectMapper.readTree(body).path("data").path("id");
+            return id.isNumber() ? id.asLong() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    HttpRequest get(String path) {
+        return builder(path).GET().build();
+    }
+
+    HttpRequest post(String path, String json) {
+        return builder(path).header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    HttpRequest put(String path, String json) {
+        return builder(path).header("Content-Type", "application/json")
+            .PUT(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    HttpRequest patch(String path) {
+        return builder(path).method("PATCH", HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    HttpRequest delete(String path) {
+        return builder(path).DELETE().build();
+    }
+
+    private HttpRequest.Builder builder(String path) {
+        return HttpRequest.newBuilder(URI.create(productsUrl + path))
+            .timeout(TIMEOUT)
+            .header("Accept", "application/json");
+    }
+}
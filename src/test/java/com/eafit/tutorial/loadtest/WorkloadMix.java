@@ -0,0 +1,66 @@
+package com.eafit.tutorial.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Mezcla ponderada de operaciones, p. ej. "get=40,search=15,patch-stock=10"
+ */
+final class WorkloadMix {
+
+    static final String DEFAULT =
+        "get=35,list=10,search=15,price-range=10,low-stock=5,create=5,update=5,patch-stock=12,delete=3";
+
+    private final Map<Operation, Integer> weights;
+    private final Operation[] operations;
+    private final int[] cumulative;
+    private final int total;
+
+    private WorkloadMix(Map<Operation, Integer> weights) {
+        this.weights = weights;
+        this.operations = weights.keySet().toArray(new Operation[0]);
+        this.cumulative = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += weights.get(operations[i]);
+            cumulative[i] = sum;
+        }
+        this.total = sum;
+    }
+
+    static WorkloadMix parse(String spec) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Entrada de mezcla inválida: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("El peso no puede ser negativo: " + entry);
+            }
+            if (weight > 0) {
+                weights.merge(Operation.fromKey(parts[0].trim()), weight, Integer::sum);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("La mezcla no tiene operaciones: " + spec);
+        }
+        return new WorkloadMix(weights);
+    }
+
+    Operation next() {
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (pick < cumulative[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    Map<Operation, Integer> weights() {
+        return weights;
+    }
+}
@@ -0,0 +1,110 @@
+package com.eafit.tutorial.monitoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletOutputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServerTimingFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ServerTimingFilter filter = new ServerTimingFilter(registry);
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/products");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void bodyGoesStraightToTheResponseWithTheHeaderBeforeIt() throws Exception {
+        byte[] chunk = new byte[8192];
+        int[] writtenDuringChain = new int[1];
+
+        FilterChain chain = (req, res) -> {
+            RequestTiming.enter(RequestPhase.CONTROLLER);
+            sleep(5);
+            RequestTiming.exit(RequestPhase.CONTROLLER);
+            ServletOutputStream out = res.getOutputStream();
+            for (int i = 0; i < 8; i++) {
+                out.write(chunk);
+            }
+            out.flush();
+            // Sin búfer intermedio el cuerpo ya está en la respuesta real
+            writtenDuringChain[0] = response.getContentAsByteArray().length;
+        };
+        filter.doFilter(request, response, chain);
+
+        assertEquals(8 * chunk.length, writtenDuringChain[0]);
+        Map<String, Double> phases = parse(response.getHeader(ServerTimingFilter.HEADER));
+        assertTrue(phases.get("ctrl") >= 5.0, () -> "ctrl: " + phases);
+        assertTrue(phases.get("total") >= phases.get("ctrl"), () -> "total < ctrl: " + phases);
+        assertTrue(phases.get("total") >= phases.get("bind") + phases.get("ctrl"), () -> phases.toString());
+        assertNotNull(phases.get("ser"));
+    }
+
+    @Test
+    void headerIsAddedToResponsesWithoutBody() throws Exception {
+        filter.doFilter(request, response, (req, res) -> {
+            RequestTiming.enter(RequestPhase.CONTROLLER);
+            RequestTiming.exit(RequestPhase.CONTROLLER);
+            response.setStatus(204);
+        });
+
+        Map<String, Double> phases = parse(response.getHeader(ServerTimingFilter.HEADER));
+        assertTrue(phases.containsKey("total"));
+        assertTrue(phases.containsKey("ctrl"));
+    }
+
+    @Test
+    void bodyWrittenThroughTheWriterWithoutFlushIsNotLost() throws Exception {
+        filter.doFilter(request, response, (req, res) -> {
+            res.setCharacterEncoding("UTF-8");
+            res.getWriter().write("{\"ok\":\"sí\"}");
+        });
+
+        assertEquals("{\"ok\":\"sí\"}", response.getContentAsString(StandardCharsets.UTF_8));
+        assertNotNull(response.getHeader(ServerTimingFilter.HEADER));
+    }
+
+    @Test
+    void timerGetsTheFullDurationsAfterTheRequest() throws Exception {
+        filter.doFilter(request, response, (req, res) -> {
+            RequestTiming.enter(RequestPhase.CONTROLLER);
+            RequestTiming.exit(RequestPhase.CONTROLLER);
+            res.getOutputStream().write('x');
+            res.flushBuffer();
+            sleep(20);
+        });
+
+        double headerTotal = parse(response.getHeader(ServerTimingFilter.HEADER)).get("total");
+        double timerTotal = registry.get("products.request.phase").tag("phase", "total").timer()
+            .totalTime(TimeUnit.MILLISECONDS);
+        assertTrue(timerTotal >= headerTotal + 20, () -> "timer " + timerTotal + " cabecera " + headerTotal);
+    }
+
+    private static Map<String, Double> parse(String header) {
+        assertNotNull(header, "Falta la cabecera Server-Timing");
+        Map<String, Double> phases = new HashMap<>();
+        for (String entry : header.split(", ")) {
+            String[] parts = entry.split(";dur=");
+            phases.put(parts[0], Double.parseDouble(parts[1]));
+        }
+        return phases;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
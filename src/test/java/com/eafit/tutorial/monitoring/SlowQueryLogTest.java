@@ -0,0 +1,93 @@
+package com.eafit.tutorial.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlowQueryLogTest {
+
+    private final DataSource ordersDb = h2("slowquery-orders");
+    private final DataSource customersDb = h2("slowquery-customers");
+    private SlowQueryLog log;
+
+    SlowQueryLogTest() {
+        new JdbcTemplate(ordersDb).execute("CREATE TABLE IF NOT EXISTS orders (id BIGINT PRIMARY KEY, total INT)");
+        new JdbcTemplate(customersDb).execute("CREATE TABLE IF NOT EXISTS customers (id BIGINT PRIMARY KEY, name VARCHAR(50))");
+    }
+
+    @AfterEach
+    void shutdown() {
+        if (log != null) {
+            log.destroy();
+        }
+    }
+
+    @Test
+    void queriesUnderTheThresholdAreNotRecorded() {
+        log = new SlowQueryLog(60_000, 10, true);
+        JdbcTemplate orders = new JdbcTemplate(new SlowQueryDataSource(ordersDb, log));
+
+        orders.queryForList("SELECT * FROM orders WHERE id = ?", 1L);
+
+        assertEquals(List.of(), log.snapshot());
+    }
+
+    @Test
+    void slowQueryIsRecordedWithRowsAndRedactedParameters() throws Exception {
+        log = new SlowQueryLog(0, 10, true);
+        JdbcTemplate orders = new JdbcTemplate(new SlowQueryDataSource(ordersDb, log));
+        orders.update("MERGE INTO orders KEY (id) VALUES (?, ?)", 1L, 10);
+        orders.update("MERGE INTO orders KEY (id) VALUES (?, ?)", 2L, 20);
+        log.clear();
+
+        orders.queryForList("SELECT * FROM orders WHERE total > ?", 5);
+
+        SlowQuery query = log.snapshot().get(0);
+        assertEquals("SELECT * FROM orders WHERE total > ?", query.getSql());
+        assertEquals(List.of("?"), query.getParameters());
+        assertEquals(2, query.getRows());
+        assertTrue(awaitPlan(query).toUpperCase().contains("ORDERS"), query::getPlan);
+    }
+
+    @Test
+    void planRunsOnTheDataSourceThatExecutedTheQuery() throws Exception {
+        log = new SlowQueryLog(0, 10, false);
+        JdbcTemplate orders = new JdbcTemplate(new SlowQueryDataSource(ordersDb, log));
+        // Se envuelve después: antes era el destino de EXPLAIN de todas las consultas
+        JdbcTemplate customers = new JdbcTemplate(new SlowQueryDataSource(customersDb, log));
+
+        orders.queryForList("SELECT * FROM orders WHERE id = ?", 7L);
+        customers.queryForList("SELECT * FROM customers WHERE id = ?", 8L);
+
+        List<SlowQuery> queries = log.snapshot();
+        SlowQuery customerQuery = queries.get(0);
+        SlowQuery orderQuery = queries.get(1);
+        assertEquals(List.of("7"), orderQuery.getParameters());
+        assertTrue(awaitPlan(orderQuery).toUpperCase().contains("ORDERS"), orderQuery::getPlan);
+        assertTrue(awaitPlan(customerQuery).toUpperCase().contains("CUSTOMERS"), customerQuery::getPlan);
+    }
+
+    private static String awaitPlan(SlowQuery query) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (query.getPlan() == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(query.getPlan(), "No se capturó el plan de " + query.getSql());
+        assertFalse(query.getPlan().startsWith("EXPLAIN no disponible"), query::getPlan);
+        return query.getPlan();
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
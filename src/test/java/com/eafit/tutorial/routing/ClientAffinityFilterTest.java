@@ -0,0 +1,72 @@
+package com.eafit.tutorial.routing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+class ClientAffinityFilterTest {
+
+    private final ClientAffinityFilter filter = new ClientAffinityFilter(
+        new ReadYourWritesTracker(Duration.ofSeconds(5)), mock(ReplicaLagMonitor.class), "X-Client-Id");
+
+    @Test
+    void clientHeaderWinsOverEverythingElse() {
+        MockHttpServletRequest request = request();
+        request.addHeader("X-Client-Id", " movil-42 ");
+        request.getSession(true);
+        request.addHeader(ClientAffinityFilter.FORWARDED_FOR, "203.0.113.7");
+
+        assertEquals("client:movil-42", filter.clientKey(request));
+    }
+
+    @Test
+    void existingSessionWinsOverAddresses() {
+        MockHttpServletRequest request = request();
+        String sessionId = request.getSession(true).getId();
+        request.addHeader(ClientAffinityFilter.FORWARDED_FOR, "203.0.113.7");
+
+        assertEquals("session:" + sessionId, filter.clientKey(request));
+    }
+
+    @Test
+    void firstForwardedAddressWinsOverTheBalancer() {
+        MockHttpServletRequest request = request();
+        request.addHeader(ClientAffinityFilter.FORWARDED_FOR, " 203.0.113.7 , 10.0.0.2");
+
+        assertEquals("addr:203.0.113.7", filter.clientKey(request));
+        assertNull(request.getSession(false));
+    }
+
+    @Test
+    void remoteAddressIsTheLastResort() {
+        MockHttpServletRequest request = request();
+        request.addHeader("X-Client-Id", " ");
+
+        assertEquals("addr:10.0.0.1", filter.clientKey(request));
+    }
+
+    @Test
+    void clientIsBoundOnlyDuringTheRequest() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader("X-Client-Id", "web-7");
+        String[] seen = new String[1];
+
+        filter.doFilter(request, new MockHttpServletResponse(),
+            (req, res) -> seen[0] = ReadRoutingContext.currentClientKey());
+
+        assertEquals("client:web-7", seen[0]);
+        assertNull(ReadRoutingContext.currentClientKey());
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/products");
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+}
@@ -0,0 +1,146 @@
+package com.eafit.tutorial.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Enrutado de lecturas con dos H2 unidas por ReplicationStandIn: la réplica
+ * solo ve lo replicado, las lecturas van al primario mientras la réplica va
+ * retrasada y un cliente que acaba de escribir lee del primario hasta que la
+ * réplica alcanza su escritura.
+ */
+class ReadReplicaRoutingTest {
+
+    private final DataSource primary = h2("routing-primary");
+    private final DataSource replica = h2("routing-replica");
+    private final ReplicationStandIn standIn = new ReplicationStandIn(primary, replica, Duration.ofHours(1));
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ReplicaLagMonitor lagMonitor;
+
+    @AfterEach
+    void shutdown() {
+        ReadRoutingContext.clear();
+        if (lagMonitor != null) {
+            lagMonitor.destroy();
+        }
+        new JdbcTemplate(primary).execute("SHUTDOWN");
+        new JdbcTemplate(replica).execute("SHUTDOWN");
+    }
+
+    @Test
+    void standInCopiesSchemaAndCommittedChanges() throws Exception {
+        JdbcTemplate source = new JdbcTemplate(primary);
+        JdbcTemplate target = new JdbcTemplate(replica);
+        source.execute("CREATE TABLE items (id BIGINT PRIMARY KEY, name VARCHAR(50) NOT NULL)");
+        source.update("INSERT INTO items VALUES (1, 'uno'), (2, 'dos')");
+
+        standIn.replicate();
+        assertEquals(2, target.queryForObject("SELECT COUNT(*) FROM items", Integer.class));
+
+        source.update("UPDATE items SET name = 'UNO' WHERE id = 1");
+        source.update("DELETE FROM items WHERE id = 2");
+        assertEquals("uno", target.queryForObject("SELECT name FROM items WHERE id = 1", String.class));
+
+        standIn.replicate();
+        assertEquals("UNO", target.queryForObject("SELECT name FROM items WHERE id = 1", String.class));
+        assertEquals(1, target.queryForObject("SELECT COUNT(*) FROM items", Integer.class));
+    }
+
+    @Test
+    void readsFollowReplicaFreshnessAndTheClientsOwnWrites() throws Exception {
+        new JdbcTemplate(primary).execute("CREATE TABLE items (id BIGINT PRIMARY KEY)");
+        new JdbcTemplate(primary).update("INSERT INTO items VALUES (1)");
+
+        lagMonitor = new ReplicaLagMonitor(primary, replica, Duration.ofSeconds(2), Duration.ofMillis(20));
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofSeconds(30));
+        DataSource routing = new LazyConnectionDataSourceProxy(
+            new ReplicaRoutingDataSource(primary, replica, lagMonitor, tracker, registry));
+        JdbcTemplate jdbc = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        TransactionTemplate writes = new TransactionTemplate(transactionManager);
+        TransactionTemplate reads = new TransactionTemplate(transactionManager);
+        reads.setReadOnly(true);
+
+        // Sin latido en la réplica se lee del primario
+        assertEquals(1, count(reads, jdbc));
+        assertEquals(1.0, routed("primary", "replica-lag"));
+
+        standIn.replicate();
+        waitUntil(lagMonitor::isReplicaFresh);
+        new JdbcTemplate(primary).update("INSERT INTO items VALUES (2)");
+        // La réplica aún no tiene la fila 2
+        assertEquals(1, count(reads, jdbc));
+        assertEquals(1.0, routed("replica", "read-only"));
+
+        bind(tracker, "client-a");
+        // El proxy ya pidió alguna conexión propia fuera de transacción: se mira el incremento
+        double readWrite = routed("primary", "read-write");
+        writes.executeWithoutResult(status -> jdbc.update("INSERT INTO items VALUES (3)"));
+        assertEquals(readWrite + 1, routed("primary", "read-write"));
+        assertEquals(3, count(reads, jdbc));
+        assertEquals(1.0, routed("primary", "read-your-writes"));
+
+        // Otro cliente sigue leyendo de la réplica
+        bind(tracker, "client-b");
+        assertEquals(1, count(reads, jdbc));
+        assertEquals(2.0, routed("replica", "read-only"));
+
+        // Cuando la réplica alcanza la escritura, el cliente vuelve a ella
+        bind(tracker, "client-a");
+        waitUntil(() -> {
+            replicateQuietly();
+            return !ReadRoutingContext.isPinnedToPrimary();
+        });
+        assertEquals(3, count(reads, jdbc));
+        assertEquals(3.0, routed("replica", "read-only"));
+    }
+
+    private void bind(ReadYourWritesTracker tracker, String clientKey) {
+        ReadRoutingContext.bind(clientKey, () -> tracker.isPinned(clientKey, lagMonitor.replicaBeatMillis()));
+    }
+
+    private static int count(TransactionTemplate reads, JdbcTemplate jdbc) {
+        return reads.execute(status -> jdbc.queryForObject("SELECT COUNT(*) FROM items", Integer.class));
+    }
+
+    private double routed(String target, String reason) {
+        return registry.get("products.datasource.routing").tag("target", target).tag("reason", reason)
+            .counter().count();
+    }
+
+    private void replicateQuietly() {
+        try {
+            standIn.replicate();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "La condición no se cumplió a tiempo");
+            Thread.sleep(10);
+        }
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource(
+            "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
@@ -0,0 +1,122 @@
+package com.eafit.tutorial.routing;
+
+import com.eafit.tutorial.Artifact.products_api.ArtifactProductsApiApplication;
+import com.eafit.tutorial.model.Product;
+import com.eafit.tutorial.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Enrutado a través de JPA y ProductService con el perfil replica: en una
+ * misma petición, una lectura que va a la réplica no arrastra su conexión a
+ * la escritura que viene detrás, que llega al primario.
+ */
+@SpringBootTest(classes = ArtifactProductsApiApplication.class,
+                properties = {"spring.jpa.show-sql=false", "logging.level.com.eafit.tutorial=WARN",
+                              "spring.datasource.url=" + ReplicaJpaRoutingTest.PRIMARY_URL,
+                              "products.routing.replica.url=" + ReplicaJpaRoutingTest.REPLICA_URL,
+                              // La réplica solo avanza cuando el test replica
+                              "products.routing.replication.interval=PT1H",
+                              "products.routing.heartbeat-interval=PT0.05S"})
+@ActiveProfiles("replica")
+@Import(ReplicaJpaRoutingTest.RestockEndpoint.class)
+@AutoConfigureMockMvc
+class ReplicaJpaRoutingTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:jpa-routing-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:jpa-routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ReplicationStandIn standIn;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void writeAfterAReplicaReadInTheSameRequestGoesToThePrimary() throws Exception {
+        Long id = productService.createProduct(
+            new Product("Producto enrutado", null, new BigDecimal("30.00"), "Hogar", 5)).getId();
+        standIn.replicate();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!lagMonitor.isReplicaFresh()) {
+            assertTrue(System.nanoTime() < deadline, "La réplica no se puso al día");
+            Thread.sleep(10);
+        }
+        double replicaReads = routed("replica", "read-only");
+
+        mockMvc.perform(post("/test/routing/{id}/restock", id)).andExpect(status().isOk());
+
+        assertTrue(routed("replica", "read-only") > replicaReads, "La lectura no fue a la réplica");
+        assertEquals(9, stockIn(PRIMARY_URL, id));
+        assertEquals(5, stockIn(REPLICA_URL, id));
+    }
+
+    private double routed(String target, String reason) {
+        return meterRegistry.get("products.datasource.routing").tag("target", target).tag("reason", reason)
+            .counter().count();
+    }
+
+    private static int stockIn(String url, Long id) {
+        return new JdbcTemplate(new DriverManagerDataSource(url, "sa", "password"))
+            .queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, id);
+    }
+
+    @TestConfiguration
+    static class RestockEndpoint {
+
+        @Bean
+        RestockController restockController(ProductService productService) {
+            return new RestockController(productService);
+        }
+    }
+
+    /**
+     * Lectura de solo lectura seguida de una escritura en la misma petición
+     */
+    @RestController
+    static class RestockController {
+
+        private final ProductService productService;
+
+        RestockController(ProductService productService) {
+            this.productService = productService;
+        }
+
+        @PostMapping("/test/routing/{id}/restock")
+        void restock(@PathVariable Long id) {
+            Product product = productService.getProductsByIds(List.of(id)).get(0);
+            productService.updateStock(id, product.getStock() + 4);
+        }
+    }
+}
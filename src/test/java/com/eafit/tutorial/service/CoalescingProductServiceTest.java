@@ -0,0 +1,173 @@
+package com.eafit.tutorial.service;
+
+import com.eafit.tutorial.cache.InvalidationBus;
+import com.eafit.tutorial.cache.LoopbackInvalidationTransport;
+import com.eafit.tutorial.cache.ProductCache;
+import com.eafit.tutorial.model.Product;
+import com.eafit.tutorial.service.impl.CoalescingProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Lecturas concurrentes idénticas a través de CoalescingProductService: una
+ * sola consulta al servicio real, el error llega a todos y una clave terminada
+ * se vuelve a consultar.
+ */
+class CoalescingProductServiceTest {
+
+    private static final int CALLERS = 16;
+
+    private final ProductService delegate = mock(ProductService.class);
+    private final InvalidationBus bus = new InvalidationBus(new LoopbackInvalidationTransport(), "test",
+        Duration.ofHours(1), 100);
+    private final CoalescingProductService service;
+    private final ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(CALLERS);
+
+    @SuppressWarnings("unchecked")
+    CoalescingProductServiceTest() {
+        ObjectProvider<ProductCache> noCache = mock(ObjectProvider.class);
+        service = new CoalescingProductService(delegate, noCache, bus);
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+        bus.destroy();
+    }
+
+    @Test
+    void concurrentIdenticalReadsHitTheDelegateOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Product> books = List.of(product(1L));
+        when(delegate.getProductsByCategory("Libros")).thenAnswer(invocation -> {
+            loads.incrementAndGet();
+            release.await();
+            return books;
+        });
+
+        List<Future<List<Product>>> results = readConcurrently();
+        waitUntilJoined();
+        release.countDown();
+
+        for (Future<List<Product>> result : results) {
+            assertEquals(books, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void delegateErrorReachesEveryWaiter() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.getProductsByCategory("Libros")).thenAnswer(invocation -> {
+            loads.incrementAndGet();
+            release.await();
+            throw new IllegalStateException("base de datos no disponible");
+        });
+
+        List<Future<List<Product>>> results = readConcurrently();
+        waitUntilJoined();
+        release.countDown();
+
+        for (Future<List<Product>> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void completedReadIsLoadedAgain() {
+        AtomicInteger loads = new AtomicInteger();
+        when(delegate.getProductsByCategory("Libros")).thenAnswer(invocation -> {
+            loads.incrementAndGet();
+            return List.of(product(1L));
+        });
+
+        service.getProductsByCategory("Libros");
+        service.getProductsByCategory("Libros");
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void readStartedAfterAWriteDoesNotJoinTheEarlierRead() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.getProductsByCategory("Libros")).thenAnswer(invocation -> {
+            if (loads.incrementAndGet() == 1) {
+                release.await();
+                return List.of();
+            }
+            return List.of(product(1L));
+        });
+
+        Future<List<Product>> before = executor.submit(() -> service.getProductsByCategory("Libros"));
+        waitUntil(() -> loads.get() == 1);
+
+        // Sin transacción activa la invalidación es inmediata
+        service.deleteProduct(7L);
+        assertEquals(List.of(product(1L)), service.getProductsByCategory("Libros"));
+        release.countDown();
+        assertEquals(List.of(), before.get(5, TimeUnit.SECONDS));
+        assertEquals(2, loads.get());
+    }
+
+    private List<Future<List<Product>>> readConcurrently() {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Product>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return service.getProductsByCategory("Libros");
+            }));
+        }
+        start.countDown();
+        return results;
+    }
+
+    /**
+     * Espera a que todos los hilos estén dentro de la lectura agrupada
+     */
+    private void waitUntilJoined() throws InterruptedException {
+        waitUntil(() -> executor.getActiveCount() == CALLERS);
+        // Margen para que los que esperan se unan a la consulta en curso
+        Thread.sleep(100);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "La condición no se cumplió a tiempo");
+            Thread.sleep(5);
+        }
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product("Libro " + id, null, new BigDecimal("10.00"), "Libros", 5);
+        product.setId(id);
+        return product;
+    }
+}
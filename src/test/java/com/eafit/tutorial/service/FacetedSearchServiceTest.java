@@ -0,0 +1,81 @@
+package com.eafit.tutorial.service;
+
+import com.eafit.tutorial.Artifact.products_api.ArtifactProductsApiApplication;
+import com.eafit.tutorial.dto.FacetedSearchDTO;
+import com.eafit.tutorial.dto.ProductDTO;
+import com.eafit.tutorial.model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Búsqueda con facetas cuando el índice va por detrás de la base de datos:
+ * la página se rellena y los recuentos no cuentan productos desactivados.
+ */
+@SpringBootTest(classes = ArtifactProductsApiApplication.class,
+                properties = {"spring.jpa.show-sql=false", "logging.level.com.eafit.tutorial=WARN"})
+class FacetedSearchServiceTest {
+
+    private static final String CATEGORY = "Facetas desfasadas";
+
+    @Autowired
+    private FacetedSearchService facetedSearchService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void productDeactivatedBehindTheIndexIsReplacedInThePage() throws Exception {
+        Long first = create("Producto 1");
+        create("Producto 2");
+        create("Producto 3");
+        awaitIndexed(3);
+
+        // Desactivado por fuera del servicio, sin invalidación: el índice lo sigue dando por activo
+        jdbcTemplate.update("UPDATE products SET active = false WHERE id = ?", first);
+
+        FacetedSearchDTO result = facetedSearchService.search(null, CATEGORY, null, 0, 2);
+
+        List<Long> ids = result.getResults().getContent().stream().map(ProductDTO::getId).toList();
+        assertEquals(2, ids.size());
+        assertFalse(ids.contains(first));
+        assertEquals(2, result.getResults().getPage().getTotalElements());
+        assertEquals(List.of(2L), result.getCategories().stream()
+            .filter(facet -> facet.getCategory().equals(CATEGORY))
+            .map(FacetedSearchDTO.CategoryFacet::getCount)
+            .toList());
+    }
+
+    private Long create(String name) {
+        return productService.createProduct(new Product(name, null, new BigDecimal("15.00"), CATEGORY, 5)).getId();
+    }
+
+    private void awaitIndexed(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            try {
+                if (facetedSearchService.search(null, CATEGORY, null, 0, 10).getResults().getPage().getTotalElements() == expected) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                // El índice aún se está construyendo
+            }
+            if (System.nanoTime() > deadline) {
+                fail("El índice no recogió los productos creados");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
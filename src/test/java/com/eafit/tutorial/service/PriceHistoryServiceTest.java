@@ -0,0 +1,112 @@
+package com.eafit.tutorial.service;
+
+import com.eafit.tutorial.Artifact.products_api.ArtifactProductsApiApplication;
+import com.eafit.tutorial.dto.PriceHistoryDTO;
+import com.eafit.tutorial.exception.ProductNotFoundException;
+import com.eafit.tutorial.model.PriceHistorySegment;
+import com.eafit.tutorial.model.Product;
+import com.eafit.tutorial.repository.PriceHistorySegmentRepository;
+import com.eafit.tutorial.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Historial de precios: cambios simultáneos de un producto sin historial
+ * crean una sola cadena, y un ID que no es de ningún producto da 404.
+ */
+@SpringBootTest(classes = ArtifactProductsApiApplication.class,
+                properties = {"spring.jpa.show-sql=false", "logging.level.com.eafit.tutorial=WARN",
+                              "products.price-history.segment-entries=4"})
+class PriceHistoryServiceTest {
+
+    private static final int THREADS = 12;
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @Autowired
+    private PriceHistorySegmentRepository segmentRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentFirstChangesBuildASingleChain() throws Exception {
+        // Guardado sin pasar por el servicio, como un producto importado: aún no tiene historial
+        Product product = productRepository.save(
+            new Product("Producto sin historial", null, new BigDecimal("10.00"), "Libros", 5));
+        LocalDateTime since = LocalDateTime.now().minusDays(1);
+
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            BigDecimal price = BigDecimal.valueOf(20 + t);
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    transactionTemplate.executeWithoutResult(status ->
+                        priceHistoryService.recordPrice(product.getId(), price, new BigDecimal("10.00"), since));
+                } catch (Throwable e) {
+                    unexpected.add(e);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES), "Los cambios no terminaron a tiempo");
+        assertTrue(unexpected.isEmpty(), () -> "Errores inesperados: " + unexpected);
+
+        List<PriceHistorySegment> segments = segmentRepository.findAll().stream()
+            .filter(segment -> segment.getProductId().equals(product.getId()))
+            .sorted(Comparator.comparing(PriceHistorySegment::getNumber))
+            .toList();
+        // Precio de partida más un cambio por hilo, en segmentos de 4 numerados sin huecos
+        assertEquals(IntStream.range(0, 4).boxed().toList(), segments.stream().map(PriceHistorySegment::getNumber).toList());
+        assertEquals(THREADS + 1, segments.stream().mapToInt(PriceHistorySegment::getEntryCount).sum());
+
+        PriceHistoryDTO history = priceHistoryService.getHistory(product.getId(), EARLIEST, LocalDateTime.now());
+        assertEquals(THREADS + 1, history.getPoints().size());
+        assertEquals(new BigDecimal("10.00"), history.getPoints().get(0).getPrice());
+    }
+
+    @Test
+    void unknownProductIsNotFound() {
+        assertThrows(ProductNotFoundException.class,
+            () -> priceHistoryService.getHistory(987_654_321L, EARLIEST, LocalDateTime.now()));
+    }
+
+    @Test
+    void productWithoutChangesInTheRangeHasAnEmptyHistory() {
+        Product product = productRepository.save(
+            new Product("Producto sin cambios", null, new BigDecimal("12.00"), "Libros", 5));
+
+        PriceHistoryDTO history = priceHistoryService.getHistory(product.getId(), EARLIEST, LocalDateTime.now());
+
+        assertTrue(history.getPoints().isEmpty());
+        assertNull(history.getPriceBefore());
+    }
+}
@@ -0,0 +1,119 @@
+package com.eafit.tutorial.service;
+
+import com.eafit.tutorial.Artifact.products_api.ArtifactProductsApiApplication;
+import com.eafit.tutorial.cache.InvalidationBus;
+import com.eafit.tutorial.dto.ArchiveRunResult;
+import com.eafit.tutorial.model.ArchivedProduct;
+import com.eafit.tutorial.model.Product;
+import com.eafit.tutorial.repository.ArchivedProductRepository;
+import com.eafit.tutorial.repository.ProductRepository;
+import com.eafit.tutorial.service.impl.ProductArchiveServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pasadas de archivado sobre la base de datos real: respetan el corte por
+ * updated_at, trabajan en lotes de batch-size, se cortan tras
+ * max-batches-per-run y los productos movidos salen de products.
+ */
+@SpringBootTest(classes = ArtifactProductsApiApplication.class,
+                properties = {"spring.jpa.show-sql=false", "logging.level.com.eafit.tutorial=WARN"})
+class ProductArchiveServiceTest {
+
+    // Fechas lejanas para que ningún otro producto de la base caiga antes del corte
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2000, 1, 10, 0, 0);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ArchivedProductRepository archivedProductRepository;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void archivesInactiveProductsOlderThanTheCutoffInBatches() {
+        List<Product> expired = new ArrayList<>();
+        for (int day = 1; day <= 5; day++) {
+            expired.add(saveWithUpdatedAt("Archivo caducado " + day, false, CUTOFF.minusDays(10 - day)));
+        }
+        Product stillActive = saveWithUpdatedAt("Archivo activo", true, CUTOFF.minusDays(9));
+        Product recentlyInactive = saveWithUpdatedAt("Archivo reciente", false, CUTOFF.plusDays(10));
+
+        ProductArchiveServiceImpl archive = archiveService(2, 2);
+
+        ArchiveRunResult first = archive.archiveExpired();
+        assertEquals(4, first.getArchived());
+        assertEquals(2, first.getBatches());
+        assertFalse(first.isComplete());
+        // Los más antiguos primero
+        for (Product product : expired.subList(0, 4)) {
+            assertTrue(productRepository.findById(product.getId()).isEmpty(), product.getName());
+        }
+        assertTrue(productRepository.findById(expired.get(4).getId()).isPresent());
+
+        ArchiveRunResult second = archive.archiveExpired();
+        assertEquals(1, second.getArchived());
+        assertEquals(1, second.getBatches());
+        assertTrue(second.isComplete());
+
+        for (Product product : expired) {
+            assertTrue(productRepository.findById(product.getId()).isEmpty(), product.getName());
+            ArchivedProduct archived = archivedProductRepository.findById(product.getId()).orElseThrow();
+            assertEquals(product.getName(), archived.getName());
+            assertEquals(0, product.getPrice().compareTo(archived.getPrice()));
+            assertTrue(archived.getUpdatedAt().isBefore(CUTOFF));
+        }
+        assertTrue(productRepository.findById(stillActive.getId()).isPresent());
+        assertTrue(productRepository.findById(recentlyInactive.getId()).isPresent());
+        assertTrue(archivedProductRepository.findById(stillActive.getId()).isEmpty());
+        assertTrue(archivedProductRepository.findById(recentlyInactive.getId()).isEmpty());
+
+        ArchiveRunResult nothingLeft = archive.archiveExpired();
+        assertEquals(0, nothingLeft.getArchived());
+        assertEquals(0, nothingLeft.getBatches());
+        assertTrue(nothingLeft.isComplete());
+    }
+
+    /**
+     * Servicio con una retención que deja el corte en CUTOFF y sin pausa entre lotes
+     */
+    private ProductArchiveServiceImpl archiveService(int batchSize, int maxBatchesPerRun) {
+        Duration retention = Duration.between(CUTOFF, LocalDateTime.now());
+        return new ProductArchiveServiceImpl(archivedProductRepository, invalidationBus, namedJdbcTemplate,
+            transactionTemplate, true, retention, batchSize, Duration.ZERO, maxBatchesPerRun);
+    }
+
+    private Product saveWithUpdatedAt(String name, boolean active, LocalDateTime updatedAt) {
+        Product product = productRepository.save(new Product(name, null, new BigDecimal("15.00"), "Hogar", 4));
+        // updated_at lo fija Hibernate al guardar; se retrocede directamente en la tabla
+        jdbcTemplate.update("UPDATE products SET active = ?, updated_at = ? WHERE id = ?",
+            active, Timestamp.valueOf(updatedAt), product.getId());
+        return product;
+    }
+}
@@ -0,0 +1,66 @@
+package com.eafit.tutorial.service;
+
+import com.eafit.tutorial.Artifact.products_api.ArtifactProductsApiApplication;
+import com.eafit.tutorial.dto.ImportJobDTO;
+import com.eafit.tutorial.model.Product;
+import com.eafit.tutorial.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * La importación respeta la unicidad de nombres sin distinguir mayúsculas,
+ * igual que el alta individual: contra la tabla y dentro del propio fichero.
+ */
+@SpringBootTest(classes = ArtifactProductsApiApplication.class,
+                properties = {"spring.jpa.show-sql=false", "logging.level.com.eafit.tutorial=WARN"})
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService importService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void namesDifferingOnlyInCaseAreRejected() throws Exception {
+        productRepository.save(new Product("Portatil Importado", null, new BigDecimal("900.00"), "Electronicos", 3));
+
+        String csv = "name,price,category,stock\n"
+            + "portatil importado,950.00,Electronicos,4\n"
+            + "Raton Importado,55.00,Electronicos,10\n"
+            + "RATON IMPORTADO,56.00,Electronicos,11\n"
+            + "Teclado Importado,60.00,Electronicos,7\n";
+        MockMultipartFile file = new MockMultipartFile("file", "catalogo.csv", "text/csv",
+            csv.getBytes(StandardCharsets.UTF_8));
+
+        ImportJobDTO job = awaitFinished(importService.startImport(file, null).getJobId());
+
+        assertEquals(ImportJobDTO.Status.COMPLETED, job.getStatus(), job::getMessage);
+        assertEquals(2, job.getImported());
+        assertEquals(2, job.getRejected());
+        assertEquals(1, productRepository.findByNameContainingIgnoreCase("portatil importado").size());
+        assertEquals(1, productRepository.findByNameContainingIgnoreCase("raton importado").size());
+        assertEquals(1, productRepository.findByNameContainingIgnoreCase("teclado importado").size());
+    }
+
+    private ImportJobDTO awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (true) {
+            ImportJobDTO job = importService.getJob(jobId);
+            if (job.getStatus() == ImportJobDTO.Status.COMPLETED || job.getStatus() == ImportJobDTO.Status.FAILED) {
+                return job;
+            }
+            assertTrue(System.nanoTime() < deadline, "La importación no terminó a tiempo");
+            Thread.sleep(20);
+        }
+    }
+}
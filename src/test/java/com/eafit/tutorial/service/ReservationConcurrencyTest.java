@@ -0,0 +1,203 @@
+package com.eafit.tutorial.service;
+
+import com.eafit.tutorial.Artifact.products_api.ArtifactProductsApiApplication;
+import com.eafit.tutorial.dto.ReservationDTO;
+import com.eafit.tutorial.dto.ReservationDTO.Status;
+import com.eafit.tutorial.exception.InsufficientStockException;
+import com.eafit.tutorial.exception.ReservationStateException;
+import com.eafit.tutorial.model.Product;
+import com.eafit.tutorial.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Reservas, confirmaciones, liberaciones y caducidades concurrentes sobre un
+ * mismo producto: nunca se reserva más de lo que hay y el stock guardado
+ * cuadra exactamente con las unidades confirmadas.
+ */
+@SpringBootTest(classes = ArtifactProductsApiApplication.class,
+                properties = {"spring.jpa.show-sql=false", "logging.level.com.eafit.tutorial=WARN",
+                              "products.reservations.tick=PT0.01S",
+                              "products.reservations.flush-interval=PT0.05S"})
+class ReservationConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void contendedProductGivesOutExactlyItsStock() throws Exception {
+        Long id = createProduct("Reserva disputada", 50);
+        Queue<String> held = new ConcurrentLinkedQueue<>();
+
+        runConcurrently(() -> {
+            while (true) {
+                try {
+                    held.add(reservationService.reserve(id, 1, null).getReservationId());
+                } catch (InsufficientStockException e) {
+                    return;
+                }
+            }
+        });
+
+        assertEquals(50, held.size());
+        assertEquals(0, reservationService.getAvailability(id).getAvailable());
+        held.forEach(reservationService::confirm);
+        await(() -> stockOf(id) == 0, "El stock no llegó a 0");
+    }
+
+    @Test
+    void mixedOperationsKeepTheStockExact() throws Exception {
+        Long id = createProduct("Reserva mezclada", 2000);
+        AtomicInteger confirmedUnits = new AtomicInteger();
+        AtomicInteger expiredBeforeConfirm = new AtomicInteger();
+
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 200; i++) {
+                boolean shortLived = random.nextInt(5) == 0;
+                ReservationDTO reservation;
+                try {
+                    reservation = reservationService.reserve(id, random.nextInt(1, 4),
+                        shortLived ? Duration.ofMillis(20) : Duration.ofMinutes(5));
+                } catch (InsufficientStockException e) {
+                    continue;
+                }
+                if (shortLived) {
+                    // Se deja caducar
+                    continue;
+                }
+                try {
+                    if (random.nextBoolean()) {
+                        reservationService.confirm(reservation.getReservationId());
+                        confirmedUnits.addAndGet(reservation.getQuantity());
+                    } else {
+                        reservationService.release(reservation.getReservationId());
+                    }
+                } catch (ReservationStateException e) {
+                    expiredBeforeConfirm.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(0, expiredBeforeConfirm.get());
+        assertTrue(confirmedUnits.get() > 0);
+        await(() -> reservationService.getAvailability(id).getReserved() == 0, "Quedaron reservas sin caducar");
+        await(() -> stockOf(id) == 2000 - confirmedUnits.get(), "El stock guardado no cuadra");
+        assertEquals(2000 - confirmedUnits.get(), reservationService.getAvailability(id).getAvailable());
+    }
+
+    @Test
+    void expiredReservationCannotBeConfirmed() throws Exception {
+        Long id = createProduct("Reserva caducada", 5);
+        ReservationDTO reservation = reservationService.reserve(id, 5, Duration.ofMillis(30));
+
+        await(() -> reservationService.getReservation(reservation.getReservationId()).getStatus() == Status.EXPIRED,
+            "La reserva no caducó");
+        assertThrows(ReservationStateException.class, () -> reservationService.confirm(reservation.getReservationId()));
+        assertEquals(5, reservationService.getAvailability(id).getAvailable());
+    }
+
+    @Test
+    void confirmationWithoutStockInTheTableFailsInsteadOfClamping() throws Exception {
+        Long id = createProduct("Reserva sin stock", 10);
+        ReservationDTO reservation = reservationService.reserve(id, 5, null);
+        double failedBefore = outcome("failed");
+        // Cambio por fuera del servicio, sin invalidación: el libro sigue creyendo que hay 10
+        jdbcTemplate.update("UPDATE products SET stock = 2 WHERE id = ?", id);
+
+        reservationService.confirm(reservation.getReservationId());
+
+        await(() -> reservationService.getReservation(reservation.getReservationId()).getStatus() == Status.FAILED,
+            "La confirmación no falló");
+        assertEquals(2, stockOf(id));
+        assertEquals(failedBefore + 1, outcome("failed"));
+    }
+
+    @Test
+    void idleLedgersAreEvicted() throws Exception {
+        Long id = createProduct("Reserva efímera", 3);
+        ReservationDTO reservation = reservationService.reserve(id, 1, null);
+        reservationService.release(reservation.getReservationId());
+
+        await(() -> meterRegistry.get("products.reservations.ledgers").gauge().value() == 0,
+            "Los libros sin reservas siguen en memoria");
+        // Un libro nuevo vuelve a leer el producto
+        assertEquals(3, reservationService.getAvailability(id).getAvailable());
+    }
+
+    private Long createProduct(String name, int stock) {
+        return productService.createProduct(new Product(name, null, new BigDecimal("15.00"), "Ropa", stock)).getId();
+    }
+
+    private int stockOf(Long id) {
+        return productRepository.findById(id).orElseThrow().getStock();
+    }
+
+    private double outcome(String outcome) {
+        return meterRegistry.get("products.reservations").tag("outcome", outcome).counter().count();
+    }
+
+    private static void runConcurrently(Runnable task) throws InterruptedException {
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    task.run();
+                } catch (Throwable e) {
+                    unexpected.add(e);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES), "Las operaciones no terminaron a tiempo");
+        assertTrue(unexpected.isEmpty(), () -> "Errores inesperados: " + unexpected);
+    }
+
+    private static void await(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail(message);
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.eafit.tutorial.service;
+
+import com.eafit.tutorial.Artifact.products_api.ArtifactProductsApiApplication;
+import com.eafit.tutorial.dto.ReservationDTO;
+import com.eafit.tutorial.exception.InsufficientStockException;
+import com.eafit.tutorial.model.Product;
+import com.eafit.tutorial.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Muchos pedidos concurrentes sobre productos comunes, con las líneas en orden
+ * aleatorio: ningún interbloqueo ni error distinto de stock insuficiente, y el
+ * stock final cuadra exactamente con los pedidos aceptados (todo o nada).
+ * Además, un UPDATE que se queda sin filas tras la comprobación deshace el
+ * pedido entero, y las unidades reservadas no se venden.
+ */
+@SpringBootTest(classes = ArtifactProductsApiApplication.class,
+                properties = {"spring.jpa.show-sql=false", "logging.level.com.eafit.tutorial=WARN"})
+@AutoConfigureMockMvc
+class StockDecrementConcurrencyTest {
+
+    private static final int PRODUCTS = 12;
+    private static final int INITIAL_STOCK = 400;
+    private static final int THREADS = 16;
+    private static final int ORDERS_PER_THREAD = 150;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @MockitoSpyBean
+    private ReservationService reservationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void concurrentOverlappingOrdersApplyAllOrNothing() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product("Articulo concurrente " + i, null, new BigDecimal("20.00"), "Ropa", INITIAL_STOCK);
+            ids.add(productService.createProduct(product).getId());
+        }
+
+        AtomicIntegerArray applied = new AtomicIntegerArray(PRODUCTS);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                    for (int o = 0; o < ORDERS_PER_THREAD; o++) {
+                        List<Integer> indexes = new ArrayList<>();
+                        for (int i = 0; i < PRODUCTS; i++) {
+                            indexes.add(i);
+                        }
+                        Collections.shuffle(indexes, random);
+                        Map<Long, Integer> order = new LinkedHashMap<>();
+                        for (int index : indexes.subList(0, random.nextInt(2, 6))) {
+                            order.put(ids.get(index), random.nextInt(1, 4));
+                        }
+                        try {
+                            productService.decrementStock(order);
+                            accepted.incrementAndGet();
+                            order.forEach((id, quantity) -> applied.addAndGet(ids.indexOf(id), quantity));
+                        } catch (InsufficientStockException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                } catch (Throwable e) {
+                    unexpected.add(e);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES), "Los pedidos no terminaron a tiempo");
+
+        assertTrue(unexpected.isEmpty(), () -> "Errores inesperados: " + unexpected);
+        assertTrue(accepted.get() > 0 && rejected.get() > 0,
+            () -> "Se esperaban pedidos aceptados y rechazados: " + accepted + " / " + rejected);
+        for (int i = 0; i < PRODUCTS; i++) {
+            int stock = productRepository.findById(ids.get(i)).orElseThrow().getStock();
+            assertTrue(stock >= 0);
+            assertEquals(INITIAL_STOCK - applied.get(i), stock, "Stock del producto " + ids.get(i));
+        }
+    }
+
+    @Test
+    void updateThatFindsNoStockAfterThePreCheckRollsBackTheWholeOrder() {
+        Long first = create("Articulo carrera uno", 10);
+        Long second = create("Articulo carrera dos", 10);
+        Long last = create("Articulo carrera tres", 10);
+        doAnswer(invocation -> {
+            // Una escritura se cuela entre la comprobación previa y los UPDATE y deja la fila sin stock
+            jdbcTemplate.update("UPDATE products SET stock = 0 WHERE id = ?", last);
+            return invocation.callRealMethod();
+        }).when(reservationService).holdForOrder(eq(last), anyInt(), anyInt());
+
+        // Cantidades distintas: un UPDATE por línea, y el de la última no encuentra stock
+        Map<Long, Integer> order = Map.of(first, 1, second, 2, last, 3);
+        assertThrows(InsufficientStockException.class, () -> productService.decrementStock(order));
+
+        // Los UPDATE anteriores se deshacen con el resto de la transacción
+        for (Long id : order.keySet()) {
+            assertEquals(10, productRepository.findById(id).orElseThrow().getStock(), "Stock del producto " + id);
+        }
+    }
+
+    @Test
+    void lineThatRanShortInASharedUpdateIsTheOneReported() {
+        Long first = create("Articulo grupo uno", 10);
+        Long second = create("Articulo grupo dos", 10);
+        Long last = create("Articulo grupo tres", 10);
+        doAnswer(invocation -> {
+            // Solo la línea del medio se queda corta tras la comprobación previa
+            jdbcTemplate.update("UPDATE products SET stock = 1 WHERE id = ?", second);
+            return invocation.callRealMethod();
+        }).when(reservationService).holdForOrder(eq(second), anyInt(), anyInt());
+
+        // Misma cantidad: las tres líneas van en un único UPDATE
+        Map<Long, Integer> order = Map.of(first, 2, second, 2, last, 2);
+        InsufficientStockException error =
+            assertThrows(InsufficientStockException.class, () -> productService.decrementStock(order));
+
+        assertEquals(new InsufficientStockException(second, 2, 1).getMessage(), error.getMessage());
+        for (Long id : List.of(first, last)) {
+            assertEquals(10, productRepository.findById(id).orElseThrow().getStock(), "Stock del producto " + id);
+        }
+    }
+
+    @Test
+    void reservedUnitsCannotBeOrdered() throws Exception {
+        Long id = create("Articulo reservado", 10);
+        ReservationDTO reservation = reservationService.reserve(id, 4, null);
+
+        mockMvc.perform(post("/api/v1/products/stock/decrement")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(order(id, 7)))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.data.errorCode").value(InsufficientStockException.ERROR_CODE));
+        assertEquals(10, productRepository.findById(id).orElseThrow().getStock());
+
+        mockMvc.perform(post("/api/v1/products/stock/decrement")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(order(id, 6)))
+            .andExpect(status().isOk());
+        assertEquals(4, productRepository.findById(id).orElseThrow().getStock());
+
+        // Lo vendido tampoco se puede reservar ya; la reserva sigue valiendo
+        assertThrows(InsufficientStockException.class, () -> reservationService.reserve(id, 1, null));
+        assertEquals(0, reservationService.getAvailability(id).getAvailable());
+        reservationService.release(reservation.getReservationId());
+        assertEquals(4, reservationService.getAvailability(id).getAvailable());
+    }
+
+    private Long create(String name, int stock) {
+        return productService.createProduct(new Product(name, null, new BigDecimal("20.00"), "Ropa", stock)).getId();
+    }
+
+    private static String order(Long id, int quantity) {
+        return "{\"items\": [{\"productId\": " + id + ", \"quantity\": " + quantity + "}]}";
+    }
+}
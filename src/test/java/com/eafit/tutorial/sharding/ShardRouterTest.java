@@ -0,0 +1,59 @@
+package com.eafit.tutorial.sharding;
+
+import com.eafit.tutorial.model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ShardRouterTest {
+
+    @Test
+    void categoryRoutingIgnoresCaseAndSurroundingSpaces() {
+        ShardRouter router = new ShardRouter(4, 64);
+        int shard = router.shardForCategory("Libros");
+        assertEquals(shard, router.shardForCategory("  LIBROS "));
+        assertEquals(shard, router.shardForCategory("libros"));
+    }
+
+    @Test
+    void interleavedIdsMapBackToTheirShard() {
+        ShardRouter router = new ShardRouter(4, 64);
+        for (int shard = 0; shard < 4; shard++) {
+            long id = router.nextIdAfter(shard, 0);
+            for (int k = 0; k < 3; k++) {
+                assertEquals(shard, router.homeShardOfId(id));
+                id = router.nextIdAfter(shard, id);
+            }
+        }
+        assertEquals(131, router.nextIdAfter(2, 67));
+        assertEquals(131, router.nextIdAfter(2, 100));
+        assertEquals(-1, router.homeShardOfId(5));
+        assertEquals(-1, router.homeShardOfId(0));
+        assertThrows(IllegalArgumentException.class, () -> new ShardRouter(65, 64));
+    }
+
+    @Test
+    void mergeComparatorMatchesOrderByWithIdTieBreaker() {
+        List<Product> products = new ArrayList<>(List.of(
+            product(3L, "b", "10.00"), product(1L, "a", "20.00"),
+            product(2L, "c", "10.00"), product(4L, "d", null)));
+
+        products.sort(ShardedProductRepository.comparator(Sort.by(Sort.Direction.DESC, "price").and(Sort.by("id"))));
+        assertEquals(List.of(1L, 2L, 3L, 4L), products.stream().map(Product::getId).toList());
+
+        products.sort(ShardedProductRepository.comparator(Sort.by("price", "id")));
+        assertEquals(List.of(4L, 2L, 3L, 1L), products.stream().map(Product::getId).toList());
+    }
+
+    private static Product product(Long id, String name, String price) {
+        Product product = new Product(name, null, price == null ? null : new BigDecimal(price), "Hogar", 1);
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,273 @@
+package com.eafit.tutorial.sharding;
+
+import com.eafit.tutorial.Artifact.products_api.ArtifactProductsApiApplication;
+import com.eafit.tutorial.dto.ImportJobDTO;
+import com.eafit.tutorial.dto.ReservationDTO.Status;
+import com.eafit.tutorial.exception.InsufficientStockException;
+import com.eafit.tutorial.model.Product;
+import com.eafit.tutorial.repository.ProductRepository;
+import com.eafit.tutorial.service.ProductImportService;
+import com.eafit.tutorial.service.ProductService;
+import com.eafit.tutorial.service.ReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Consultas repartidas sobre cuatro H2: la mezcla, el orden y la paginación
+ * coinciden con los de una sola tabla con el mismo contenido. Los pedidos y
+ * las reservas confirmadas se descuentan en la transacción de su shard, y lo
+ * importado va al shard de su categoría.
+ */
+@SpringBootTest(classes = ArtifactProductsApiApplication.class,
+                properties = {"spring.jpa.show-sql=false", "logging.level.com.eafit.tutorial=WARN",
+                              "products.sharding.enabled=true", "products.archive.enabled=false",
+                              "products.sharding.urls=jdbc:h2:mem:sharded-test-0;DB_CLOSE_DELAY=-1,"
+                                  + "jdbc:h2:mem:sharded-test-1;DB_CLOSE_DELAY=-1,"
+                                  + "jdbc:h2:mem:sharded-test-2;DB_CLOSE_DELAY=-1,"
+                                  + "jdbc:h2:mem:sharded-test-3;DB_CLOSE_DELAY=-1"})
+class ShardedProductRepositoryTest {
+
+    private static final List<String> CATEGORIES = List.of(
+        "Libros", "Hogar", "Ropa", "Deportes", "Juguetes", "Jardin", "Musica", "Cine");
+
+    /** Orden de referencia escrito a mano: precio descendente y después ID */
+    private static final Comparator<Product> PRICE_DESC_THEN_ID =
+        Comparator.comparing(Product::getPrice).reversed().thenComparing(Product::getId);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductShards shards;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ProductImportService importService;
+
+    @BeforeEach
+    void seed() {
+        productRepository.deleteAllInBatch();
+        for (int i = 0; i < 40; i++) {
+            String category = CATEGORIES.get(i % CATEGORIES.size());
+            // Precios repetidos para que el desempate por ID cuente
+            BigDecimal price = BigDecimal.valueOf(10 + (i * 7) % 13);
+            Product product = new Product("Producto shard " + i, i % 2 == 0 ? "par" : "impar", price, category, i);
+            productRepository.save(product);
+        }
+    }
+
+    @Test
+    void productsAreSpreadAcrossShards() {
+        Set<Integer> used = new HashSet<>();
+        for (ProductShard shard : shards.all()) {
+            if (shard.read(r -> r.count()) > 0) {
+                used.add(shard.index());
+            }
+        }
+        assertTrue(used.size() >= 2, () -> "Solo se usaron los shards " + used);
+        assertEquals(40, productRepository.count());
+    }
+
+    @Test
+    void pagesMatchASingleTableOrder() {
+        List<Long> expected = everyShardsRows().stream().sorted(PRICE_DESC_THEN_ID).map(Product::getId).toList();
+
+        List<Long> paged = new ArrayList<>();
+        for (int page = 0; ; page++) {
+            Page<Product> result = productRepository.findAll(PageRequest.of(page, 7, Sort.by(Sort.Direction.DESC, "price")));
+            assertEquals(40, result.getTotalElements());
+            assertEquals(6, result.getTotalPages());
+            result.forEach(product -> paged.add(product.getId()));
+            if (!result.hasNext()) {
+                break;
+            }
+        }
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    void unpagedAndSortedListsAreMerged() {
+        List<Long> byId = everyShardsRows().stream().map(Product::getId).sorted().toList();
+        assertEquals(byId, productRepository.findAll().stream().map(Product::getId).toList());
+
+        List<Long> byPrice = everyShardsRows().stream().sorted(PRICE_DESC_THEN_ID).map(Product::getId).toList();
+        assertEquals(byPrice, productRepository.findAll(Sort.by(Sort.Direction.DESC, "price"))
+            .stream().map(Product::getId).toList());
+        assertEquals(byPrice, productRepository.findAll(Pageable.unpaged(Sort.by(Sort.Direction.DESC, "price")))
+            .stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void fluentQueryByExampleSpansEveryShard() {
+        Example<Product> evens = Example.of(probe("par"),
+            ExampleMatcher.matching().withIgnorePaths("active"));
+        List<Product> expected = everyShardsRows().stream()
+            .filter(product -> "par".equals(product.getDescription()))
+            .sorted(PRICE_DESC_THEN_ID)
+            .toList();
+
+        long count = productRepository.findBy(evens, query -> query.count());
+        boolean exists = productRepository.findBy(evens, query -> query.exists());
+        assertEquals(20, count);
+        assertTrue(exists);
+
+        List<Product> top3 = productRepository.findBy(evens,
+            query -> query.sortBy(Sort.by(Sort.Direction.DESC, "price")).limit(3).all());
+        assertEquals(ids(expected.subList(0, 3)), ids(top3));
+
+        Page<Product> second = productRepository.findBy(evens,
+            query -> query.sortBy(Sort.by(Sort.Direction.DESC, "price")).page(PageRequest.of(1, 5)));
+        assertEquals(ids(expected.subList(5, 10)), ids(second.getContent()));
+        assertEquals(20, second.getTotalElements());
+
+        List<String> names = productRepository.findBy(evens,
+            query -> query.sortBy(Sort.by(Sort.Direction.DESC, "price")).as(NameOnly.class).all())
+            .stream().map(NameOnly::getName).toList();
+        assertEquals(expected.stream().map(Product::getName).toList(), names);
+
+        Product first = productRepository.findBy(evens,
+            query -> query.sortBy(Sort.by(Sort.Direction.DESC, "price")).firstValue());
+        assertEquals(expected.get(0).getId(), first.getId());
+    }
+
+    @Test
+    void ordersAreAtomicInTheirShardAndRejectedAcrossShards() {
+        Map<Integer, List<Product>> byShard = everyShardsRows().stream()
+            .filter(product -> product.getStock() >= 2)
+            .collect(Collectors.groupingBy(product -> shards.forCategory(product.getCategory()).index()));
+        List<Product> together = byShard.values().stream().filter(rows -> rows.size() >= 2).findFirst().orElseThrow();
+        Product first = together.get(0);
+        Product second = together.get(1);
+        Product elsewhere = byShard.entrySet().stream()
+            .filter(entry -> entry.getValue() != together)
+            .findFirst().orElseThrow().getValue().get(0);
+
+        productService.decrementStock(Map.of(first.getId(), 1, second.getId(), 2));
+        assertEquals(first.getStock() - 1, stockOf(first));
+        assertEquals(second.getStock() - 2, stockOf(second));
+
+        // Una línea sin stock deshace también la otra, que está en la misma transacción del shard
+        assertThrows(InsufficientStockException.class,
+            () -> productService.decrementStock(Map.of(first.getId(), 1, second.getId(), 1000)));
+        assertEquals(first.getStock() - 1, stockOf(first));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> productService.decrementStock(Map.of(first.getId(), 1, elsewhere.getId(), 1)));
+        assertEquals(first.getStock() - 1, stockOf(first));
+        assertEquals(elsewhere.getStock(), stockOf(elsewhere));
+    }
+
+    @Test
+    void confirmedReservationsAreSavedInTheShardOfTheirProduct() throws InterruptedException {
+        // Un producto con stock de cada shard que tenga alguno
+        Map<Integer, Product> onePerShard = new TreeMap<>();
+        for (Product product : everyShardsRows()) {
+            if (product.getStock() >= 5) {
+                onePerShard.putIfAbsent(shards.forCategory(product.getCategory()).index(), product);
+            }
+        }
+        assertTrue(onePerShard.size() >= 2, () -> "Solo hay productos en los shards " + onePerShard.keySet());
+
+        List<String> confirmed = new ArrayList<>();
+        for (Product product : onePerShard.values()) {
+            String id = reservationService.reserve(product.getId(), 2, null).getReservationId();
+            reservationService.confirm(id);
+            confirmed.add(id);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (onePerShard.values().stream().anyMatch(product -> stockOf(product) != product.getStock() - 2)) {
+            assertTrue(System.nanoTime() < deadline, "Las confirmaciones no llegaron a los shards");
+            Thread.sleep(20);
+        }
+        for (String id : confirmed) {
+            assertEquals(Status.CONFIRMED, reservationService.getReservation(id).getStatus());
+        }
+    }
+
+    @Test
+    void importedRowsLandInTheShardOfTheirCategory() throws InterruptedException {
+        // Categorías alternadas: cada cambio de shard cierra un lote
+        StringBuilder csv = new StringBuilder("name,price,category,stock\n");
+        for (int i = 0; i < 16; i++) {
+            csv.append("Importado shard ").append(i).append(",20.00,")
+                .append(CATEGORIES.get(i % CATEGORIES.size())).append(",3\n");
+        }
+        MockMultipartFile file = new MockMultipartFile("file", "catalogo.csv", "text/csv",
+            csv.toString().getBytes(StandardCharsets.UTF_8));
+
+        String jobId = importService.startImport(file, null).getJobId();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        ImportJobDTO job;
+        while ((job = importService.getJob(jobId)).getStatus() != ImportJobDTO.Status.COMPLETED) {
+            assertNotEquals(ImportJobDTO.Status.FAILED, job.getStatus(), job::getMessage);
+            assertTrue(System.nanoTime() < deadline, "La importación no terminó a tiempo");
+            Thread.sleep(20);
+        }
+
+        assertEquals(16, job.getImported());
+        for (ProductShard shard : shards.all()) {
+            for (Product product : shard.read(r -> r.findByNameContainingIgnoreCase("Importado shard"))) {
+                assertEquals(shard.index(), shards.forCategory(product.getCategory()).index(), product::getName);
+            }
+        }
+        assertEquals(16, productRepository.findByNameContainingIgnoreCase("Importado shard").size());
+    }
+
+    private int stockOf(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getStock();
+    }
+
+    interface NameOnly {
+        String getName();
+    }
+
+    private static Product probe(String description) {
+        Product probe = new Product();
+        probe.setDescription(description);
+        return probe;
+    }
+
+    private List<Product> everyShardsRows() {
+        List<Product> rows = new ArrayList<>();
+        for (ProductShard shard : shards.all()) {
+            rows.addAll(shard.read(r -> r.findAll()));
+        }
+        return rows;
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+}
@@ -0,0 +1,63 @@
+package com.eafit.tutorial.stock;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StockJournalTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_456_000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void entriesSurviveRestartInOrder() throws Exception {
+        try (StockJournal journal = new StockJournal(directory, true)) {
+            journal.append(new PendingStock(1, 10, AT));
+            journal.append(new PendingStock(2, 20, AT));
+            journal.roll();
+            journal.append(new PendingStock(1, 11, AT.plusSeconds(1)));
+        }
+
+        try (StockJournal reopened = new StockJournal(directory, true)) {
+            List<Path> leftover = reopened.closedSegments();
+            assertEquals(2, leftover.size());
+            List<PendingStock> entries = reopened.recover(leftover);
+            assertEquals(List.of(
+                new PendingStock(1, 10, AT),
+                new PendingStock(2, 20, AT),
+                new PendingStock(1, 11, AT.plusSeconds(1))), entries);
+        }
+    }
+
+    @Test
+    void truncatedTailIsIgnored() throws Exception {
+        try (StockJournal journal = new StockJournal(directory, false)) {
+            journal.append(new PendingStock(7, 35, AT));
+        }
+        Path segment;
+        try (StockJournal reopened = new StockJournal(directory, false)) {
+            segment = reopened.closedSegments().get(0);
+        }
+        // Caída a mitad de escritura: "7,3" parecería un stock válido sin el crc
+        String partial = StockJournal.format(new PendingStock(7, 36, AT));
+        Files.writeString(segment, partial.substring(0, partial.length() - 4), StandardCharsets.UTF_8,
+            StandardOpenOption.APPEND);
+
+        try (StockJournal reopened = new StockJournal(directory, false)) {
+            List<PendingStock> entries = reopened.recover(List.of(segment));
+            assertEquals(List.of(new PendingStock(7, 35, AT)), entries);
+        }
+        assertNull(StockJournal.parse("7,3"));
+    }
+}
@@ -0,0 +1,157 @@
+package com.eafit.tutorial.stock;
+
+import com.eafit.tutorial.cache.InvalidationBus;
+import com.eafit.tutorial.cache.LoopbackInvalidationTransport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StockWriteBehindTest {
+
+    @TempDir
+    Path directory;
+
+    private final DataSource dataSource = new DriverManagerDataSource(
+        "jdbc:h2:mem:write-behind-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    private final JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final InvalidationBus bus = new InvalidationBus(new LoopbackInvalidationTransport(), "test",
+        Duration.ofHours(1), 100);
+    private StockWriteBehind writeBehind;
+
+    @AfterEach
+    void shutdown() throws Exception {
+        if (writeBehind != null) {
+            writeBehind.destroy();
+        }
+        bus.destroy();
+        jdbc.execute("SHUTDOWN");
+    }
+
+    @Test
+    void pendingStockIsVisibleAndReachesTheTableOnFlush() throws Exception {
+        insertProduct(1L, 10, LocalDateTime.now().minusMinutes(1));
+        writeBehind = writeBehind();
+
+        writeBehind.write(1L, 7);
+        writeBehind.write(1L, 4);
+
+        assertEquals(4, writeBehind.pendingStock(1L));
+        assertEquals(10, stockOf(1L));
+
+        writeBehind.flush();
+        assertEquals(4, stockOf(1L));
+        assertNull(writeBehind.pendingStock(1L));
+        assertEquals(1.0, counter("products.stock.write-behind.flushed"));
+        assertEquals(0.0, counter("products.stock.write-behind.dropped"));
+    }
+
+    @Test
+    void writeOlderThanTheRowIsDroppedAndCounted() throws Exception {
+        insertProduct(1L, 10, LocalDateTime.now().minusMinutes(1));
+        insertProduct(2L, 20, LocalDateTime.now().minusMinutes(1));
+        writeBehind = writeBehind();
+
+        writeBehind.write(1L, 3);
+        writeBehind.write(2L, 5);
+        // Otra escritura de la fila 1 confirmada después del PATCH
+        jdbc.update("UPDATE products SET updated_at = ? WHERE id = 1",
+            Timestamp.valueOf(LocalDateTime.now().plusSeconds(1)));
+
+        writeBehind.flush();
+
+        assertEquals(10, stockOf(1L));
+        assertEquals(5, stockOf(2L));
+        assertEquals(1.0, counter("products.stock.write-behind.dropped"));
+        assertEquals(1.0, counter("products.stock.write-behind.flushed"));
+    }
+
+    @Test
+    void discardKeepsWritesNewerThanTheFullUpdate() throws Exception {
+        insertProduct(1L, 10, LocalDateTime.now().minusMinutes(1));
+        writeBehind = writeBehind();
+
+        PendingStock before = writeBehind.write(1L, 3);
+        writeBehind.discard(1L, before.writtenAt().minusNanos(1000));
+        assertEquals(3, writeBehind.pendingStock(1L));
+
+        writeBehind.discard(1L, before.writtenAt());
+        assertNull(writeBehind.pendingStock(1L));
+    }
+
+    @Test
+    void failedFlushKeepsThePendingStock() throws Exception {
+        insertProduct(1L, 10, LocalDateTime.now().minusMinutes(1));
+        writeBehind = writeBehind();
+        writeBehind.write(1L, 6);
+
+        jdbc.execute("ALTER TABLE products RENAME TO products_moved");
+        assertThrows(RuntimeException.class, writeBehind::flush);
+        assertEquals(6, writeBehind.pendingStock(1L));
+
+        jdbc.execute("ALTER TABLE products_moved RENAME TO products");
+        writeBehind.flush();
+        assertEquals(6, stockOf(1L));
+    }
+
+    @Test
+    void unflushedWritesAreRecoveredFromTheJournal() throws Exception {
+        insertProduct(1L, 10, LocalDateTime.now().minusMinutes(1));
+        StockJournal journal = new StockJournal(directory, false);
+        journal.append(new PendingStock(1L, 2, LocalDateTime.now()));
+        journal.close();
+        List<Path> previous;
+        try (Stream<Path> files = Files.list(directory)) {
+            previous = files.toList();
+        }
+
+        writeBehind = writeBehind();
+        assertEquals(2, writeBehind.pendingStock(1L));
+        writeBehind.flush();
+        assertEquals(2, stockOf(1L));
+        // El segmento recuperado se borra una vez volcado
+        assertTrue(previous.stream().noneMatch(Files::exists));
+    }
+
+    private StockWriteBehind writeBehind() throws Exception {
+        // Intervalo largo: los volcados se fuerzan con flush()
+        return new StockWriteBehind(new StockJournal(directory, false), jdbc,
+            new TransactionTemplate(new DataSourceTransactionManager(dataSource)), bus, registry,
+            4, Duration.ofHours(1), 1000);
+    }
+
+    private void insertProduct(long id, int stock, LocalDateTime updatedAt) {
+        jdbc.execute("CREATE TABLE IF NOT EXISTS products "
+            + "(id BIGINT PRIMARY KEY, stock INT NOT NULL, updated_at TIMESTAMP NOT NULL)");
+        jdbc.update("INSERT INTO products (id, stock, updated_at) VALUES (?, ?, ?)",
+            id, stock, Timestamp.valueOf(updatedAt));
+    }
+
+    private int stockOf(long id) {
+        return jdbc.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, id);
+    }
+
+    private double counter(String name) {
+        return registry.get(name).counter().count();
+    }
+}
@@ -0,0 +1,74 @@
+package com.eafit.tutorial.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompressedBitmapTest {
+
+    @Test
+    void matchesSortedSetThroughDenseAndSparseTransitions() {
+        Random random = new Random(7);
+        CompressedBitmap a = new CompressedBitmap();
+        CompressedBitmap b = new CompressedBitmap();
+        TreeSet<Long> expectedA = new TreeSet<>();
+        TreeSet<Long> expectedB = new TreeSet<>();
+
+        // Bloque denso (pasa a mapa de bits y vuelve a lista), uno disperso y IDs lejanos
+        for (int i = 0; i < 60_000; i++) {
+            long id = random.nextInt(3) == 0 ? random.nextInt(10_000) : 65_536L * random.nextInt(40) + random.nextInt(65_536);
+            if (random.nextInt(4) == 0) {
+                assertEquals(expectedA.remove(id), a.remove(id));
+            } else {
+                assertEquals(expectedA.add(id), a.add(id));
+            }
+            long other = random.nextInt(3) == 0 ? random.nextInt(10_000) : (1L << 40) + random.nextInt(200_000);
+            assertEquals(expectedB.add(other), b.add(other));
+        }
+        for (long id = 0; id < 9_000; id++) {
+            assertEquals(expectedA.remove(id), a.remove(id));
+        }
+
+        assertEquals(expectedA.size(), a.cardinality());
+        assertEquals(toList(expectedA), toList(a));
+
+        TreeSet<Long> intersection = new TreeSet<>(expectedA);
+        intersection.retainAll(expectedB);
+        assertEquals(toList(intersection), toList(CompressedBitmap.and(a, b)));
+        assertEquals(intersection.size(), CompressedBitmap.andCardinality(a, b));
+        assertEquals(intersection.size(), CompressedBitmap.andCardinality(b, a));
+    }
+
+    @Test
+    void selectPagesInAscendingOrder() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (long id = 0; id < 10_000; id += 2) {
+            bitmap.add(id);
+        }
+        bitmap.add(70_000);
+        bitmap.add(1L << 33);
+
+        assertArrayEquals(new long[] {9_998, 70_000, 1L << 33}, bitmap.select(4_999, 10));
+        assertArrayEquals(new long[] {200, 202}, bitmap.select(100, 2));
+        assertEquals(0, bitmap.select(6_000, 10).length);
+        assertArrayEquals(new long[] {3, 9, 12}, CompressedBitmap.of(12, 3, 9, 3).select(0, 10));
+    }
+
+    private static List<Long> toList(Iterable<Long> ids) {
+        List<Long> list = new ArrayList<>();
+        ids.forEach(list::add);
+        return list;
+    }
+
+    private static List<Long> toList(CompressedBitmap bitmap) {
+        List<Long> list = new ArrayList<>();
+        bitmap.forEach(list::add);
+        return list;
+    }
+}
@@ -0,0 +1,66 @@
+package com.eafit.tutorial.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvProductReaderTest {
+
+    @Test
+    void readsQuotedFieldsInAnyColumnOrder() throws IOException {
+        String csv = "stock,Name,price,category,description\r\n"
+            + "5,\"Lampara, grande\",20.50,Hogar,\"Dice \"\"hola\"\"\nen dos líneas\"\r\n"
+            + "\n"
+            + "7,Balon,15,Deportes,\n";
+        try (CsvProductReader reader = new CsvProductReader(new StringReader(csv), 1000)) {
+            ProductRecordReader.Row first = reader.next();
+            assertTrue(first.isValid());
+            assertEquals(1, first.number());
+            assertEquals("Lampara, grande", first.product().getName());
+            assertEquals("Dice \"hola\"\nen dos líneas", first.product().getDescription());
+            assertEquals(new BigDecimal("20.50"), first.product().getPrice());
+            assertEquals(5, first.product().getStock());
+
+            ProductRecordReader.Row second = reader.next();
+            assertEquals(2, second.number());
+            assertNull(second.product().getDescription());
+
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void reportsUnparseableAndOversizedRecords() throws IOException {
+        String csv = "name,price,category,stock\n"
+            + "Termo,abc,Hogar,x\n"
+            + "Cojin," + "9".repeat(200) + ",Hogar,1\n"
+            + "Tapete,12.00,Hogar,3\n";
+        try (CsvProductReader reader = new CsvProductReader(new StringReader(csv), 100)) {
+            ProductRecordReader.Row invalid = reader.next();
+            assertFalse(invalid.isValid());
+            assertEquals(2, invalid.errors().size());
+
+            ProductRecordReader.Row tooLong = reader.next();
+            assertFalse(tooLong.isValid());
+            assertTrue(tooLong.errors().containsKey("record"));
+
+            ProductRecordReader.Row valid = reader.next();
+            assertEquals(3, valid.number());
+            assertEquals("Tapete", valid.product().getName());
+        }
+    }
+
+    @Test
+    void rejectsHeaderWithoutRequiredColumns() {
+        assertThrows(IOException.class,
+            () -> new CsvProductReader(new StringReader("name,price\nA,1\n"), 1000));
+    }
+}
@@ -0,0 +1,70 @@
+package com.eafit.tutorial.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ForbiddenWordMatcherTest {
+
+    @Test
+    void reportsOverlappingAndNestedTerms() {
+        ForbiddenWordMatcher matcher = ForbiddenWordMatcher.of(List.of("he", "she", "his", "hers"));
+
+        assertEquals(List.of("she", "he", "hers"), matcher.findMatches("ushers"));
+        assertTrue(matcher.matches("USHERS"));
+        assertFalse(matcher.matches("usual"));
+    }
+
+    @Test
+    void ignoresCaseAndAccents() {
+        ForbiddenWordMatcher matcher = ForbiddenWordMatcher.of(List.of("Prueba", "demó"));
+
+        assertEquals(List.of("prueba", "demo"), matcher.findMatches("Producto PRUÉBA de Demo"));
+        assertTrue(matcher.matches("ｄｅｍｏ"));
+    }
+
+    @Test
+    void emptyListMatchesNothing() {
+        assertFalse(ForbiddenWordMatcher.of(List.of()).matches("test"));
+        assertEquals(List.of(), ForbiddenWordMatcher.of(List.of(" ")).findMatches("test"));
+    }
+
+    @Test
+    void agreesWithNaiveSearch() {
+        Random random = new Random(42);
+        List<String> terms = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            terms.add(randomWord(random, 1 + random.nextInt(4)));
+        }
+        ForbiddenWordMatcher matcher = ForbiddenWordMatcher.of(terms);
+
+        for (int i = 0; i < 500; i++) {
+            String text = randomWord(random, random.nextInt(30));
+
+            Set<String> expected = new LinkedHashSet<>();
+            for (String term : terms) {
+                if (text.contains(term)) {
+                    expected.add(term);
+                }
+            }
+            assertEquals(expected, new LinkedHashSet<>(matcher.findMatches(text)), text);
+            assertEquals(!expected.isEmpty(), matcher.matches(text), text);
+        }
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(4)));
+        }
+        return word.toString();
+    }
+}
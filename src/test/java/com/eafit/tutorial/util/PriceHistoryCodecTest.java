@@ -0,0 +1,51 @@
+package com.eafit.tutorial.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceHistoryCodecTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void roundTripsDeltasIncludingDecreasesAndExtremes() {
+        long[][] changes = {
+            {START, 129_999},
+            {START + 3_600_000, 119_999},
+            {START + 3_600_000, 119_999},
+            {START + 86_400_000L * 400, 1},
+            {START + 86_400_000L * 400 + 1, Long.MAX_VALUE / 4}
+        };
+        byte[] data = new byte[0];
+        long at = START;
+        long cents = 0;
+        for (long[] change : changes) {
+            data = PriceHistoryCodec.append(data, change[0] - at, change[1] - cents);
+            at = change[0];
+            cents = change[1];
+        }
+
+        List<long[]> decoded = new ArrayList<>();
+        PriceHistoryCodec.decode(data, START, (atMillis, value) -> decoded.add(new long[] {atMillis, value}));
+
+        assertEquals(changes.length, decoded.size());
+        for (int i = 0; i < changes.length; i++) {
+            assertEquals(changes[i][0], decoded.get(i)[0]);
+            assertEquals(changes[i][1], decoded.get(i)[1]);
+        }
+    }
+
+    @Test
+    void hourlyPriceChangesTakeFewBytes() {
+        byte[] data = new byte[0];
+        for (int i = 0; i < 100; i++) {
+            data = PriceHistoryCodec.append(data, 3_600_000, i % 2 == 0 ? -500 : 500);
+        }
+        assertTrue(data.length <= 100 * 6, "Tamaño codificado: " + data.length);
+    }
+}
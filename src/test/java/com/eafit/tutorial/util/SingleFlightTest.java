@@ -0,0 +1,160 @@
+package com.eafit.tutorial.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    private final SingleFlight<String, Integer> flight = new SingleFlight<>();
+    private final ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersForTheSameKeyShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<Integer>> results = callConcurrently("k", () -> {
+            loads.incrementAndGet();
+            await(release);
+            return 42;
+        });
+        waitUntilJoined();
+        release.countDown();
+
+        for (Future<Integer> result : results) {
+            assertEquals(42, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(0, flight.inFlightCount());
+    }
+
+    @Test
+    void failureReachesEveryWaiter() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("fallo de carga");
+
+        List<Future<Integer>> results = callConcurrently("k", () -> {
+            loads.incrementAndGet();
+            await(release);
+            throw failure;
+        });
+        waitUntilJoined();
+        release.countDown();
+
+        for (Future<Integer> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class,
+                () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+            assertSame(failure, e.getCause());
+        }
+        assertEquals(1, loads.get());
+        assertEquals(0, flight.inFlightCount());
+    }
+
+    @Test
+    void completedKeyIsLoadedAgain() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(1, flight.execute("k", loads::incrementAndGet));
+        assertEquals(2, flight.execute("k", loads::incrementAndGet));
+        assertEquals(0, flight.inFlightCount());
+    }
+
+    @Test
+    void failedKeyIsLoadedAgain() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> flight.execute("k", () -> {
+            loads.incrementAndGet();
+            throw new IllegalStateException("fallo de carga");
+        }));
+        assertEquals(2, flight.execute("k", loads::incrementAndGet));
+    }
+
+    @Test
+    void callersAfterInvalidationStartANewLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Integer> first = executor.submit(() -> flight.execute("k", () -> {
+            loads.incrementAndGet();
+            await(release);
+            return 1;
+        }));
+        waitUntil(() -> loads.get() == 1);
+
+        flight.invalidateAll();
+        assertEquals(2, flight.execute("k", () -> {
+            loads.incrementAndGet();
+            return 2;
+        }));
+        release.countDown();
+        assertEquals(1, first.get(5, TimeUnit.SECONDS));
+    }
+
+    private List<Future<Integer>> callConcurrently(String key, Supplier<Integer> supplier) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return flight.execute(key, supplier);
+            }));
+        }
+        start.countDown();
+        return results;
+    }
+
+    /**
+     * Espera a que todos los hilos estén dentro de execute: el que carga y los que esperan
+     */
+    private void waitUntilJoined() throws InterruptedException {
+        waitUntil(() -> executor.getActiveCount() == CALLERS
+            && flight.inFlightCount() == 1);
+        // Margen para que los que esperan lleguen a putIfAbsent tras quedar activos
+        Thread.sleep(100);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "La condición no se cumplió a tiempo");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
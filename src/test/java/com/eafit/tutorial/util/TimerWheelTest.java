@@ -0,0 +1,45 @@
+package com.eafit.tutorial.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerWheelTest {
+
+    @Test
+    void tasksRunAfterTheirDelayInDeadlineOrder() throws Exception {
+        try (TimerWheel wheel = new TimerWheel("test-wheel", Duration.ofMillis(10), 8)) {
+            List<String> fired = new CopyOnWriteArrayList<>();
+            CountDownLatch done = new CountDownLatch(3);
+            long start = System.nanoTime();
+            // 250 ms da más de una vuelta a una rueda de 8 casillas de 10 ms
+            wheel.schedule(() -> { fired.add("c"); done.countDown(); }, Duration.ofMillis(250));
+            wheel.schedule(() -> { fired.add("a"); done.countDown(); }, Duration.ofMillis(20));
+            wheel.schedule(() -> { fired.add("b"); done.countDown(); }, Duration.ofMillis(60));
+
+            assertTrue(done.await(2, TimeUnit.SECONDS));
+            assertEquals(List.of("a", "b", "c"), fired);
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(250));
+        }
+    }
+
+    @Test
+    void cancelledTasksDoNotRun() throws Exception {
+        try (TimerWheel wheel = new TimerWheel("test-wheel", Duration.ofMillis(10), 8)) {
+            List<String> fired = new CopyOnWriteArrayList<>();
+            CountDownLatch marker = new CountDownLatch(1);
+            wheel.schedule(() -> fired.add("cancelled"), Duration.ofMillis(30)).cancel();
+            wheel.schedule(marker::countDown, Duration.ofMillis(60));
+
+            assertTrue(marker.await(2, TimeUnit.SECONDS));
+            assertEquals(List.of(), fired);
+        }
+    }
+}